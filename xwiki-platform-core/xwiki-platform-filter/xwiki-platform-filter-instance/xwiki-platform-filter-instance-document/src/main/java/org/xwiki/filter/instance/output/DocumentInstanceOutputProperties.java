@@ -76,6 +76,11 @@ public class DocumentInstanceOutputProperties extends InstanceOutputProperties
      */
     private boolean stoppedWhenSaveFail = true;
 
+    /**
+     * @see #getBatchSize()
+     */
+    private int batchSize = 100;
+
     /**
      * @return The base reference to use to resolve reference from events
      */
@@ -237,4 +242,26 @@ public void setStoppedWhenSaveFail(boolean stoppedWhenSaveFail)
     {
         this.stoppedWhenSaveFail = stoppedWhenSaveFail;
     }
+
+    /**
+     * @return The maximum number of documents saved in the same transaction
+     * @since 9.7RC1
+     */
+    @PropertyName("Batch size")
+    @PropertyDescription("The maximum number of documents saved in the same transaction."
+        + " If a document of the batch fail to be saved none of the documents of the batch is saved.")
+    public int getBatchSize()
+    {
+        return this.batchSize;
+    }
+
+    /**
+     * @param batchSize The maximum number of documents saved in the same transaction, 1 or less to save each document
+     *            in its own transaction
+     * @since 9.7RC1
+     */
+    public void setBatchSize(int batchSize)
+    {
+        this.batchSize = batchSize;
+    }
 }
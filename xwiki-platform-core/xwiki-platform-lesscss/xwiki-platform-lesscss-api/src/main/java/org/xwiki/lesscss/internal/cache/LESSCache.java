@@ -42,6 +42,18 @@
      */
     T get(LESSResourceReference lessResourceReference, SkinReference skin, ColorThemeReference colorTheme);
 
+    /**
+     * Get the object which was in the cache before it has been cleared, if it's been kept to be used while the new
+     * object is being computed.
+     *
+     * @param lessResourceReference reference of the code to compile
+     * @param skin reference of the skin
+     * @param colorTheme reference of the color theme
+     * @return the previous object or null if there is none
+     * @since 9.7RC1
+     */
+    T getStale(LESSResourceReference lessResourceReference, SkinReference skin, ColorThemeReference colorTheme);
+
     /**
      * Add an object in the cache.
      *
@@ -48,6 +48,26 @@ public int getMaximumSimultaneousCompilations()
         return configurationSource.getProperty(CONFIGURATION_PREFIX + "maximumSimultaneousCompilations", 4);
     }
 
+    /**
+     * @return true if the previous compilation result should be used while the LESS resource is compiled again in the
+     *         background after the cache has been cleared (skin or color theme modified, etc.)
+     * @since 9.7RC1
+     */
+    public boolean isBackgroundCompilation()
+    {
+        return configurationSource.getProperty(CONFIGURATION_PREFIX + "backgroundCompilation", true);
+    }
+
+    /**
+     * @return true if the compiled LESS resources should be stored on disk to be reused (and compiled again in the
+     *         background) after a restart
+     * @since 9.7RC1
+     */
+    public boolean isPersistentCache()
+    {
+        return configurationSource.getProperty(CONFIGURATION_PREFIX + "persistentCache", true);
+    }
+
     /**
      *
      * @return whether the LESS compiler should generate inline sourcemaps.
@@ -23,11 +23,13 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 
 import org.xwiki.cache.Cache;
 import org.xwiki.cache.CacheManager;
+import org.xwiki.lesscss.internal.LESSConfiguration;
 import org.xwiki.lesscss.internal.colortheme.ColorThemeReference;
 import org.xwiki.lesscss.resources.LESSResourceReference;
 import org.xwiki.lesscss.internal.skin.SkinReference;
@@ -55,6 +57,14 @@
      */
     protected Cache<T> cache;
 
+    /**
+     * The content which was in the cache before it has been cleared, used while the new content is computed in the
+     * background.
+     *
+     * @since 9.7RC1
+     */
+    protected Map<String, T> staleCache = new ConcurrentHashMap<>();
+
     /**
      * This map stores the list of the cached files keys corresponding to a skin, in order to clear the corresponding
      * cache when a skin is saved.
@@ -76,12 +86,38 @@
     @Inject
     private CacheKeyFactory cacheKeyFactory;
 
+    @Inject
+    private LESSConfiguration lessConfiguration;
+
     private Map<String, String> mutexList = new HashMap<>();
 
     @Override
     public T get(LESSResourceReference lessResourceReference, SkinReference skin, ColorThemeReference colorTheme)
     {
-        return cache.get(cacheKeyFactory.getCacheKey(lessResourceReference, skin, colorTheme, isContextHandled));
+        return cache.get(getCacheKey(lessResourceReference, skin, colorTheme));
+    }
+
+    @Override
+    public T getStale(LESSResourceReference lessResourceReference, SkinReference skin, ColorThemeReference colorTheme)
+    {
+        if (staleCache.isEmpty()) {
+            return null;
+        }
+
+        return staleCache.get(getCacheKey(lessResourceReference, skin, colorTheme));
+    }
+
+    /**
+     * @param lessResourceReference reference of the code to compile
+     * @param skin reference of the skin
+     * @param colorTheme reference of the color theme
+     * @return the key of the corresponding cache entry
+     * @since 9.7RC1
+     */
+    protected String getCacheKey(LESSResourceReference lessResourceReference, SkinReference skin,
+        ColorThemeReference colorTheme)
+    {
+        return cacheKeyFactory.getCacheKey(lessResourceReference, skin, colorTheme, isContextHandled);
     }
 
     @Override
@@ -89,8 +125,9 @@ public void set(LESSResourceReference lessResourceReference, SkinReference skin,
         ColorThemeReference colorTheme, T content)
     {
         // Store the content in the cache
-        String cacheKey = cacheKeyFactory.getCacheKey(lessResourceReference, skin, colorTheme, isContextHandled);
+        String cacheKey = getCacheKey(lessResourceReference, skin, colorTheme);
         cache.set(cacheKey, content);
+        staleCache.remove(cacheKey);
 
         // Add the new key to maps
         registerCacheKey(cachedFilesKeysMapPerSkin, cacheKey, skin);
@@ -122,6 +159,9 @@ private void registerCacheKey(Map<Object, List<String>> cachedFilesKeysMap, Stri
     @Override
     public void clear()
     {
+        for (List<String> cachedFilesKeys : cachedFilesKeysMapPerSkin.values()) {
+            keepStale(cachedFilesKeys);
+        }
         cache.removeAll();
         cachedFilesKeysMapPerSkin.clear();
         cachedFilesKeysMapPerColorTheme.clear();
@@ -135,6 +175,7 @@ private void clearFromCriteria(Map<Object, List<String>> cachedFilesKeysMap, Obj
         if (cachedFilesKeys == null) {
             return;
         }
+        keepStale(cachedFilesKeys);
         // Remove all the cached files corresponding to the cached keys
         for (String cachedFileKey : cachedFilesKeys) {
             cache.remove(cachedFileKey);
@@ -143,6 +184,22 @@ private void clearFromCriteria(Map<Object, List<String>> cachedFilesKeysMap, Obj
         cachedFilesKeysMap.remove(criteria);
     }
 
+    /**
+     * Remember the current content of the passed cache entries so that it can be used while the new content is
+     * computed in the background.
+     */
+    private void keepStale(List<String> cachedFilesKeys)
+    {
+        if (lessConfiguration.isBackgroundCompilation()) {
+            for (String cachedFileKey : cachedFilesKeys) {
+                T content = cache.get(cachedFileKey);
+                if (content != null) {
+                    staleCache.put(cachedFileKey, content);
+                }
+            }
+        }
+    }
+
     @Override
     public void clearFromSkin(SkinReference skin)
     {
@@ -166,7 +223,7 @@ public synchronized Object getMutex(LESSResourceReference lessResourceReference,
         ColorThemeReference colorTheme)
     {
         // The mutex is a string (actually the cache key) to help debugging.
-        String cacheKey = cacheKeyFactory.getCacheKey(lessResourceReference, skin, colorTheme, isContextHandled);
+        String cacheKey = getCacheKey(lessResourceReference, skin, colorTheme);
         String mutex = mutexList.get(cacheKey);
         if (mutex == null) {
             // the mutex is the key, so no extra memory is needed
@@ -67,6 +67,9 @@
     @Inject
     protected Logger logger;
 
+    @Inject
+    protected BackgroundCompilationExecutor backgroundCompilationExecutor;
+
     /**
      * Get the result of the compilation.
      * @param lessResourceReference reference to the LESS content
@@ -113,6 +116,19 @@ public T getResult(LESSResourceReference lessResourceReference, boolean includeS
         // Only one computation is allowed in the same time per color theme, then the waiting threads will be able to
         // use the last result stored in the cache.
         Object mutex = cache.getMutex(lessResourceReference, skinReference, colorThemeReference);
+
+        // If the cache has been cleared (skin or color theme modified, restart, etc.), return the previous result while
+        // the new one is computed in the background, compiling can take several seconds
+        if (!force && !lessContext.isHtmlExport()) {
+            result = cache.getStale(lessResourceReference, skinReference, colorThemeReference);
+            if (result != null) {
+                backgroundCompilationExecutor.execute(getClass().getName() + ':' + mutex,
+                    () -> compile(lessResourceReference, includeSkinStyle, useVelocity, skin, skinReference,
+                        colorThemeReference, mutex));
+                return cloneResult(result);
+            }
+        }
+
         synchronized (mutex) {
 
             // Check if the result is in the cache
@@ -149,6 +165,23 @@ public T getResult(LESSResourceReference lessResourceReference, boolean includeS
         return cloneResult(result);
     }
 
+    private void compile(LESSResourceReference lessResourceReference, boolean includeSkinStyle, boolean useVelocity,
+        String skin, SkinReference skinReference, ColorThemeReference colorThemeReference, Object mutex)
+    {
+        synchronized (mutex) {
+            T result;
+            try {
+                result = compiler.compute(lessResourceReference, includeSkinStyle, useVelocity, true, skin);
+            } catch (LESSCompilerException e) {
+                logger.error("Error during the compilation of the resource [{}].", lessResourceReference, e);
+                result = exceptionAsResult(e);
+            }
+
+            // Replace the previous result
+            cache.set(lessResourceReference, skinReference, colorThemeReference, result);
+        }
+    }
+
     /**
      * Returns a clone of the result to avoid returning the instance stored in the cache. Need to be implemented by
      * subclasses.
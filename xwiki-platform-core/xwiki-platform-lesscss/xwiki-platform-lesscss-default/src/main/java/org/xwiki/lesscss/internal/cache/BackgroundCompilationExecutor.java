@@ -0,0 +1,161 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.lesscss.internal.cache;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.context.ExecutionContext;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.util.AbstractXWikiRunnable;
+import com.xpn.xwiki.web.XWikiRequest;
+import com.xpn.xwiki.web.XWikiServletRequest;
+import com.xpn.xwiki.web.XWikiServletRequestStub;
+import com.xpn.xwiki.web.XWikiServletResponseStub;
+
+/**
+ * Execute LESS compilations in a background thread, with a copy of the context of the request which needed them. Used
+ * to compile again the resources after the cache has been cleared while the requests keep getting the previous
+ * result.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component(roles = BackgroundCompilationExecutor.class)
+@Singleton
+public class BackgroundCompilationExecutor implements Initializable, Disposable
+{
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The compilations which are waiting or running.
+     */
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService executor;
+
+    private class BackgroundCompilation extends AbstractXWikiRunnable
+    {
+        private final String key;
+
+        private final Runnable compilation;
+
+        private XWikiContext xcontext;
+
+        BackgroundCompilation(String key, Runnable compilation, XWikiContext xcontext)
+        {
+            this.key = key;
+            this.compilation = compilation;
+            this.xcontext = xcontext;
+        }
+
+        @Override
+        protected void declareProperties(ExecutionContext executionContext)
+        {
+            this.xcontext.declareInExecutionContext(executionContext);
+            this.xcontext = null;
+        }
+
+        @Override
+        protected void runInternal()
+        {
+            try {
+                this.compilation.run();
+            } catch (Exception e) {
+                logger.error("Failed to compile [{}] in the background.", this.key, e);
+            } finally {
+                pending.remove(this.key);
+            }
+        }
+    }
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        // A single thread: the point is to not make the users wait, not to compile as fast as possible
+        this.executor = Executors.newSingleThreadExecutor(new BasicThreadFactory.Builder()
+            .namingPattern("XWiki LESS background compilation").daemon(true).priority(Thread.MIN_PRIORITY).build());
+    }
+
+    /**
+     * Schedule a compilation, unless the same compilation is already waiting or running.
+     *
+     * @param key the identifier of the compilation
+     * @param compilation the compilation to execute
+     */
+    public void execute(String key, Runnable compilation)
+    {
+        if (this.pending.add(key)) {
+            try {
+                this.executor.execute(new BackgroundCompilation(key, compilation, copyContext()));
+            } catch (Exception e) {
+                this.pending.remove(key);
+                this.logger.warn("Failed to schedule the background compilation of [{}].", key, e);
+            }
+        }
+    }
+
+    private XWikiContext copyContext()
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        // The store session of the current request must not be shared with the background thread
+        xcontext.getWiki().getStore().cleanUp(xcontext);
+
+        XWikiContext copy = xcontext.clone();
+
+        // The request and response will be recycled by the servlet container as soon as the current request ends but
+        // the Velocity code of the LESS resources can use the request parameters (e.g. colorTheme)
+        XWikiRequest request = xcontext.getRequest();
+        if (request != null) {
+            XWikiServletRequestStub requestStub =
+                new XWikiServletRequestStub(xcontext.getURL(), request.getParameterMap());
+            requestStub.setContextPath(request.getContextPath());
+            requestStub.setServerName(request.getServerName());
+            copy.setRequest(new XWikiServletRequest(requestStub));
+        }
+        copy.setResponse(new XWikiServletResponseStub());
+
+        return copy;
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.executor.shutdownNow();
+    }
+}
@@ -19,9 +19,20 @@
  */
 package org.xwiki.lesscss.internal.cache;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
 import org.xwiki.cache.CacheException;
 import org.xwiki.cache.CacheFactory;
 import org.xwiki.cache.CacheManager;
@@ -30,9 +41,17 @@
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
+import org.xwiki.environment.Environment;
+import org.xwiki.lesscss.internal.LESSConfiguration;
+import org.xwiki.lesscss.internal.colortheme.ColorThemeReference;
+import org.xwiki.lesscss.internal.skin.SkinReference;
+import org.xwiki.lesscss.resources.LESSResourceReference;
 
 /**
  * Default implementation for {@link org.xwiki.lesscss.internal.cache.LESSResourcesCache}.
+ * <p>
+ * The compiled resources are also written in the permanent directory. They are loaded as stale content at startup so
+ * that the first requests get them immediately while they are compiled again in the background.
  *
  * @since 6.4M2
  * @version $Id$
@@ -46,9 +65,22 @@ public class DefaultLESSResourcesCache extends AbstractCache<String> implements
      */
     public static final String LESS_FILES_CACHE_ID = "lesscss.skinfiles.cache";
 
+    private static final String PERSISTENT_CACHE_EXTENSION = ".css";
+
     @Inject
     private CacheManager cacheManager;
 
+    @Inject
+    private LESSConfiguration lessConfiguration;
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private Logger logger;
+
+    private File persistentCacheDirectory;
+
     @Override
     public void initialize() throws InitializationException
     {
@@ -60,5 +92,62 @@ public void initialize() throws InitializationException
             throw new InitializationException(
                     String.format("Failed to initialize LESS skin files cache [%s].", LESS_FILES_CACHE_ID), e);
         }
+
+        File permanentDirectory = this.environment.getPermanentDirectory();
+        if (permanentDirectory != null && this.lessConfiguration.isBackgroundCompilation()
+            && this.lessConfiguration.isPersistentCache()) {
+            this.persistentCacheDirectory = new File(permanentDirectory, "cache/lesscss");
+            loadPersistentCache();
+        }
+    }
+
+    private void loadPersistentCache()
+    {
+        File[] files = this.persistentCacheDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(PERSISTENT_CACHE_EXTENSION)) {
+                    try {
+                        // The first line is the cache key
+                        String content = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+                        int index = content.indexOf('\n');
+                        if (index > 0) {
+                            this.staleCache.put(content.substring(0, index), content.substring(index + 1));
+                        }
+                    } catch (IOException e) {
+                        this.logger.warn("Failed to read the compiled LESS resource [{}]: {}", file,
+                            ExceptionUtils.getRootCauseMessage(e));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void set(LESSResourceReference lessResourceReference, SkinReference skin, ColorThemeReference colorTheme,
+        String content)
+    {
+        super.set(lessResourceReference, skin, colorTheme, content);
+
+        if (this.persistentCacheDirectory != null) {
+            String cacheKey = getCacheKey(lessResourceReference, skin, colorTheme);
+            if (!StringUtils.contains(cacheKey, '\n')) {
+                writePersistentCache(cacheKey, content);
+            }
+        }
+    }
+
+    private void writePersistentCache(String cacheKey, String content)
+    {
+        File file = new File(this.persistentCacheDirectory, DigestUtils.md5Hex(cacheKey) + PERSISTENT_CACHE_EXTENSION);
+        File tmpFile = new File(this.persistentCacheDirectory, file.getName() + ".tmp");
+        try {
+            FileUtils.write(tmpFile, cacheKey + '\n' + content, StandardCharsets.UTF_8);
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            this.logger.warn("Failed to store the compiled LESS resource [{}]: {}", cacheKey,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
     }
 }
@@ -27,6 +27,7 @@
 
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.Mockito.when;
 
 /**
@@ -62,4 +63,18 @@ public void generateSourceMaps() throws Exception
         boolean b  = mocker.getComponentUnderTest().isGenerateInlineSourceMaps();
         assertTrue(b);
     }
+
+    @Test
+    public void backgroundCompilation() throws Exception
+    {
+        when(xwikiPropertiesSource.getProperty("lesscss.backgroundCompilation", true)).thenReturn(false);
+        assertFalse(mocker.getComponentUnderTest().isBackgroundCompilation());
+    }
+
+    @Test
+    public void persistentCache() throws Exception
+    {
+        when(xwikiPropertiesSource.getProperty("lesscss.persistentCache", true)).thenReturn(true);
+        assertTrue(mocker.getComponentUnderTest().isPersistentCache());
+    }
 }
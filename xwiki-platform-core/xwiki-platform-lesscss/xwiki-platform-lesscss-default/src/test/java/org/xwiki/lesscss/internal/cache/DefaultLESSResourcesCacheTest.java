@@ -19,19 +19,28 @@
  */
 package org.xwiki.lesscss.internal.cache;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.xwiki.cache.Cache;
 import org.xwiki.cache.CacheFactory;
 import org.xwiki.cache.CacheManager;
 import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.environment.Environment;
+import org.xwiki.lesscss.internal.LESSConfiguration;
 import org.xwiki.lesscss.internal.colortheme.NamedColorThemeReference;
 import org.xwiki.lesscss.internal.resources.LESSSkinFileResourceReference;
 import org.xwiki.lesscss.internal.skin.FSSkinReference;
 import org.xwiki.test.mockito.MockitoComponentMockingRule;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -47,6 +56,9 @@
  */
 public class DefaultLESSResourcesCacheTest
 {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Rule
     public MockitoComponentMockingRule<DefaultLESSResourcesCache> mocker =
             new MockitoComponentMockingRule<>(DefaultLESSResourcesCache.class);
@@ -149,6 +161,58 @@ public void clearFromSkin() throws Exception
         verify(cache, never()).remove("k3");
     }
 
+    @Test
+    public void clearFromSkinKeepsStaleContent() throws Exception
+    {
+        // Mocks
+        LESSConfiguration lessConfiguration = mocker.getInstance(LESSConfiguration.class);
+        when(lessConfiguration.isBackgroundCompilation()).thenReturn(true);
+        when(cache.get("12_lessResource_4_skin_10_colorTheme")).thenReturn("css");
+
+        mocker.getComponentUnderTest().set(createLESSSkinFileResourceReference("lessResource"),
+                new FSSkinReference("skin"), new NamedColorThemeReference("colorTheme"), "css");
+
+        // Test
+        mocker.getComponentUnderTest().clearFromSkin(new FSSkinReference("skin"));
+
+        // Verify
+        verify(cache).remove("12_lessResource_4_skin_10_colorTheme");
+        assertEquals("css", mocker.getComponentUnderTest().getStale(
+                createLESSSkinFileResourceReference("lessResource"), new FSSkinReference("skin"),
+                new NamedColorThemeReference("colorTheme")));
+    }
+
+    @Test
+    public void persistentCache() throws Exception
+    {
+        // Mocks
+        LESSConfiguration lessConfiguration = mocker.getInstance(LESSConfiguration.class);
+        when(lessConfiguration.isBackgroundCompilation()).thenReturn(true);
+        when(lessConfiguration.isPersistentCache()).thenReturn(true);
+        Environment environment = mocker.getInstance(Environment.class);
+        when(environment.getPermanentDirectory()).thenReturn(this.folder.getRoot());
+
+        // Content compiled before the restart
+        File directory = new File(this.folder.getRoot(), "cache/lesscss");
+        FileUtils.write(new File(directory, "previous.css"), "12_lessResource_4_skin_10_colorTheme\nprevious css",
+                StandardCharsets.UTF_8);
+
+        // Test
+        assertEquals("previous css", mocker.getComponentUnderTest().getStale(
+                createLESSSkinFileResourceReference("lessResource"), new FSSkinReference("skin"),
+                new NamedColorThemeReference("colorTheme")));
+
+        mocker.getComponentUnderTest().set(createLESSSkinFileResourceReference("lessResource"),
+                new FSSkinReference("skin"), new NamedColorThemeReference("colorTheme"), "css");
+
+        // Verify
+        assertNull(mocker.getComponentUnderTest().getStale(createLESSSkinFileResourceReference("lessResource"),
+                new FSSkinReference("skin"), new NamedColorThemeReference("colorTheme")));
+        File file = new File(directory, DigestUtils.md5Hex("12_lessResource_4_skin_10_colorTheme") + ".css");
+        assertEquals("12_lessResource_4_skin_10_colorTheme\ncss",
+                FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+    }
+
     @Test
     public void clearFromColorTheme() throws Exception
     {
@@ -25,8 +25,10 @@
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.xwiki.lesscss.compiler.LESSCompilerException;
 import org.xwiki.lesscss.internal.LESSContext;
+import org.xwiki.lesscss.internal.cache.BackgroundCompilationExecutor;
 import org.xwiki.lesscss.internal.cache.LESSResourcesCache;
 import org.xwiki.lesscss.internal.colortheme.ColorThemeReference;
 import org.xwiki.lesscss.internal.colortheme.ColorThemeReferenceFactory;
@@ -143,6 +145,35 @@ public void compileWhenNotInCache() throws Exception
                 eq("compiled output"));
     }
 
+    @Test
+    public void compileWhenStale() throws Exception
+    {
+        // Mocks
+        BackgroundCompilationExecutor backgroundCompilationExecutor =
+            mocker.getInstance(BackgroundCompilationExecutor.class);
+        when(cache.getStale(eq(lessResourceReference), eq(skinReference), eq(colorThemeReference)))
+            .thenReturn("previous output");
+        when(cachedLESSCompiler.compute(eq(lessResourceReference), eq(false), eq(false), eq(true), eq("skin"))).
+                thenReturn("compiled output");
+
+        // Test
+        assertEquals("previous output",
+                mocker.getComponentUnderTest().compile(lessResourceReference, false, false, false));
+
+        // Verify
+        ArgumentCaptor<Runnable> compilation = ArgumentCaptor.forClass(Runnable.class);
+        verify(backgroundCompilationExecutor).execute(eq(DefaultLESSCompiler.class.getName() + ":mutex"),
+                compilation.capture());
+        verify(cache, never()).set(any(LESSResourceReference.class), any(SkinReference.class),
+                any(ColorThemeReference.class), any());
+
+        // Execute the background compilation
+        compilation.getValue().run();
+
+        verify(cache).set(eq(lessResourceReference), eq(skinReference), eq(colorThemeReference),
+                eq("compiled output"));
+    }
+
     @Test
     public void compileWhenInCacheButForced() throws Exception
     {
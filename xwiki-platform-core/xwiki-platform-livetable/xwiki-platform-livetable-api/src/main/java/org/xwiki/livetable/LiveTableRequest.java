@@ -0,0 +1,173 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * The parameters sent by a live table to get its results (see the {@code XWiki.LiveTableResults} page): class name,
+ * columns, pagination, sort and filters.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public class LiveTableRequest
+{
+    /**
+     * The default number of rows returned when the request does not specify it.
+     */
+    public static final int DEFAULT_LIMIT = 15;
+
+    private static final String[] NO_VALUES = new String[0];
+
+    private final Map<String, String[]> parameters;
+
+    /**
+     * @param parameters the request parameters, as returned by {@code ServletRequest#getParameterMap()}
+     */
+    public LiveTableRequest(Map<String, String[]> parameters)
+    {
+        this.parameters = new LinkedHashMap<>(parameters);
+    }
+
+    /**
+     * @param name the name of the parameter
+     * @return the first value of the parameter, null if it's not set
+     */
+    public String getParameter(String name)
+    {
+        String[] values = this.parameters.get(name);
+
+        return values != null && values.length > 0 ? values[0] : null;
+    }
+
+    /**
+     * @param name the name of the parameter
+     * @return all the values of the parameter, an empty array if it's not set
+     */
+    public String[] getParameterValues(String name)
+    {
+        String[] values = this.parameters.get(name);
+
+        return values != null ? values : NO_VALUES;
+    }
+
+    /**
+     * @return all the parameters
+     */
+    public Map<String, String[]> getParameters()
+    {
+        return Collections.unmodifiableMap(this.parameters);
+    }
+
+    /**
+     * @return the class of the objects listed in the live table, empty to list documents
+     */
+    public String getClassName()
+    {
+        return StringUtils.defaultString(getParameter("classname"));
+    }
+
+    /**
+     * @return the columns of the live table
+     */
+    public List<String> getColumns()
+    {
+        return Arrays.asList(StringUtils.split(StringUtils.defaultString(getParameter("collist")), ','));
+    }
+
+    /**
+     * @return the index of the first row to return, starting from 0
+     */
+    public int getOffset()
+    {
+        // The live table counts from 1
+        return Math.max(NumberUtils.toInt(getParameter("offset")) - 1, 0);
+    }
+
+    /**
+     * @return the maximum number of rows to return
+     */
+    public int getLimit()
+    {
+        int limit = NumberUtils.toInt(getParameter("limit"));
+
+        return limit != 0 ? limit : DEFAULT_LIMIT;
+    }
+
+    /**
+     * @return the column to sort on, null if the rows don't need to be sorted
+     */
+    public String getSort()
+    {
+        return StringUtils.defaultIfEmpty(getParameter("sort"), null);
+    }
+
+    /**
+     * @return {@code asc} or {@code desc}, empty if not specified
+     */
+    public String getDirection()
+    {
+        String direction = StringUtils.lowerCase(StringUtils.defaultString(getParameter("dir")));
+
+        return direction.isEmpty() || "asc".equals(direction) ? direction : "desc";
+    }
+
+    /**
+     * @return the query filters to apply to the query (e.g. {@code currentlanguage}, {@code hidden})
+     */
+    public List<String> getQueryFilters()
+    {
+        return Arrays.asList(StringUtils.split(StringUtils.defaultString(getParameter("queryFilters")), ", "));
+    }
+
+    /**
+     * @return the prefix of the translation keys used to display the special columns and the empty values
+     */
+    public String getTranslationPrefix()
+    {
+        return StringUtils.defaultString(getParameter("transprefix"));
+    }
+
+    /**
+     * @return the number of the request, used by the live table to ignore outdated responses
+     */
+    public Integer getRequestNumber()
+    {
+        String requestNumber = getParameter("reqNo");
+
+        return NumberUtils.isDigits(requestNumber) ? Integer.valueOf(requestNumber) : null;
+    }
+
+    /**
+     * @return the hint of the {@link LiveTableResults} to use, null for the configured one
+     */
+    public String getSource()
+    {
+        return StringUtils.defaultIfEmpty(getParameter("source"), null);
+    }
+}
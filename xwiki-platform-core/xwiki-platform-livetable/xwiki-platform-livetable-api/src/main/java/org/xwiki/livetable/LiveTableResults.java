@@ -0,0 +1,47 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable;
+
+import java.util.Map;
+
+import org.xwiki.component.annotation.Role;
+
+/**
+ * Compute the results displayed by a live table: the rows of the requested page, the total number of rows and the tag
+ * cloud. The results follow the same JSON contract as the {@code XWiki.LiveTableResults} page: the returned map only
+ * contains basic Java types so that it can be serialized as is.
+ * <p>
+ * The default implementation chooses the implementation to use based on {@link LiveTableRequest#getSource()} and the
+ * {@link LiveTableConfiguration}. Other implementations are identified by the name of the source they query (e.g.
+ * {@code hql} or {@code solr}).
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Role
+public interface LiveTableResults
+{
+    /**
+     * @param request the parameters sent by the live table
+     * @return the results to send back to the live table
+     * @throws LiveTableException when failing to compute the results
+     */
+    Map<String, Object> getResults(LiveTableRequest request) throws LiveTableException;
+}
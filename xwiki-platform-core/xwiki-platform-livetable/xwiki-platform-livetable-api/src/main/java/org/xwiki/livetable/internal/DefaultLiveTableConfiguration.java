@@ -0,0 +1,56 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable.internal;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.livetable.LiveTableConfiguration;
+
+/**
+ * Get configuration data from the XWiki properties file. Supported options:
+ * <ul>
+ *   <li>"livetable.results.defaultSource", default = "hql"</li>
+ * </ul>
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component
+@Singleton
+public class DefaultLiveTableConfiguration implements LiveTableConfiguration
+{
+    /** Prefix for the configuration keys for the {@link org.xwiki.livetable.LiveTableResults} component. */
+    private static final String PREFIX = "livetable.results.";
+
+    /** Main XWiki properties configuration source. */
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Override
+    public String getDefaultSource()
+    {
+        return this.configuration.getProperty(PREFIX + "defaultSource", "hql");
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable.internal;
+
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.livetable.LiveTableConfiguration;
+import org.xwiki.livetable.LiveTableException;
+import org.xwiki.livetable.LiveTableRequest;
+import org.xwiki.livetable.LiveTableResults;
+
+/**
+ * Delegate to the {@link LiveTableResults} implementation of the source requested by the live table, or of the
+ * configured default source.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component
+@Singleton
+public class DefaultLiveTableResults implements LiveTableResults
+{
+    @Inject
+    private LiveTableConfiguration configuration;
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Override
+    public Map<String, Object> getResults(LiveTableRequest request) throws LiveTableException
+    {
+        String source = StringUtils.defaultIfEmpty(request.getSource(), this.configuration.getDefaultSource());
+
+        LiveTableResults results;
+        try {
+            results = this.componentManagerProvider.get().getInstance(LiveTableResults.class, source);
+        } catch (ComponentLookupException e) {
+            throw new LiveTableException("Unsupported live table source [" + source + "]", e);
+        }
+        // This implementation is registered with the default hint and would call itself
+        if (results instanceof DefaultLiveTableResults) {
+            throw new LiveTableException("Unsupported live table source [" + source + "]");
+        }
+
+        return results.getResults(request);
+    }
+}
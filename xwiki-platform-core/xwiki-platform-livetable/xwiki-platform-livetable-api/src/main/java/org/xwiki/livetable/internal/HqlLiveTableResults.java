@@ -0,0 +1,189 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.livetable.LiveTableException;
+import org.xwiki.livetable.LiveTableRequest;
+import org.xwiki.livetable.LiveTableResults;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.query.QueryManager;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.plugin.tag.TagQueryUtils;
+
+/**
+ * Compute the live table results with HQL queries on the database, like {@code XWiki.LiveTableResults} does.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component
+@Named("hql")
+@Singleton
+public class HqlLiveTableResults implements LiveTableResults
+{
+    @Inject
+    private LiveTableQueryBuilder queryBuilder;
+
+    @Inject
+    private LiveTableRowsBuilder rowsBuilder;
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Override
+    public Map<String, Object> getResults(LiveTableRequest request) throws LiveTableException
+    {
+        LiveTableQuery liveTableQuery = this.queryBuilder.build(request);
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        if ("1".equals(request.getParameter("sql"))) {
+            results.put("sql", liveTableQuery.getStatement());
+            results.put("params", liveTableQuery.getParameters());
+        }
+        results.put("reqNo", request.getRequestNumber());
+
+        addTags(liveTableQuery, results);
+
+        try {
+            Query query = this.queryManager.createQuery(liveTableQuery.getStatement(), Query.HQL);
+            for (String queryFilter : request.getQueryFilters()) {
+                query.addFilter(this.componentManagerProvider.get().<QueryFilter>getInstance(QueryFilter.class,
+                    queryFilter));
+            }
+            query.bindValues(liveTableQuery.getParameters());
+
+            int limit = request.getLimit();
+            int offset = request.getOffset();
+            List<Object> items = query.setLimit(limit).setOffset(offset).execute();
+
+            results.put("totalrows", count(query));
+            results.put("returnedrows", Math.min(items.size(), limit));
+            results.put("offset", offset + 1);
+            results.put("rows", this.rowsBuilder.build(request, getDocuments(items)));
+        } catch (QueryException | ComponentLookupException e) {
+            throw new LiveTableException("Failed to execute the live table query", e);
+        }
+
+        return results;
+    }
+
+    private void addTags(LiveTableQuery liveTableQuery, Map<String, Object> results) throws LiveTableException
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        try {
+            // We use a map just because the client expects an object, but all we really need is a list.
+            Map<String, Integer> matchingTags = new LinkedHashMap<>();
+            for (String tag : TagQueryUtils.getTagCountForQuery(liveTableQuery.getTagsMatchingFiltersFrom(),
+                liveTableQuery.getTagsMatchingFiltersWhere(), liveTableQuery.getTagsMatchingParameters(), xcontext)
+                .keySet()) {
+                matchingTags.put(tag, 1);
+            }
+            results.put("matchingtags", matchingTags);
+
+            // We use a list of maps just because the client expects an array.
+            List<Map<String, Object>> tags = new ArrayList<>();
+            for (Map.Entry<String, Integer> tagCount : TagQueryUtils
+                .getTagCountForQuery(liveTableQuery.getAllMatchingTagsFrom(),
+                    liveTableQuery.getAllMatchingTagsWhere(), liveTableQuery.getAllMatchingParameters(), xcontext)
+                .entrySet()) {
+                Map<String, Object> tag = new LinkedHashMap<>();
+                tag.put("tag", tagCount.getKey());
+                tag.put("count", tagCount.getValue());
+                tags.add(tag);
+            }
+            results.put("tags", tags);
+        } catch (XWikiException e) {
+            throw new LiveTableException("Failed to count the live table tags", e);
+        }
+    }
+
+    private long count(Query query) throws QueryException, ComponentLookupException
+    {
+        Query countQuery = this.queryManager.createQuery(query.getStatement(), query.getLanguage());
+        for (Map.Entry<Integer, Object> entry : query.getPositionalParameters().entrySet()) {
+            countQuery.bindValue(entry.getKey(), entry.getValue());
+        }
+        for (QueryFilter filter : query.getFilters()) {
+            countQuery.addFilter(filter);
+        }
+        countQuery.addFilter(this.componentManagerProvider.get().<QueryFilter>getInstance(QueryFilter.class, "count"));
+
+        List<Long> results = countQuery.execute();
+
+        return results.get(0);
+    }
+
+    /**
+     * The items are either the document full name or the document full name and its language, when the
+     * {@code currentlanguage} or {@code language} query filters are used.
+     */
+    private List<Pair<DocumentReference, String>> getDocuments(List<Object> items)
+    {
+        List<Pair<DocumentReference, String>> documents = new ArrayList<>(items.size());
+        for (Object item : items) {
+            String fullName;
+            String language = "";
+            if (item instanceof Object[]) {
+                Object[] values = (Object[]) item;
+                fullName = String.valueOf(values[0]);
+                if (values.length > 1 && values[1] != null) {
+                    language = String.valueOf(values[1]);
+                }
+            } else {
+                fullName = String.valueOf(item);
+            }
+            documents.add(Pair.of(this.resolver.resolve(fullName), language));
+        }
+
+        return documents;
+    }
+}
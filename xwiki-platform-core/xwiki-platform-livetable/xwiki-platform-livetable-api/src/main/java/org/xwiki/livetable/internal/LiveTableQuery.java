@@ -0,0 +1,146 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The HQL queries needed to compute the results of a live table, built by {@link LiveTableQueryBuilder}. The
+ * statements are short form HQL statements (starting after {@code select doc.fullName from XWikiDocument doc}) using
+ * positional parameters.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public class LiveTableQuery
+{
+    private String statement;
+
+    private final List<Object> parameters = new ArrayList<>();
+
+    private String tagsMatchingFiltersFrom;
+
+    private String tagsMatchingFiltersWhere;
+
+    private final List<Object> tagsMatchingParameters = new ArrayList<>();
+
+    private String allMatchingTagsFrom;
+
+    private String allMatchingTagsWhere;
+
+    private final List<Object> allMatchingParameters = new ArrayList<>();
+
+    /**
+     * @return the statement returning the rows of the live table
+     */
+    public String getStatement()
+    {
+        return this.statement;
+    }
+
+    /**
+     * @param statement the statement returning the rows of the live table
+     */
+    public void setStatement(String statement)
+    {
+        this.statement = statement;
+    }
+
+    /**
+     * @return the values of the parameters of the statement returning the rows of the live table
+     */
+    public List<Object> getParameters()
+    {
+        return this.parameters;
+    }
+
+    /**
+     * @return the {@code from} part of the query selecting the documents matching the live table filters, used to
+     *         compute the tags matching the filters
+     */
+    public String getTagsMatchingFiltersFrom()
+    {
+        return this.tagsMatchingFiltersFrom;
+    }
+
+    /**
+     * @return the {@code where} part of the query selecting the documents matching the live table filters, used to
+     *         compute the tags matching the filters
+     */
+    public String getTagsMatchingFiltersWhere()
+    {
+        return this.tagsMatchingFiltersWhere;
+    }
+
+    /**
+     * @return the values of the parameters of the query selecting the documents matching the live table filters
+     */
+    public List<Object> getTagsMatchingParameters()
+    {
+        return this.tagsMatchingParameters;
+    }
+
+    /**
+     * @param from the {@code from} part of the query selecting the documents matching the live table filters
+     * @param where the {@code where} part of the query selecting the documents matching the live table filters
+     */
+    public void setTagsMatchingFilters(String from, String where)
+    {
+        this.tagsMatchingFiltersFrom = from;
+        this.tagsMatchingFiltersWhere = where;
+    }
+
+    /**
+     * @return the {@code from} part of the query selecting all the documents listed by the live table, used to compute
+     *         the tag cloud
+     */
+    public String getAllMatchingTagsFrom()
+    {
+        return this.allMatchingTagsFrom;
+    }
+
+    /**
+     * @return the {@code where} part of the query selecting all the documents listed by the live table, used to
+     *         compute the tag cloud
+     */
+    public String getAllMatchingTagsWhere()
+    {
+        return this.allMatchingTagsWhere;
+    }
+
+    /**
+     * @return the values of the parameters of the query selecting all the documents listed by the live table
+     */
+    public List<Object> getAllMatchingParameters()
+    {
+        return this.allMatchingParameters;
+    }
+
+    /**
+     * @param from the {@code from} part of the query selecting all the documents listed by the live table
+     * @param where the {@code where} part of the query selecting all the documents listed by the live table
+     */
+    public void setAllMatchingTags(String from, String where)
+    {
+        this.allMatchingTagsFrom = from;
+        this.allMatchingTagsWhere = where;
+    }
+}
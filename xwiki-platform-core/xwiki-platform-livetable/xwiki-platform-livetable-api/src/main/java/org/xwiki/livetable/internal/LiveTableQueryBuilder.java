@@ -0,0 +1,655 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable.internal;
+
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.livetable.LiveTableException;
+import org.xwiki.livetable.LiveTableRequest;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.wiki.descriptor.WikiDescriptor;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.objects.classes.BaseClass;
+import com.xpn.xwiki.objects.classes.ListClass;
+import com.xpn.xwiki.objects.classes.NumberClass;
+import com.xpn.xwiki.objects.classes.PropertyClass;
+
+/**
+ * Build the HQL queries needed to compute the results of a live table. This is the Java version of the
+ * {@code #gridresultwithfilter_buildQuery} macro from {@code XWiki.LiveTableResultsMacros} combined with the extra
+ * filters of the {@code XWiki.LiveTableResults} page ({@code space}, {@code location}, {@code parent} and
+ * {@code orphaned}): it produces the same statements, with all the values passed as parameters.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component(roles = LiveTableQueryBuilder.class)
+@Singleton
+public class LiveTableQueryBuilder
+{
+    /**
+     * Suffix of the parameter indicating how to combine the values of a list filter. It's safe because {@code /} is
+     * not allowed in property names.
+     */
+    private static final String JOIN_MODE_MARKER = "/join_mode";
+
+    private static final String DOC_PREFIX = "doc.";
+
+    private static final String PROPERTY_ALIAS_PREFIX = "prop_";
+
+    private static final String MATCH_EXACT = "exact";
+
+    private static final String MATCH_PARTIAL = "partial";
+
+    private static final String MATCH_PREFIX = "prefix";
+
+    private static final String AND = " and ";
+
+    private static final String OR = "OR";
+
+    private static final String PERCENT = "%";
+
+    private static final String STRING_PROPERTY = "StringProperty";
+
+    private static final String VALUE_FIELD = ".value";
+
+    /**
+     * These document fields need to be ordered as raw values and not as strings.
+     */
+    private static final List<String> RAW_DOCUMENT_FIELDS = Arrays.asList("translation", "date", "contentUpdateDate",
+        "creationDate", "elements", "minorEdit1", "hidden");
+
+    /**
+     * Some property types do not need lowercasing since they have unique values by design, so we use the raw values
+     * to order.
+     */
+    private static final List<String> RAW_PROPERTY_TYPES =
+        Arrays.asList("NumberClass", "BooleanClass", "DateClass", "LevelsClass");
+
+    private static final List<String> NUMBER_PROPERTIES =
+        Arrays.asList("IntegerProperty", "LongProperty", "FloatProperty", "DoubleProperty");
+
+    private static final List<String> DOCUMENT_DATE_COLUMNS =
+        Arrays.asList("doc.date", "doc.creationDate", "doc.contentUpdateDate");
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Inject
+    private WikiDescriptorManager wikis;
+
+    /**
+     * The state of the query being built.
+     */
+    private final class Builder
+    {
+        private final LiveTableRequest request;
+
+        private final BaseClass xclass;
+
+        private final Map<String, BaseClass> classes = new HashMap<>();
+
+        private final StringBuilder from = new StringBuilder();
+
+        private final StringBuilder where = new StringBuilder();
+
+        private final List<Object> whereParameters = new ArrayList<>();
+
+        private final List<String> filteredColumns = new ArrayList<>();
+
+        private final StringBuilder extraWhere = new StringBuilder();
+
+        private final List<Object> extraParameters = new ArrayList<>();
+
+        private String order = "";
+
+        Builder(LiveTableRequest request) throws XWikiException
+        {
+            this.request = request;
+            this.xclass = getXClass(request.getClassName());
+        }
+
+        BaseClass getXClass(String className) throws XWikiException
+        {
+            if (StringUtils.isEmpty(className)) {
+                return null;
+            }
+
+            BaseClass cachedClass = this.classes.get(className);
+            if (cachedClass == null) {
+                XWikiContext xcontext = xcontextProvider.get();
+                cachedClass = xcontext.getWiki().getXClass(resolver.resolve(className), xcontext);
+                this.classes.put(className, cachedClass);
+            }
+
+            return cachedClass;
+        }
+
+        /**
+         * @return the class of the property displayed in the passed column
+         */
+        BaseClass getColumnClass(String column) throws XWikiException
+        {
+            String className = this.request.getParameter(column + "_class");
+
+            return StringUtils.isEmpty(className) ? this.xclass : getXClass(className);
+        }
+
+        PropertyClass getPropertyClass(String column) throws XWikiException
+        {
+            BaseClass columnClass = getColumnClass(column);
+
+            return columnClass != null ? (PropertyClass) columnClass.get(column) : null;
+        }
+
+        /**
+         * @return the name of the HQL entity storing the values of the property displayed in the passed column
+         */
+        String getTableName(String column) throws XWikiException
+        {
+            PropertyClass propertyClass = getPropertyClass(column);
+
+            if (propertyClass instanceof NumberClass) {
+                String numberType = ((NumberClass) propertyClass).getNumberType();
+                if ("integer".equals(numberType)) {
+                    return "IntegerProperty";
+                } else if ("float".equals(numberType)) {
+                    return "FloatProperty";
+                } else if ("double".equals(numberType)) {
+                    return "DoubleProperty";
+                } else {
+                    return "LongProperty";
+                }
+            }
+
+            String type = getType(propertyClass);
+            if ("BooleanClass".equals(type)) {
+                return "IntegerProperty";
+            } else if ("DateClass".equals(type)) {
+                return "DateProperty";
+            } else if ("TextAreaClass".equals(type) || "UsersClass".equals(type) || "GroupsClass".equals(type)) {
+                return "LargeStringProperty";
+            } else if (("StaticListClass".equals(type) || "DBListClass".equals(type) || "DBTreeListClass".equals(type))
+                && ((ListClass) propertyClass).isMultiSelect()) {
+                return ((ListClass) propertyClass).isRelationalStorage() ? "DBStringListProperty"
+                    : "StringListProperty";
+            }
+
+            return STRING_PROPERTY;
+        }
+
+        /**
+         * Join the object of the passed class, if not already done.
+         */
+        void addObjectClause(String objectAlias, String className)
+        {
+            if (this.from.indexOf(objectAlias) < 0) {
+                this.from.append(", BaseObject ").append(objectAlias);
+                this.where.append(AND).append(objectAlias).append(".name = doc.fullName and ").append(objectAlias)
+                    .append(".className = ?");
+                this.whereParameters.add(className);
+            }
+        }
+
+        String getColumnObjectAlias(String column) throws XWikiException
+        {
+            String className = this.request.getParameter(column + "_class");
+            if (StringUtils.isNotEmpty(className) && getXClass(className) != null) {
+                String objectAlias = className.replaceAll("[^a-zA-Z0-9_]", "") + "_obj";
+                addObjectClause(objectAlias, className);
+                return objectAlias;
+            }
+
+            return "obj";
+        }
+
+        void addColumn(String column) throws XWikiException
+        {
+            if (column.endsWith(JOIN_MODE_MARKER)) {
+                return;
+            }
+
+            String filterValue = this.request.getParameter(column);
+            if (StringUtils.isEmpty(filterValue)) {
+                return;
+            }
+
+            this.filteredColumns.add(column);
+
+            if (column.startsWith(DOC_PREFIX)) {
+                if ("doc.location".equals(column)) {
+                    // Location is not a real field but a more user-friendly filter on the document full name
+                    this.where.append(" and ((doc.name = 'WebHome' and upper(doc.space) like upper(?) escape '!')"
+                        + " or (doc.name <> 'WebHome' and upper(doc.fullName) like upper(?) escape '!'))");
+                    String location = PERCENT + escapeLocation(filterValue) + PERCENT;
+                    // The parameter is used twice
+                    this.whereParameters.add(location);
+                    this.whereParameters.add(location);
+                } else if (DOCUMENT_DATE_COLUMNS.contains(column)) {
+                    filterDate(getTableAlias(column), filterValue);
+                } else {
+                    String safeColumn = column.replaceAll("[^a-zA-Z0-9_.]", "").replace('_', '.');
+                    this.where.append(" and upper(str(").append(safeColumn).append(")) like upper(?)");
+                    this.whereParameters.add(PERCENT + filterValue + PERCENT);
+                }
+            } else {
+                filterProperty(column, filterValue);
+            }
+        }
+
+        void filterProperty(String column, String filterValue) throws XWikiException
+        {
+            String tableAlias = getTableAlias(column);
+            String tableName = getTableName(column);
+            this.from.append(", ").append(tableName).append(" as ").append(tableAlias);
+
+            // If the column is not from the live table class we need to join the right object
+            String objectAlias = getColumnObjectAlias(column);
+            this.where.append(AND).append(objectAlias).append(".id = ").append(tableAlias).append(".id.id and ")
+                .append(tableAlias).append(".id.name = ?");
+            this.whereParameters.add(column);
+
+            String matchType = this.request.getParameter(column + "_match");
+            String[] filterValues = this.request.getParameterValues(column);
+
+            if (NUMBER_PROPERTIES.contains(tableName)) {
+                filterNumber(tableAlias, tableName, filterValue);
+            } else if ("DateProperty".equals(tableName)) {
+                filterDate(tableAlias, filterValue);
+            } else if ("DBStringListProperty".equals(tableName)) {
+                filterDBStringList(column, tableAlias, matchType, filterValues);
+            } else if ("StringListProperty".equals(tableName)) {
+                filterStringList(column, tableAlias, filterValues);
+            } else {
+                // StringProperty or LargeStringProperty
+                if (StringUtils.isEmpty(matchType)) {
+                    // Perform exact matching by default for the lists stored as StringProperty (i.e. single value and
+                    // no relational storage) and partial matching otherwise
+                    matchType = StringUtils.endsWith(getType(getPropertyClass(column)), "ListClass") ? MATCH_EXACT
+                        : MATCH_PARTIAL;
+                }
+                filterString(tableAlias + VALUE_FIELD, matchType, filterValues);
+            }
+        }
+
+        void filterNumber(String tableAlias, String tableName, String filterValue)
+        {
+            Number number = toNumber(filterValue);
+            if (number == null) {
+                // Nothing can match a value which is not a number
+                this.where.append(" and 1=0");
+                return;
+            }
+
+            if ("IntegerProperty".equals(tableName) || "LongProperty".equals(tableName)) {
+                this.where.append(AND).append(tableAlias).append(".value = ?");
+                this.whereParameters
+                    .add("LongProperty".equals(tableName) ? (Object) number.longValue() : (Object) number.intValue());
+            } else {
+                this.where.append(" and abs(? - ").append(tableAlias).append(".value) <= 0.000001");
+                this.whereParameters.add(
+                    "FloatProperty".equals(tableName) ? (Object) number.floatValue() : (Object) number.doubleValue());
+            }
+        }
+
+        void filterDate(String tableAlias, String filterValue)
+        {
+            String dateProperty = tableAlias.startsWith(DOC_PREFIX) ? tableAlias : tableAlias + VALUE_FIELD;
+
+            String[] timestamps = StringUtils.split(filterValue, '-');
+            if (timestamps.length == 2 && toNumber(timestamps[0]) != null && toNumber(timestamps[1]) != null) {
+                this.where.append(AND).append(dateProperty).append(" >= ? and ").append(dateProperty)
+                    .append(" <= ?");
+                this.whereParameters.add(new Date(toNumber(timestamps[0]).longValue()));
+                this.whereParameters.add(new Date(toNumber(timestamps[1]).longValue()));
+            } else {
+                // Fall back to the older string matching
+                this.where.append(" and upper(str(").append(dateProperty).append(")) like upper(?)");
+                this.whereParameters.add(PERCENT + filterValue + PERCENT);
+            }
+        }
+
+        void filterDBStringList(String column, String tableAlias, String matchType, String[] filterValues)
+        {
+            String target;
+            String actualMatchType = matchType;
+            if (MATCH_PARTIAL.equals(matchType) || MATCH_PREFIX.equals(matchType)) {
+                // We need to join with the list of values in order to be able to use the LIKE operator
+                target = tableAlias + "_item";
+                int joinPosition = this.from.lastIndexOf(' ' + tableAlias) + tableAlias.length() + 1;
+                this.from.insert(joinPosition, " join " + tableAlias + ".list as " + target + ' ');
+            } else {
+                // Perform exact matching by default
+                actualMatchType = MATCH_EXACT;
+                target = tableAlias + ".list";
+            }
+
+            String filterQuery = getFilterQuery(target, actualMatchType, true, 1);
+            this.where.append(" and (")
+                .append(StringUtils.repeat(filterQuery, ' ' + getJoinOperator(column) + ' ', filterValues.length))
+                .append(')');
+            for (String value : filterValues) {
+                addFilterParameter(value, actualMatchType);
+            }
+        }
+
+        void filterStringList(String column, String tableAlias, String[] filterValues)
+        {
+            String filterQuery =
+                " concat('|', concat(upper(" + tableAlias + ".textValue), '|')) LIKE upper(?) ";
+            this.where.append(" and ( ")
+                .append(StringUtils.repeat(filterQuery, getJoinOperator(column), filterValues.length)).append(" )");
+            for (String value : filterValues) {
+                this.whereParameters.add("%|" + value + "|%");
+            }
+        }
+
+        void filterString(String field, String matchType, String[] filterValues)
+        {
+            if ((MATCH_PARTIAL.equals(matchType) || MATCH_PREFIX.equals(matchType)) && filterValues.length > 1) {
+                // Match any of the values
+                String filterQuery = getFilterQuery(field, matchType, false, 1);
+                this.where.append(" and (").append(StringUtils.repeat(filterQuery, " or ", filterValues.length))
+                    .append(')');
+            } else {
+                this.where.append(AND).append(getFilterQuery(field, matchType, false, filterValues.length));
+            }
+            for (String value : filterValues) {
+                addFilterParameter(value, matchType);
+            }
+        }
+
+        String getJoinOperator(String column)
+        {
+            String joinOperator = StringUtils.upperCase(this.request.getParameter(column + JOIN_MODE_MARKER));
+
+            return OR.equals(joinOperator) ? OR : "AND";
+        }
+
+        void addFilterParameter(String value, String matchType)
+        {
+            if (MATCH_PARTIAL.equals(matchType)) {
+                this.whereParameters.add(PERCENT + StringUtils.defaultString(value) + PERCENT);
+            } else if (MATCH_PREFIX.equals(matchType)) {
+                this.whereParameters.add(StringUtils.defaultString(value) + PERCENT);
+            } else {
+                this.whereParameters.add(value);
+            }
+        }
+
+        void addTags()
+        {
+            String[] tags = this.request.getParameterValues("tag");
+            if (tags.length > 0) {
+                this.from.append(" , BaseObject as tobject, DBStringListProperty as tagprop");
+                this.where.append(" and tobject.className='XWiki.TagClass' and tobject.name=doc.fullName"
+                    + " and tobject.id=tagprop.id.id and tagprop.id.name='tags' and (");
+                // Tags are case insensitive but they are stored unchanged which means we have to normalize them
+                // when performing a query. We use an inner select because HQL doesn't help us to lower-case the
+                // entire list of tags.
+                this.where.append(StringUtils.repeat("lower(?) in (select lower(tag) from tagprop.list tag)", AND,
+                    tags.length));
+                this.where.append(')');
+                this.whereParameters.addAll(Arrays.asList(tags));
+            }
+        }
+
+        void addOrder() throws XWikiException
+        {
+            String column = this.request.getSort();
+            if (column == null) {
+                return;
+            }
+            if ("doc.location".equals(column)) {
+                column = "doc.fullName";
+            }
+
+            String direction = this.request.getDirection();
+            String tableAlias = getTableAlias(column);
+            if (column.startsWith(DOC_PREFIX)) {
+                setOrder(tableAlias.replace('_', '.'), direction,
+                    RAW_DOCUMENT_FIELDS.contains(StringUtils.removeStart(column, DOC_PREFIX)));
+            } else {
+                PropertyClass propertyClass = getPropertyClass(column);
+                // We can only sort on single values
+                if (!(propertyClass instanceof ListClass && ((ListClass) propertyClass).isMultiSelect())) {
+                    // If the column is also filtered it's already part of the query
+                    if (!this.filteredColumns.contains(column)) {
+                        String objectAlias = getColumnObjectAlias(column);
+                        this.from.append(", ").append(getTableName(column)).append(' ').append(tableAlias);
+                        this.where.append(AND).append(objectAlias).append(".id=").append(tableAlias)
+                            .append(".id.id and ").append(tableAlias).append(".name = ?");
+                        this.whereParameters.add(column);
+                    }
+                    setOrder(tableAlias + VALUE_FIELD, direction,
+                        RAW_PROPERTY_TYPES.contains(getType(propertyClass)));
+                }
+            }
+        }
+
+        /**
+         * We first ignore the case (so that e.g. 'aaa' equals 'AAA') but then consider it only for equal values (so
+         * that e.g. 'AAA' comes before 'aaa').
+         */
+        void setOrder(String field, String direction, boolean raw)
+        {
+            if (raw) {
+                this.order = " order by " + field + ' ' + direction;
+            } else {
+                this.order =
+                    " order by lower(" + field + ") " + direction + ", " + field + ' ' + direction;
+            }
+        }
+
+        /**
+         * The filters of the {@code XWiki.LiveTableResults} page.
+         */
+        void addExtraFilters()
+        {
+            String space = this.request.getParameter("space");
+            if (StringUtils.isNotEmpty(space)) {
+                this.extraWhere.append(" AND doc.space = ?");
+                this.extraParameters.add(space);
+            }
+            String location = this.request.getParameter("location");
+            if (StringUtils.isNotEmpty(location)) {
+                this.extraWhere.append(" AND LOWER(doc.fullName) LIKE LOWER(?) ESCAPE '!'");
+                this.extraParameters.add(PERCENT + escapeLocation(location) + PERCENT);
+            }
+            String parent = this.request.getParameter("parent");
+            if (StringUtils.isNotEmpty(parent)) {
+                this.extraWhere.append(" and doc.parent = ?");
+                this.extraParameters.add(parent);
+            }
+            if ("1".equals(this.request.getParameter("orphaned"))) {
+                // On Oracle the empty parent is actually null
+                this.extraWhere.append(" and (doc.parent = '' or doc.parent is null) and doc.fullName <> ?");
+                this.extraParameters.add(getHomePage());
+            }
+        }
+
+        LiveTableQuery build()
+        {
+            LiveTableQuery query = new LiveTableQuery();
+
+            String className = this.request.getClassName();
+            String extra = this.extraWhere.toString();
+            String statement;
+            if (StringUtils.isNotEmpty(className)) {
+                String objectFrom = ", BaseObject as obj ";
+                String objectWhere = "obj.name=doc.fullName and obj.className = ? and doc.fullName not in (?, ?) ";
+                List<Object> objectParameters =
+                    Arrays.asList(className, className + "Template", className.replaceAll("Class$", "Template"));
+
+                statement = objectFrom + this.from + " where " + objectWhere + this.where + ' ' + extra;
+                query.getParameters().addAll(objectParameters);
+
+                query.setTagsMatchingFilters(objectFrom + this.from, objectWhere + this.where + ' ' + extra);
+                query.getTagsMatchingParameters().addAll(objectParameters);
+
+                query.setAllMatchingTags(objectFrom, objectWhere + extra);
+                query.getAllMatchingParameters().addAll(objectParameters);
+            } else {
+                statement = this.from + " where 1=1 " + this.where + ' ' + extra;
+
+                query.setTagsMatchingFilters(this.from.toString(), "1=1 " + this.where + ' ' + extra);
+
+                query.setAllMatchingTags("", "1=1 " + extra);
+            }
+
+            query.getParameters().addAll(this.whereParameters);
+            query.getParameters().addAll(this.extraParameters);
+            query.getTagsMatchingParameters().addAll(this.whereParameters);
+            query.getTagsMatchingParameters().addAll(this.extraParameters);
+            query.getAllMatchingParameters().addAll(this.extraParameters);
+
+            query.setStatement(statement + this.order);
+
+            return query;
+        }
+    }
+
+    /**
+     * @param request the parameters sent by the live table
+     * @return the queries returning the rows of the live table
+     * @throws LiveTableException when failing to build the queries
+     */
+    public LiveTableQuery build(LiveTableRequest request) throws LiveTableException
+    {
+        try {
+            Builder builder = new Builder(request);
+
+            for (String column : request.getColumns()) {
+                builder.addColumn(column);
+            }
+            builder.addTags();
+            builder.addOrder();
+            builder.addExtraFilters();
+
+            return builder.build();
+        } catch (XWikiException e) {
+            throw new LiveTableException("Failed to build the live table query", e);
+        }
+    }
+
+    /**
+     * @return the type of the passed property class (e.g. {@code StringClass}), empty if it's null
+     */
+    private static String getType(PropertyClass propertyClass)
+    {
+        return propertyClass != null ? propertyClass.getClass().getSimpleName() : "";
+    }
+
+    /**
+     * @return a valid HQL alias for the passed live table column
+     */
+    private static String getTableAlias(String column)
+    {
+        if (column.startsWith(DOC_PREFIX)) {
+            return DOC_PREFIX + StringUtils.removeStart(column, DOC_PREFIX).replaceAll("\\W", "");
+        }
+
+        // Force a prefix to avoid the cases when the column name is a reserved SQL keyword.
+        return PROPERTY_ALIAS_PREFIX + column.replaceAll("\\W", "");
+    }
+
+    /**
+     * The "_", "[", and the "%" characters have special meanings in standard SQL servers but the users don't expect
+     * them to behave as wildcards so we escape them (with '!'). The "/" used as separator by the user is replaced by
+     * "%" because it could be "." (the space separator) or "/" (as it is in the document name).
+     */
+    private static String escapeLocation(String location)
+    {
+        return location.replaceAll("([\\[%_!])", "!$1").replace("/", PERCENT);
+    }
+
+    private static String getFilterQuery(String column, String matchType, boolean isList, int valueCount)
+    {
+        if (MATCH_PARTIAL.equals(matchType) || MATCH_PREFIX.equals(matchType)) {
+            return "upper(" + column + ") like upper(?)";
+        } else if (isList) {
+            return "? in elements(" + column + ')';
+        } else if (valueCount > 1 && MATCH_EXACT.equals(matchType)) {
+            return column + " in (" + StringUtils.join(Collections.nCopies(valueCount, "?"), ", ") + ')';
+        } else {
+            return column + " = ?";
+        }
+    }
+
+    private Number toNumber(String value)
+    {
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+
+        Locale locale = this.xcontextProvider.get().getLocale();
+        try {
+            return NumberFormat.getInstance(locale != null ? locale : Locale.ROOT).parse(value.trim());
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    private String getHomePage()
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        DocumentReference homePage = null;
+        try {
+            WikiDescriptor descriptor = this.wikis.getById(xcontext.getWikiId());
+            if (descriptor != null) {
+                homePage = descriptor.getMainPageReference();
+            }
+        } catch (Exception e) {
+            // Fall back on the default home page
+        }
+
+        return homePage != null ? this.localSerializer.serialize(homePage) : "Main.WebHome";
+    }
+}
@@ -0,0 +1,492 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.velocity.VelocityContext;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.livetable.LiveTableException;
+import org.xwiki.livetable.LiveTableRequest;
+import org.xwiki.localization.ContextualLocalizationManager;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.security.authorization.AuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.velocity.VelocityManager;
+import org.xwiki.xml.XMLUtils;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseProperty;
+import com.xpn.xwiki.objects.classes.DBListClass;
+import com.xpn.xwiki.objects.classes.PasswordClass;
+import com.xpn.xwiki.objects.classes.PropertyClass;
+import com.xpn.xwiki.user.api.XWikiRightService;
+
+/**
+ * Build the rows of the live table results. This is the Java version of the {@code #gridresult_buildRowJSON} macro
+ * from {@code XWiki.LiveTableResultsMacros}: it produces the same row data but checks the access rights of all the
+ * rows (and of their locations) at once and computes only once what doesn't depend on the row.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component(roles = LiveTableRowsBuilder.class)
+@Singleton
+public class LiveTableRowsBuilder
+{
+    private static final LocalDocumentReference USERS_CLASS = new LocalDocumentReference("XWiki", "XWikiUsers");
+
+    private static final String WEBHOME = "WebHome";
+
+    private static final String VIEW = "view";
+
+    private static final String EDIT = "edit";
+
+    private static final String HTML_MACRO_START = "{{html clean=\"false\" wiki=\"false\"}}";
+
+    private static final String HTML_MACRO_END = "{{/html}}";
+
+    private static final String ATTRIBUTE_END = "' ";
+
+    private static final String LINK_START = "<a href='";
+
+    private static final String LINK_END = "</a>";
+
+    private static final int LOCATION_LIMIT = 5;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private AuthorizationManager authorization;
+
+    @Inject
+    private ContextualLocalizationManager localization;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Inject
+    private VelocityManager velocityManager;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * What doesn't depend on the row.
+     */
+    private final class RowsContext
+    {
+        private final LiveTableRequest request;
+
+        private final XWikiContext xcontext;
+
+        private final XWiki xwiki;
+
+        private final boolean hasAdmin;
+
+        private final boolean isAdvancedUser;
+
+        private final String languagePreference;
+
+        private final DocumentReference classReference;
+
+        private final Map<EntityReference, Boolean> viewable;
+
+        private final Map<EntityReference, Boolean> editable;
+
+        private final Map<EntityReference, Boolean> deletable;
+
+        private String actionText;
+
+        private String emptyValue;
+
+        RowsContext(LiveTableRequest request, Collection<DocumentReference> documents)
+        {
+            this.request = request;
+            this.xcontext = xcontextProvider.get();
+            this.xwiki = this.xcontext.getWiki();
+
+            DocumentReference user = this.xcontext.getUserReference();
+            this.hasAdmin = authorization.hasAccess(Right.ADMIN, user, this.xcontext.getWikiReference());
+            this.isAdvancedUser = isAdvancedUser(user);
+            this.languagePreference = this.xwiki.getLanguagePreference(this.xcontext);
+
+            String className = request.getClassName();
+            this.classReference = StringUtils.isEmpty(className) ? null : resolver.resolve(className);
+
+            // The location of each row is displayed with a link to each of its parents
+            Set<EntityReference> viewReferences = new LinkedHashSet<>();
+            for (DocumentReference document : documents) {
+                for (EntityReference reference = document; reference != null
+                    && reference.getType() != EntityType.WIKI; reference = reference.getParent()) {
+                    viewReferences.add(reference);
+                }
+            }
+            this.viewable = authorization.hasAccess(Right.VIEW, user, viewReferences);
+            this.editable = authorization.hasAccess(Right.EDIT, user, documents);
+            this.deletable = authorization.hasAccess(Right.DELETE, user, documents);
+        }
+
+        private boolean isAdvancedUser(DocumentReference user)
+        {
+            if (user == null) {
+                return this.hasAdmin;
+            } else if (XWikiRightService.SUPERADMIN_USER.equals(user.getName())) {
+                return true;
+            }
+
+            try {
+                XWikiDocument userDocument = this.xwiki.getDocument(user, this.xcontext);
+
+                return "Advanced".equals(userDocument.getStringValue(USERS_CLASS, "usertype"));
+            } catch (XWikiException e) {
+                logger.warn("Failed to get the type of user [{}]: {}", user, e.getMessage());
+
+                return false;
+            }
+        }
+
+        boolean isViewable(EntityReference reference)
+        {
+            return Boolean.TRUE.equals(this.viewable.get(reference));
+        }
+
+        String getActionText()
+        {
+            if (this.actionText == null) {
+                this.actionText = render(this.request.getTranslationPrefix() + "actiontext");
+            }
+
+            return this.actionText;
+        }
+
+        String getEmptyValue()
+        {
+            if (this.emptyValue == null) {
+                this.emptyValue = render(this.request.getTranslationPrefix() + "emptyvalue");
+            }
+
+            return this.emptyValue;
+        }
+
+        private String render(String key)
+        {
+            String translation = localization.getTranslationPlain(key);
+
+            return translation != null ? translation : key;
+        }
+    }
+
+    /**
+     * @param request the parameters sent by the live table
+     * @param documents the documents to display, with the locale of the translation to display (empty for the
+     *            default translation)
+     * @return the rows of the live table
+     * @throws LiveTableException when failing to build the rows
+     */
+    public List<Map<String, Object>> build(LiveTableRequest request, List<Pair<DocumentReference, String>> documents)
+        throws LiveTableException
+    {
+        if (documents.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<DocumentReference> references = new ArrayList<>(documents.size());
+        for (Pair<DocumentReference, String> document : documents) {
+            references.add(document.getLeft());
+        }
+
+        RowsContext context = new RowsContext(request, references);
+
+        List<Map<String, Object>> rows = new ArrayList<>(documents.size());
+        try {
+            for (Pair<DocumentReference, String> document : documents) {
+                rows.add(buildRow(document.getLeft(), document.getRight(), context));
+            }
+        } catch (XWikiException e) {
+            throw new LiveTableException("Failed to build the live table rows", e);
+        }
+
+        return rows;
+    }
+
+    private Map<String, Object> buildRow(DocumentReference documentReference, String language, RowsContext context)
+        throws XWikiException
+    {
+        XWikiContext xcontext = context.xcontext;
+        XWiki xwiki = context.xwiki;
+
+        Map<String, Object> row = new LinkedHashMap<>();
+
+        boolean viewable = context.isViewable(documentReference);
+        boolean editable = Boolean.TRUE.equals(context.editable.get(documentReference));
+        boolean deletable = Boolean.TRUE.equals(context.deletable.get(documentReference));
+
+        row.put("doc_viewable", viewable);
+        row.put("doc_fullName", this.localSerializer.serialize(documentReference));
+        row.put("doc_space", this.localSerializer.serialize(documentReference.getParent()));
+        row.put("doc_location", getLocation(documentReference, context));
+        row.put("doc_url", xwiki.getURL(documentReference, xcontext));
+        row.put("doc_space_url", xwiki.getURL(documentReference.getParent(), xcontext));
+        row.put("doc_wiki", documentReference.getWikiReference().getName());
+        row.put("doc_wiki_url", xwiki.getURL(documentReference.getWikiReference(), xcontext));
+        row.put("doc_hasadmin", context.hasAdmin);
+        row.put("doc_hasedit", editable);
+        row.put("doc_hasdelete", deletable);
+        row.put("doc_edit_url", xwiki.getURL(documentReference, EDIT, xcontext));
+        row.put("doc_copy_url", xwiki.getURL(documentReference, VIEW, "xpage=copy", null, xcontext));
+        row.put("doc_delete_url", xwiki.getURL(documentReference, "delete", xcontext));
+        row.put("doc_rename_url", xwiki.getURL(documentReference, VIEW, "xpage=rename&step=1", null, xcontext));
+
+        boolean isTranslation =
+            StringUtils.isNotEmpty(language) && !language.equals(context.languagePreference);
+        // Display the language after the document name so that not all translated documents have the same name
+        // displayed.
+        row.put("doc_name", isTranslation ? documentReference.getName() + " (" + language + ')'
+            : documentReference.getName());
+        row.put("doc_hascopy", viewable);
+        row.put("doc_hasrename", deletable);
+        row.put("doc_hasrights", editable && context.isAdvancedUser);
+        if (WEBHOME.equals(documentReference.getName())) {
+            // For nested pages, use the page administration.
+            DocumentReference webPreferencesReference =
+                new DocumentReference("WebPreferences", documentReference.getLastSpaceReference());
+            row.put("doc_rights_url", xwiki.getURL(webPreferencesReference, "admin",
+                "editor=spaceadmin&section=PageRights", null, xcontext));
+        } else {
+            // For terminal pages, use the old rights editor.
+            row.put("doc_rights_url", xwiki.getURL(documentReference, EDIT, "editor=rights", null, xcontext));
+        }
+
+        if (viewable) {
+            XWikiDocument document = xwiki.getDocument(documentReference, xcontext);
+            // Make sure we display the data associated to the correct document if the returned result is a
+            // translation.
+            XWikiDocument translatedDocument = document.getTranslatedDocument(
+                isTranslation ? language : context.languagePreference, xcontext);
+
+            row.put("doc_edit_url", xwiki.getURL(documentReference, document.getDefaultEditMode(xcontext), xcontext));
+            row.put("doc_author_url", xwiki.getURL(translatedDocument.getAuthor(), VIEW, xcontext));
+            row.put("doc_date", xwiki.formatDate(translatedDocument.getDate(), null, xcontext));
+            row.put("doc_title", translatedDocument.getRenderedTitle(Syntax.PLAIN_1_0, xcontext));
+            row.put("doc_author", xwiki.getPlainUserName(translatedDocument.getAuthorReference(), xcontext));
+            row.put("doc_creationDate", xwiki.formatDate(translatedDocument.getCreationDate(), null, xcontext));
+            row.put("doc_creator", xwiki.getPlainUserName(translatedDocument.getCreatorReference(), xcontext));
+
+            for (String column : context.request.getColumns()) {
+                addColumn(column, document, translatedDocument, row, context);
+            }
+        }
+
+        return row;
+    }
+
+    private void addColumn(String column, XWikiDocument document, XWikiDocument translatedDocument,
+        Map<String, Object> row, RowsContext context) throws XWikiException
+    {
+        if (column.startsWith("doc.")) {
+            return;
+        } else if ("_action".equals(column)) {
+            row.put(column, context.getActionText());
+        } else if ("_attachments".equals(column)) {
+            row.put(column, getAttachments(translatedDocument, context));
+        } else if ("_avatar".equals(column)) {
+            row.put(column, getAvatar(document));
+        } else if ("_images".equals(column)) {
+            row.put(column, getImages(document, context));
+        } else {
+            addPropertyColumn(column, document, row, context);
+        }
+    }
+
+    private void addPropertyColumn(String column, XWikiDocument document, Map<String, Object> row,
+        RowsContext context) throws XWikiException
+    {
+        XWikiContext xcontext = context.xcontext;
+
+        String propertyClassName = context.request.getParameter(column + "_class");
+        DocumentReference propertyClassReference = StringUtils.isEmpty(propertyClassName) ? context.classReference
+            : this.resolver.resolve(propertyClassName);
+        BaseObject object = propertyClassReference != null ? document.getXObject(propertyClassReference) : null;
+        if (object == null) {
+            object = document.getFirstObject(column, xcontext);
+        }
+
+        String value = "";
+        String displayValue = "";
+        String url = "";
+        if (object != null) {
+            PropertyClass propertyClass = (PropertyClass) object.getXClass(xcontext).get(column);
+            BaseProperty<?> property = (BaseProperty<?>) object.safeget(column);
+            if (property != null && property.getValue() != null && !(propertyClass instanceof PasswordClass)) {
+                value = String.valueOf(property.getValue());
+            }
+            displayValue = document.display(column, VIEW, object, xcontext);
+
+            // Only retrieve an URL for a DBListClass item
+            if (propertyClass instanceof DBListClass && !((DBListClass) propertyClass).isMultiSelect()
+                && StringUtils.isNotEmpty(value)) {
+                url = context.xwiki.getURL(this.resolver.resolve(value), VIEW, xcontext);
+            }
+        }
+        if (StringUtils.isEmpty(displayValue)) {
+            displayValue = context.getEmptyValue();
+        }
+
+        row.put(column, StringUtils.removeEnd(StringUtils.replaceOnce(displayValue, HTML_MACRO_START, ""),
+            HTML_MACRO_END));
+        row.put(column + "_value", value);
+        row.put(column + "_url", url);
+    }
+
+    /**
+     * Same as {@code #hierarchy($docReference, {'limit': 5, 'plain': false, 'local': true, 'displayTitle': false})}.
+     */
+    private String getLocation(DocumentReference documentReference, RowsContext context)
+    {
+        List<EntityReference> path = new ArrayList<>(documentReference.getReversedReferenceChain());
+        // Remove the wiki reference.
+        path.remove(0);
+        // Merge the space reference with the space home page reference.
+        if (WEBHOME.equals(documentReference.getName())) {
+            path.remove(path.size() - 1);
+        }
+
+        int size = path.size();
+        if (size > LOCATION_LIMIT) {
+            int left = LOCATION_LIMIT / 2;
+            List<EntityReference> limitedPath = new ArrayList<>(path.subList(0, left));
+            // Null stands for the ellipsis
+            limitedPath.add(null);
+            limitedPath.addAll(path.subList(size - (LOCATION_LIMIT - left), size));
+            path = limitedPath;
+        }
+
+        StringBuilder html = new StringBuilder();
+        html.append("<ol class=\"breadcrumb breadcrumb-expandable\" data-entity='")
+            .append(XMLUtils.escape(this.localSerializer.serialize(documentReference))).append(ATTRIBUTE_END)
+            .append("data-limit='5' data-plain='false' data-local='true' data-displaytitle='false'><li");
+        for (int i = 0; i < path.size(); i++) {
+            EntityReference reference = path.get(i);
+            String type = reference != null ? reference.getType().toString().toLowerCase() : "ellipsis";
+            html.append(" class=\"").append(type);
+            if (i == path.size() - 1) {
+                html.append(" active");
+            }
+            html.append("\">");
+
+            String label = reference != null ? XMLUtils.escape(reference.getName()) : "&hellip;";
+            if (reference != null && context.isViewable(reference)) {
+                html.append("<a href=\"").append(context.xwiki.getURL(reference, context.xcontext)).append("\">")
+                    .append(label).append(LINK_END);
+            } else {
+                html.append(label);
+            }
+
+            if (i < path.size() - 1) {
+                html.append("</li><li");
+            }
+        }
+        html.append("</li></ol>");
+
+        return html.toString();
+    }
+
+    private String getAttachments(XWikiDocument document, RowsContext context)
+    {
+        StringBuilder html = new StringBuilder();
+        for (XWikiAttachment attachment : document.getAttachmentList()) {
+            html.append(LINK_START).append(document.getAttachmentURL(attachment.getFilename(), context.xcontext))
+                .append("'>").append(attachment.getFilename()).append("</a><br/>");
+        }
+
+        return html.toString();
+    }
+
+    private String getImages(XWikiDocument document, RowsContext context)
+    {
+        StringBuilder html = new StringBuilder();
+        for (XWikiAttachment attachment : document.getAttachmentList()) {
+            if (attachment.isImage(context.xcontext)) {
+                String filename = attachment.getFilename();
+                // Create a thumbnail by resizing the image on the server side, if needed, to fit inside a 50x50
+                // pixel square.
+                String thumbnailURL = document.getAttachmentURL(filename, "download",
+                    "width=50&height=50&keepAspectRatio=true", context.xcontext);
+                String imageURL = document.getAttachmentURL(filename, context.xcontext);
+                html.append("<a href=\"").append(imageURL).append("\"><img src=\"").append(thumbnailURL)
+                    .append("\" alt=\"").append(filename).append("\" title=\"").append(filename).append("\" /></a>");
+            }
+        }
+
+        return html.toString();
+    }
+
+    /**
+     * The avatar is displayed by a skin macro so we keep using it.
+     */
+    private String getAvatar(XWikiDocument document)
+    {
+        try {
+            VelocityContext velocityContext = this.velocityManager.getVelocityContext();
+            velocityContext.put("livetableAvatarUser", document.getFullName());
+
+            return this.xcontextProvider.get().getWiki()
+                .evaluateVelocity("#largeUserAvatar($livetableAvatarUser)", "livetable", velocityContext).trim();
+        } catch (Exception e) {
+            this.logger.warn("Failed to display the avatar of [{}]: {}", document.getDocumentReference(),
+                e.getMessage());
+
+            return "";
+        }
+    }
+}
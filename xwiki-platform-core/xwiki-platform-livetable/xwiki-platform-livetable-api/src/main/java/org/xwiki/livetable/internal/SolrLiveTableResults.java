@@ -0,0 +1,521 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable.internal;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.solr.client.solrj.response.FacetField;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.livetable.LiveTableException;
+import org.xwiki.livetable.LiveTableRequest;
+import org.xwiki.livetable.LiveTableResults;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+import org.xwiki.search.solr.internal.api.FieldUtils;
+import org.xwiki.search.solr.internal.api.SolrFieldNameEncoder;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.objects.classes.BaseClass;
+import com.xpn.xwiki.objects.classes.BooleanClass;
+import com.xpn.xwiki.objects.classes.DateClass;
+import com.xpn.xwiki.objects.classes.ListClass;
+import com.xpn.xwiki.objects.classes.NumberClass;
+import com.xpn.xwiki.objects.classes.PropertyClass;
+import com.xpn.xwiki.objects.classes.TextAreaClass;
+
+/**
+ * Compute the live table results from the Solr index instead of the database. The filters and the sort of the live
+ * table are translated into Solr filter queries on the fields indexed for the documents and their object properties,
+ * which avoids the joins between the documents, the objects and the property tables that the HQL queries need. The
+ * results are as fresh as the index.
+ * <p>
+ * The Solr index holds one document per page translation and only the one matching the current locale is returned, so
+ * there is always one row per page, as with the {@code unique} query filter. The {@code hidden} query filter and the
+ * {@code space}, {@code location} filters are translated, like the exclusion of the class template. The filters
+ * which rely on data that is not indexed ({@code parent}, {@code orphaned}) and the other query filters are rejected.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component
+@Named("solr")
+@Singleton
+public class SolrLiveTableResults implements LiveTableResults
+{
+    private static final String DOC_PREFIX = "doc.";
+
+    private static final String PROPERTY_PREFIX = "property.";
+
+    private static final String MATCH_EXACT = "exact";
+
+    private static final String MATCH_PREFIX = "prefix";
+
+    private static final String WILDCARD = "*";
+
+    private static final String AND = " AND ";
+
+    private static final String OR = " OR ";
+
+    private static final String FILTER_QUERY = "fq";
+
+    private static final String STRING = "string";
+
+    private static final String DATE = "date";
+
+    private static final String LANGUAGE_QUERY_FILTER = "language";
+
+    /**
+     * The query filters which don't need to be translated because they are implied by the Solr query.
+     */
+    private static final List<String> IMPLIED_QUERY_FILTERS = Arrays.asList("unique", "currentlanguage",
+        LANGUAGE_QUERY_FILTER);
+
+    /**
+     * The query filters which exclude the hidden documents.
+     */
+    private static final List<String> HIDDEN_QUERY_FILTERS = Arrays.asList("hidden", "hidden/document");
+
+    /**
+     * The filters of the {@code XWiki.LiveTableResults} page relying on the parent of the documents, which is not
+     * indexed.
+     */
+    private static final List<String> PARENT_FILTERS = Arrays.asList("parent", "orphaned");
+
+    private static final LocalDocumentReference TAG_CLASS = new LocalDocumentReference("XWiki", "TagClass");
+
+    /**
+     * The Solr fields used to filter the document columns.
+     */
+    private static final Map<String, String> DOCUMENT_FILTER_FIELDS = new HashMap<>();
+
+    /**
+     * The Solr fields used to sort the document columns.
+     */
+    private static final Map<String, String> DOCUMENT_SORT_FIELDS = new HashMap<>();
+
+    static {
+        DOCUMENT_FILTER_FIELDS.put("doc.name", FieldUtils.NAME_EXACT);
+        DOCUMENT_FILTER_FIELDS.put("doc.fullName", FieldUtils.FULLNAME);
+        DOCUMENT_FILTER_FIELDS.put("doc.location", FieldUtils.FULLNAME);
+        DOCUMENT_FILTER_FIELDS.put("doc.space", FieldUtils.SPACE_EXACT);
+        DOCUMENT_FILTER_FIELDS.put("doc.title", FieldUtils.TITLE_SORT);
+        DOCUMENT_FILTER_FIELDS.put("doc.author", FieldUtils.AUTHOR);
+        DOCUMENT_FILTER_FIELDS.put("doc.creator", FieldUtils.CREATOR);
+        DOCUMENT_FILTER_FIELDS.put("doc.date", FieldUtils.DATE);
+        DOCUMENT_FILTER_FIELDS.put("doc.creationDate", FieldUtils.CREATIONDATE);
+
+        DOCUMENT_SORT_FIELDS.putAll(DOCUMENT_FILTER_FIELDS);
+        DOCUMENT_SORT_FIELDS.put("doc.author", FieldUtils.AUTHOR_DISPLAY_SORT);
+    }
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    private LiveTableRowsBuilder rowsBuilder;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    private DocumentReferenceResolver<SolrDocument> solrDocumentReferenceResolver;
+
+    @Inject
+    @Named("solr")
+    private EntityReferenceSerializer<String> fieldNameSerializer;
+
+    @Inject
+    private SolrFieldNameEncoder fieldNameEncoder;
+
+    @Inject
+    @Named("user")
+    private ConfigurationSource userPreferences;
+
+    @Override
+    public Map<String, Object> getResults(LiveTableRequest request) throws LiveTableException
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        // The filters which don't depend on the live table filters, used to compute the cloud of all the tags
+        List<String> baseFilters = new ArrayList<>();
+        baseFilters.add(FieldUtils.TYPE + ':' + EntityType.DOCUMENT.name());
+        baseFilters.add(FieldUtils.WIKI + ':' + ClientUtils.escapeQueryChars(xcontext.getWikiId()));
+        // Only one Solr document per page: the translation matching the current locale
+        Locale locale = xcontext.getLocale();
+        baseFilters.add(FieldUtils.LOCALES + ':' + ClientUtils.escapeQueryChars(
+            locale != null ? locale.toString() : Locale.ROOT.toString()));
+        String className = request.getClassName();
+        if (StringUtils.isNotEmpty(className)) {
+            baseFilters.add(FieldUtils.CLASS + ':' + ClientUtils.escapeQueryChars(className));
+            // Exclude the class template
+            baseFilters.add('-' + FieldUtils.FULLNAME + ":(" + quote(className + "Template") + OR
+                + quote(className.replaceAll("Class$", "Template")) + ')');
+        }
+        addExtraFilters(request, baseFilters);
+        addQueryFilters(request, baseFilters);
+
+        List<String> filters = new ArrayList<>(baseFilters);
+        List<String> textFilters = new ArrayList<>();
+        Map<String, BaseClass> classes = new HashMap<>();
+        try {
+            for (String column : request.getColumns()) {
+                addFilter(column, request, filters, textFilters, classes);
+            }
+            for (String tag : request.getParameterValues("tag")) {
+                filters.add(getTagField() + ':' + quote(tag));
+            }
+
+            Map<String, Object> results = new LinkedHashMap<>();
+            results.put("reqNo", request.getRequestNumber());
+
+            Query query = this.queryManager.createQuery(
+                textFilters.isEmpty() ? "*:*" : StringUtils.join(textFilters, AND), "solr");
+            query.bindValue(FILTER_QUERY, filters);
+            query.bindValue("facet", "true");
+            query.bindValue("facet.field", getTagField());
+            query.bindValue("facet.mincount", "1");
+            query.bindValue("facet.limit", "-1");
+            String sort = getSort(request, classes);
+            if (sort != null) {
+                query.bindValue("sort", sort);
+            }
+            int limit = request.getLimit();
+            int offset = request.getOffset();
+            query.setLimit(limit).setOffset(offset);
+
+            QueryResponse response = (QueryResponse) query.execute().get(0);
+            SolrDocumentList documents = response.getResults();
+
+            // We use a map just because the client expects an object, but all we really need is a list.
+            Map<String, Integer> matchingTags = new LinkedHashMap<>();
+            for (Map.Entry<String, Long> tagCount : getTags(response).entrySet()) {
+                matchingTags.put(tagCount.getKey(), 1);
+            }
+            results.put("matchingtags", matchingTags);
+            results.put("tags", getAllTags(baseFilters));
+
+            results.put("totalrows", documents.getNumFound());
+            results.put("returnedrows", Math.min(documents.size(), limit));
+            results.put("offset", offset + 1);
+            results.put("rows", this.rowsBuilder.build(request,
+                getDocuments(documents, request.getQueryFilters().contains(LANGUAGE_QUERY_FILTER))));
+
+            return results;
+        } catch (QueryException | XWikiException e) {
+            throw new LiveTableException("Failed to get the live table results from the Solr index", e);
+        }
+    }
+
+    /**
+     * The filters of the {@code XWiki.LiveTableResults} page.
+     */
+    private void addExtraFilters(LiveTableRequest request, List<String> filters) throws LiveTableException
+    {
+        for (String filter : PARENT_FILTERS) {
+            if (StringUtils.isNotEmpty(request.getParameter(filter))) {
+                throw new LiveTableException(
+                    "The [" + filter + "] filter is not supported by the Solr live table source");
+            }
+        }
+
+        String space = request.getParameter("space");
+        if (StringUtils.isNotEmpty(space)) {
+            filters.add(FieldUtils.SPACE_EXACT + ':' + quote(space));
+        }
+        String location = request.getParameter("location");
+        if (StringUtils.isNotEmpty(location)) {
+            // The "/" used as separator by the user could be "." (the space separator) or "/" (in the document name).
+            // Note that, unlike the HQL filter, the match is case sensitive since the full name is not analyzed.
+            List<String> parts = new ArrayList<>();
+            for (String part : StringUtils.splitPreserveAllTokens(location, '/')) {
+                parts.add(ClientUtils.escapeQueryChars(part));
+            }
+            filters.add(FieldUtils.FULLNAME + ':' + WILDCARD + StringUtils.join(parts, WILDCARD) + WILDCARD);
+        }
+    }
+
+    private void addQueryFilters(LiveTableRequest request, List<String> filters) throws LiveTableException
+    {
+        for (String queryFilter : request.getQueryFilters()) {
+            if (HIDDEN_QUERY_FILTERS.contains(queryFilter)) {
+                Integer displayHiddenDocuments =
+                    this.userPreferences.getProperty("displayHiddenDocuments", Integer.class);
+                if (displayHiddenDocuments == null || displayHiddenDocuments != 1) {
+                    filters.add(FieldUtils.HIDDEN + ":false");
+                }
+            } else if (!IMPLIED_QUERY_FILTERS.contains(queryFilter)) {
+                throw new LiveTableException(
+                    "The [" + queryFilter + "] query filter is not supported by the Solr live table source");
+            }
+        }
+    }
+
+    private void addFilter(String column, LiveTableRequest request, List<String> filters, List<String> textFilters,
+        Map<String, BaseClass> classes) throws XWikiException
+    {
+        String[] values = request.getParameterValues(column);
+        if (values.length == 0 || StringUtils.isEmpty(values[0])) {
+            return;
+        }
+
+        String matchType = request.getParameter(column + "_match");
+        if (column.startsWith(DOC_PREFIX)) {
+            String field = DOCUMENT_FILTER_FIELDS.get(column);
+            if (FieldUtils.DATE.equals(field) || FieldUtils.CREATIONDATE.equals(field)) {
+                filters.add(getDateFilter(field, values[0]));
+            } else if (field != null) {
+                filters.add(getFilter(field, values, StringUtils.defaultIfEmpty(matchType, "partial"), OR));
+            }
+            return;
+        }
+
+        PropertyClass propertyClass = getPropertyClass(column, request, classes);
+        if (propertyClass == null) {
+            return;
+        }
+
+        String prefix = getFieldPrefix(propertyClass);
+        if (propertyClass instanceof TextAreaClass) {
+            // Text areas are indexed as localized text, which the main query expands to all the indexed locales.
+            List<String> terms = new ArrayList<>();
+            for (String value : values) {
+                terms.add(ClientUtils.escapeQueryChars(value));
+            }
+            textFilters.add(prefix + ":(" + StringUtils.join(terms, AND) + ')');
+        } else if (propertyClass instanceof DateClass) {
+            filters.add(getDateFilter(prefix + "_date", values[0]));
+        } else if (propertyClass instanceof NumberClass || propertyClass instanceof BooleanClass) {
+            String type = getType(propertyClass);
+            List<String> numbers = new ArrayList<>();
+            for (String value : values) {
+                numbers.add(propertyClass instanceof BooleanClass ? String.valueOf(!"0".equals(value))
+                    : ClientUtils.escapeQueryChars(value));
+            }
+            filters.add(prefix + '_' + type + ":(" + StringUtils.join(numbers, OR) + ')');
+        } else if (propertyClass instanceof ListClass) {
+            String operator = "OR".equalsIgnoreCase(request.getParameter(column + "/join_mode")) ? OR : AND;
+            filters.add(getFilter(prefix + '_' + STRING, values, StringUtils.defaultIfEmpty(matchType, MATCH_EXACT),
+                operator));
+        } else {
+            filters.add(getFilter(prefix + '_' + STRING, values, StringUtils.defaultIfEmpty(matchType, "partial"),
+                OR));
+        }
+    }
+
+    private String getFilter(String field, String[] values, String matchType, String operator)
+    {
+        List<String> terms = new ArrayList<>();
+        for (String value : values) {
+            if (MATCH_EXACT.equals(matchType)) {
+                terms.add(quote(value));
+            } else if (MATCH_PREFIX.equals(matchType)) {
+                terms.add(ClientUtils.escapeQueryChars(value) + WILDCARD);
+            } else {
+                terms.add(WILDCARD + ClientUtils.escapeQueryChars(value) + WILDCARD);
+            }
+        }
+
+        return field + ":(" + StringUtils.join(terms, operator) + ')';
+    }
+
+    /**
+     * The live table date filters are either a range of timestamps or a part of the date.
+     */
+    private String getDateFilter(String field, String value)
+    {
+        String[] timestamps = StringUtils.split(value, '-');
+        if (timestamps.length == 2 && StringUtils.isNumeric(timestamps[0]) && StringUtils.isNumeric(timestamps[1])) {
+            return field + ":[" + Instant.ofEpochMilli(Long.parseLong(timestamps[0])) + " TO "
+                + Instant.ofEpochMilli(Long.parseLong(timestamps[1])) + ']';
+        }
+
+        // There's no partial matching on dates: match everything.
+        return field + ":*";
+    }
+
+    private String getSort(LiveTableRequest request, Map<String, BaseClass> classes) throws XWikiException
+    {
+        String column = request.getSort();
+        if (column == null) {
+            return null;
+        }
+
+        String direction = "desc".equals(request.getDirection()) ? "desc" : "asc";
+        if (column.startsWith(DOC_PREFIX)) {
+            String field = DOCUMENT_SORT_FIELDS.get(column);
+
+            return field != null ? field + ' ' + direction : null;
+        }
+
+        PropertyClass propertyClass = getPropertyClass(column, request, classes);
+        // We can only sort on single values
+        if (propertyClass == null || (propertyClass instanceof ListClass && ((ListClass) propertyClass).isMultiSelect())
+            || propertyClass instanceof TextAreaClass) {
+            return null;
+        }
+
+        return getFieldPrefix(propertyClass) + "_sort" + StringUtils.capitalize(getType(propertyClass)) + ' '
+            + direction;
+    }
+
+    private PropertyClass getPropertyClass(String column, LiveTableRequest request, Map<String, BaseClass> classes)
+        throws XWikiException
+    {
+        String className = StringUtils.defaultIfEmpty(request.getParameter(column + "_class"), request.getClassName());
+        if (StringUtils.isEmpty(className)) {
+            return null;
+        }
+
+        BaseClass xclass = classes.get(className);
+        if (xclass == null) {
+            XWikiContext xcontext = this.xcontextProvider.get();
+            xclass = xcontext.getWiki().getXClass(this.resolver.resolve(className), xcontext);
+            classes.put(className, xclass);
+        }
+
+        return (PropertyClass) xclass.get(column);
+    }
+
+    /**
+     * @return the name of the Solr field holding the values of the passed property, without the type suffix
+     */
+    private String getFieldPrefix(PropertyClass propertyClass)
+    {
+        EntityReference propertyReference = new EntityReference(propertyClass.getName(), EntityType.CLASS_PROPERTY,
+            new LocalDocumentReference(propertyClass.getxWikiClass().getDocumentReference()));
+
+        return PROPERTY_PREFIX + this.fieldNameEncoder.encode(this.fieldNameSerializer.serialize(propertyReference));
+    }
+
+    /**
+     * @return the type of the Solr field holding the values of the passed property
+     */
+    private String getType(PropertyClass propertyClass)
+    {
+        if (propertyClass instanceof NumberClass) {
+            String numberType = ((NumberClass) propertyClass).getNumberType();
+
+            return "integer".equals(numberType) ? "int" : numberType;
+        } else if (propertyClass instanceof BooleanClass) {
+            return "boolean";
+        } else if (propertyClass instanceof DateClass) {
+            return DATE;
+        }
+
+        return STRING;
+    }
+
+    private String getTagField()
+    {
+        EntityReference tagsReference = new EntityReference("tags", EntityType.CLASS_PROPERTY, TAG_CLASS);
+
+        return PROPERTY_PREFIX + this.fieldNameEncoder.encode(this.fieldNameSerializer.serialize(tagsReference)) + '_'
+            + STRING;
+    }
+
+    private Map<String, Long> getTags(QueryResponse response)
+    {
+        Map<String, Long> tags = new LinkedHashMap<>();
+        FacetField facet = response.getFacetField(getTagField());
+        if (facet != null && facet.getValues() != null) {
+            for (FacetField.Count count : facet.getValues()) {
+                tags.put(count.getName(), count.getCount());
+            }
+        }
+
+        return tags;
+    }
+
+    private List<Map<String, Object>> getAllTags(List<String> baseFilters) throws QueryException
+    {
+        Query query = this.queryManager.createQuery("*:*", "solr");
+        query.bindValue(FILTER_QUERY, baseFilters);
+        query.bindValue("rows", "0");
+        query.bindValue("facet", "true");
+        query.bindValue("facet.field", getTagField());
+        query.bindValue("facet.mincount", "1");
+        query.bindValue("facet.limit", "-1");
+        QueryResponse response = (QueryResponse) query.execute().get(0);
+
+        // We use a list of maps just because the client expects an array.
+        List<Map<String, Object>> tags = new ArrayList<>();
+        for (Map.Entry<String, Long> tagCount : getTags(response).entrySet()) {
+            Map<String, Object> tag = new LinkedHashMap<>();
+            tag.put("tag", tagCount.getKey());
+            tag.put("count", tagCount.getValue().intValue());
+            tags.add(tag);
+        }
+
+        return tags;
+    }
+
+    /**
+     * @param withLanguage whether the rows should display the language of the translation, as with the
+     *            {@code language} query filter
+     */
+    private List<Pair<DocumentReference, String>> getDocuments(SolrDocumentList solrDocuments, boolean withLanguage)
+    {
+        List<Pair<DocumentReference, String>> documents = new ArrayList<>(solrDocuments.size());
+        for (SolrDocument solrDocument : solrDocuments) {
+            String language =
+                withLanguage ? (String) solrDocument.getFieldValue(FieldUtils.DOCUMENT_LOCALE) : null;
+            documents.add(
+                Pair.of(this.solrDocumentReferenceResolver.resolve(solrDocument), StringUtils.defaultString(language)));
+        }
+
+        return documents;
+    }
+
+    private static String quote(String value)
+    {
+        return '"' + StringUtils.replaceEach(value, new String[] {"\\", "\""}, new String[] {"\\\\", "\\\""}) + '"';
+    }
+}
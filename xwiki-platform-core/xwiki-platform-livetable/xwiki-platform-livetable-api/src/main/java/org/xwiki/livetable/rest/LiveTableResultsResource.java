@@ -0,0 +1,45 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable.rest;
+
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+import org.xwiki.rest.XWikiRestException;
+
+/**
+ * REST API returning the results of a live table, computed in Java. It accepts the same query string parameters as
+ * the {@code XWiki.LiveTableResults} page and returns the same JSON. The {@code source} parameter selects the
+ * {@link org.xwiki.livetable.LiveTableResults} implementation to use (e.g. {@code hql} or {@code solr}). As for the
+ * page, the current user needs the view right on the {@code XWiki.LiveTableResults} page of the wiki.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Path("/wikis/{wikiName}/livetable/results")
+public interface LiveTableResultsResource
+{
+    /**
+     * @param wikiName the wiki from which to get the live table results
+     * @return the live table results, serialized as JSON
+     * @throws XWikiRestException when failing to compute the results
+     */
+    String getResults(@PathParam("wikiName") String wikiName) throws XWikiRestException;
+}
@@ -0,0 +1,107 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable.rest.internal;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.ws.rs.GET;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response.Status;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.livetable.LiveTableRequest;
+import org.xwiki.livetable.LiveTableResults;
+import org.xwiki.livetable.rest.LiveTableResultsResource;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rest.XWikiResource;
+import org.xwiki.rest.XWikiRestException;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+import org.xwiki.wiki.manager.WikiManagerException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * Default implementation of {@link LiveTableResultsResource}.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component
+@Named("org.xwiki.livetable.rest.internal.DefaultLiveTableResultsResource")
+public class DefaultLiveTableResultsResource extends XWikiResource implements LiveTableResultsResource
+{
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Inject
+    private LiveTableResults liveTableResults;
+
+    @Inject
+    private WikiDescriptorManager wikiDescriptorManager;
+
+    @Inject
+    private ContextualAuthorizationManager authorization;
+
+    @Override
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public String getResults(@PathParam("wikiName") String wikiName) throws XWikiRestException
+    {
+        try {
+            if (!this.wikiDescriptorManager.exists(wikiName)) {
+                throw new WebApplicationException(Status.NOT_FOUND);
+            }
+        } catch (WikiManagerException e) {
+            throw new XWikiRestException(e);
+        }
+
+        // Same right as for getting the results from the XWiki.LiveTableResults page of the wiki
+        if (!this.authorization.hasAccess(Right.VIEW, new DocumentReference(wikiName, "XWiki", "LiveTableResults"))) {
+            throw new WebApplicationException(Status.UNAUTHORIZED);
+        }
+
+        Map<String, String[]> parameters = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> parameter : this.uriInfo.getQueryParameters().entrySet()) {
+            parameters.put(parameter.getKey(), parameter.getValue().toArray(new String[0]));
+        }
+
+        XWikiContext xcontext = getXWikiContext();
+        String currentWiki = xcontext.getWikiId();
+
+        try {
+            xcontext.setWikiId(wikiName);
+
+            return OBJECT_MAPPER.writeValueAsString(this.liveTableResults.getResults(new LiveTableRequest(parameters)));
+        } catch (Exception e) {
+            throw new XWikiRestException(e);
+        } finally {
+            xcontext.setWikiId(currentWiki);
+        }
+    }
+}
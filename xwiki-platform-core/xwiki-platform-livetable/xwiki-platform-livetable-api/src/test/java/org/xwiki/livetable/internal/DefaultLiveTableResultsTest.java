@@ -0,0 +1,113 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Provider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.livetable.LiveTableConfiguration;
+import org.xwiki.livetable.LiveTableException;
+import org.xwiki.livetable.LiveTableRequest;
+import org.xwiki.livetable.LiveTableResults;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultLiveTableResults}.
+ *
+ * @version $Id$
+ */
+public class DefaultLiveTableResultsTest
+{
+    @Rule
+    public MockitoComponentMockingRule<LiveTableResults> mocker =
+        new MockitoComponentMockingRule<>(DefaultLiveTableResults.class);
+
+    private ComponentManager componentManager;
+
+    private Map<String, String[]> parameters = new HashMap<>();
+
+    @Before
+    public void configure() throws Exception
+    {
+        this.componentManager = mock(ComponentManager.class);
+        Provider<ComponentManager> componentManagerProvider = this.mocker.getInstance(
+            new DefaultParameterizedType(null, Provider.class, ComponentManager.class), "context");
+        when(componentManagerProvider.get()).thenReturn(this.componentManager);
+
+        LiveTableConfiguration configuration = this.mocker.getInstance(LiveTableConfiguration.class);
+        when(configuration.getDefaultSource()).thenReturn("hql");
+    }
+
+    private void assertUnsupported() throws Exception
+    {
+        try {
+            this.mocker.getComponentUnderTest().getResults(new LiveTableRequest(this.parameters));
+            fail("The source should not be supported");
+        } catch (LiveTableException expected) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void getResultsFromConfiguredSource() throws Exception
+    {
+        LiveTableResults hqlResults = mock(LiveTableResults.class);
+        when(this.componentManager.getInstance(LiveTableResults.class, "hql")).thenReturn(hqlResults);
+        LiveTableRequest request = new LiveTableRequest(this.parameters);
+        Map<String, Object> results = Collections.singletonMap("totalrows", 1);
+        when(hqlResults.getResults(request)).thenReturn(results);
+
+        assertEquals(results, this.mocker.getComponentUnderTest().getResults(request));
+    }
+
+    @Test
+    public void getResultsFromDefaultSource() throws Exception
+    {
+        this.parameters.put("source", new String[] {"default"});
+        when(this.componentManager.getInstance(LiveTableResults.class, "default"))
+            .thenReturn(this.mocker.getComponentUnderTest());
+
+        assertUnsupported();
+    }
+
+    @Test
+    public void getResultsFromUnknownSource() throws Exception
+    {
+        this.parameters.put("source", new String[] {"unknown"});
+        when(this.componentManager.getInstance(LiveTableResults.class, "unknown"))
+            .thenThrow(new ComponentLookupException("unknown"));
+
+        assertUnsupported();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable.internal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Provider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.livetable.LiveTableRequest;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.objects.classes.BaseClass;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link LiveTableQueryBuilder}.
+ *
+ * @version $Id$
+ */
+public class LiveTableQueryBuilderTest
+{
+    @Rule
+    public MockitoComponentMockingRule<LiveTableQueryBuilder> mocker =
+        new MockitoComponentMockingRule<>(LiveTableQueryBuilder.class);
+
+    private Map<String, String[]> parameters = new HashMap<>();
+
+    @Before
+    public void configure() throws Exception
+    {
+        DocumentReference classReference = new DocumentReference("wiki", "Space", "MyClass");
+        BaseClass xclass = new BaseClass();
+        xclass.setDocumentReference(classReference);
+        xclass.addTextField("name", "Name", 30);
+        xclass.addNumberField("age", "Age", 5, "integer");
+        xclass.addStaticListField("status", "Status", 1, true, "a|b|c");
+
+        XWikiContext xcontext = mock(XWikiContext.class);
+        Provider<XWikiContext> xcontextProvider = this.mocker.getInstance(XWikiContext.TYPE_PROVIDER);
+        when(xcontextProvider.get()).thenReturn(xcontext);
+        XWiki xwiki = mock(XWiki.class);
+        when(xcontext.getWiki()).thenReturn(xwiki);
+        when(xwiki.getXClass(classReference, xcontext)).thenReturn(xclass);
+
+        DocumentReferenceResolver<String> resolver =
+            this.mocker.getInstance(DocumentReferenceResolver.TYPE_STRING, "current");
+        when(resolver.resolve("Space.MyClass")).thenReturn(classReference);
+    }
+
+    private void setParameter(String name, String... values)
+    {
+        this.parameters.put(name, values);
+    }
+
+    @Test
+    public void filterAndSortOnStringProperty() throws Exception
+    {
+        setParameter("classname", "Space.MyClass");
+        setParameter("collist", "name,doc.title");
+        setParameter("name", "foo");
+        setParameter("sort", "name");
+        setParameter("dir", "asc");
+
+        LiveTableQuery query = this.mocker.getComponentUnderTest().build(new LiveTableRequest(this.parameters));
+
+        assertEquals(", BaseObject as obj , StringProperty as prop_name where obj.name=doc.fullName"
+            + " and obj.className = ? and doc.fullName not in (?, ?)  and obj.id = prop_name.id.id"
+            + " and prop_name.id.name = ? and upper(prop_name.value) like upper(?)"
+            + "  order by lower(prop_name.value) asc, prop_name.value asc", query.getStatement());
+        assertEquals(Arrays.asList("Space.MyClass", "Space.MyClassTemplate", "Space.MyTemplate", "name", "%foo%"),
+            query.getParameters());
+
+        assertEquals(", BaseObject as obj ", query.getAllMatchingTagsFrom());
+        assertEquals(Arrays.asList("Space.MyClass", "Space.MyClassTemplate", "Space.MyTemplate"),
+            query.getAllMatchingParameters());
+    }
+
+    @Test
+    public void filterOnNumberAndMultipleListValues() throws Exception
+    {
+        setParameter("classname", "Space.MyClass");
+        setParameter("collist", "age,status");
+        setParameter("age", "42");
+        setParameter("status", "a", "b");
+        setParameter("status/join_mode", "or");
+
+        LiveTableQuery query = this.mocker.getComponentUnderTest().build(new LiveTableRequest(this.parameters));
+
+        assertTrue(query.getStatement().contains(", IntegerProperty as prop_age, StringListProperty as prop_status"));
+        assertTrue(query.getStatement().contains(" and prop_age.value = ?"));
+        assertTrue(query.getStatement().contains(" concat('|', concat(upper(prop_status.textValue), '|')) LIKE upper(?)"
+            + " OR concat('|', concat(upper(prop_status.textValue), '|')) LIKE upper(?) "));
+        assertEquals(Arrays.asList("Space.MyClass", "Space.MyClassTemplate", "Space.MyTemplate", "age", 42, "status",
+            "%|a|%", "%|b|%"), query.getParameters());
+    }
+
+    @Test
+    public void filterOnLocationAndTagsWithoutClass() throws Exception
+    {
+        setParameter("collist", "doc.location");
+        setParameter("doc.location", "A/B_");
+        setParameter("tag", "t1");
+
+        LiveTableQuery query = this.mocker.getComponentUnderTest().build(new LiveTableRequest(this.parameters));
+
+        assertTrue(query.getStatement().startsWith(
+            " , BaseObject as tobject, DBStringListProperty as tagprop where 1=1  and ((doc.name = 'WebHome'"));
+        assertTrue(query.getStatement().contains("lower(?) in (select lower(tag) from tagprop.list tag)"));
+        assertEquals(Arrays.asList("%A%B!_%", "%A%B!_%", "t1"), query.getParameters());
+        assertEquals("1=1 ", query.getAllMatchingTagsWhere());
+    }
+}
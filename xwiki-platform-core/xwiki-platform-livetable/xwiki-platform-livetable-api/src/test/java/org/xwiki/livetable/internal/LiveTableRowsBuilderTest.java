@@ -0,0 +1,163 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable.internal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Provider;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.livetable.LiveTableRequest;
+import org.xwiki.localization.ContextualLocalizationManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.security.authorization.AuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link LiveTableRowsBuilder}.
+ *
+ * @version $Id$
+ */
+public class LiveTableRowsBuilderTest
+{
+    @Rule
+    public MockitoComponentMockingRule<LiveTableRowsBuilder> mocker =
+        new MockitoComponentMockingRule<>(LiveTableRowsBuilder.class);
+
+    private Map<String, String[]> parameters = new HashMap<>();
+
+    private XWikiContext xcontext;
+
+    private XWiki xwiki;
+
+    private DocumentReference visibleReference = new DocumentReference("wiki", "Space", "Visible");
+
+    private DocumentReference secretReference = new DocumentReference("wiki", "Secret", "Hidden");
+
+    @Before
+    public void configure() throws Exception
+    {
+        this.xcontext = mock(XWikiContext.class);
+        Provider<XWikiContext> xcontextProvider = this.mocker.getInstance(XWikiContext.TYPE_PROVIDER);
+        when(xcontextProvider.get()).thenReturn(this.xcontext);
+        this.xwiki = mock(XWiki.class);
+        when(this.xcontext.getWiki()).thenReturn(this.xwiki);
+        when(this.xcontext.getWikiReference()).thenReturn(new WikiReference("wiki"));
+        DocumentReference user = new DocumentReference("wiki", "XWiki", "Alice");
+        when(this.xcontext.getUserReference()).thenReturn(user);
+        when(this.xwiki.getDocument(user, this.xcontext)).thenReturn(mock(XWikiDocument.class));
+        when(this.xwiki.getLanguagePreference(this.xcontext)).thenReturn("en");
+
+        EntityReferenceSerializer<String> localSerializer =
+            this.mocker.getInstance(EntityReferenceSerializer.TYPE_STRING, "local");
+        when(localSerializer.serialize(any(EntityReference.class)))
+            .thenAnswer(invocation -> ((EntityReference) invocation.getArgument(0)).getName());
+
+        Map<EntityReference, Boolean> viewable = new HashMap<>();
+        viewable.put(this.visibleReference, true);
+        viewable.put(this.visibleReference.getParent(), true);
+        viewable.put(this.secretReference, false);
+        viewable.put(this.secretReference.getParent(), false);
+        Map<EntityReference, Boolean> editable = new HashMap<>();
+        editable.put(this.visibleReference, true);
+        editable.put(this.secretReference, false);
+        AuthorizationManager authorization = this.mocker.getInstance(AuthorizationManager.class);
+        when(authorization.hasAccess(eq(Right.VIEW), eq(user), anyCollection())).thenReturn(viewable);
+        when(authorization.hasAccess(eq(Right.EDIT), eq(user), anyCollection())).thenReturn(editable);
+        when(authorization.hasAccess(eq(Right.DELETE), eq(user), anyCollection())).thenReturn(new HashMap<>());
+
+        XWikiDocument visibleDocument = mock(XWikiDocument.class);
+        when(this.xwiki.getDocument(this.visibleReference, this.xcontext)).thenReturn(visibleDocument);
+        when(visibleDocument.getTranslatedDocument("en", this.xcontext)).thenReturn(visibleDocument);
+        when(visibleDocument.getRenderedTitle(Syntax.PLAIN_1_0, this.xcontext)).thenReturn("Visible title");
+        when(this.xwiki.getURL(this.visibleReference.getParent(), this.xcontext)).thenReturn("/Space");
+        when(this.xwiki.getURL(this.secretReference.getParent(), this.xcontext)).thenReturn("/Secret");
+
+        ContextualLocalizationManager localization = this.mocker.getInstance(ContextualLocalizationManager.class);
+        when(localization.getTranslationPlain("actiontext")).thenReturn("Edit");
+    }
+
+    private List<Map<String, Object>> build() throws Exception
+    {
+        this.parameters.put("collist", new String[] {"doc.title,_action"});
+
+        return this.mocker.getComponentUnderTest().build(new LiveTableRequest(this.parameters),
+            Arrays.asList(Pair.of(this.visibleReference, ""), Pair.of(this.secretReference, "")));
+    }
+
+    @Test
+    public void buildViewableRow() throws Exception
+    {
+        Map<String, Object> row = build().get(0);
+
+        assertEquals(true, row.get("doc_viewable"));
+        assertEquals(true, row.get("doc_hasedit"));
+        assertEquals(false, row.get("doc_hasdelete"));
+        assertEquals("Visible", row.get("doc_name"));
+        assertEquals("Visible title", row.get("doc_title"));
+        assertEquals("Edit", row.get("_action"));
+        assertFalse(row.containsKey("doc.title"));
+        assertTrue(((String) row.get("doc_location")).contains("<a href=\"/Space\">Space</a>"));
+    }
+
+    @Test
+    public void buildRowWithoutViewRight() throws Exception
+    {
+        Map<String, Object> row = build().get(1);
+
+        assertEquals(false, row.get("doc_viewable"));
+        assertEquals(false, row.get("doc_hasedit"));
+        assertEquals("Hidden", row.get("doc_name"));
+        assertFalse(row.containsKey("doc_title"));
+        assertFalse(row.containsKey("_action"));
+        // The location is displayed but without links to the entities the user can't view.
+        String location = (String) row.get("doc_location");
+        assertTrue(location.contains("Secret"));
+        assertFalse(location.contains("<a href"));
+
+        verify(this.xwiki, never()).getDocument(this.secretReference, this.xcontext);
+    }
+}
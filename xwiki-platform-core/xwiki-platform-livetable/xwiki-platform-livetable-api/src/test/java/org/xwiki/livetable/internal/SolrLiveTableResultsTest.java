@@ -0,0 +1,208 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.inject.Provider;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.livetable.LiveTableException;
+import org.xwiki.livetable.LiveTableRequest;
+import org.xwiki.livetable.LiveTableResults;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.search.solr.internal.api.FieldUtils;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import com.xpn.xwiki.XWikiContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SolrLiveTableResults}.
+ *
+ * @version $Id$
+ */
+public class SolrLiveTableResultsTest
+{
+    @Rule
+    public MockitoComponentMockingRule<LiveTableResults> mocker =
+        new MockitoComponentMockingRule<>(SolrLiveTableResults.class);
+
+    private Map<String, String[]> parameters = new HashMap<>();
+
+    private Query query;
+
+    private SolrDocumentList solrDocuments = new SolrDocumentList();
+
+    @Before
+    public void configure() throws Exception
+    {
+        XWikiContext xcontext = mock(XWikiContext.class);
+        Provider<XWikiContext> xcontextProvider = this.mocker.getInstance(XWikiContext.TYPE_PROVIDER);
+        when(xcontextProvider.get()).thenReturn(xcontext);
+        when(xcontext.getWikiId()).thenReturn("wiki");
+        when(xcontext.getLocale()).thenReturn(Locale.ENGLISH);
+
+        this.query = mock(Query.class);
+        QueryManager queryManager = this.mocker.getInstance(QueryManager.class);
+        when(queryManager.createQuery("*:*", "solr")).thenReturn(this.query);
+        when(this.query.setLimit(anyInt())).thenReturn(this.query);
+        when(this.query.setOffset(anyInt())).thenReturn(this.query);
+        QueryResponse response = mock(QueryResponse.class);
+        when(response.getResults()).thenReturn(this.solrDocuments);
+        when(this.query.<Object>execute()).thenReturn(Collections.<Object>singletonList(response));
+    }
+
+    private void setParameter(String name, String... values)
+    {
+        this.parameters.put(name, values);
+    }
+
+    /**
+     * @return the filter queries of the main query and of the query computing the cloud of all the tags
+     */
+    @SuppressWarnings("unchecked")
+    private List<List<String>> getFilterQueries() throws Exception
+    {
+        ArgumentCaptor<Object> filterQueries = ArgumentCaptor.forClass(Object.class);
+        verify(this.query, times(2)).bindValue(eq("fq"), filterQueries.capture());
+
+        return (List<List<String>>) (List<?>) filterQueries.getAllValues();
+    }
+
+    private void assertUnsupported() throws Exception
+    {
+        try {
+            this.mocker.getComponentUnderTest().getResults(new LiveTableRequest(this.parameters));
+            fail("The request should not be supported");
+        } catch (LiveTableException expected) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void translateExtraFiltersAndTemplateExclusion() throws Exception
+    {
+        setParameter("classname", "Space.MyClass");
+        setParameter("space", "A.B");
+        setParameter("location", "A/My Page");
+
+        this.mocker.getComponentUnderTest().getResults(new LiveTableRequest(this.parameters));
+
+        List<String> expected = Arrays.asList("type:DOCUMENT", "wiki:wiki", "locales:en", "class:Space.MyClass",
+            "-fullname:(\"Space.MyClassTemplate\" OR \"Space.MyTemplate\")", "space_exact:\"A.B\"",
+            "fullname:*A*My\\ Page*");
+        // The extra filters apply to the tag cloud too.
+        assertEquals(Arrays.asList(expected, expected), getFilterQueries());
+    }
+
+    @Test
+    public void translateHiddenQueryFilter() throws Exception
+    {
+        setParameter("queryFilters", "currentlanguage,hidden,unique");
+
+        this.mocker.getComponentUnderTest().getResults(new LiveTableRequest(this.parameters));
+
+        assertTrue(getFilterQueries().get(0).contains(FieldUtils.HIDDEN + ":false"));
+    }
+
+    @Test
+    public void hiddenQueryFilterWhenDisplayingHiddenDocuments() throws Exception
+    {
+        setParameter("queryFilters", "hidden");
+        ConfigurationSource userPreferences = this.mocker.getInstance(ConfigurationSource.class, "user");
+        when(userPreferences.getProperty("displayHiddenDocuments", Integer.class)).thenReturn(1);
+
+        this.mocker.getComponentUnderTest().getResults(new LiveTableRequest(this.parameters));
+
+        assertFalse(getFilterQueries().get(0).contains(FieldUtils.HIDDEN + ":false"));
+    }
+
+    @Test
+    public void languageQueryFilter() throws Exception
+    {
+        SolrDocument solrDocument = new SolrDocument();
+        solrDocument.setField(FieldUtils.DOCUMENT_LOCALE, "fr");
+        this.solrDocuments.add(solrDocument);
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+        DocumentReferenceResolver<SolrDocument> solrResolver = this.mocker.getInstance(
+            new DefaultParameterizedType(null, DocumentReferenceResolver.class, SolrDocument.class));
+        when(solrResolver.resolve(solrDocument)).thenReturn(documentReference);
+        LiveTableRowsBuilder rowsBuilder = this.mocker.getInstance(LiveTableRowsBuilder.class);
+
+        LiveTableRequest request = new LiveTableRequest(this.parameters);
+        this.mocker.getComponentUnderTest().getResults(request);
+        verify(rowsBuilder).build(request, Collections.singletonList(Pair.of(documentReference, "")));
+
+        setParameter("queryFilters", "language");
+        request = new LiveTableRequest(this.parameters);
+        this.mocker.getComponentUnderTest().getResults(request);
+        verify(rowsBuilder).build(request, Collections.singletonList(Pair.of(documentReference, "fr")));
+    }
+
+    @Test
+    public void rejectParentFilters() throws Exception
+    {
+        setParameter("parent", "Main.WebHome");
+        assertUnsupported();
+
+        this.parameters.clear();
+        setParameter("orphaned", "1");
+        assertUnsupported();
+
+        verify(this.query, never()).execute();
+    }
+
+    @Test
+    public void rejectUnknownQueryFilter() throws Exception
+    {
+        setParameter("queryFilters", "hidden,custom");
+
+        assertUnsupported();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.livetable.rest.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.inject.Provider;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.UriInfo;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.livetable.LiveTableRequest;
+import org.xwiki.livetable.LiveTableResults;
+import org.xwiki.livetable.rest.LiveTableResultsResource;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+
+import com.xpn.xwiki.XWikiContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultLiveTableResultsResource}.
+ *
+ * @version $Id$
+ */
+public class DefaultLiveTableResultsResourceTest
+{
+    @Rule
+    public MockitoComponentMockingRule<LiveTableResultsResource> mocker =
+        new MockitoComponentMockingRule<>(DefaultLiveTableResultsResource.class);
+
+    private XWikiContext xcontext;
+
+    private WikiDescriptorManager wikiDescriptorManager;
+
+    private ContextualAuthorizationManager authorization;
+
+    private LiveTableResults liveTableResults;
+
+    @BeforeComponent
+    public void registerComponents() throws Exception
+    {
+        this.xcontext = mock(XWikiContext.class);
+        when(this.xcontext.getWikiId()).thenReturn("xwiki");
+
+        // Used by XWikiResource#initialize()
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.setProperty("xwikicontext", this.xcontext);
+        Execution execution = mock(Execution.class);
+        when(execution.getContext()).thenReturn(executionContext);
+        ComponentManager componentManager = this.mocker.registerMockComponent(ComponentManager.class, "context");
+        when(componentManager.getInstance(Execution.class)).thenReturn(execution);
+
+        Provider<XWikiContext> xcontextProvider = this.mocker.registerMockComponent(XWikiContext.TYPE_PROVIDER);
+        when(xcontextProvider.get()).thenReturn(this.xcontext);
+    }
+
+    @Before
+    public void configure() throws Exception
+    {
+        this.wikiDescriptorManager = this.mocker.getInstance(WikiDescriptorManager.class);
+        this.authorization = this.mocker.getInstance(ContextualAuthorizationManager.class);
+        this.liveTableResults = this.mocker.getInstance(LiveTableResults.class);
+
+        @SuppressWarnings("unchecked")
+        MultivaluedMap<String, String> parameters = mock(MultivaluedMap.class);
+        when(parameters.entrySet())
+            .thenReturn(Collections.singletonMap("collist", Arrays.asList("doc.title")).entrySet());
+        UriInfo uriInfo = mock(UriInfo.class);
+        when(uriInfo.getQueryParameters()).thenReturn(parameters);
+        FieldUtils.writeField(this.mocker.getComponentUnderTest(), "uriInfo", uriInfo, true);
+    }
+
+    private void assertStatus(Status status) throws Exception
+    {
+        try {
+            this.mocker.getComponentUnderTest().getResults("subwiki");
+            fail("The results should not be returned");
+        } catch (WebApplicationException e) {
+            assertEquals(status.getStatusCode(), e.getResponse().getStatus());
+        }
+
+        verify(this.liveTableResults, never()).getResults(any(LiveTableRequest.class));
+        verify(this.xcontext, never()).setWikiId("subwiki");
+    }
+
+    @Test
+    public void getResults() throws Exception
+    {
+        when(this.wikiDescriptorManager.exists("subwiki")).thenReturn(true);
+        when(this.authorization.hasAccess(Right.VIEW, new DocumentReference("subwiki", "XWiki", "LiveTableResults")))
+            .thenReturn(true);
+        when(this.liveTableResults.getResults(any(LiveTableRequest.class)))
+            .thenReturn(Collections.singletonMap("totalrows", 1));
+
+        assertEquals("{\"totalrows\":1}", this.mocker.getComponentUnderTest().getResults("subwiki"));
+
+        verify(this.xcontext).setWikiId("subwiki");
+        verify(this.xcontext).setWikiId("xwiki");
+    }
+
+    @Test
+    public void getResultsFromUnknownWiki() throws Exception
+    {
+        when(this.authorization.hasAccess(any(Right.class), any(DocumentReference.class))).thenReturn(true);
+
+        assertStatus(Status.NOT_FOUND);
+    }
+
+    @Test
+    public void getResultsWithoutViewRight() throws Exception
+    {
+        when(this.wikiDescriptorManager.exists("subwiki")).thenReturn(true);
+
+        assertStatus(Status.UNAUTHORIZED);
+    }
+}
@@ -101,4 +101,34 @@
      * @since 6.4RC1
      */
     long getSendWaitTime();
+
+    /**
+     * @return the number of threads preparing the mails to send in parallel (each thread handles a whole batch of
+     *         mails)
+     * @since 9.7RC1
+     */
+    default int getPrepareThreads()
+    {
+        return 1;
+    }
+
+    /**
+     * @return the number of threads sending the prepared mails in parallel (note that each thread waits
+     *         {@link #getSendWaitTime()} between 2 mails)
+     * @since 9.7RC1
+     */
+    default int getSendThreads()
+    {
+        return 1;
+    }
+
+    /**
+     * @return the maximum number of prepared mails waiting to be sent, after which the preparation of new mails waits
+     *         for some of them to be sent; 0 or less means no limit
+     * @since 9.7RC1
+     */
+    default int getSendQueueCapacity()
+    {
+        return 0;
+    }
 }
@@ -95,6 +95,8 @@ public class DefaultMailSenderConfiguration implements MailSenderConfiguration
      */
     private static final long DEFAULT_SEND_WAIT_TIME = 8 * 1000L;
 
+    private static final int DEFAULT_SEND_QUEUE_CAPACITY = 1000;
+
     private static final String FROM_PROPERTY = "from";
     private static final String BCC_PROPERTY = "bcc";
     private static final String HOST_PROPERTY = "host";
@@ -318,4 +320,22 @@ public long getSendWaitTime()
 
         return waitTime;
     }
+
+    @Override
+    public int getPrepareThreads()
+    {
+        return Math.max(1, this.xwikiPropertiesSource.getProperty(PREFIX + "prepareThreads", 1));
+    }
+
+    @Override
+    public int getSendThreads()
+    {
+        return Math.max(1, this.xwikiPropertiesSource.getProperty(PREFIX + "sendThreads", 1));
+    }
+
+    @Override
+    public int getSendQueueCapacity()
+    {
+        return this.xwikiPropertiesSource.getProperty(PREFIX + "sendQueueCapacity", DEFAULT_SEND_QUEUE_CAPACITY);
+    }
 }
@@ -22,6 +22,7 @@
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 
 import javax.activation.DataHandler;
@@ -33,6 +34,7 @@
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeBodyPart;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
@@ -107,7 +109,10 @@ private DataSource createTemporaryAttachmentDataSource(Attachment attachment) th
             temporaryAttachmentFile = File.createTempFile("attachment", ".tmp", this.temporaryDirectory);
             temporaryAttachmentFile.deleteOnExit();
             fos = new FileOutputStream(temporaryAttachmentFile);
-            fos.write(attachment.getContent());
+            // Stream the content to not load it in memory
+            try (InputStream stream = attachment.getContentInputStream()) {
+                IOUtils.copyLarge(stream, fos);
+            }
         } catch (Exception e) {
             throw new MessagingException(
                 String.format("Failed to save attachment [%s] to the file system", attachment.getFilename()), e);
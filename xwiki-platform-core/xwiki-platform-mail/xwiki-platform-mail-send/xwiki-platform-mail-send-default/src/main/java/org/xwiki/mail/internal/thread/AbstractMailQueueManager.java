@@ -19,8 +19,9 @@
  */
 package org.xwiki.mail.internal.thread;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Handles all operations on the Mail Queues.
@@ -33,24 +34,48 @@
 {
     /**
      * The Mail queue that the mail sender thread will use to send mails. We use a separate thread to allow sending
-     * mail asynchronously.
+     * mail asynchronously. The worker threads block on it instead of polling it.
      */
-    private Queue<T> mailQueue = new ConcurrentLinkedQueue<>();
+    private BlockingQueue<T> mailQueue = new LinkedBlockingQueue<>();
 
     /**
      * @return the mail queue containing all pending mails to be sent
      */
-    private Queue<T> getMailQueue()
+    private BlockingQueue<T> getMailQueue()
     {
         return this.mailQueue;
     }
 
+    /**
+     * Limit the number of items the queue can hold so that producers have to wait when the consumers are late. Must be
+     * called before the queue is used.
+     *
+     * @param capacity the maximum number of items in the queue, 0 or less for an unbounded queue
+     * @since 9.7RC1
+     */
+    protected void setCapacity(int capacity)
+    {
+        this.mailQueue = capacity > 0 ? new LinkedBlockingQueue<>(capacity) : new LinkedBlockingQueue<>();
+    }
+
     @Override
     public void addToQueue(T mailQueueItem)
     {
         getMailQueue().add(mailQueueItem);
     }
 
+    @Override
+    public boolean addToQueue(T mailQueueItem, long timeout, TimeUnit unit) throws InterruptedException
+    {
+        return getMailQueue().offer(mailQueueItem, timeout, unit);
+    }
+
+    @Override
+    public T waitForMessage(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        return getMailQueue().poll(timeout, unit);
+    }
+
     @Override
     public boolean hasMessage()
     {
@@ -19,6 +19,8 @@
  */
 package org.xwiki.mail.internal.thread;
 
+import java.util.concurrent.TimeUnit;
+
 import javax.inject.Inject;
 
 import org.slf4j.Logger;
@@ -33,6 +35,16 @@
  */
 public abstract class AbstractMailRunnable implements MailRunnable
 {
+    /**
+     * How long to wait for a mail queue item before checking again if the thread should stop.
+     */
+    protected static final long WAIT_TIMEOUT = 500L;
+
+    /**
+     * The unit of {@link #WAIT_TIMEOUT}.
+     */
+    protected static final TimeUnit WAIT_UNIT = TimeUnit.MILLISECONDS;
+
     @Inject
     protected Logger logger;
 
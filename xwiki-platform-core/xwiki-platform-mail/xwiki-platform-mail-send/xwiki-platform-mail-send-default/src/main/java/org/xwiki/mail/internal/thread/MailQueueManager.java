@@ -19,6 +19,8 @@
  */
 package org.xwiki.mail.internal.thread;
 
+import java.util.concurrent.TimeUnit;
+
 import org.xwiki.component.annotation.Role;
 
 /**
@@ -38,6 +40,29 @@
      */
     void addToQueue(T mailQueueItem);
 
+    /**
+     * Add a mail on the queue for processing, waiting if the queue is full.
+     *
+     * @param mailQueueItem the object representing the mail item to add to the queue
+     * @param timeout how long to wait for some space to be available in the queue
+     * @param unit the unit of the timeout
+     * @return true if the mail has been added, false if the timeout elapsed before some space became available
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @since 9.7RC1
+     */
+    boolean addToQueue(T mailQueueItem, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Remove the next mail from the queue, waiting for one to be available if the queue is empty.
+     *
+     * @param timeout how long to wait for a mail to be available
+     * @param unit the unit of the timeout
+     * @return the next mail on the queue, or null if the timeout elapsed before a mail was available
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @since 9.7RC1
+     */
+    T waitForMessage(long timeout, TimeUnit unit) throws InterruptedException;
+
     /**
      * @return true if the queue has messages waiting for processing
      */
@@ -33,6 +33,7 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.component.phase.Disposable;
+import org.xwiki.mail.MailSenderConfiguration;
 import org.xwiki.observation.EventListener;
 import org.xwiki.observation.event.Event;
 
@@ -72,9 +73,12 @@ public class MailSenderInitializerListener implements EventListener, Disposable
     @Named("send")
     private MailRunnable sendMailRunnable;
 
-    private Thread prepareMailThread;
+    @Inject
+    private MailSenderConfiguration configuration;
+
+    private List<Thread> prepareMailThreads = new ArrayList<>();
 
-    private Thread sendMailThread;
+    private List<Thread> sendMailThreads = new ArrayList<>();
 
     @Override
     public String getName()
@@ -91,18 +95,24 @@ public List<Event> getEvents()
     @Override
     public void onEvent(Event event, Object o, Object o1)
     {
-        // Step 1: Start the Mail Prepare Thread
-        this.prepareMailThread = new Thread(this.prepareMailRunnable);
-        this.prepareMailThread.setName("Mail Prepare Thread");
-        this.prepareMailThread.setDaemon(true);
-        this.prepareMailThread.start();
-
-        // Step 2: Start the Mail Sender Thread
-        this.sendMailThread = new Thread(this.sendMailRunnable);
-        this.sendMailThread.setName("Mail Sender Thread");
-        this.sendMailThread.setDaemon(true);
-        this.sendMailThread.start();
+        // Step 1: Start the Mail Prepare Threads
+        startMailThreads(this.prepareMailRunnable, "Mail Prepare Thread", this.configuration.getPrepareThreads(),
+            this.prepareMailThreads);
+
+        // Step 2: Start the Mail Sender Threads
+        startMailThreads(this.sendMailRunnable, "Mail Sender Thread", this.configuration.getSendThreads(),
+            this.sendMailThreads);
+    }
 
+    private void startMailThreads(MailRunnable runnable, String name, int count, List<Thread> threads)
+    {
+        for (int i = 0; i < count; i++) {
+            Thread thread = new Thread(runnable);
+            thread.setName(count > 1 ? name + ' ' + (i + 1) : name);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
     }
 
     /**
@@ -112,27 +122,27 @@ public void onEvent(Event event, Object o, Object o1)
      */
     private void stopMailThreads() throws InterruptedException
     {
-        // Step 1: Stop the Mail Sender Thread
+        // Step 1: Stop the Mail Sender Threads
+        stopMailThreads(this.sendMailRunnable, this.sendMailThreads);
+        SHUTDOWN_LOGGER.debug("Mail Sender Threads have been stopped");
 
-        if (this.sendMailThread != null) {
-            this.sendMailRunnable.stopProcessing();
-            // Make sure the Thread goes out of sleep if it's sleeping so that it stops immediately.
-            this.sendMailThread.interrupt();
-            // Wait till the thread goes away
-            this.sendMailThread.join();
-            SHUTDOWN_LOGGER.debug(String.format("Mail Prepare Thread has been stopped"));
-        }
-
-        // Step 2: Stop the Mail Prepare Thread
+        // Step 2: Stop the Mail Prepare Threads
+        stopMailThreads(this.prepareMailRunnable, this.prepareMailThreads);
+        SHUTDOWN_LOGGER.debug("Mail Prepare Threads have been stopped");
+    }
 
-        if (this.prepareMailThread != null) {
-            this.prepareMailRunnable.stopProcessing();
-            // Make sure the Thread goes out of sleep if it's sleeping so that it stops immediately.
-            this.prepareMailThread.interrupt();
+    private void stopMailThreads(MailRunnable runnable, List<Thread> threads) throws InterruptedException
+    {
+        runnable.stopProcessing();
+        for (Thread thread : threads) {
+            // Make sure the Thread goes out of waiting if it's waiting so that it stops immediately.
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
             // Wait till the thread goes away
-            this.prepareMailThread.join();
-            SHUTDOWN_LOGGER.debug(String.format("Mail Sender Thread has been stopped"));
+            thread.join();
         }
+        threads.clear();
     }
 
     @Override
@@ -69,19 +69,12 @@ public void run()
     {
         do {
             try {
-                // Handle next message in the queue
-                if (this.prepareMailQueueManager.hasMessage()) {
-                    // Important: only remove the mail item after the message has been created and put on the sender
-                    // queue.
-                    PrepareMailQueueItem mailItem = this.prepareMailQueueManager.peekMessage();
-                    try {
-                        prepareMail(mailItem);
-                    } finally {
-                        this.prepareMailQueueManager.removeMessageFromQueue(mailItem);
-                    }
+                // Wait for the next message in the queue. Note: we don't wait forever in order to regularly check if
+                // the thread should stop.
+                PrepareMailQueueItem mailItem = this.prepareMailQueueManager.waitForMessage(WAIT_TIMEOUT, WAIT_UNIT);
+                if (mailItem != null) {
+                    prepareMail(mailItem);
                 }
-                // Note: a short pause to catch thread interruptions and to be kind on CPU.
-                Thread.sleep(100L);
             } catch (InterruptedException e) {
                 // Thread has been stopped, exit
                 this.logger.debug("Mail Prepare Thread was forcefully stopped", e);
@@ -98,8 +91,9 @@ public void run()
      *
      * @param item the queue item containing all the data for sending the mail
      * @throws org.xwiki.context.ExecutionContextException when the XWiki Context fails to be set up
+     * @throws InterruptedException if the thread is interrupted while waiting for some space in the Mail Sender Queue
      */
-    protected void prepareMail(PrepareMailQueueItem item) throws ExecutionContextException
+    protected void prepareMail(PrepareMailQueueItem item) throws ExecutionContextException, InterruptedException
     {
         Iterator<? extends MimeMessage> messageIterator = item.getMessages().iterator();
         MailListener listener = item.getListener();
@@ -129,6 +123,8 @@ protected void prepareMail(PrepareMailQueueItem item) throws ExecutionContextExc
                     removeContext();
                 }
             }
+        } catch (InterruptedException e) {
+            throw e;
         } catch (Exception e) {
             if (listener != null) {
                 listener.onPrepareFatalError(e, Collections.<String, Object>emptyMap());
@@ -158,7 +154,7 @@ protected void prepareContext(ExecutionContext executionContext) throws Executio
         }
     }
 
-    private void prepareSingleMail(MimeMessage mimeMessage, PrepareMailQueueItem item)
+    private void prepareSingleMail(MimeMessage mimeMessage, PrepareMailQueueItem item) throws InterruptedException
     {
         MailListener listener = item.getListener();
 
@@ -187,9 +183,15 @@ private void prepareSingleMail(MimeMessage mimeMessage, PrepareMailQueueItem ite
 
         // Step 4: Put the MimeMessage id on the Mail Send Queue for sending
         // Extract the wiki id from the context
-        this.sendMailQueueManager.addToQueue(new SendMailQueueItem(message.getUniqueMessageId(),
-            item.getSession(), listener, item.getBatchId(), extractWikiId(item)));
-
+        SendMailQueueItem sendItem = new SendMailQueueItem(message.getUniqueMessageId(), item.getSession(), listener,
+            item.getBatchId(), extractWikiId(item));
+        // The Mail Send Queue is bounded: wait for the mails already prepared to be sent before preparing more (but
+        // regularly check if the thread should stop, in case the Mail Sender Thread is already stopped).
+        while (!this.sendMailQueueManager.addToQueue(sendItem, WAIT_TIMEOUT, WAIT_UNIT)) {
+            if (this.shouldStop) {
+                throw new InterruptedException("Mail Prepare Thread stopped while waiting for the Mail Send Queue");
+            }
+        }
     }
 
     private String extractWikiId(PrepareMailQueueItem item)
@@ -19,12 +19,17 @@
  */
 package org.xwiki.mail.internal.thread;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.mail.MailSenderConfiguration;
 
 /**
- * Handles all operations on the Send Mail Queue.
+ * Handles all operations on the Send Mail Queue. The queue is bounded (see
+ * {@link MailSenderConfiguration#getSendQueueCapacity()}) so that the preparation of large batches waits for the mails
+ * to be sent instead of piling up.
  *
  * @version $Id$
  * @since 6.4
@@ -32,6 +37,14 @@
 @Component
 @Singleton
 public class SendMailQueueManager extends AbstractMailQueueManager<SendMailQueueItem>
-    implements MailQueueManager<SendMailQueueItem>
+    implements MailQueueManager<SendMailQueueItem>, Initializable
 {
+    @Inject
+    private MailSenderConfiguration configuration;
+
+    @Override
+    public void initialize()
+    {
+        setCapacity(this.configuration.getSendQueueCapacity());
+    }
 }
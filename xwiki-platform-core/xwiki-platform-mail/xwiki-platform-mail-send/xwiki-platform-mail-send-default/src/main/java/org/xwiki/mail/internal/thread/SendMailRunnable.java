@@ -64,25 +64,32 @@ public class SendMailRunnable extends AbstractMailRunnable
     @Inject
     private Provider<XWikiContext> contextProvider;
 
-    private Transport currentTransport;
+    /**
+     * The SMTP connection of a Mail Sender Thread (several threads can run this runnable).
+     */
+    private static final class TransportHolder
+    {
+        private Transport transport;
 
-    private Session currentSession;
+        private Session session;
 
-    private int count;
+        private int count;
+    }
 
     @Override
     public void run()
     {
+        TransportHolder transport = new TransportHolder();
         try {
             // Make sure we initialize an execution context.
             prepareContext();
 
-            runInternal();
+            runInternal(transport);
         } catch (ExecutionContextException e) {
             // Not much to do but log.
             logger.error("Failed to initialize the send mail thread's execution context", e);
         } finally {
-            closeTransport();
+            closeTransport(transport);
         }
     }
 
@@ -101,28 +108,21 @@ private void prepareContextForQueueItem(SendMailQueueItem mailItem)
         xcontext.setWikiId(mailItem.getWikiId());
     }
 
-    private void runInternal()
+    private void runInternal(TransportHolder transport)
     {
         do {
             try {
-                // Handle next message in the queue
-                if (this.sendMailQueueManager.hasMessage()) {
-                    // Important: only remove the mail item from the queue after the mail has been sent as
-                    // otherwise, MailSender.waitTillSent() may return before the mail is actually sent!
-                    SendMailQueueItem mailItem = this.sendMailQueueManager.peekMessage();
-                    try {
-                        sendMail(mailItem);
-                    } finally {
-                        this.sendMailQueueManager.removeMessageFromQueue(mailItem);
-                    }
+                // Wait for the next message in the queue. Note: we don't wait forever in order to regularly check if
+                // the thread should stop.
+                SendMailQueueItem mailItem = this.sendMailQueueManager.waitForMessage(WAIT_TIMEOUT, WAIT_UNIT);
+                if (mailItem != null) {
+                    sendMail(mailItem, transport);
                     // Email throttling: Wait before processing the next mail queue item
-                    // Note: it's important that we wait after the previous item has been removed from the queue in
-                    // order to let users know as soon as possible that their mail has been sent (otherwise when sending
-                    // a synchronous mail, the user would have to wait the send wait time!).
+                    // Note: it's important that we wait after the previous item has been sent in order to let users
+                    // know as soon as possible that their mail has been sent (otherwise when sending a synchronous
+                    // mail, the user would have to wait the send wait time!).
                     waitSendWaitTime();
                 }
-                // Note: a short pause to catch thread interruptions and to be kind on CPU.
-                Thread.sleep(50L);
             } catch (InterruptedException e) {
                 // Thread has been stopped, exit
                 this.logger.debug("Mail Sender Thread was forcefully stopped", e);
@@ -138,8 +138,9 @@ private void runInternal()
      * Send the mail.
      *
      * @param item the queue item containing all the data for sending the mail
+     * @param transport the SMTP connection of the current thread
      */
-    protected void sendMail(SendMailQueueItem item)
+    private void sendMail(SendMailQueueItem item, TransportHolder transport)
     {
         prepareContextForQueueItem(item);
 
@@ -157,24 +158,25 @@ protected void sendMail(SendMailQueueItem item)
         }
 
         try {
-            // Step 2: If the current Session in use is different from the one passed then close
-            // the current Transport, get a new one and reconnect.
+            // Step 2: If the current Session in use targets a different server (or uses different settings) than the
+            // one passed then close the current Transport, get a new one and reconnect. Different batches sent to the
+            // same server (each batch usually has its own Session) thus share the same connection.
             // Also do that every 100 mails sent.
             // TODO: explain why!
-            if (item.getSession() != this.currentSession || (this.count % 100) == 0) {
-                closeTransport();
-                this.currentSession = item.getSession();
-                this.currentTransport = this.currentSession.getTransport("smtp");
-                this.currentTransport.connect();
-            } else if (!this.currentTransport.isConnected()) {
-                this.currentTransport.connect();
+            if (!isSameServer(item.getSession(), transport.session) || (transport.count % 100) == 0) {
+                closeTransport(transport);
+                transport.session = item.getSession();
+                transport.transport = transport.session.getTransport("smtp");
+                transport.transport.connect();
+            } else if (!transport.transport.isConnected()) {
+                transport.transport.connect();
             }
 
             // Step 3: Send the mail
             // Unlike the static send method, the sendMessage method does not call the saveChanges method on the
             // message; this prevent the MessageID header to be changed.
-            this.currentTransport.sendMessage(message, message.getAllRecipients());
-            this.count++;
+            transport.transport.sendMessage(message, message.getAllRecipients());
+            transport.count++;
 
             // Step 4: Notify the user of the success if a listener has been provided
             if (listener != null) {
@@ -194,11 +196,19 @@ private void waitSendWaitTime() throws InterruptedException
         Thread.sleep(sendWaitTime);
     }
 
-    private void closeTransport()
+    private boolean isSameServer(Session session, Session currentSession)
+    {
+        // Note: the Transport reads some of its settings (e.g. the envelope sender) from its Session when sending so
+        // we compare all the properties and not only the host and port.
+        return session == currentSession
+            || (currentSession != null && session.getProperties().equals(currentSession.getProperties()));
+    }
+
+    private void closeTransport(TransportHolder transport)
     {
-        if (this.currentTransport != null) {
+        if (transport.transport != null) {
             try {
-                this.currentTransport.close();
+                transport.transport.close();
             } catch (MessagingException e) {
                 this.logger.warn("Failed to close JavaMail Transport connection. Reason [{}]",
                     ExceptionUtils.getRootCauseMessage(e));
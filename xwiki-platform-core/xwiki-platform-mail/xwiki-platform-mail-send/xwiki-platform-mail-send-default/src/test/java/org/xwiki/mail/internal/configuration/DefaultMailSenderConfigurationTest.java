@@ -222,4 +222,17 @@ public void getPortWhenMailConfigDoesntExist() throws Exception
 
         assertEquals(25, this.mocker.getComponentUnderTest().getPort());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getSendThreads() throws Exception
+    {
+        ConfigurationSource xwikiPropertiesSource =
+            this.mocker.getInstance(ConfigurationSource.class, "xwikiproperties");
+        when(xwikiPropertiesSource.getProperty("mail.sender.sendThreads", 1)).thenReturn(4);
+        when(xwikiPropertiesSource.getProperty("mail.sender.prepareThreads", 1)).thenReturn(0);
+
+        assertEquals(4, this.mocker.getComponentUnderTest().getSendThreads());
+        // At least one thread is needed
+        assertEquals(1, this.mocker.getComponentUnderTest().getPrepareThreads());
+    }
+}
@@ -23,6 +23,7 @@
 import java.util.Iterator;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Provider;
 import javax.mail.Session;
@@ -56,6 +57,7 @@
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
@@ -248,9 +250,9 @@ public Object answer(InvocationOnMock invocationOnMock) throws Throwable
                 Object[] args = invocationOnMock.getArguments();
                 SendMailQueueItem item = (SendMailQueueItem) args[0];
                 ((UpdateableMailStatusResult)item.getListener().getMailStatusResult()).incrementCurrentSize();
-                return null;
+                return true;
             }
-        }).when(sendMailQueueManager).addToQueue(any(SendMailQueueItem.class));
+        }).when(sendMailQueueManager).addToQueue(any(SendMailQueueItem.class), anyLong(), any(TimeUnit.class));
 
 
         // Prepare 2 mails. Both will fail but we want to verify that the second one is processed even though the first
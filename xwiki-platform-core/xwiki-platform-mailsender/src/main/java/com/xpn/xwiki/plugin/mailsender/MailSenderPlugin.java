@@ -23,6 +23,7 @@
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -53,6 +54,7 @@
 import javax.mail.internet.MimeMessage;
 import javax.mail.internet.MimeMultipart;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.Velocity;
@@ -267,11 +269,12 @@ public MimeBodyPart createAttachmentBodyPart(Attachment attachment, XWikiContext
         IOException, MessagingException
     {
         String name = attachment.getFilename();
-        byte[] stream = attachment.getContent();
         File temp = File.createTempFile("tmpfile", ".tmp");
-        FileOutputStream fos = new FileOutputStream(temp);
-        fos.write(stream);
-        fos.close();
+        // Stream the content to not load it in memory
+        try (InputStream stream = attachment.getContentInputStream();
+            FileOutputStream fos = new FileOutputStream(temp)) {
+            IOUtils.copyLarge(stream, fos);
+        }
         DataSource source = new FileDataSource(temp);
         MimeBodyPart part = new MimeBodyPart();
         String mimeType = MimeTypesUtil.getMimeTypeFromFilename(name);
@@ -51,4 +51,18 @@
      * @since 9.6RC1
      */
     int liveNotificationsGraceTime();
+
+    /**
+     * @return true if the notifications of each user should be kept in memory (and updated when new events are
+     *         recorded) instead of being computed for each request
+     * @since 9.7RC1
+     */
+    boolean isInboxEnabled();
+
+    /**
+     * @return the maximum time (in seconds) the notifications of a user are kept in memory, to take into account the
+     *         changes which cannot be detected (access rights, wiki wide filters, etc.)
+     * @since 9.7RC1
+     */
+    int getInboxLifespan();
 }
@@ -60,4 +60,16 @@ public int liveNotificationsGraceTime()
 
         return (graceTime < 0) ? 0 : graceTime;
     }
+
+    @Override
+    public boolean isInboxEnabled()
+    {
+        return configurationSource.getProperty(CONFIGURATION_PREFIX + "inbox.enabled", true);
+    }
+
+    @Override
+    public int getInboxLifespan()
+    {
+        return configurationSource.getProperty(CONFIGURATION_PREFIX + "inbox.lifespan", 300);
+    }
 }
@@ -80,6 +80,9 @@ public class DefaultNotificationManager implements NotificationManager
     @Inject
     private NotificationFilterManager notificationFilterManager;
 
+    @Inject
+    private NotificationInboxManager inboxManager;
+
     /**
      * For internal use, avoid to give more than 7 parameters to methods.
      */
@@ -111,7 +114,7 @@ public class DefaultNotificationManager implements NotificationManager
     public List<CompositeEvent> getEvents(String userId, boolean onlyUnread, int expectedCount)
             throws NotificationException
     {
-        return getEvents(new ArrayList<>(),
+        return getEvents(
                 new Parameters(
                     documentReferenceResolver.resolve(userId),
                     NotificationFormat.ALERT,
@@ -128,7 +131,7 @@ public List<CompositeEvent> getEvents(String userId, boolean onlyUnread, int exp
     public List<CompositeEvent> getEvents(String userId, boolean onlyUnread, int count, Date untilDate,
             List<String> blackList) throws NotificationException
     {
-        return getEvents(new ArrayList<>(),
+        return getEvents(
                 new Parameters(
                         documentReferenceResolver.resolve(userId),
                         NotificationFormat.ALERT,
@@ -145,7 +148,7 @@ public List<CompositeEvent> getEvents(String userId, boolean onlyUnread, int cou
     public List<CompositeEvent> getEvents(String userId, boolean onlyUnread, int expectedCount, Date untilDate,
             Date fromDate, List<String> blackList) throws NotificationException
     {
-        return getEvents(new ArrayList<>(),
+        return getEvents(
                 new Parameters(
                         documentReferenceResolver.resolve(userId),
                         NotificationFormat.ALERT,
@@ -162,7 +165,7 @@ public List<CompositeEvent> getEvents(String userId, boolean onlyUnread, int exp
     public List<CompositeEvent> getEvents(String userId, NotificationFormat format, boolean onlyUnread,
             int expectedCount, Date untilDate, Date fromDate, List<String> blackList) throws NotificationException
     {
-        return getEvents(new ArrayList<>(),
+        return getEvents(
                 new Parameters(
                         documentReferenceResolver.resolve(userId),
                         format,
@@ -180,19 +183,49 @@ public long getEventsCount(String userId, boolean onlyUnread, int maxCount) thro
     {
         DocumentReference user = documentReferenceResolver.resolve(userId);
 
-        List<CompositeEvent> events = getEvents(new ArrayList<>(),
-                new Parameters(
-                        user,
-                        NotificationFormat.ALERT,
-                        onlyUnread,
-                        maxCount,
-                        null,
-                        null,
-                        new ArrayList<>()
-                )
-        );
+        NotificationInbox inbox = inboxManager.getInbox(user);
+        String key = String.format("count/%s/%d", onlyUnread, maxCount);
+        Long count = inbox != null ? inbox.getCount(key) : null;
+        if (count == null) {
+            List<CompositeEvent> events = getEvents(new ArrayList<>(),
+                    new Parameters(
+                            user,
+                            NotificationFormat.ALERT,
+                            onlyUnread,
+                            maxCount,
+                            null,
+                            null,
+                            new ArrayList<>()
+                    )
+            );
+            count = Long.valueOf(events.size());
+            if (inbox != null) {
+                inbox.setCount(key, count);
+            }
+        }
+
+        return count;
+    }
+
+    private List<CompositeEvent> getEvents(Parameters parameters) throws NotificationException
+    {
+        // Only the most recent notifications (i.e. the ones displayed on each page) are kept in the inbox of the user
+        NotificationInbox inbox = null;
+        if (parameters.endDate == null && parameters.fromDate == null && parameters.blackList.isEmpty()) {
+            inbox = inboxManager.getInbox(parameters.userReference);
+        }
+        if (inbox == null) {
+            return getEvents(new ArrayList<>(), parameters);
+        }
 
-        return events.size();
+        String key = String.format("%s/%s/%d", parameters.format, parameters.onlyUnread, parameters.expectedCount);
+        List<CompositeEvent> events = inbox.getEvents(key);
+        if (events == null) {
+            events = getEvents(new ArrayList<>(), parameters);
+            inbox.setEvents(key, events);
+        }
+
+        return events;
     }
 
     private List<CompositeEvent> getEvents(List<CompositeEvent> results, Parameters parameters)
@@ -392,6 +425,8 @@ public List<NotificationPreference> getPreferences(String userId) throws Notific
     @Override
     public void setStartDate(String userId, Date startDate) throws NotificationException
     {
-        notificationPreferenceManager.setStartDateForUser(documentReferenceResolver.resolve(userId), startDate);
+        DocumentReference user = documentReferenceResolver.resolve(userId);
+        notificationPreferenceManager.setStartDateForUser(user, startDate);
+        inboxManager.invalidate(user);
     }
 }
@@ -0,0 +1,126 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.sources.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.xwiki.eventstream.Event;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.notifications.CompositeEvent;
+
+/**
+ * The notifications of a user kept in memory by {@link NotificationInboxManager}, along with the part of the user
+ * preferences needed to know if a new event might concern the user.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public class NotificationInbox
+{
+    private final DocumentReference user;
+
+    private final Set<String> eventTypes;
+
+    private final String userWiki;
+
+    private final ConcurrentMap<String, List<CompositeEvent>> events = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Long> counts = new ConcurrentHashMap<>();
+
+    /**
+     * @param user the user receiving the notifications
+     * @param eventTypes the types of events the user is interested in (whatever the format)
+     * @param userWiki the only wiki from which the user receives notifications, null for a global user
+     */
+    public NotificationInbox(DocumentReference user, Set<String> eventTypes, String userWiki)
+    {
+        this.user = user;
+        this.eventTypes = eventTypes;
+        this.userWiki = userWiki;
+    }
+
+    /**
+     * @return the types of events the user is interested in
+     */
+    public Set<String> getEventTypes()
+    {
+        return this.eventTypes;
+    }
+
+    /**
+     * @param event a new event
+     * @return true if the event might be one of the notifications of the user, false if it certainly isn't
+     */
+    public boolean isConcernedBy(Event event)
+    {
+        // Users are not notified of their own events
+        if (this.user.equals(event.getUser())) {
+            return false;
+        }
+
+        if (!this.eventTypes.contains(event.getType())) {
+            return false;
+        }
+
+        return this.userWiki == null || event.getWiki() == null || this.userWiki.equals(event.getWiki().getName());
+    }
+
+    /**
+     * @param key the key of the request
+     * @return a copy of the notifications previously computed for the request, null if none
+     */
+    public List<CompositeEvent> getEvents(String key)
+    {
+        List<CompositeEvent> result = this.events.get(key);
+
+        return result != null ? new ArrayList<>(result) : null;
+    }
+
+    /**
+     * @param key the key of the request
+     * @param result the notifications computed for the request
+     */
+    public void setEvents(String key, List<CompositeEvent> result)
+    {
+        this.events.put(key, new ArrayList<>(result));
+    }
+
+    /**
+     * @param key the key of the request
+     * @return the number of notifications previously computed for the request, null if none
+     */
+    public Long getCount(String key)
+    {
+        return this.counts.get(key);
+    }
+
+    /**
+     * @param key the key of the request
+     * @param count the number of notifications computed for the request
+     */
+    public void setCount(String key, long count)
+    {
+        this.counts.put(key, count);
+    }
+}
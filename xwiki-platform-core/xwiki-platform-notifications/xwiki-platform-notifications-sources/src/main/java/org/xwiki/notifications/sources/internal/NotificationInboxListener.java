@@ -0,0 +1,182 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.sources.internal;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.bridge.event.DocumentCreatedEvent;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.eventstream.events.EventStreamAddedEvent;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+import org.xwiki.text.StringUtils;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+
+/**
+ * Update the notification inboxes when a new event is recorded, when the profile (which contains the notification
+ * preferences) of a user is modified or when the rights, which decide which events a user can see, are modified.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component
+@Singleton
+@Named(NotificationInboxListener.NAME)
+public class NotificationInboxListener extends AbstractEventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "Notification Inbox Listener";
+
+    private static final LocalDocumentReference RIGHTS_CLASS =
+        new LocalDocumentReference(XWiki.SYSTEM_SPACE, "XWikiRights");
+
+    private static final LocalDocumentReference GLOBAL_RIGHTS_CLASS =
+        new LocalDocumentReference(XWiki.SYSTEM_SPACE, "XWikiGlobalRights");
+
+    private static final LocalDocumentReference GROUPS_CLASS =
+        new LocalDocumentReference(XWiki.SYSTEM_SPACE, "XWikiGroups");
+
+    private static final String MEMBER = "member";
+
+    @Inject
+    private NotificationInboxManager inboxManager;
+
+    @Inject
+    @Named("explicit")
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Constructs a new {@link NotificationInboxListener}.
+     */
+    public NotificationInboxListener()
+    {
+        super(NAME, new EventStreamAddedEvent(), new DocumentCreatedEvent(), new DocumentUpdatedEvent(),
+            new DocumentDeletedEvent());
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        if (event instanceof EventStreamAddedEvent) {
+            this.inboxManager.onEvent((org.xwiki.eventstream.Event) source);
+        } else {
+            XWikiDocument document = (XWikiDocument) source;
+            XWikiDocument previousDocument = document.getOriginalDocument();
+
+            // The profile of a user has the same reference as the user
+            this.inboxManager.invalidate(document.getDocumentReference());
+
+            // User profiles hold rights objects too but saving the preferences of a user doesn't modify them
+            if (hasRightsChanged(document, previousDocument, RIGHTS_CLASS)
+                || hasRightsChanged(document, previousDocument, GLOBAL_RIGHTS_CLASS)) {
+                // Any user might have gained or lost the right to see some events
+                this.inboxManager.invalidateAll();
+            } else {
+                invalidateMembers(document, previousDocument);
+            }
+        }
+    }
+
+    private boolean hasRightsChanged(XWikiDocument document, XWikiDocument previousDocument,
+        LocalDocumentReference rightsClass)
+    {
+        return !getXObjects(document, rightsClass).equals(getXObjects(previousDocument, rightsClass));
+    }
+
+    private List<BaseObject> getXObjects(XWikiDocument document, LocalDocumentReference classReference)
+    {
+        return document != null ? document.getXObjects(classReference) : Collections.<BaseObject>emptyList();
+    }
+
+    private void invalidateMembers(XWikiDocument document, XWikiDocument previousDocument)
+    {
+        // Only the users who joined or left the group gained or lost rights
+        Set<String> members = getMembers(document);
+        Set<String> previousMembers = getMembers(previousDocument);
+        Set<String> changedMembers = new HashSet<>(members);
+        changedMembers.addAll(previousMembers);
+        members.retainAll(previousMembers);
+        changedMembers.removeAll(members);
+
+        for (String member : changedMembers) {
+            DocumentReference memberReference = this.resolver.resolve(member, document.getDocumentReference());
+            if (isGroup(memberReference)) {
+                // The members of the sub group are not known here
+                this.inboxManager.invalidateAll();
+                break;
+            }
+            this.inboxManager.invalidate(memberReference);
+        }
+    }
+
+    private Set<String> getMembers(XWikiDocument document)
+    {
+        Set<String> members = new HashSet<>();
+        for (BaseObject groupObject : getXObjects(document, GROUPS_CLASS)) {
+            if (groupObject != null && StringUtils.isNotBlank(groupObject.getStringValue(MEMBER))) {
+                members.add(groupObject.getStringValue(MEMBER));
+            }
+        }
+
+        return members;
+    }
+
+    private boolean isGroup(DocumentReference reference)
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        try {
+            return xcontext.getWiki().getDocument(reference, xcontext).getXObject(GROUPS_CLASS) != null;
+        } catch (XWikiException e) {
+            this.logger.warn("Failed to know if [{}] is a group, assuming it is: {}", reference,
+                ExceptionUtils.getRootCauseMessage(e));
+
+            return true;
+        }
+    }
+}
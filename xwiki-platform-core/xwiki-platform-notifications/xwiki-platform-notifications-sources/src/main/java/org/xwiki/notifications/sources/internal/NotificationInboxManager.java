@@ -0,0 +1,260 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.sources.internal;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.cache.event.CacheEntryListener;
+import org.xwiki.cache.eviction.LRUEvictionConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.eventstream.Event;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.notifications.NotificationConfiguration;
+import org.xwiki.notifications.NotificationException;
+import org.xwiki.notifications.NotificationProperty;
+import org.xwiki.notifications.preferences.NotificationPreference;
+import org.xwiki.notifications.preferences.NotificationPreferenceManager;
+import org.xwiki.text.StringUtils;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+
+/**
+ * Keep in memory the notifications of the users who recently asked for them (read-through cache): the notifications
+ * of a user are computed on the first access and kept until an event invalidates them. Each new event is routed,
+ * according to the cached preferences of the users, to the inboxes it might concern, which are dropped and thus
+ * computed again on next access.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component(roles = NotificationInboxManager.class)
+@Singleton
+public class NotificationInboxManager implements Initializable, Disposable, CacheEntryListener<NotificationInbox>
+{
+    private static final int CACHE_SIZE = 10000;
+
+    @Inject
+    private NotificationConfiguration configuration;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private NotificationPreferenceManager notificationPreferenceManager;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    private WikiDescriptorManager wikiDescriptorManager;
+
+    private Cache<NotificationInbox> inboxes;
+
+    /**
+     * The users having an inbox in the cache (the cache cannot be iterated), indexed by the types of events they are
+     * interested in.
+     */
+    private final ConcurrentMap<String, Set<String>> usersByEventType = new ConcurrentHashMap<>();
+
+    /**
+     * The types of events indexed for each user having an inbox in the cache.
+     */
+    private final ConcurrentMap<String, Set<String>> eventTypesByUser = new ConcurrentHashMap<>();
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        if (this.configuration.isInboxEnabled()) {
+            CacheConfiguration cacheConfiguration = new CacheConfiguration("notifications.inboxes");
+            LRUEvictionConfiguration lru = new LRUEvictionConfiguration();
+            lru.setMaxEntries(CACHE_SIZE);
+            lru.setLifespan(this.configuration.getInboxLifespan());
+            cacheConfiguration.put(LRUEvictionConfiguration.CONFIGURATIONID, lru);
+
+            try {
+                this.inboxes = this.cacheManager.createNewCache(cacheConfiguration);
+                this.inboxes.addCacheEntryListener(this);
+            } catch (CacheException e) {
+                throw new InitializationException("Failed to create the notification inboxes cache", e);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.inboxes != null) {
+            this.inboxes.dispose();
+        }
+    }
+
+    /**
+     * @param user a user
+     * @return the inbox of the user (created if needed), null if the inboxes are disabled
+     * @throws NotificationException when failing to get the preferences of the user
+     */
+    public NotificationInbox getInbox(DocumentReference user) throws NotificationException
+    {
+        if (this.inboxes == null) {
+            return null;
+        }
+
+        String key = this.serializer.serialize(user);
+        NotificationInbox inbox = this.inboxes.get(key);
+        if (inbox == null) {
+            inbox = new NotificationInbox(user, getEventTypes(user), getUserWiki(user));
+            this.inboxes.set(key, inbox);
+        }
+
+        return inbox;
+    }
+
+    private Set<String> getEventTypes(DocumentReference user) throws NotificationException
+    {
+        List<NotificationPreference> preferences = this.notificationPreferenceManager.getNotificationsPreferences(user);
+
+        Set<String> eventTypes = new HashSet<>();
+        for (NotificationPreference preference : preferences) {
+            Object eventType = preference.getProperties().get(NotificationProperty.EVENT_TYPE);
+            if (preference.isNotificationEnabled() && eventType instanceof String
+                && StringUtils.isNotBlank((String) eventType)) {
+                eventTypes.add((String) eventType);
+            }
+        }
+
+        return eventTypes;
+    }
+
+    private String getUserWiki(DocumentReference user)
+    {
+        // Local users only receive the notifications of their wiki (see QueryGenerator)
+        String wiki = user.getWikiReference().getName();
+
+        return wiki.equals(this.wikiDescriptorManager.getMainWikiId()) ? null : wiki;
+    }
+
+    /**
+     * Drop the inboxes that a new event might concern.
+     *
+     * @param event the new event
+     */
+    public void onEvent(Event event)
+    {
+        Set<String> users = this.usersByEventType.get(event.getType());
+        if (this.inboxes != null && users != null) {
+            for (String user : users) {
+                NotificationInbox inbox = this.inboxes.get(user);
+                // The kept notifications are grouped and paginated, so they are computed again on next access
+                // rather than having the (filtered) event merged into them
+                if (inbox != null && inbox.isConcernedBy(event)) {
+                    this.inboxes.remove(user);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget the notifications of the user, because their preferences or the status of their notifications changed.
+     *
+     * @param user the user
+     */
+    public void invalidate(DocumentReference user)
+    {
+        if (this.inboxes != null) {
+            this.inboxes.remove(this.serializer.serialize(user));
+        }
+    }
+
+    /**
+     * Forget the notifications of all the users, because the rights changed.
+     */
+    public void invalidateAll()
+    {
+        if (this.inboxes != null) {
+            this.inboxes.removeAll();
+            this.usersByEventType.clear();
+            this.eventTypesByUser.clear();
+        }
+    }
+
+    @Override
+    public void cacheEntryAdded(CacheEntryEvent<NotificationInbox> event)
+    {
+        index(event);
+    }
+
+    @Override
+    public void cacheEntryModified(CacheEntryEvent<NotificationInbox> event)
+    {
+        // The inbox has been replaced
+        index(event);
+    }
+
+    private void index(CacheEntryEvent<NotificationInbox> event)
+    {
+        String user = event.getEntry().getKey();
+        Set<String> eventTypes = event.getEntry().getValue().getEventTypes();
+
+        Set<String> previousEventTypes = this.eventTypesByUser.put(user, eventTypes);
+        if (previousEventTypes != null) {
+            unindex(user, previousEventTypes);
+        }
+        for (String eventType : eventTypes) {
+            this.usersByEventType.computeIfAbsent(eventType, k -> ConcurrentHashMap.newKeySet()).add(user);
+        }
+    }
+
+    @Override
+    public void cacheEntryRemoved(CacheEntryEvent<NotificationInbox> event)
+    {
+        String user = event.getEntry().getKey();
+
+        Set<String> eventTypes = this.eventTypesByUser.remove(user);
+        if (eventTypes != null) {
+            unindex(user, eventTypes);
+        }
+    }
+
+    private void unindex(String user, Set<String> eventTypes)
+    {
+        for (String eventType : eventTypes) {
+            Set<String> users = this.usersByEventType.get(eventType);
+            if (users != null) {
+                users.remove(user);
+            }
+        }
+    }
+}
@@ -54,6 +54,8 @@
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
@@ -597,4 +599,28 @@ public void getEventsXWIKI14454() throws Exception
         // Verify
         assertEquals(2, results.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getEventsFromInbox() throws Exception
+    {
+        NotificationInboxManager inboxManager = mocker.getInstance(NotificationInboxManager.class);
+        when(inboxManager.getInbox(userReference))
+                .thenReturn(new NotificationInbox(userReference, Collections.singleton("update"), null));
+
+        Event event = mock(Event.class);
+        DocumentReference doc = new DocumentReference("xwiki", "Main", "Bike");
+        when(event.getDocument()).thenReturn(doc);
+        when(event.getType()).thenReturn("update");
+        when(authorizationManager.hasAccess(Right.VIEW, userReference, doc)).thenReturn(true);
+        when(eventStream.searchEvents(query)).thenReturn(Arrays.asList(event));
+
+        // Test
+        List<CompositeEvent> results = mocker.getComponentUnderTest().getEvents("xwiki:XWiki.UserA", true, 2);
+        List<CompositeEvent> cachedResults = mocker.getComponentUnderTest().getEvents("xwiki:XWiki.UserA", true, 2);
+
+        // Verify
+        assertEquals(1, results.size());
+        assertEquals(results, cachedResults);
+        verify(eventStream, times(1)).searchEvents(query);
+    }
+}
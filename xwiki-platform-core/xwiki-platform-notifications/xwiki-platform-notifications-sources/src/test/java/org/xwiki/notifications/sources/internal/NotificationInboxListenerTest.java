@@ -0,0 +1,214 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.sources.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.inject.Provider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link NotificationInboxListener}.
+ *
+ * @version $Id$
+ */
+public class NotificationInboxListenerTest
+{
+    private static final LocalDocumentReference RIGHTS_CLASS = new LocalDocumentReference("XWiki", "XWikiRights");
+
+    private static final LocalDocumentReference GLOBAL_RIGHTS_CLASS =
+        new LocalDocumentReference("XWiki", "XWikiGlobalRights");
+
+    private static final LocalDocumentReference GROUPS_CLASS = new LocalDocumentReference("XWiki", "XWikiGroups");
+
+    @Rule
+    public final MockitoComponentMockingRule<NotificationInboxListener> mocker =
+        new MockitoComponentMockingRule<>(NotificationInboxListener.class);
+
+    private NotificationInboxManager inboxManager;
+
+    private DocumentReferenceResolver<String> resolver;
+
+    private XWikiContext xcontext;
+
+    private DocumentReference groupReference = new DocumentReference("xwiki", "XWiki", "Group");
+
+    @Before
+    public void setUp() throws Exception
+    {
+        this.inboxManager = this.mocker.getInstance(NotificationInboxManager.class);
+        this.resolver = this.mocker.getInstance(DocumentReferenceResolver.TYPE_STRING, "explicit");
+
+        this.xcontext = mock(XWikiContext.class);
+        when(this.xcontext.getWiki()).thenReturn(mock(XWiki.class));
+        Provider<XWikiContext> xcontextProvider = this.mocker.getInstance(XWikiContext.TYPE_PROVIDER);
+        when(xcontextProvider.get()).thenReturn(this.xcontext);
+    }
+
+    private XWikiDocument createDocument(DocumentReference reference, EntityReference classReference,
+        BaseObject... objects)
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getDocumentReference()).thenReturn(reference);
+        when(document.getXObjects(any(EntityReference.class))).thenReturn(Collections.emptyList());
+        if (classReference != null) {
+            when(document.getXObjects(classReference)).thenReturn(Arrays.asList(objects));
+        }
+
+        return document;
+    }
+
+    private BaseObject createMember(String member, DocumentReference reference, boolean group) throws Exception
+    {
+        BaseObject object = mock(BaseObject.class);
+        when(object.getStringValue("member")).thenReturn(member);
+        when(this.resolver.resolve(member, this.groupReference)).thenReturn(reference);
+
+        XWikiDocument memberDocument = mock(XWikiDocument.class);
+        when(memberDocument.getXObject(GROUPS_CLASS)).thenReturn(group ? mock(BaseObject.class) : null);
+        when(this.xcontext.getWiki().getDocument(reference, this.xcontext)).thenReturn(memberDocument);
+
+        return object;
+    }
+
+    @Test
+    public void onProfileUpdated() throws Exception
+    {
+        DocumentReference user = new DocumentReference("xwiki", "XWiki", "UserA");
+        XWikiDocument document = createDocument(user, null);
+        when(document.getOriginalDocument()).thenReturn(createDocument(user, null));
+
+        this.mocker.getComponentUnderTest().onEvent(new DocumentUpdatedEvent(), document, null);
+
+        verify(this.inboxManager).invalidate(user);
+        verify(this.inboxManager, never()).invalidateAll();
+    }
+
+    @Test
+    public void onProfileWithRightsUpdated() throws Exception
+    {
+        // The profile of a user gives the user the right to edit it
+        DocumentReference user = new DocumentReference("xwiki", "XWiki", "UserA");
+        BaseObject rights = mock(BaseObject.class);
+        XWikiDocument document = createDocument(user, RIGHTS_CLASS, rights);
+        when(document.getOriginalDocument()).thenReturn(createDocument(user, RIGHTS_CLASS, rights));
+
+        this.mocker.getComponentUnderTest().onEvent(new DocumentUpdatedEvent(), document, null);
+
+        verify(this.inboxManager).invalidate(user);
+        verify(this.inboxManager, never()).invalidateAll();
+    }
+
+    @Test
+    public void onRightsModified() throws Exception
+    {
+        DocumentReference reference = new DocumentReference("xwiki", "Space", "WebPreferences");
+        XWikiDocument document = createDocument(reference, GLOBAL_RIGHTS_CLASS, mock(BaseObject.class));
+        when(document.getOriginalDocument())
+            .thenReturn(createDocument(reference, GLOBAL_RIGHTS_CLASS, mock(BaseObject.class)));
+
+        this.mocker.getComponentUnderTest().onEvent(new DocumentUpdatedEvent(), document, null);
+
+        verify(this.inboxManager).invalidateAll();
+    }
+
+    @Test
+    public void onRightsAdded() throws Exception
+    {
+        DocumentReference reference = new DocumentReference("xwiki", "Space", "WebPreferences");
+        XWikiDocument document = createDocument(reference, RIGHTS_CLASS, mock(BaseObject.class));
+        when(document.getOriginalDocument()).thenReturn(createDocument(reference, null));
+
+        this.mocker.getComponentUnderTest().onEvent(new DocumentUpdatedEvent(), document, null);
+
+        verify(this.inboxManager).invalidateAll();
+    }
+
+    @Test
+    public void onRightsRemoved() throws Exception
+    {
+        DocumentReference reference = new DocumentReference("xwiki", "Space", "Page");
+        XWikiDocument document = createDocument(reference, null);
+        when(document.getOriginalDocument())
+            .thenReturn(createDocument(reference, RIGHTS_CLASS, mock(BaseObject.class)));
+
+        this.mocker.getComponentUnderTest().onEvent(new DocumentUpdatedEvent(), document, null);
+
+        verify(this.inboxManager).invalidateAll();
+    }
+
+    @Test
+    public void onGroupMembersChanged() throws Exception
+    {
+        DocumentReference userA = new DocumentReference("xwiki", "XWiki", "UserA");
+        DocumentReference userB = new DocumentReference("xwiki", "XWiki", "UserB");
+        DocumentReference userC = new DocumentReference("xwiki", "XWiki", "UserC");
+        BaseObject memberA = createMember("XWiki.UserA", userA, false);
+        BaseObject memberB = createMember("XWiki.UserB", userB, false);
+        BaseObject memberC = createMember("XWiki.UserC", userC, false);
+
+        XWikiDocument document = createDocument(this.groupReference, GROUPS_CLASS, memberA, memberC);
+        when(document.getOriginalDocument())
+            .thenReturn(createDocument(this.groupReference, GROUPS_CLASS, memberA, memberB));
+
+        this.mocker.getComponentUnderTest().onEvent(new DocumentUpdatedEvent(), document, null);
+
+        // Only the users who joined or left the group are affected
+        verify(this.inboxManager, never()).invalidate(userA);
+        verify(this.inboxManager).invalidate(userB);
+        verify(this.inboxManager).invalidate(userC);
+        verify(this.inboxManager, never()).invalidateAll();
+    }
+
+    @Test
+    public void onSubGroupAdded() throws Exception
+    {
+        DocumentReference subGroup = new DocumentReference("xwiki", "XWiki", "SubGroup");
+        BaseObject member = createMember("XWiki.SubGroup", subGroup, true);
+
+        XWikiDocument document = createDocument(this.groupReference, GROUPS_CLASS, member);
+        when(document.getOriginalDocument()).thenReturn(createDocument(this.groupReference, GROUPS_CLASS));
+
+        this.mocker.getComponentUnderTest().onEvent(new DocumentUpdatedEvent(), document, null);
+
+        verify(this.inboxManager).invalidateAll();
+    }
+}
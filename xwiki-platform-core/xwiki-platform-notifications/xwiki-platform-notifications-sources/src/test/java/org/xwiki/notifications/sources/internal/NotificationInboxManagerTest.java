@@ -0,0 +1,204 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.sources.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheEntry;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.eventstream.Event;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.notifications.NotificationConfiguration;
+import org.xwiki.notifications.NotificationProperty;
+import org.xwiki.notifications.preferences.NotificationPreference;
+import org.xwiki.notifications.preferences.NotificationPreferenceManager;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link NotificationInboxManager}.
+ *
+ * @version $Id$
+ */
+public class NotificationInboxManagerTest
+{
+    @Rule
+    public final MockitoComponentMockingRule<NotificationInboxManager> mocker =
+        new MockitoComponentMockingRule<>(NotificationInboxManager.class);
+
+    private DocumentReference userA = new DocumentReference("xwiki", "XWiki", "UserA");
+
+    private DocumentReference userB = new DocumentReference("xwiki", "XWiki", "UserB");
+
+    private Map<String, NotificationInbox> entries = new HashMap<>();
+
+    private Cache<NotificationInbox> cache;
+
+    @BeforeComponent
+    public void registerComponents() throws Exception
+    {
+        NotificationConfiguration configuration = this.mocker.registerMockComponent(NotificationConfiguration.class);
+        when(configuration.isInboxEnabled()).thenReturn(true);
+        when(configuration.getInboxLifespan()).thenReturn(300);
+
+        this.cache = mock(Cache.class);
+        CacheManager cacheManager = this.mocker.registerMockComponent(CacheManager.class);
+        when(cacheManager.<NotificationInbox>createNewCache(any(CacheConfiguration.class))).thenReturn(this.cache);
+    }
+
+    @Before
+    public void setUp() throws Exception
+    {
+        NotificationInboxManager manager = this.mocker.getComponentUnderTest();
+
+        // Simulate a cache notifying its listener
+        when(this.cache.get(anyString())).then(invocation -> this.entries.get(invocation.getArgument(0)));
+        doAnswer(invocation -> {
+            String key = invocation.getArgument(0);
+            NotificationInbox inbox = invocation.getArgument(1);
+            this.entries.put(key, inbox);
+            manager.cacheEntryAdded(createCacheEntryEvent(key, inbox));
+            return null;
+        }).when(this.cache).set(anyString(), any(NotificationInbox.class));
+        doAnswer(invocation -> {
+            String key = invocation.getArgument(0);
+            NotificationInbox inbox = this.entries.remove(key);
+            if (inbox != null) {
+                manager.cacheEntryRemoved(createCacheEntryEvent(key, inbox));
+            }
+            return null;
+        }).when(this.cache).remove(anyString());
+
+        EntityReferenceSerializer<String> serializer = this.mocker.getInstance(EntityReferenceSerializer.TYPE_STRING);
+        when(serializer.serialize(this.userA)).thenReturn("xwiki:XWiki.UserA");
+        when(serializer.serialize(this.userB)).thenReturn("xwiki:XWiki.UserB");
+
+        WikiDescriptorManager wikiDescriptorManager = this.mocker.getInstance(WikiDescriptorManager.class);
+        when(wikiDescriptorManager.getMainWikiId()).thenReturn("xwiki");
+
+        NotificationPreferenceManager preferenceManager =
+            this.mocker.getInstance(NotificationPreferenceManager.class);
+        when(preferenceManager.getNotificationsPreferences(this.userA))
+            .thenReturn(Arrays.asList(createPreference("update")));
+        when(preferenceManager.getNotificationsPreferences(this.userB))
+            .thenReturn(Arrays.asList(createPreference("create")));
+    }
+
+    private CacheEntryEvent<NotificationInbox> createCacheEntryEvent(String key, NotificationInbox inbox)
+    {
+        CacheEntry<NotificationInbox> entry = mock(CacheEntry.class);
+        when(entry.getKey()).thenReturn(key);
+        when(entry.getValue()).thenReturn(inbox);
+        CacheEntryEvent<NotificationInbox> event = mock(CacheEntryEvent.class);
+        when(event.getEntry()).thenReturn(entry);
+
+        return event;
+    }
+
+    private NotificationPreference createPreference(String eventType)
+    {
+        NotificationPreference preference = mock(NotificationPreference.class);
+        when(preference.getProperties())
+            .thenReturn(Collections.singletonMap(NotificationProperty.EVENT_TYPE, eventType));
+        when(preference.isNotificationEnabled()).thenReturn(true);
+
+        return preference;
+    }
+
+    private Event createEvent(String type)
+    {
+        Event event = mock(Event.class);
+        when(event.getType()).thenReturn(type);
+        when(event.getWiki()).thenReturn(new WikiReference("xwiki"));
+
+        return event;
+    }
+
+    @Test
+    public void onEventOnlyChecksTheInboxesWatchingTheEventType() throws Exception
+    {
+        NotificationInbox inboxA = this.mocker.getComponentUnderTest().getInbox(this.userA);
+        NotificationInbox inboxB = this.mocker.getComponentUnderTest().getInbox(this.userB);
+        clearInvocations(this.cache);
+
+        this.mocker.getComponentUnderTest().onEvent(createEvent("update"));
+
+        verify(this.cache).remove("xwiki:XWiki.UserA");
+        // UserB is not interested in updates, so their inbox is not even looked at
+        verify(this.cache, never()).get("xwiki:XWiki.UserB");
+        verify(this.cache, never()).remove("xwiki:XWiki.UserB");
+        assertNotSame(inboxA, this.mocker.getComponentUnderTest().getInbox(this.userA));
+        assertSame(inboxB, this.mocker.getComponentUnderTest().getInbox(this.userB));
+    }
+
+    @Test
+    public void onEventAfterInboxRemoved() throws Exception
+    {
+        this.mocker.getComponentUnderTest().getInbox(this.userA);
+        this.mocker.getComponentUnderTest().invalidate(this.userA);
+        clearInvocations(this.cache);
+
+        this.mocker.getComponentUnderTest().onEvent(createEvent("update"));
+
+        // The user is not indexed anymore
+        verify(this.cache, never()).get("xwiki:XWiki.UserA");
+    }
+
+    @Test
+    public void invalidateAll() throws Exception
+    {
+        this.mocker.getComponentUnderTest().getInbox(this.userA);
+        // The cache doesn't notify the removal of each entry
+        doAnswer(invocation -> {
+            this.entries.clear();
+            return null;
+        }).when(this.cache).removeAll();
+
+        this.mocker.getComponentUnderTest().invalidateAll();
+        verify(this.cache).removeAll();
+        clearInvocations(this.cache);
+        this.mocker.getComponentUnderTest().onEvent(createEvent("update"));
+
+        verify(this.cache, never()).get("xwiki:XWiki.UserA");
+    }
+}
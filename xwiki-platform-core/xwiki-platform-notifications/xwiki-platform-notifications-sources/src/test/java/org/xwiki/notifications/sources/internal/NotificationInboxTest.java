@@ -0,0 +1,75 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.notifications.sources.internal;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import org.xwiki.eventstream.Event;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.WikiReference;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link NotificationInbox}.
+ *
+ * @version $Id$
+ */
+public class NotificationInboxTest
+{
+    private DocumentReference user = new DocumentReference("subwiki", "XWiki", "UserA");
+
+    private Event createEvent(String type, String wiki, DocumentReference eventUser)
+    {
+        Event event = mock(Event.class);
+        when(event.getType()).thenReturn(type);
+        when(event.getWiki()).thenReturn(new WikiReference(wiki));
+        when(event.getUser()).thenReturn(eventUser);
+
+        return event;
+    }
+
+    @Test
+    public void isConcernedBy()
+    {
+        NotificationInbox inbox = new NotificationInbox(this.user, Collections.singleton("update"), "subwiki");
+        DocumentReference otherUser = new DocumentReference("xwiki", "XWiki", "UserB");
+
+        assertTrue(inbox.isConcernedBy(createEvent("update", "subwiki", otherUser)));
+        // Not interested in that type of events
+        assertFalse(inbox.isConcernedBy(createEvent("create", "subwiki", otherUser)));
+        // Local users only get the notifications of their wiki
+        assertFalse(inbox.isConcernedBy(createEvent("update", "xwiki", otherUser)));
+        // Users are not notified of their own events
+        assertFalse(inbox.isConcernedBy(createEvent("update", "subwiki", this.user)));
+    }
+
+    @Test
+    public void isConcernedByWhenGlobalUser()
+    {
+        NotificationInbox inbox = new NotificationInbox(this.user, Collections.singleton("update"), null);
+
+        assertTrue(inbox.isConcernedBy(createEvent("update", "xwiki", null)));
+    }
+}
@@ -20,6 +20,7 @@
 package org.xwiki.observation.remote;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 /**
  * Represents a remote event with all its datas.
@@ -98,6 +99,29 @@ public void setData(Serializable data)
         this.data = data;
     }
 
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (obj == this) {
+            return true;
+        }
+
+        if (obj instanceof RemoteEventData) {
+            RemoteEventData other = (RemoteEventData) obj;
+
+            return Objects.equals(getEvent(), other.getEvent()) && Objects.equals(getSource(), other.getSource())
+                && Objects.equals(getData(), other.getData());
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(getEvent(), getSource(), getData());
+    }
+
     @Override
     public String toString()
     {
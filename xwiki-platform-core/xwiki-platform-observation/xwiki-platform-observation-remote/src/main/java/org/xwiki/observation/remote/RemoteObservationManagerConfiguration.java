@@ -46,4 +46,53 @@
      * @return the identifier of the network adapter implementation to use to actually send and receive network messages
      */
     String getNetworkAdapter();
+
+    /**
+     * @return true if the events should be sent to the other members in a background thread, in batches, instead of
+     *         synchronously in the thread which triggered them
+     * @since 9.7RC1
+     */
+    default boolean isAsync()
+    {
+        return false;
+    }
+
+    /**
+     * @return the maximum number of events waiting to be sent in the background, the thread triggering an event waits
+     *         when the queue is full
+     * @since 9.7RC1
+     */
+    default int getAsyncQueueCapacity()
+    {
+        return 10000;
+    }
+
+    /**
+     * @return the maximum number of events sent in the same network message
+     * @since 9.7RC1
+     */
+    default int getAsyncBatchSize()
+    {
+        return 100;
+    }
+
+    /**
+     * @return the maximum time (in milliseconds) an event waits for other events to be sent in the same network
+     *         message
+     * @since 9.7RC1
+     */
+    default long getAsyncBatchDelay()
+    {
+        return 10;
+    }
+
+    /**
+     * @return true if an event which is exactly the same as another event already waiting in the same batch should not
+     *         be sent again
+     * @since 9.7RC1
+     */
+    default boolean isAsyncCoalesce()
+    {
+        return false;
+    }
 }
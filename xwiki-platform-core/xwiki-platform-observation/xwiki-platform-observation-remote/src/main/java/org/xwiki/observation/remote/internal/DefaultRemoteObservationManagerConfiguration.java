@@ -40,6 +40,8 @@
 @Singleton
 public class DefaultRemoteObservationManagerConfiguration implements RemoteObservationManagerConfiguration
 {
+    private static final String ASYNC_PREFIX = "observation.remote.async.";
+
     /**
      * USed to access configuration storage.
      */
@@ -69,4 +71,34 @@ public String getNetworkAdapter()
     {
         return this.configurationSource.getProperty("observation.remote.networkadapter", "jgroups");
     }
+
+    @Override
+    public boolean isAsync()
+    {
+        return this.configurationSource.getProperty(ASYNC_PREFIX + "enabled", false);
+    }
+
+    @Override
+    public int getAsyncQueueCapacity()
+    {
+        return this.configurationSource.getProperty(ASYNC_PREFIX + "queue.capacity", 10000);
+    }
+
+    @Override
+    public int getAsyncBatchSize()
+    {
+        return this.configurationSource.getProperty(ASYNC_PREFIX + "batch.size", 100);
+    }
+
+    @Override
+    public long getAsyncBatchDelay()
+    {
+        return this.configurationSource.getProperty(ASYNC_PREFIX + "batch.delay", 10L);
+    }
+
+    @Override
+    public boolean isAsyncCoalesce()
+    {
+        return this.configurationSource.getProperty(ASYNC_PREFIX + "coalesce", false);
+    }
 }
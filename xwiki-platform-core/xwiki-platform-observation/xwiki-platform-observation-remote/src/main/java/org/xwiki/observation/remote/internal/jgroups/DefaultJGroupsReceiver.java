@@ -79,8 +79,20 @@ public RemoteObservationManager getRemoteObservationManager()
     @Override
     public void receive(Message msg)
     {
-        RemoteEventData remoteEvent = (RemoteEventData) msg.getObject();
+        Object object = msg.getObject();
 
+        if (object instanceof RemoteEventBatch) {
+            // Notify the events in the order in which they were triggered
+            for (RemoteEventData remoteEvent : ((RemoteEventBatch) object).getEvents()) {
+                receive(remoteEvent);
+            }
+        } else {
+            receive((RemoteEventData) object);
+        }
+    }
+
+    private void receive(RemoteEventData remoteEvent)
+    {
         this.logger.debug("Received JGroups remote event [{}]", remoteEvent);
 
         getRemoteObservationManager().notify(remoteEvent);
@@ -0,0 +1,250 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.jgroups;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xwiki.observation.remote.RemoteEventData;
+
+/**
+ * Send the remote events in a background thread, grouping the events triggered at the same time in the same network
+ * message. A single thread sends the events in the order in which they were triggered so the receivers get them in
+ * the same order.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public class JGroupsAsyncSender implements Runnable, JGroupsAsyncSenderMBean
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(JGroupsAsyncSender.class);
+
+    /**
+     * Indicate to the sender thread that it should stop once all the previous events are sent.
+     */
+    private static final QueueEntry STOP = new QueueEntry(null);
+
+    private static final double NANO_TO_MILLI = 1e-6;
+
+    private static final class QueueEntry
+    {
+        private final RemoteEventData event;
+
+        private final long time = System.nanoTime();
+
+        QueueEntry(RemoteEventData event)
+        {
+            this.event = event;
+        }
+    }
+
+    private final BlockingQueue<QueueEntry> queue;
+
+    private final int batchSize;
+
+    private final long batchDelay;
+
+    private final boolean coalesce;
+
+    private final Consumer<Serializable> transport;
+
+    private final Thread thread;
+
+    private final AtomicLong sentEvents = new AtomicLong();
+
+    private final AtomicLong sentMessages = new AtomicLong();
+
+    private final AtomicLong coalescedEvents = new AtomicLong();
+
+    private final AtomicLong totalLatency = new AtomicLong();
+
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    /**
+     * @param queueCapacity the maximum number of events waiting to be sent
+     * @param batchSize the maximum number of events sent in the same message
+     * @param batchDelay the maximum time (in milliseconds) an event waits for other events to be sent in the same
+     *            message
+     * @param coalesce true if an event identical to another event of the same batch should not be sent again
+     * @param transport actually send a {@link RemoteEventData} or a {@link RemoteEventBatch} to the other members
+     */
+    public JGroupsAsyncSender(int queueCapacity, int batchSize, long batchDelay, boolean coalesce,
+        Consumer<Serializable> transport)
+    {
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.batchDelay = TimeUnit.MILLISECONDS.toNanos(batchDelay);
+        this.coalesce = coalesce;
+        this.transport = transport;
+
+        this.thread = new Thread(this, "XWiki remote events sender");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Start the sender thread.
+     */
+    public void start()
+    {
+        this.thread.start();
+    }
+
+    /**
+     * Send all the waiting events and stop the sender thread.
+     *
+     * @param timeout the maximum time (in milliseconds) to wait for the waiting events to be sent
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void stop(long timeout) throws InterruptedException
+    {
+        this.queue.put(STOP);
+        this.thread.join(timeout);
+    }
+
+    /**
+     * Add the event to the queue of events to send. Wait if the queue is full.
+     *
+     * @param event the event to send
+     */
+    public void send(RemoteEventData event)
+    {
+        try {
+            this.queue.put(new QueueEntry(event));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            // Better late than never
+            LOGGER.warn("Interrupted while waiting to send remote event [{}], sending it synchronously", event);
+            this.transport.accept(event);
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        List<QueueEntry> batch = new ArrayList<>(this.batchSize);
+
+        try {
+            boolean stopped = false;
+            while (!stopped) {
+                QueueEntry first = this.queue.take();
+                if (first == STOP) {
+                    break;
+                }
+
+                // Wait a bit for other events to send them in the same message
+                batch.add(first);
+                long deadline = first.time + this.batchDelay;
+                while (batch.size() < this.batchSize) {
+                    QueueEntry next = this.queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    } else if (next == STOP) {
+                        stopped = true;
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                sendBatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            LOGGER.warn("The remote events sender has been interrupted, [{}] events have not been sent",
+                batch.size() + this.queue.size());
+        }
+    }
+
+    private void sendBatch(List<QueueEntry> batch)
+    {
+        List<RemoteEventData> events = new ArrayList<>(batch.size());
+        Set<RemoteEventData> sent = this.coalesce ? new HashSet<>() : null;
+        for (QueueEntry entry : batch) {
+            if (sent == null || sent.add(entry.event)) {
+                events.add(entry.event);
+            } else {
+                this.coalescedEvents.incrementAndGet();
+            }
+        }
+
+        try {
+            this.transport.accept(events.size() == 1 ? events.get(0) : new RemoteEventBatch(events));
+        } catch (Exception e) {
+            LOGGER.error("Failed to send remote events [{}]", events, e);
+        }
+
+        long now = System.nanoTime();
+        for (QueueEntry entry : batch) {
+            long latency = now - entry.time;
+            this.totalLatency.addAndGet(latency);
+            this.maxLatency.accumulateAndGet(latency, Math::max);
+        }
+        this.sentEvents.addAndGet(events.size());
+        this.sentMessages.incrementAndGet();
+    }
+
+    @Override
+    public int getQueueSize()
+    {
+        return this.queue.size();
+    }
+
+    @Override
+    public long getSentEvents()
+    {
+        return this.sentEvents.get();
+    }
+
+    @Override
+    public long getSentMessages()
+    {
+        return this.sentMessages.get();
+    }
+
+    @Override
+    public long getCoalescedEvents()
+    {
+        return this.coalescedEvents.get();
+    }
+
+    @Override
+    public double getAverageLatency()
+    {
+        long count = this.sentEvents.get() + this.coalescedEvents.get();
+
+        return count > 0 ? this.totalLatency.get() * NANO_TO_MILLI / count : 0;
+    }
+
+    @Override
+    public double getMaxLatency()
+    {
+        return this.maxLatency.get() * NANO_TO_MILLI;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.jgroups;
+
+/**
+ * JMX interface of {@link JGroupsAsyncSender}.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public interface JGroupsAsyncSenderMBean
+{
+    /**
+     * @return the number of events waiting to be sent
+     */
+    int getQueueSize();
+
+    /**
+     * @return the number of events sent since the sender started
+     */
+    long getSentEvents();
+
+    /**
+     * @return the number of network messages sent since the sender started
+     */
+    long getSentMessages();
+
+    /**
+     * @return the number of events which have not been sent because an identical event was in the same batch
+     */
+    long getCoalescedEvents();
+
+    /**
+     * @return the average time (in milliseconds) between the moment an event is triggered and the moment it's sent
+     */
+    double getAverageLatency();
+
+    /**
+     * @return the maximum time (in milliseconds) between the moment an event is triggered and the moment it's sent
+     */
+    double getMaxLatency();
+}
@@ -21,6 +21,7 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.lang.management.ManagementFactory;
 import java.text.MessageFormat;
 import java.util.Map;
@@ -30,6 +31,7 @@
 import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.jgroups.Global;
 import org.jgroups.JChannel;
@@ -46,6 +48,7 @@
 import org.xwiki.observation.remote.NetworkAdapter;
 import org.xwiki.observation.remote.RemoteEventData;
 import org.xwiki.observation.remote.RemoteEventException;
+import org.xwiki.observation.remote.RemoteObservationManagerConfiguration;
 import org.xwiki.observation.remote.jgroups.JGroupsReceiver;
 
 /**
@@ -64,6 +67,16 @@ public class JGroupsNetworkAdapter implements NetworkAdapter
      */
     public static final String CONFIGURATION_PATH = "observation/remote/jgroups/";
 
+    /**
+     * The name under which the asynchronous sender statistics are registered against the JMX Server.
+     */
+    private static final String SENDER_JMX_NAME = "org.xwiki:type=RemoteObservation,name=JGroupsAsyncSender";
+
+    /**
+     * The maximum time to wait for the remaining events to be sent when stopping the channels.
+     */
+    private static final long SENDER_STOP_TIMEOUT = 10000L;
+
     /**
      * Used to lookup the receiver corresponding to the channel identifier.
      */
@@ -81,21 +94,85 @@ public class JGroupsNetworkAdapter implements NetworkAdapter
      */
     private Map<String, JChannel> channels = new ConcurrentHashMap<String, JChannel>();
 
+    /**
+     * Used to know if the events should be sent asynchronously.
+     */
+    @Inject
+    private RemoteObservationManagerConfiguration configuration;
+
+    /**
+     * Send the events in the background, null when events are sent synchronously.
+     */
+    private volatile JGroupsAsyncSender asyncSender;
+
     @Override
     public void send(RemoteEventData remoteEvent)
     {
         this.logger.debug("Send JGroups remote event [" + remoteEvent + "]");
 
+        JGroupsAsyncSender sender = this.asyncSender;
+        if (sender != null) {
+            sender.send(remoteEvent);
+        } else {
+            sendMessage(remoteEvent);
+        }
+    }
+
+    /**
+     * @param object the {@link RemoteEventData} or {@link RemoteEventBatch} to send
+     */
+    private void sendMessage(Serializable object)
+    {
         // Send the message to the whole group
-        Message message = new Message(null, remoteEvent);
+        Message message = new Message(null, object);
 
         // Send message to JGroups channels
         for (Map.Entry<String, JChannel> entry : this.channels.entrySet()) {
             try {
                 entry.getValue().send(message);
             } catch (Exception e) {
-                this.logger
-                    .error("Failed to send message [" + remoteEvent + "] to the channel [" + entry.getKey() + "]", e);
+                this.logger.error("Failed to send message [" + object + "] to the channel [" + entry.getKey() + "]", e);
+            }
+        }
+    }
+
+    private synchronized void startAsyncSender()
+    {
+        if (this.asyncSender == null && this.configuration.isAsync()) {
+            JGroupsAsyncSender sender = new JGroupsAsyncSender(this.configuration.getAsyncQueueCapacity(),
+                this.configuration.getAsyncBatchSize(), this.configuration.getAsyncBatchDelay(),
+                this.configuration.isAsyncCoalesce(), this::sendMessage);
+            sender.start();
+
+            try {
+                MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+                mbs.registerMBean(sender, new ObjectName(SENDER_JMX_NAME));
+            } catch (Exception e) {
+                this.logger.warn("Failed to register the remote events sender against the JMX Server", e);
+            }
+
+            this.asyncSender = sender;
+        }
+    }
+
+    private synchronized void stopAsyncSender()
+    {
+        JGroupsAsyncSender sender = this.asyncSender;
+        if (sender != null) {
+            this.asyncSender = null;
+
+            try {
+                sender.stop(SENDER_STOP_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.logger.warn("Interrupted while waiting for the remaining remote events to be sent");
+            }
+
+            try {
+                MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+                mbs.unregisterMBean(new ObjectName(SENDER_JMX_NAME));
+            } catch (Exception e) {
+                this.logger.warn("Failed to unregister the remote events sender from the JMX Server", e);
             }
         }
     }
@@ -113,6 +190,8 @@ public void startChannel(String channelId) throws RemoteEventException
             channel.connect("event");
 
             this.channels.put(channelId, channel);
+
+            startAsyncSender();
         } catch (Exception e) {
             throw new RemoteEventException("Failed to create channel [" + channelId + "]", e);
         }
@@ -137,6 +216,11 @@ public void stopChannel(String channelId) throws RemoteEventException
             throw new RemoteEventException(MessageFormat.format("Channel [{0}] is not started", channelId));
         }
 
+        if (this.channels.size() == 1) {
+            // Last channel, send the remaining events before closing it
+            stopAsyncSender();
+        }
+
         channel.close();
 
         this.channels.remove(channelId);
@@ -218,6 +302,8 @@ private ProtocolStackConfigurator loadChannelConfiguration(String channelId) thr
     @Override
     public void stopAllChannels() throws RemoteEventException
     {
+        stopAsyncSender();
+
         for (Map.Entry<String, JChannel> channelEntry : this.channels.entrySet()) {
             channelEntry.getValue().close();
         }
@@ -0,0 +1,64 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.jgroups;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.xwiki.observation.remote.RemoteEventData;
+
+/**
+ * Several remote events sent in the same network message.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public class RemoteEventBatch implements Serializable
+{
+    /**
+     * The version identifier for this Serializable class. Increment only if the <i>serialized</i> form of the class
+     * changes.
+     */
+    private static final long serialVersionUID = 1L;
+
+    private final List<RemoteEventData> events;
+
+    /**
+     * @param events the events, in the order in which they were triggered
+     */
+    public RemoteEventBatch(List<RemoteEventData> events)
+    {
+        this.events = events;
+    }
+
+    /**
+     * @return the events, in the order in which they were triggered
+     */
+    public List<RemoteEventData> getEvents()
+    {
+        return this.events;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "events: " + this.events;
+    }
+}
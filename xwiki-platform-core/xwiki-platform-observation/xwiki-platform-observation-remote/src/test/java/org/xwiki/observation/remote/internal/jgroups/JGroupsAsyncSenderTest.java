@@ -0,0 +1,105 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.observation.remote.internal.jgroups;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.xwiki.observation.remote.RemoteEventData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link JGroupsAsyncSender}.
+ *
+ * @version $Id$
+ */
+public class JGroupsAsyncSenderTest
+{
+    private final List<Serializable> messages = Collections.synchronizedList(new ArrayList<>());
+
+    private RemoteEventData event(String source)
+    {
+        RemoteEventData event = new RemoteEventData();
+        event.setEvent("event");
+        event.setSource(source);
+
+        return event;
+    }
+
+    private List<RemoteEventData> getSentEvents()
+    {
+        List<RemoteEventData> events = new ArrayList<>();
+        for (Serializable message : this.messages) {
+            if (message instanceof RemoteEventBatch) {
+                events.addAll(((RemoteEventBatch) message).getEvents());
+            } else {
+                events.add((RemoteEventData) message);
+            }
+        }
+
+        return events;
+    }
+
+    @Test
+    public void sendInBatchesInOrder() throws Exception
+    {
+        JGroupsAsyncSender sender = new JGroupsAsyncSender(100, 2, 1000, false, this.messages::add);
+        sender.start();
+
+        sender.send(event("a"));
+        sender.send(event("b"));
+        sender.send(event("a"));
+        sender.send(event("c"));
+        sender.send(event("d"));
+
+        sender.stop(10000);
+
+        assertEquals(Arrays.asList(event("a"), event("b"), event("a"), event("c"), event("d")), getSentEvents());
+        assertEquals(3, this.messages.size());
+        assertTrue(this.messages.get(0) instanceof RemoteEventBatch);
+        assertEquals(event("d"), this.messages.get(2));
+        assertEquals(5, sender.getSentEvents());
+        assertEquals(3, sender.getSentMessages());
+        assertEquals(0, sender.getQueueSize());
+    }
+
+    @Test
+    public void coalesce() throws Exception
+    {
+        JGroupsAsyncSender sender = new JGroupsAsyncSender(100, 10, 1000, true, this.messages::add);
+        sender.start();
+
+        sender.send(event("a"));
+        sender.send(event("b"));
+        sender.send(event("a"));
+        sender.send(event("c"));
+
+        sender.stop(10000);
+
+        assertEquals(Arrays.asList(event("a"), event("b"), event("c")), getSentEvents());
+        assertEquals(1, sender.getCoalescedEvents());
+    }
+}
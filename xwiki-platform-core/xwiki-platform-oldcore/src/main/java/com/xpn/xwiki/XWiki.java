@@ -43,6 +43,8 @@
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
@@ -1713,89 +1715,156 @@ public void saveDocument(XWikiDocument document, String comment, boolean isMinor
             document.setComment(StringUtils.defaultString(comment));
             document.setMinorEdit(isMinorEdit);
 
-            // We need to save the original document since saveXWikiDoc() will reset it and we
-            // need that original document for the notification below.
-            XWikiDocument originalDocument = document.getOriginalDocument();
+            XWikiDocument originalDocument = beforeSave(document, context);
 
-            // Make sure to always have an original document for listeners that need to compare with it.
-            // The only case where we have a null original document is supposedly when the document
-            // instance has been crafted and passed #saveDocument without using #getDocument
-            // (which is not a good practice)
-            if (originalDocument == null) {
-                originalDocument =
-                    getDocument(new DocumentReference(document.getDocumentReference(), document.getLocale()), context);
-                document.setOriginalDocument(originalDocument);
+            // Actually save the document.
+            getStore().saveXWikiDoc(document, context);
+
+            afterSave(document, originalDocument, context);
+        } finally {
+            context.setWikiId(currentWiki);
+        }
+    }
+
+    /**
+     * Save several documents at once. The documents of a same wiki are saved in a single transaction when the store
+     * supports it (see {@link XWikiStoreInterface#saveXWikiDocs(List, XWikiContext)}) and the listeners are notified
+     * about the created or updated documents only once all the documents have been saved.
+     * <p>
+     * The comment and the minor edit flag of the new versions are the ones set on each document.
+     *
+     * @param documents the documents to save
+     * @param context see {@link XWikiContext}
+     * @throws XWikiException when failing to save the documents
+     * @since 9.7RC1
+     */
+    public void saveDocuments(List<XWikiDocument> documents, XWikiContext context) throws XWikiException
+    {
+        String currentWiki = context.getWikiId();
+
+        try {
+            // Notify listeners about all the documents about to be created or updated and group them by wiki
+            Map<String, List<XWikiDocument>> documentsByWiki = new LinkedHashMap<>();
+            Map<XWikiDocument, XWikiDocument> originalDocuments = new IdentityHashMap<>();
+            for (XWikiDocument document : documents) {
+                String wiki = document.getDocumentReference().getWikiReference().getName();
+                context.setWikiId(wiki);
+
+                document.setComment(StringUtils.defaultString(document.getComment()));
+
+                originalDocuments.put(document, beforeSave(document, context));
+                documentsByWiki.computeIfAbsent(wiki, k -> new ArrayList<>()).add(document);
             }
 
-            ObservationManager om = getObservationManager();
+            // Actually save the documents.
+            for (Map.Entry<String, List<XWikiDocument>> entry : documentsByWiki.entrySet()) {
+                context.setWikiId(entry.getKey());
 
-            // Notify listeners about the document about to be created or updated
+                getStore().saveXWikiDocs(entry.getValue(), context);
+            }
 
-            // Note that for the moment the event being send is a bridge event, as we are still passing around
-            // an XWikiDocument as source and an XWikiContext as data.
+            for (XWikiDocument document : documents) {
+                context.setWikiId(document.getDocumentReference().getWikiReference().getName());
 
-            if (om != null) {
-                CancelableEvent documentEvent;
-                if (originalDocument.isNew()) {
-                    documentEvent = new DocumentCreatingEvent(document.getDocumentReference());
-                } else {
-                    documentEvent = new DocumentUpdatingEvent(document.getDocumentReference());
-                }
-                om.notify(documentEvent, document, context);
-
-                // If the action has been canceled by the user then don't perform any save and throw an exception
-                if (documentEvent.isCanceled()) {
-                    throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
-                        XWikiException.ERROR_XWIKI_STORE_HIBERNATE_SAVING_DOC,
-                        String.format("An Event Listener has cancelled the document save for [%s]. Reason: [%s]",
-                            document.getDocumentReference(), documentEvent.getReason()));
-                }
+                afterSave(document, originalDocuments.get(document), context);
             }
+        } finally {
+            context.setWikiId(currentWiki);
+        }
+    }
 
-            // Put attachments to remove in recycle bin
-            if (hasAttachmentRecycleBin(context)) {
-                for (XWikiAttachmentToRemove attachment : document.getAttachmentsToRemove()) {
-                    if (attachment.isToRecycleBin()) {
-                        getAttachmentRecycleBinStore().saveToRecycleBin(attachment.getAttachment(), context.getUser(),
-                            new Date(), context, true);
-                    }
+    private XWikiDocument beforeSave(XWikiDocument document, XWikiContext context) throws XWikiException
+    {
+        // We need to save the original document since saveXWikiDoc() will reset it and we
+        // need that original document for the notification below.
+        XWikiDocument originalDocument = document.getOriginalDocument();
+
+        // Make sure to always have an original document for listeners that need to compare with it.
+        // The only case where we have a null original document is supposedly when the document
+        // instance has been crafted and passed #saveDocument without using #getDocument
+        // (which is not a good practice)
+        if (originalDocument == null) {
+            originalDocument =
+                getDocument(new DocumentReference(document.getDocumentReference(), document.getLocale()), context);
+            document.setOriginalDocument(originalDocument);
+        } else if (originalDocument == document) {
+            // The document instance is its own original document, which means it's a (shared) document returned
+            // by the store which has been modified without being cloned first. Its actual original state has to
+            // be reloaded from the database to be able to notify listeners about what changed.
+            originalDocument = getNotCacheStore().loadXWikiDoc(
+                new XWikiDocument(document.getDocumentReference(), document.getLocale()), context);
+            document.setOriginalDocument(originalDocument);
+        }
+
+        ObservationManager om = getObservationManager();
+
+        // Notify listeners about the document about to be created or updated
+
+        // Note that for the moment the event being send is a bridge event, as we are still passing around
+        // an XWikiDocument as source and an XWikiContext as data.
+
+        if (om != null) {
+            CancelableEvent documentEvent;
+            if (originalDocument.isNew()) {
+                documentEvent = new DocumentCreatingEvent(document.getDocumentReference());
+            } else {
+                documentEvent = new DocumentUpdatingEvent(document.getDocumentReference());
+            }
+            om.notify(documentEvent, document, context);
+
+            // If the action has been canceled by the user then don't perform any save and throw an exception
+            if (documentEvent.isCanceled()) {
+                throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
+                    XWikiException.ERROR_XWIKI_STORE_HIBERNATE_SAVING_DOC,
+                    String.format("An Event Listener has cancelled the document save for [%s]. Reason: [%s]",
+                        document.getDocumentReference(), documentEvent.getReason()));
+            }
+        }
+
+        // Put attachments to remove in recycle bin
+        if (hasAttachmentRecycleBin(context)) {
+            for (XWikiAttachmentToRemove attachment : document.getAttachmentsToRemove()) {
+                if (attachment.isToRecycleBin()) {
+                    getAttachmentRecycleBinStore().saveToRecycleBin(attachment.getAttachment(), context.getUser(),
+                        new Date(), context, true);
                 }
             }
+        }
 
-            // Actually save the document.
-            getStore().saveXWikiDoc(document, context);
+        return originalDocument;
+    }
 
-            // Since the store#saveXWikiDoc resets originalDocument, we need to temporarily put it
-            // back to send notifications.
-            XWikiDocument newOriginal = document.getOriginalDocument();
+    private void afterSave(XWikiDocument document, XWikiDocument originalDocument, XWikiContext context)
+    {
+        // Since the store#saveXWikiDoc resets originalDocument, we need to temporarily put it
+        // back to send notifications.
+        XWikiDocument newOriginal = document.getOriginalDocument();
 
-            try {
-                document.setOriginalDocument(originalDocument);
+        try {
+            document.setOriginalDocument(originalDocument);
 
-                // Notify listeners about the document having been created or updated
+            // Notify listeners about the document having been created or updated
 
-                // First the legacy notification mechanism
+            // First the legacy notification mechanism
 
-                // Then the new observation module
-                // Note that for the moment the event being send is a bridge event, as we are still passing around
-                // an XWikiDocument as source and an XWikiContext as data.
-                // The old version is made available using doc.getOriginalDocument()
+            // Then the new observation module
+            // Note that for the moment the event being send is a bridge event, as we are still passing around
+            // an XWikiDocument as source and an XWikiContext as data.
+            // The old version is made available using doc.getOriginalDocument()
 
-                if (om != null) {
-                    if (originalDocument.isNew()) {
-                        om.notify(new DocumentCreatedEvent(document.getDocumentReference()), document, context);
-                    } else {
-                        om.notify(new DocumentUpdatedEvent(document.getDocumentReference()), document, context);
-                    }
+            ObservationManager om = getObservationManager();
+            if (om != null) {
+                if (originalDocument.isNew()) {
+                    om.notify(new DocumentCreatedEvent(document.getDocumentReference()), document, context);
+                } else {
+                    om.notify(new DocumentUpdatedEvent(document.getDocumentReference()), document, context);
                 }
-            } catch (Exception ex) {
-                LOGGER.error("Failed to send document save notification for document ["
-                    + getDefaultEntityReferenceSerializer().serialize(document.getDocumentReference()) + "]", ex);
-            } finally {
-                document.setOriginalDocument(newOriginal);
             }
+        } catch (Exception ex) {
+            LOGGER.error("Failed to send document save notification for document ["
+                + getDefaultEntityReferenceSerializer().serialize(document.getDocumentReference()) + "]", ex);
         } finally {
-            context.setWikiId(currentWiki);
+            document.setOriginalDocument(newOriginal);
         }
     }
 
@@ -19,7 +19,6 @@
  */
 package com.xpn.xwiki.doc;
 
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -541,8 +540,7 @@ public InputStream getAttachmentContent(AttachmentReference attachmentReference)
         XWikiContext xcontext = getContext();
         XWikiDocument attachmentDocument =
             xcontext.getWiki().getDocument(attachmentReference.getDocumentReference(), xcontext);
-        return new ByteArrayInputStream(
-            attachmentDocument.getAttachment(attachmentReference.getName()).getContent(xcontext));
+        return attachmentDocument.getAttachment(attachmentReference.getName()).getContentInputStream(xcontext);
     }
 
     @Override
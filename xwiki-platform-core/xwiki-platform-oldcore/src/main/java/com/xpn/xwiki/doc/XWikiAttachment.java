@@ -22,6 +22,7 @@
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Date;
@@ -718,6 +719,31 @@ public byte[] getContent(XWikiContext context) throws XWikiException
      * @since 2.3M2
      */
     public InputStream getContentInputStream(XWikiContext context) throws XWikiException
+    {
+        return getLoadedContent(context).getContentInputStream();
+    }
+
+    /**
+     * Write a range of the content of this attachment to the passed stream. Contrary to
+     * {@link #getContent(XWikiContext)} the content is never entirely loaded in memory and the attachment store is free
+     * to use the most efficient way to transfer it.
+     *
+     * @param out the stream where to write the content
+     * @param start the index of the first byte to write
+     * @param length the maximum number of bytes to write
+     * @param context current XWikiContext
+     * @return the number of bytes written
+     * @throws XWikiException when failing to load the content
+     * @throws IOException when failing to write the content
+     * @since 9.7RC1
+     */
+    public long writeContent(OutputStream out, long start, long length, XWikiContext context)
+        throws XWikiException, IOException
+    {
+        return getLoadedContent(context).writeContent(out, start, length);
+    }
+
+    private XWikiAttachmentContent getLoadedContent(XWikiContext context) throws XWikiException
     {
         if (this.attachment_content == null && context != null) {
             if (Objects.equals(this.getVersion(), this.getLatestStoredVersion(context))) {
@@ -740,7 +766,7 @@ public InputStream getContentInputStream(XWikiContext context) throws XWikiExcep
             }
         }
 
-        return this.attachment_content.getContentInputStream();
+        return this.attachment_content;
     }
 
     /**
@@ -24,6 +24,8 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.sql.Blob;
+import java.sql.SQLException;
 
 import org.apache.commons.fileupload.FileItem;
 import org.apache.commons.fileupload.disk.DiskFileItem;
@@ -31,6 +33,7 @@
 import org.apache.commons.io.input.AutoCloseInputStream;
 import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.io.output.ProxyOutputStream;
+import org.hibernate.engine.jdbc.BlobProxy;
 import org.xwiki.environment.Environment;
 import org.xwiki.store.UnexpectedException;
 
@@ -60,6 +63,66 @@ public class XWikiAttachmentContent implements Cloneable
     /** The owner document. */
     private XWikiDocument ownerDocument;
 
+    /**
+     * The content as seen by Hibernate, reused as long as the content does not change so that Hibernate does not
+     * consider it dirty on each flush.
+     */
+    private Blob contentBlob;
+
+    /**
+     * Open the content only when it's actually read and reopen it when reset, so that the same {@link Blob} can be
+     * read by each save.
+     *
+     * @version $Id$
+     */
+    private final class ContentBlobInputStream extends InputStream
+    {
+        private InputStream stream;
+
+        private InputStream getStream()
+        {
+            if (this.stream == null) {
+                this.stream = getContentInputStream();
+            }
+
+            return this.stream;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            return getStream().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            return getStream().read(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            return getStream().skip(n);
+        }
+
+        @Override
+        public synchronized void reset() throws IOException
+        {
+            // Start again from the beginning of the content
+            close();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if (this.stream != null) {
+                this.stream.close();
+                this.stream = null;
+            }
+        }
+    }
+
     /**
      * Constructor which clones an existing XWikiAttachmentContent. Used by {@link #clone()}.
      *
@@ -192,6 +255,38 @@ public void setContent(byte[] content)
         }
     }
 
+    /**
+     * Used by the Hibernate store to stream the content to the database instead of going through a byte array.
+     *
+     * @return the binary content of the attachment as a {@link Blob}
+     * @since 9.7RC1
+     */
+    public Blob getContentBlob()
+    {
+        if (this.contentBlob == null) {
+            this.contentBlob = BlobProxy.generateProxy(new ContentBlobInputStream(), getLongSize());
+        }
+
+        return this.contentBlob;
+    }
+
+    /**
+     * Used by the Hibernate store to stream the content from the database instead of going through a byte array. The
+     * content is copied right away (in a temporary file when it's big) since the {@link Blob} is only valid during the
+     * transaction.
+     *
+     * @param blob the binary content of the attachment
+     * @since 9.7RC1
+     */
+    public void setContentBlob(Blob blob)
+    {
+        try (InputStream stream = blob.getBinaryStream()) {
+            setContent(stream);
+        } catch (IOException | SQLException e) {
+            throw new RuntimeException("Failed to copy data to storage.", e);
+        }
+    }
+
     /**
      * @return which attachment (Metadata) this content belongs to.
      */
@@ -248,6 +343,33 @@ public InputStream getContentInputStream()
         }
     }
 
+    /**
+     * Write a range of the binary content of this attachment to the passed stream without loading it in memory.
+     *
+     * @param out the stream where to write the content
+     * @param start the index of the first byte to write
+     * @param length the maximum number of bytes to write
+     * @return the number of bytes written
+     * @throws IOException when failing to read or write the content
+     * @since 9.7RC1
+     */
+    public long writeContent(OutputStream out, long start, long length) throws IOException
+    {
+        try (InputStream stream = getContentInputStream()) {
+            // InputStream#skip() moves the position of files instead of reading them
+            long skipped = 0;
+            while (skipped < start) {
+                long count = stream.skip(start - skipped);
+                if (count <= 0) {
+                    return 0;
+                }
+                skipped += count;
+            }
+
+            return IOUtils.copyLarge(stream, out, 0, length);
+        }
+    }
+
     /**
      * Set the content of the attachment by writing to a provided OutputStream. Content is *not* appended, this method
      * clears the content and creates new content. If you want to append content, you can call
@@ -276,6 +398,7 @@ public void close() throws IOException
             {
                 super.close();
                 xac.file = fi;
+                xac.contentBlob = null;
                 xac.setContentDirty(true);
                 if (xac.attachment != null) {
                     xac.attachment.setLongSize(xac.getLongSize());
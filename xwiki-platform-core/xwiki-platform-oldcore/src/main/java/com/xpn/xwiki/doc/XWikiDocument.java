@@ -956,6 +956,8 @@ public void setRCSVersion(Version version)
      * @return the copy of this XWikiDocument instance before any modification was made to it. It is reset to the actual
      *         values when the document is saved in the database. This copy is used for finding out differences made to
      *         this document (useful for example to send the correct notifications to document change listeners).
+     *         A document freshly loaded from the store is its own original document since loaded documents are
+     *         shared and must be cloned before being modified.
      */
     @Override
     public XWikiDocument getOriginalDocument()
@@ -2139,7 +2141,7 @@ public void setDocumentArchive(XWikiDocumentArchive arch)
     public void setDocumentArchive(String sarch) throws XWikiException
     {
         XWikiDocumentArchive xda = new XWikiDocumentArchive(getId());
-        xda.setArchive(sarch);
+        xda.setArchive(sarch, getXWikiContext());
         setDocumentArchive(xda);
     }
 
@@ -2151,7 +2153,8 @@ public Version[] getRevisions(XWikiContext context) throws XWikiException
     public String[] getRecentRevisions(int nb, XWikiContext context) throws XWikiException
     {
         try {
-            Version[] revisions = getVersioningStore(context).getXWikiDocVersions(this, context);
+            Version[] revisions = nb == 0 ? getVersioningStore(context).getXWikiDocVersions(this, context)
+                : getVersioningStore(context).getXWikiDocVersions(this, nb, context);
             int length = nb;
             // 0 means all revisions
             if (nb == 0) {
@@ -30,6 +30,7 @@
 import java.util.TreeMap;
 import java.util.TreeSet;
 
+import org.apache.commons.lang3.StringUtils;
 import org.suigeneris.jrcs.rcs.Version;
 import org.suigeneris.jrcs.util.ToString;
 
@@ -48,6 +49,9 @@
  */
 public class XWikiDocumentArchive
 {
+    /** Default value of {@code xwiki.store.rcs.nodesPerFull}. */
+    private static final String DEFAULT_NODES_PER_FULL = "5";
+
     /** =docId. */
     private long id;
 
@@ -128,23 +132,175 @@ protected XWikiRCSNodeContent makePatch(XWikiRCSNodeInfo newnode, XWikiDocument
         result.setPatch(new XWikiPatch().setFullVersion(doc, context));
         newnode.setContent(result);
         XWikiRCSNodeInfo latestNode = getLatestNode();
-        if (latestNode != null) {
-            int nodesCount = getNodes().size();
-            int nodesPerFull =
-                context.getWiki() == null ? 5 : Integer.parseInt(context.getWiki().getConfig()
-                    .getProperty("xwiki.store.rcs.nodesPerFull", "5"));
-            if (nodesPerFull <= 0 || (nodesCount % nodesPerFull) != 0) {
-                XWikiRCSNodeContent latestContent = latestNode.getContent(context);
-                latestContent.getPatch().setDiffVersion(latestContent.getPatch().getContent(),
-                    doc, context);
-                latestNode.setContent(latestContent);
-                updateNode(latestNode);
-                getUpdatedNodeContents().add(latestContent);
-            }
+        if (latestNode != null && !isCheckpointNeeded(latestNode, context)) {
+            XWikiRCSNodeContent latestContent = latestNode.getContent(context);
+            latestContent.getPatch().setDiffVersion(latestContent.getPatch().getContent(),
+                doc, context);
+            latestNode.setContent(latestContent);
+            updateNode(latestNode);
+            getUpdatedNodeContents().add(latestContent);
         }
         return result;
     }
 
+    /**
+     * @param context - used to read the configuration, can be null
+     * @return the maximum number of revisions depending on the same full version (including it), 0 or less for no
+     *         limit
+     */
+    private static int getNodesPerFull(XWikiContext context)
+    {
+        return Integer.parseInt(getConfigProperty("xwiki.store.rcs.nodesPerFull", DEFAULT_NODES_PER_FULL, context));
+    }
+
+    /**
+     * @param context - used to read the configuration, can be null
+     * @return the maximum cumulated size of the patches to apply on a full version to get a revision, 0 or less for no
+     *         limit
+     */
+    private static long getPatchesSizePerFull(XWikiContext context)
+    {
+        return Long.parseLong(getConfigProperty("xwiki.store.rcs.patchesSizePerFull", "0", context));
+    }
+
+    /**
+     * @param context - used to read the configuration
+     * @return the number of most recent versions needed to add a new version to the history (see
+     *         {@link #updateArchive(XWikiDocument, String, Date, String, Version, XWikiContext)}), 0 if the whole
+     *         history is needed
+     * @since 9.7RC1
+     */
+    public static int getLatestNodesCountForUpdate(XWikiContext context)
+    {
+        int nodesPerFull = getNodesPerFull(context);
+        if (nodesPerFull > 0) {
+            return nodesPerFull;
+        }
+
+        // Without limit on the number of patches, the whole chain of patches is needed to compute its size
+        return getPatchesSizePerFull(context) > 0 ? 0 : 1;
+    }
+
+    private static String getConfigProperty(String key, String defaultValue, XWikiContext context)
+    {
+        if (context == null || context.getWiki() == null) {
+            return defaultValue;
+        }
+
+        return context.getWiki().getConfig().getProperty(key, defaultValue);
+    }
+
+    /**
+     * @param diffs - number of patches to apply on the nearest full version
+     * @param patchesSize - cumulated size of these patches
+     * @param nodesPerFull - see {@link #getNodesPerFull(XWikiContext)}
+     * @param patchesSizePerFull - see {@link #getPatchesSizePerFull(XWikiContext)}
+     * @return true if no other patch should be applied on the same full version
+     */
+    private static boolean isCheckpointReached(int diffs, long patchesSize, int nodesPerFull,
+        long patchesSizePerFull)
+    {
+        return (nodesPerFull > 0 && diffs >= nodesPerFull - 1)
+            || (patchesSizePerFull > 0 && patchesSize >= patchesSizePerFull);
+    }
+
+    /**
+     * @param node - a full version
+     * @param context - used for loading nodes content and reading the configuration
+     * @return true if the passed version has to stay full because too many (or too big) patches have to be applied on
+     *         it to get the older versions
+     * @throws XWikiException if exception while loading content
+     */
+    private boolean isCheckpointNeeded(XWikiRCSNodeInfo node, XWikiContext context) throws XWikiException
+    {
+        int nodesPerFull = getNodesPerFull(context);
+        long patchesSizePerFull = getPatchesSizePerFull(context);
+        if (nodesPerFull <= 0 && patchesSizePerFull <= 0) {
+            return false;
+        }
+
+        int diffs = 0;
+        long patchesSize = 0;
+        // tailMap is inclusive and goes from the passed version to the oldest one
+        for (XWikiRCSNodeInfo olderNode : this.versionToNode.tailMap(node.getVersion()).values()) {
+            if (olderNode == node) {
+                continue;
+            }
+            if (isCheckpointReached(diffs, patchesSize, nodesPerFull, patchesSizePerFull)) {
+                return true;
+            }
+            if (!olderNode.isDiff()) {
+                break;
+            }
+            diffs++;
+            if (patchesSizePerFull > 0) {
+                patchesSize += getPatchSize(olderNode, context);
+            }
+        }
+
+        return isCheckpointReached(diffs, patchesSize, nodesPerFull, patchesSizePerFull);
+    }
+
+    private long getPatchSize(XWikiRCSNodeInfo node, XWikiContext context) throws XWikiException
+    {
+        XWikiRCSNodeContent content = node.getContent(context);
+
+        return content != null ? StringUtils.length(content.getPatch().getContent()) : 0;
+    }
+
+    /**
+     * Make full versions of the patches which are too far from their nearest full version according to the configured
+     * checkpoint policy ({@code xwiki.store.rcs.nodesPerFull} and {@code xwiki.store.rcs.patchesSizePerFull}) so that
+     * the cost of loading any version is bounded. This is needed for archives created with a different policy or
+     * imported from a package, which usually contain only one full version. Modified nodes need to be saved after.
+     *
+     * @param context - used for loading nodes content and reading the configuration, when null only the nodes content
+     *            already in memory is used and the default policy is applied
+     * @return true if some nodes have been modified
+     * @throws XWikiException if any error
+     * @since 9.7RC1
+     */
+    public boolean checkpoint(XWikiContext context) throws XWikiException
+    {
+        int nodesPerFull = getNodesPerFull(context);
+        long patchesSizePerFull = getPatchesSizePerFull(context);
+        if (nodesPerFull <= 0 && patchesSizePerFull <= 0) {
+            return false;
+        }
+
+        boolean modified = false;
+        int diffs = 0;
+        long patchesSize = 0;
+        List<String> text = new ArrayList<String>();
+        // Go from the latest (full) version to the oldest one, keeping the XML of the current version
+        for (XWikiRCSNodeInfo node : getNodes()) {
+            XWikiRCSNodeContent content = node.getContent(context);
+            if (content == null) {
+                // Content is not available in memory
+                break;
+            }
+            XWikiPatch patch = content.getPatch();
+            patch.patch(text);
+            if (!node.isDiff()) {
+                diffs = 0;
+                patchesSize = 0;
+            } else if (isCheckpointReached(diffs, patchesSize, nodesPerFull, patchesSizePerFull)) {
+                patch.setFullVersion(ToString.arrayToString(text.toArray()));
+                node.setContent(content);
+                updateNode(node);
+                getUpdatedNodeContents().add(content);
+                diffs = 0;
+                patchesSize = 0;
+                modified = true;
+            } else {
+                diffs++;
+                patchesSize += StringUtils.length(patch.getContent());
+            }
+        }
+
+        return modified;
+    }
+
     /** @return {@link XWikiDocument#getId()} - primary key */
     public long getId()
     {
@@ -175,7 +331,11 @@ public Collection<XWikiRCSNodeInfo> getNodes(Version vfrom, Version vto)
         return this.versionToNode.subMap(vfrom, new Version(ito)).values();
     }
 
-    /** @param versions - collection of XWikiRCSNodeInfo */
+    /**
+     * @param versions - collection of XWikiRCSNodeInfo, it can also be only the most recent part of the history (e.g.
+     *            to add a new version) or the versions needed to load a specific version (the version, the more
+     *            recent versions until the nearest full version and the latest version)
+     */
     public void setNodes(Collection<XWikiRCSNodeInfo> versions)
     {
         resetArchive();
@@ -205,8 +365,23 @@ public String getArchive(XWikiContext context) throws XWikiException
      *
      * @param text - archive in JRCS format
      * @throws XWikiException if parse error
+     * @see #setArchive(String, XWikiContext)
      */
     public void setArchive(String text) throws XWikiException
+    {
+        setArchive(text, null);
+    }
+
+    /**
+     * Deserialize class and make full versions according to the configured checkpoint policy (see
+     * {@link #checkpoint(XWikiContext)}).
+     *
+     * @param text - archive in JRCS format
+     * @param context - used for reading the checkpoint policy, the default policy is applied when null
+     * @throws XWikiException if parse error
+     * @since 9.7RC1
+     */
+    public void setArchive(String text, XWikiContext context) throws XWikiException
     {
         try {
             XWikiRCSArchive archive = new XWikiRCSArchive(text);
@@ -219,6 +394,8 @@ public void setArchive(String text) throws XWikiException
                 this.updatedNodeInfos.add(nodeInfo);
                 this.updatedNodeContents.add(nodeContent);
             }
+            // Imported archives usually contain only one full version (the content of all the nodes is in memory)
+            checkpoint(context);
         } catch (Exception e) {
             Object[] args = { text, Long.valueOf(getId()) };
             throw new XWikiException(XWikiException.MODULE_XWIKI_DIFF,
@@ -486,7 +663,7 @@ public Set<XWikiRCSNodeContent> getUpdatedNodeContents()
     public XWikiDocumentArchive clone(long docId, XWikiContext context) throws XWikiException
     {
         XWikiDocumentArchive result = new XWikiDocumentArchive(docId);
-        result.setArchive(getArchive(context));
+        result.setArchive(getArchive(context), context);
         return result;
     }
 }
@@ -0,0 +1,177 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.cache.warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Count the views of each document and the requests of each user to remember the ones which are worth putting in the
+ * caches when the instance starts (see {@link CacheWarmupJob}). The counters are bounded: the least viewed documents
+ * are forgotten when too many different ones are recorded.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public class CacheWarmupHotSet
+{
+    private static final String DOCUMENT_PREFIX = "document\t";
+
+    private static final String USER_PREFIX = "user\t";
+
+    private final int capacity;
+
+    private final ConcurrentMap<String, AtomicLong> documents = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, AtomicLong> users = new ConcurrentHashMap<>();
+
+    /**
+     * @param capacity the maximum number of documents and users to return
+     */
+    public CacheWarmupHotSet(int capacity)
+    {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Read a hot set previously written with {@link #write(File)}.
+     *
+     * @param file the file to read
+     * @param capacity the maximum number of documents and users to return
+     * @return the hot set, in the same order as when it was written
+     * @throws IOException when failing to read the file
+     */
+    public static CacheWarmupHotSet read(File file, int capacity) throws IOException
+    {
+        CacheWarmupHotSet hotSet = new CacheWarmupHotSet(capacity);
+
+        List<String> lines = FileUtils.readLines(file, StandardCharsets.UTF_8);
+        // Keep the order of the file
+        long count = lines.size();
+        for (String line : lines) {
+            if (line.startsWith(DOCUMENT_PREFIX)) {
+                hotSet.documents.put(line.substring(DOCUMENT_PREFIX.length()), new AtomicLong(count--));
+            } else if (line.startsWith(USER_PREFIX)) {
+                hotSet.users.put(line.substring(USER_PREFIX.length()), new AtomicLong(count--));
+            }
+        }
+
+        return hotSet;
+    }
+
+    /**
+     * @return the maximum number of documents and users to return
+     */
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * @param document the serialized reference of the viewed document
+     * @param user the serialized reference of the user viewing the document, null for guest
+     */
+    public void record(String document, String user)
+    {
+        increment(this.documents, document);
+        if (StringUtils.isNotEmpty(user)) {
+            increment(this.users, user);
+        }
+    }
+
+    private void increment(ConcurrentMap<String, AtomicLong> counters, String key)
+    {
+        counters.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+
+        // Forget the least used entries when the counters become too big
+        if (counters.size() > this.capacity * 4) {
+            synchronized (counters) {
+                if (counters.size() > this.capacity * 4) {
+                    List<String> leastUsed = sort(counters, Integer.MAX_VALUE);
+                    for (String leastUsedKey : leastUsed.subList(this.capacity * 2, leastUsed.size())) {
+                        counters.remove(leastUsedKey);
+                    }
+                }
+            }
+        }
+    }
+
+    private List<String> sort(Map<String, AtomicLong> counters, int max)
+    {
+        return counters.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, AtomicLong> e) -> e.getValue().get()).reversed())
+            .limit(max).map(Map.Entry::getKey).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the serialized references of the most viewed documents, the most viewed first
+     */
+    public List<String> getDocuments()
+    {
+        return sort(this.documents, this.capacity);
+    }
+
+    /**
+     * @return the serialized references of the most active users, the most active first
+     */
+    public List<String> getUsers()
+    {
+        return sort(this.users, this.capacity);
+    }
+
+    /**
+     * @return true if nothing has been recorded
+     */
+    public boolean isEmpty()
+    {
+        return this.documents.isEmpty();
+    }
+
+    /**
+     * Write the most viewed documents and the most active users in the passed file.
+     *
+     * @param file the file to write
+     * @throws IOException when failing to write the file
+     */
+    public void write(File file) throws IOException
+    {
+        List<String> lines = new ArrayList<>();
+        for (String document : getDocuments()) {
+            lines.add(DOCUMENT_PREFIX + document);
+        }
+        for (String user : getUsers()) {
+            lines.add(USER_PREFIX + user);
+        }
+
+        FileUtils.writeLines(file, StandardCharsets.UTF_8.name(), lines);
+    }
+}
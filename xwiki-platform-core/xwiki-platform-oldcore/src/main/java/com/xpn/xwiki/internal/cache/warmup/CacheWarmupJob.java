@@ -0,0 +1,166 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.cache.warmup;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.annotation.InstantiationStrategy;
+import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.job.AbstractJob;
+import org.xwiki.job.DefaultJobStatus;
+import org.xwiki.job.Request;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.security.authorization.AuthorizationManager;
+import org.xwiki.security.authorization.Right;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Fill the document, security and rendering caches with the documents which are the most likely to be requested, so
+ * that the first requests after a restart don't have to pay for it. The job runs with a low priority and pauses after
+ * each document (see {@link CacheWarmupRequest#getPause()}) to not starve live traffic.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component
+@InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
+@Named(CacheWarmupJob.JOBTYPE)
+public class CacheWarmupJob extends AbstractJob<CacheWarmupRequest, DefaultJobStatus<CacheWarmupRequest>>
+{
+    /**
+     * The id of the job.
+     */
+    public static final String JOBTYPE = "cache.warmup";
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private AuthorizationManager authorization;
+
+    @Override
+    public String getType()
+    {
+        return JOBTYPE;
+    }
+
+    @Override
+    protected CacheWarmupRequest castRequest(Request request)
+    {
+        CacheWarmupRequest warmupRequest;
+        if (request instanceof CacheWarmupRequest) {
+            warmupRequest = (CacheWarmupRequest) request;
+        } else {
+            warmupRequest = new CacheWarmupRequest(request);
+        }
+
+        return warmupRequest;
+    }
+
+    @Override
+    protected void runInternal() throws Exception
+    {
+        List<DocumentReference> documents = getRequest().getDocuments();
+
+        this.logger.info("Warm up caches with [{}] documents and [{}] users", documents.size(),
+            getRequest().getUsers().size());
+
+        // Don't compete with the threads serving live requests
+        Thread thread = Thread.currentThread();
+        int priority = thread.getPriority();
+        thread.setPriority(Thread.MIN_PRIORITY);
+
+        this.progressManager.pushLevelProgress(documents.size() + getRequest().getUsers().size(), this);
+
+        try {
+            for (DocumentReference documentReference : documents) {
+                this.progressManager.startStep(this);
+
+                loadDocument(documentReference);
+                pause();
+
+                this.progressManager.endStep(this);
+            }
+
+            for (DocumentReference userReference : getRequest().getUsers()) {
+                this.progressManager.startStep(this);
+
+                // Evaluate all the documents at once, most of the rules and groups are shared
+                this.authorization.hasAccess(Right.VIEW, userReference, documents);
+                pause();
+
+                this.progressManager.endStep(this);
+            }
+        } finally {
+            this.progressManager.popLevelProgress(this);
+
+            thread.setPriority(priority);
+        }
+
+        this.logger.info("Caches warm up done");
+    }
+
+    private void loadDocument(DocumentReference documentReference)
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        String currentWiki = xcontext.getWikiId();
+        try {
+            xcontext.setWikiId(documentReference.getWikiReference().getName());
+
+            XWikiDocument document = xcontext.getWiki().getDocument(documentReference, xcontext);
+
+            if (getRequest().isRender() && !document.isNew()) {
+                // Rendered as guest to not put in the rendering cache content which depends on some specific rights
+                DocumentReference currentUser = xcontext.getUserReference();
+                XWikiDocument currentDocument = xcontext.getDoc();
+                try {
+                    xcontext.setUserReference(null);
+                    xcontext.setDoc(document);
+                    document.getRenderedContent(Syntax.XHTML_1_0, xcontext);
+                } finally {
+                    xcontext.setUserReference(currentUser);
+                    xcontext.setDoc(currentDocument);
+                }
+            }
+        } catch (Exception e) {
+            this.logger.warn("Failed to warm up caches with document [{}]: {}", documentReference,
+                ExceptionUtils.getRootCauseMessage(e));
+        } finally {
+            xcontext.setWikiId(currentWiki);
+        }
+    }
+
+    private void pause() throws InterruptedException
+    {
+        if (getRequest().getPause() > 0) {
+            Thread.sleep(getRequest().getPause());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.cache.warmup;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.bridge.event.ActionExecutedEvent;
+import org.xwiki.bridge.event.ApplicationReadyEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.environment.Environment;
+import org.xwiki.job.JobExecutor;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.observation.EventListener;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.criteria.impl.Period;
+import com.xpn.xwiki.criteria.impl.PeriodFactory;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.web.ViewAction;
+
+/**
+ * Record the most viewed documents and the most active users during the life of the instance and use them to warm up
+ * the caches at the next startup with {@link CacheWarmupJob}. When nothing has been recorded yet the most viewed
+ * documents of the last month are taken from the statistics.
+ * <p>
+ * Disabled by default, see {@code xwiki.cache.warmup} in {@code xwiki.cfg}.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component
+@Named(CacheWarmupListener.NAME)
+@Singleton
+public class CacheWarmupListener implements EventListener, Initializable, Disposable
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "CacheWarmupListener";
+
+    private static final List<Event> EVENTS =
+        Arrays.<Event>asList(new ApplicationReadyEvent(), new ActionExecutedEvent(ViewAction.VIEW_ACTION));
+
+    private static final String CONFIGURATION_PREFIX = "xwiki.cache.warmup";
+
+    private static final String STATISTICS_QUERY = "select name, sum(pageViews) from DocumentStats"
+        + " where action=? and ? <= period and period < ? group by name order by sum(pageViews) desc";
+
+    @Inject
+    @Named("xwikicfg")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private JobExecutor jobExecutor;
+
+    @Inject
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    private Logger logger;
+
+    private boolean enabled;
+
+    private CacheWarmupHotSet hotSet;
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public List<Event> getEvents()
+    {
+        return EVENTS;
+    }
+
+    @Override
+    public void initialize()
+    {
+        this.enabled = this.configuration.getProperty(CONFIGURATION_PREFIX, 0) == 1;
+        this.hotSet = new CacheWarmupHotSet(this.configuration.getProperty(CONFIGURATION_PREFIX + ".size", 1000));
+    }
+
+    private File getHotSetFile()
+    {
+        return new File(this.environment.getPermanentDirectory(), "cache/warmup/hotset.txt");
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        if (!this.enabled) {
+            return;
+        }
+
+        if (event instanceof ApplicationReadyEvent) {
+            startWarmup((XWikiContext) data);
+        } else {
+            XWikiContext xcontext = (XWikiContext) data;
+            DocumentReference userReference = xcontext.getUserReference();
+            this.hotSet.record(this.serializer.serialize(((XWikiDocument) source).getDocumentReference()),
+                userReference != null ? this.serializer.serialize(userReference) : null);
+        }
+    }
+
+    private void startWarmup(XWikiContext xcontext)
+    {
+        CacheWarmupRequest request = new CacheWarmupRequest();
+        request.setRender(this.configuration.getProperty(CONFIGURATION_PREFIX + ".render", 0) == 1);
+        request.setPause(this.configuration.getProperty(CONFIGURATION_PREFIX + ".pause", 20L));
+
+        WikiReference mainWiki = new WikiReference(xcontext.getMainXWiki());
+
+        try {
+            List<String> documents;
+            List<String> users;
+            File file = getHotSetFile();
+            if (file.exists()) {
+                CacheWarmupHotSet previousHotSet = CacheWarmupHotSet.read(file, this.hotSet.getCapacity());
+                documents = previousHotSet.getDocuments();
+                users = previousHotSet.getUsers();
+            } else {
+                documents = getMostViewedDocuments(xcontext);
+                users = new ArrayList<>();
+            }
+
+            for (String document : documents) {
+                request.getDocuments().add(this.resolver.resolve(document, mainWiki));
+            }
+            // Guest is always the most common user
+            request.getUsers().add(null);
+            for (String user : users) {
+                request.getUsers().add(this.resolver.resolve(user, mainWiki));
+            }
+
+            this.jobExecutor.execute(CacheWarmupJob.JOBTYPE, request);
+        } catch (Exception e) {
+            this.logger.warn("Failed to start the caches warm up: {}", ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private List<String> getMostViewedDocuments(XWikiContext xcontext) throws Exception
+    {
+        Period period = PeriodFactory.createSinceMonthsPeriod(1);
+
+        List<Object[]> results = xcontext.getWiki().getStore().search(STATISTICS_QUERY, this.hotSet.getCapacity(),
+            0, Arrays.asList(ViewAction.VIEW_ACTION, period.getStartCode(), period.getEndCode()), xcontext);
+
+        List<String> documents = new ArrayList<>(results.size());
+        for (Object[] result : results) {
+            documents.add((String) result[0]);
+        }
+
+        return documents;
+    }
+
+    @Override
+    public void dispose()
+    {
+        if (this.hotSet != null && !this.hotSet.isEmpty()) {
+            File file = getHotSetFile();
+            try {
+                file.getParentFile().mkdirs();
+                this.hotSet.write(file);
+            } catch (Exception e) {
+                this.logger.warn("Failed to save the documents to use to warm up the caches at next startup: {}",
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+}
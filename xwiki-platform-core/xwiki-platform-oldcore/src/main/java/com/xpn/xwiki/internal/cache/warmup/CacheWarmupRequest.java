@@ -0,0 +1,136 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.cache.warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.xwiki.job.AbstractRequest;
+import org.xwiki.job.Request;
+import org.xwiki.model.reference.DocumentReference;
+
+/**
+ * Request to use with {@link CacheWarmupJob}.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public class CacheWarmupRequest extends AbstractRequest
+{
+    /**
+     * Serialization identifier.
+     */
+    private static final long serialVersionUID = 1L;
+
+    private static final String PROPERTY_DOCUMENTS = "documents";
+
+    private static final String PROPERTY_USERS = "users";
+
+    private static final String PROPERTY_RENDER = "render";
+
+    private static final String PROPERTY_PAUSE = "pause";
+
+    /**
+     * Default constructor.
+     */
+    public CacheWarmupRequest()
+    {
+        setId("cache", "warmup");
+        setInteractive(false);
+        setDocuments(new ArrayList<DocumentReference>());
+        setUsers(new ArrayList<DocumentReference>());
+    }
+
+    /**
+     * @param request the request to copy
+     */
+    public CacheWarmupRequest(Request request)
+    {
+        super(request);
+    }
+
+    /**
+     * @return the documents to load in the document cache
+     */
+    public List<DocumentReference> getDocuments()
+    {
+        return getProperty(PROPERTY_DOCUMENTS, Collections.<DocumentReference>emptyList());
+    }
+
+    /**
+     * @param documents the documents to load in the document cache
+     */
+    public void setDocuments(List<DocumentReference> documents)
+    {
+        setProperty(PROPERTY_DOCUMENTS, documents);
+    }
+
+    /**
+     * @return the users for which to settle the view right of the documents in the security cache (null stands for
+     *         guest)
+     */
+    public List<DocumentReference> getUsers()
+    {
+        return getProperty(PROPERTY_USERS, Collections.<DocumentReference>emptyList());
+    }
+
+    /**
+     * @param users the users for which to settle the view right of the documents in the security cache (null stands
+     *            for guest)
+     */
+    public void setUsers(List<DocumentReference> users)
+    {
+        setProperty(PROPERTY_USERS, users);
+    }
+
+    /**
+     * @return true if the documents should also be rendered to fill the rendering cache (only documents configured to
+     *         be cached are actually stored)
+     */
+    public boolean isRender()
+    {
+        return getProperty(PROPERTY_RENDER, false);
+    }
+
+    /**
+     * @param render true if the documents should also be rendered to fill the rendering cache
+     */
+    public void setRender(boolean render)
+    {
+        setProperty(PROPERTY_RENDER, render);
+    }
+
+    /**
+     * @return the time to wait (in milliseconds) after each loaded document to leave resources to live traffic
+     */
+    public long getPause()
+    {
+        return getProperty(PROPERTY_PAUSE, 0L);
+    }
+
+    /**
+     * @param pause the time to wait (in milliseconds) after each loaded document to leave resources to live traffic
+     */
+    public void setPause(long pause)
+    {
+        setProperty(PROPERTY_PAUSE, pause);
+    }
+}
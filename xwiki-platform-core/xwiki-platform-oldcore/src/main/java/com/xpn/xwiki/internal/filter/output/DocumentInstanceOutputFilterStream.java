@@ -20,8 +20,13 @@
 package com.xpn.xwiki.internal.filter.output;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -36,6 +41,8 @@
 import org.xwiki.filter.FilterEventParameters;
 import org.xwiki.filter.FilterException;
 import org.xwiki.filter.event.model.WikiDocumentFilter;
+import org.xwiki.filter.event.model.WikiFilter;
+import org.xwiki.filter.event.model.WikiSpaceFilter;
 import org.xwiki.filter.instance.output.DocumentInstanceOutputProperties;
 import org.xwiki.filter.output.AbstractBeanOutputFilterStream;
 import org.xwiki.logging.marker.TranslationMarker;
@@ -50,6 +57,10 @@
 import com.xpn.xwiki.doc.XWikiDocument;
 
 /**
+ * Save the documents produced by {@link XWikiDocumentOutputFilterStream} in the current instance. The documents are
+ * saved by batches of {@link DocumentInstanceOutputProperties#getBatchSize()} documents, each batch in a single
+ * transaction.
+ *
  * @version $Id$
  * @since 6.2M1
  */
@@ -57,7 +68,7 @@
 @Named(DocumentInstanceOutputFilterStreamFactory.ROLEHINT)
 @InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
 public class DocumentInstanceOutputFilterStream extends AbstractBeanOutputFilterStream<DocumentInstanceOutputProperties>
-    implements WikiDocumentFilter
+    implements WikiFilter, WikiSpaceFilter, WikiDocumentFilter
 {
     private static final TranslationMarker LOG_DOCUMENT_CREATED =
         new TranslationMarker("filter.instance.log.document.created", WikiDocumentFilter.LOG_DOCUMENT_CREATED);
@@ -98,6 +109,20 @@ public class DocumentInstanceOutputFilterStream extends AbstractBeanOutputFilter
 
     private FilterEventParameters currentRevisionParameters;
 
+    private int spaceDepth;
+
+    private final List<XWikiDocument> batch = new ArrayList<>();
+
+    private final Set<DocumentReference> batchReferences = new HashSet<>();
+
+    private final Set<DocumentReference> batchNewReferences = new HashSet<>();
+
+    private final List<XWikiDocument> batchArchives = new ArrayList<>();
+
+    private long savedDocuments;
+
+    private long saveTime;
+
     private XWikiDocumentOutputFilterStream getXWikiDocumentOutputFilterStream()
     {
         return (XWikiDocumentOutputFilterStream) this.documentListener;
@@ -112,7 +137,11 @@ protected Object createFilter() throws FilterException
     @Override
     public void close() throws IOException
     {
-        // Nothing to close
+        try {
+            flushBatch();
+        } catch (FilterException e) {
+            throw new IOException("Failed to save the remaining documents", e);
+        }
     }
 
     @Override
@@ -125,6 +154,36 @@ public void setProperties(DocumentInstanceOutputProperties properties) throws Fi
 
     // Events
 
+    @Override
+    public void beginWiki(String name, FilterEventParameters parameters) throws FilterException
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void endWiki(String name, FilterEventParameters parameters) throws FilterException
+    {
+        flushBatch();
+    }
+
+    @Override
+    public void beginWikiSpace(String name, FilterEventParameters parameters) throws FilterException
+    {
+        ++this.spaceDepth;
+    }
+
+    @Override
+    public void endWikiSpace(String name, FilterEventParameters parameters) throws FilterException
+    {
+        // The end of the stream is not always notified (the stream is not always closed) so make sure everything is
+        // saved when leaving the top level space
+        if (--this.spaceDepth <= 0) {
+            this.spaceDepth = 0;
+
+            flushBatch();
+        }
+    }
+
     @Override
     public void beginWikiDocument(String name, FilterEventParameters parameters) throws FilterException
     {
@@ -185,6 +244,11 @@ private void maybeSaveDocument() throws FilterException
             return;
         }
 
+        // Make sure the previous revision of the document is saved before loading it
+        if (this.batchReferences.contains(inputDocument.getDocumentReferenceWithLocale())) {
+            flushBatch();
+        }
+
         XWikiContext xcontext = this.xcontextProvider.get();
 
         try {
@@ -192,6 +256,7 @@ private void maybeSaveDocument() throws FilterException
                 xcontext.getWiki().getDocument(inputDocument.getDocumentReferenceWithLocale(), xcontext);
 
             boolean isNew = document.isNew();
+            boolean replaced = false;
 
             if (document.isNew()) {
                 document = inputDocument;
@@ -217,6 +282,7 @@ private void maybeSaveDocument() throws FilterException
                     }
 
                     this.documentDeleted = true;
+                    replaced = true;
                     document = inputDocument;
                 } else {
                     // Safer to clone for thread safety and in case the save fail
@@ -248,13 +314,16 @@ private void maybeSaveDocument() throws FilterException
                 }
             }
 
-            // Save history
-            if (document.isNew() && document.getDocumentArchive() != null) {
+            // A document replacing a deleted one is saved right away since the previous document would be lost if
+            // the batch failed
+            boolean batched = this.properties.getBatchSize() > 1 && !replaced;
+
+            // Save history (after the batch is saved for batched documents)
+            boolean saveArchive = document.isNew() && document.getDocumentArchive() != null;
+            if (saveArchive && !batched) {
                 // we need to force the saving the document archive
-                if (document.getDocumentArchive() != null) {
-                    xcontext.getWiki().getVersioningStore().saveXWikiDocArchive(document.getDocumentArchive(xcontext),
-                        true, xcontext);
-                }
+                xcontext.getWiki().getVersioningStore().saveXWikiDocArchive(document.getDocumentArchive(xcontext),
+                    true, xcontext);
             }
 
             // Don't preserve version or history if we don't delete the previous document
@@ -264,20 +333,24 @@ private void maybeSaveDocument() throws FilterException
 
                 document.setMetaDataDirty(false);
                 document.setContentDirty(false);
-
-                xcontext.getWiki().saveDocument(document, document.getComment(), document.isMinorEdit(), xcontext);
             } else {
-                xcontext.getWiki().saveDocument(document, this.properties.getSaveComment(), xcontext);
+                document.setComment(this.properties.getSaveComment());
+                document.setMinorEdit(false);
             }
 
-            if (this.properties.isVerbose()) {
+            if (batched) {
+                this.batch.add(document);
+                this.batchReferences.add(document.getDocumentReferenceWithLocale());
                 if (isNew) {
-                    this.logger.info(LOG_DOCUMENT_CREATED, "Created document [{}]",
-                        document.getDocumentReferenceWithLocale());
-                } else {
-                    this.logger.info(LOG_DOCUMENT_UPDATED, "Updated document [{}]",
-                        document.getDocumentReferenceWithLocale());
+                    this.batchNewReferences.add(document.getDocumentReferenceWithLocale());
                 }
+                if (saveArchive) {
+                    this.batchArchives.add(document);
+                }
+            } else {
+                xcontext.getWiki().saveDocument(document, document.getComment(), document.isMinorEdit(), xcontext);
+
+                logSaved(document, isNew);
             }
         } catch (Exception e) {
             this.logger.error(LOG_DOCUMENT_FAILSAVE, "Failed to save document [{}]",
@@ -287,6 +360,87 @@ private void maybeSaveDocument() throws FilterException
                 throw new FilterException("Failed to save document", e);
             }
         }
+
+        if (this.batch.size() >= this.properties.getBatchSize()) {
+            flushBatch();
+        }
+    }
+
+    private void flushBatch() throws FilterException
+    {
+        if (this.batch.isEmpty()) {
+            return;
+        }
+
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        List<XWikiDocument> archives = new ArrayList<>(this.batchArchives);
+
+        try {
+            long start = System.nanoTime();
+            xcontext.getWiki().saveDocuments(this.batch, xcontext);
+            this.saveTime += System.nanoTime() - start;
+            this.savedDocuments += this.batch.size();
+
+            this.logger.debug("Saved [{}] documents in [{}] ms ([{}] documents per second since the beginning)",
+                this.batch.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                this.savedDocuments * TimeUnit.SECONDS.toNanos(1) / Math.max(this.saveTime, 1));
+
+            for (XWikiDocument document : this.batch) {
+                logSaved(document, this.batchNewReferences.contains(document.getDocumentReferenceWithLocale()));
+            }
+        } catch (Exception e) {
+            // The documents are saved in a single transaction so none of them have been saved
+            for (XWikiDocument document : this.batch) {
+                this.logger.error(LOG_DOCUMENT_FAILSAVE, "Failed to save document [{}]",
+                    document.getDocumentReferenceWithLocale(), e);
+            }
+
+            // Don't write the history of documents which have not been saved
+            archives.clear();
+
+            if (this.properties.isStoppedWhenSaveFail()) {
+                throw new FilterException("Failed to save documents", e);
+            }
+        } finally {
+            this.batch.clear();
+            this.batchReferences.clear();
+            this.batchNewReferences.clear();
+            this.batchArchives.clear();
+        }
+
+        for (XWikiDocument document : archives) {
+            saveArchive(document, xcontext);
+        }
+    }
+
+    private void saveArchive(XWikiDocument document, XWikiContext xcontext) throws FilterException
+    {
+        try {
+            // we need to force the saving the document archive
+            xcontext.getWiki().getVersioningStore().saveXWikiDocArchive(document.getDocumentArchive(xcontext), true,
+                xcontext);
+        } catch (Exception e) {
+            this.logger.error(LOG_DOCUMENT_FAILSAVE, "Failed to save the history of document [{}]",
+                document.getDocumentReferenceWithLocale(), e);
+
+            if (this.properties.isStoppedWhenSaveFail()) {
+                throw new FilterException("Failed to save document history", e);
+            }
+        }
+    }
+
+    private void logSaved(XWikiDocument document, boolean isNew)
+    {
+        if (this.properties.isVerbose()) {
+            if (isNew) {
+                this.logger.info(LOG_DOCUMENT_CREATED, "Created document [{}]",
+                    document.getDocumentReferenceWithLocale());
+            } else {
+                this.logger.info(LOG_DOCUMENT_UPDATED, "Updated document [{}]",
+                    document.getDocumentReferenceWithLocale());
+            }
+        }
     }
 
     private void setAuthorReference(XWikiDocument document, DocumentReference authorReference)
@@ -19,13 +19,24 @@
  */
 package com.xpn.xwiki.internal.observation.remote.converter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
+import org.xwiki.cache.Cache;
+import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
 import org.xwiki.model.reference.DocumentReference;
@@ -34,6 +45,8 @@
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.store.XWikiCacheStoreInterface;
+import com.xpn.xwiki.store.XWikiStoreInterface;
 import com.xpn.xwiki.util.XWikiStubContextProvider;
 
 /**
@@ -58,6 +71,16 @@ public abstract class AbstractXWikiEventConverter extends AbstractEventConverter
 
     protected static final String ORIGDOC_LANGUAGE = "origdoclanguage";
 
+    /**
+     * @since 9.7RC1
+     */
+    protected static final String DOC_SNAPSHOT = "docsnapshot";
+
+    /**
+     * The name of the property containing the maximum size of the document snapshot sent with the remote events.
+     */
+    private static final String SNAPSHOT_MAXSIZE_PROPERTY = "observation.remote.document.snapshot.maxsize";
+
     /**
      * The logger to log.
      */
@@ -76,6 +99,15 @@ public abstract class AbstractXWikiEventConverter extends AbstractEventConverter
     @Inject
     private XWikiStubContextProvider stubContextProvider;
 
+    /**
+     * Lazily loaded since it's not needed for most events.
+     */
+    @Inject
+    @Named("xwikiproperties")
+    private Provider<ConfigurationSource> configurationProvider;
+
+    private Integer snapshotMaxSize;
+
     /**
      * @param context the XWiki context to serialize
      * @return the serialized version of the context
@@ -144,6 +176,11 @@ protected Serializable serializeXWikiDocument(XWikiDocument document)
         if (!document.isNew()) {
             remoteDataMap.put(DOC_VERSION, document.getVersion());
             remoteDataMap.put(DOC_LANGUAGE, document.getLanguage());
+
+            byte[] snapshot = serializeSnapshot(document);
+            if (snapshot != null) {
+                remoteDataMap.put(DOC_SNAPSHOT, snapshot);
+            }
         }
 
         XWikiDocument originalDocument = document.getOriginalDocument();
@@ -156,6 +193,103 @@ protected Serializable serializeXWikiDocument(XWikiDocument document)
         return remoteDataMap;
     }
 
+    private int getSnapshotMaxSize()
+    {
+        if (this.snapshotMaxSize == null) {
+            this.snapshotMaxSize = this.configurationProvider.get().getProperty(SNAPSHOT_MAXSIZE_PROPERTY, 0);
+        }
+
+        return this.snapshotMaxSize;
+    }
+
+    /**
+     * Serialize the document (without attachments content and history) so that the other members of the cluster don't
+     * have to load it from the database.
+     * 
+     * @param document the document to serialize
+     * @return the compressed XML of the document or null if disabled or bigger than the configured maximum size
+     */
+    private byte[] serializeSnapshot(XWikiDocument document)
+    {
+        int maxSize = getSnapshotMaxSize();
+        if (maxSize <= 0) {
+            return null;
+        }
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream stream = new GZIPOutputStream(bytes)) {
+                document.toXML(stream, true, false, false, false, null);
+            }
+
+            if (bytes.size() <= maxSize) {
+                return bytes.toByteArray();
+            }
+        } catch (Exception e) {
+            this.logger.warn("Failed to serialize document [{}] for the remote event: {}",
+                document.getDocumentReferenceWithLocale(), ExceptionUtils.getRootCauseMessage(e));
+        }
+
+        return null;
+    }
+
+    /**
+     * @param documentReference the reference of the document
+     * @param snapshot the compressed XML of the document
+     * @return the document or null if it could not be parsed (in which case it should be loaded from the database)
+     */
+    private XWikiDocument unserializeSnapshot(DocumentReference documentReference, byte[] snapshot)
+    {
+        XWikiContext xcontext = getXWikiStubContext();
+
+        // The wiki is not part of the XML
+        String currentWiki = xcontext.getWikiId();
+        try (InputStream stream = new GZIPInputStream(new ByteArrayInputStream(snapshot))) {
+            xcontext.setWikiId(documentReference.getWikiReference().getName());
+
+            XWikiDocument document = new XWikiDocument(documentReference);
+            document.fromXML(stream);
+            document.setNew(false);
+            document.setStore(xcontext.getWiki().getStore());
+
+            return document;
+        } catch (Exception e) {
+            this.logger.warn("Failed to parse the snapshot of document [{}], loading it from the database instead: {}",
+                documentReference, ExceptionUtils.getRootCauseMessage(e));
+
+            return null;
+        } finally {
+            xcontext.setWikiId(currentWiki);
+        }
+    }
+
+    /**
+     * @param documentReference the reference of the document
+     * @param language the language of the document
+     * @param version the version of the document
+     * @return the document from the cache if it has the expected version, null otherwise
+     */
+    private XWikiDocument getCachedDocument(DocumentReference documentReference, String language, String version)
+    {
+        XWikiContext xcontext = getXWikiStubContext();
+
+        XWikiStoreInterface store = xcontext.getWiki().getStore();
+        if (store instanceof XWikiCacheStoreInterface) {
+            Cache<XWikiDocument> cache = ((XWikiCacheStoreInterface) store).getCache();
+            if (cache != null) {
+                XWikiDocument key = new XWikiDocument(documentReference);
+                key.setLanguage(language);
+                XWikiDocument cachedDocument = cache.get(key.getKey());
+                if (cachedDocument != null && version.equals(cachedDocument.getVersion())) {
+                    // Don't expose the cached instance to the listeners
+                    return cachedDocument.clone();
+                }
+            }
+        }
+
+        return null;
+    }
+
     protected XWikiDocument getDocument(DocumentReference documentReference, String language, String version)
         throws XWikiException
     {
@@ -186,22 +320,31 @@ protected XWikiDocument unserializeDocument(Serializable remoteData) throws XWik
 
         DocumentReference docReference = (DocumentReference) remoteDataMap.get(DOC_NAME);
 
-        XWikiDocument doc;
+        XWikiDocument doc = null;
         if (remoteDataMap.get(DOC_VERSION) == null) {
             doc = new XWikiDocument(docReference);
         } else {
-            doc =
-                getDocument(docReference, (String) remoteDataMap.get(DOC_LANGUAGE),
+            byte[] snapshot = (byte[]) remoteDataMap.get(DOC_SNAPSHOT);
+            if (snapshot != null) {
+                doc = unserializeSnapshot(docReference, snapshot);
+            }
+            if (doc == null) {
+                doc = getDocument(docReference, (String) remoteDataMap.get(DOC_LANGUAGE),
                     (String) remoteDataMap.get(DOC_VERSION));
+            }
         }
 
         XWikiDocument origDoc;
         if (remoteDataMap.get(ORIGDOC_VERSION) == null) {
             origDoc = new XWikiDocument(docReference);
         } else {
-            origDoc =
-                getDocument(docReference, (String) remoteDataMap.get(ORIGDOC_LANGUAGE),
-                    (String) remoteDataMap.get(ORIGDOC_VERSION));
+            String origLanguage = (String) remoteDataMap.get(ORIGDOC_LANGUAGE);
+            String origVersion = (String) remoteDataMap.get(ORIGDOC_VERSION);
+            // The previous version of the document is generally still in the cache at this point
+            origDoc = getCachedDocument(docReference, origLanguage, origVersion);
+            if (origDoc == null) {
+                origDoc = getDocument(docReference, origLanguage, origVersion);
+            }
         }
 
         doc.setOriginalDocument(origDoc);
@@ -0,0 +1,358 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.cache.event.CacheEntryListener;
+
+import com.xpn.xwiki.doc.XWikiAttachment;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseProperty;
+import com.xpn.xwiki.store.DocumentCacheStatisticsMBean;
+
+/**
+ * Keep track of the estimated memory retained by the documents stored in the document cache, per wiki, and of the
+ * cache hits, misses and memory based evictions. When a maximum memory is configured it also indicates which entries
+ * should be evicted (the least recently used ones) to stay under that budget.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public class DocumentCacheStatistics implements CacheEntryListener<XWikiDocument>, DocumentCacheStatisticsMBean
+{
+    /**
+     * Rough estimation of the memory retained by an empty document (fields, references, dates, etc.).
+     */
+    private static final long DOCUMENT_OVERHEAD = 2048;
+
+    /**
+     * Rough estimation of the memory retained by an empty object or attachment.
+     */
+    private static final long ELEMENT_OVERHEAD = 256;
+
+    /**
+     * Rough estimation of the memory retained by a property, without its value.
+     */
+    private static final long PROPERTY_OVERHEAD = 128;
+
+    private static final class Entry
+    {
+        private final String wiki;
+
+        private final long size;
+
+        /**
+         * The value of the access clock when the entry was last put or found in the cache. It's written without
+         * locking so concurrent hits may record a slightly out of order recency, which is fine for eviction.
+         */
+        private volatile long lastAccess;
+
+        Entry(String wiki, long size, long lastAccess)
+        {
+            this.wiki = wiki;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private final long maxMemory;
+
+    /**
+     * The cache entries. They are read without locking when a document is found in the cache, and modified while
+     * holding the lock of this object so that they stay consistent with the memory counters.
+     */
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Gives the order in which the entries have been accessed.
+     */
+    private final AtomicLong accessClock = new AtomicLong();
+
+    private final Map<String, Long> wikisMemory = new HashMap<>();
+
+    private long memory;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxMemory the maximum estimated memory the cached documents are allowed to retain, 0 or less to not limit
+     *            it
+     */
+    public DocumentCacheStatistics(long maxMemory)
+    {
+        this.maxMemory = maxMemory;
+    }
+
+    /**
+     * Parse a memory size expressed in bytes with an optional {@code k}, {@code m} or {@code g} unit (e.g.
+     * {@code 512m}).
+     *
+     * @param value the value to parse
+     * @return the number of bytes, 0 if the value is empty
+     * @throws NumberFormatException when the value is not a valid memory size
+     */
+    public static long parseMemory(String value)
+    {
+        String memory = StringUtils.trimToEmpty(value).toLowerCase();
+        if (memory.isEmpty()) {
+            return 0;
+        }
+
+        long unit = 1;
+        switch (memory.charAt(memory.length() - 1)) {
+            case 'k':
+                unit = 1024L;
+                break;
+            case 'm':
+                unit = 1024L * 1024L;
+                break;
+            case 'g':
+                unit = 1024L * 1024L * 1024L;
+                break;
+            default:
+                return Long.parseLong(memory);
+        }
+
+        return Long.parseLong(memory.substring(0, memory.length() - 1).trim()) * unit;
+    }
+
+    /**
+     * @param document the document
+     * @return a rough estimation of the heap memory retained by the passed document
+     */
+    public static long estimateSize(XWikiDocument document)
+    {
+        long size = DOCUMENT_OVERHEAD;
+
+        size += sizeOf(document.getContent());
+        size += sizeOf(document.getTitle());
+        size += sizeOf(document.getXClassXML());
+
+        for (List<BaseObject> objects : document.getXObjects().values()) {
+            for (BaseObject object : objects) {
+                if (object != null) {
+                    size += ELEMENT_OVERHEAD;
+                    for (Object field : object.getFieldList()) {
+                        size += PROPERTY_OVERHEAD + sizeOfValue(((BaseProperty) field).getValue());
+                    }
+                }
+            }
+        }
+
+        for (XWikiAttachment attachment : document.getAttachmentList()) {
+            size += ELEMENT_OVERHEAD + sizeOf(attachment.getFilename()) + sizeOf(attachment.getMimeType());
+        }
+
+        return size;
+    }
+
+    private static long sizeOf(String value)
+    {
+        return value != null ? 2L * value.length() : 0;
+    }
+
+    private static long sizeOfValue(Object value)
+    {
+        if (value instanceof String) {
+            return sizeOf((String) value);
+        } else if (value instanceof Collection) {
+            long size = 0;
+            for (Object element : (Collection<?>) value) {
+                size += PROPERTY_OVERHEAD / 4 + sizeOfValue(element);
+            }
+            return size;
+        }
+
+        return PROPERTY_OVERHEAD / 4;
+    }
+
+    @Override
+    public void cacheEntryAdded(CacheEntryEvent<XWikiDocument> event)
+    {
+        put(event.getEntry().getKey(), event.getEntry().getValue());
+    }
+
+    @Override
+    public void cacheEntryModified(CacheEntryEvent<XWikiDocument> event)
+    {
+        put(event.getEntry().getKey(), event.getEntry().getValue());
+    }
+
+    @Override
+    public void cacheEntryRemoved(CacheEntryEvent<XWikiDocument> event)
+    {
+        remove(event.getEntry().getKey());
+    }
+
+    private synchronized void put(String key, XWikiDocument document)
+    {
+        remove(key);
+
+        if (document != null) {
+            Entry entry = new Entry(document.getDocumentReference().getWikiReference().getName(),
+                estimateSize(document), this.accessClock.incrementAndGet());
+            this.entries.put(key, entry);
+            add(entry.wiki, entry.size);
+        }
+    }
+
+    private synchronized void remove(String key)
+    {
+        Entry entry = this.entries.remove(key);
+        if (entry != null) {
+            add(entry.wiki, -entry.size);
+        }
+    }
+
+    private void add(String wiki, long size)
+    {
+        this.memory += size;
+
+        Long wikiMemory = this.wikisMemory.get(wiki);
+        long newWikiMemory = (wikiMemory != null ? wikiMemory : 0) + size;
+        if (newWikiMemory > 0) {
+            this.wikisMemory.put(wiki, newWikiMemory);
+        } else {
+            this.wikisMemory.remove(wiki);
+        }
+    }
+
+    /**
+     * Indicate that a document has been found in the cache.
+     *
+     * @param key the cache key of the document
+     */
+    public void onHit(String key)
+    {
+        this.hits.incrementAndGet();
+
+        // Update the access order without locking since it's done for each document found in the cache
+        Entry entry = this.entries.get(key);
+        if (entry != null) {
+            entry.lastAccess = this.accessClock.incrementAndGet();
+        }
+    }
+
+    /**
+     * Indicate that a document has not been found in the cache.
+     */
+    public void onMiss()
+    {
+        this.misses.incrementAndGet();
+    }
+
+    /**
+     * @return the keys of the least recently used entries to remove from the cache to stay under the configured
+     *         maximum memory
+     */
+    public synchronized List<String> getEntriesToEvict()
+    {
+        if (this.maxMemory <= 0 || this.memory <= this.maxMemory) {
+            return Collections.emptyList();
+        }
+
+        // Sort the entries by access order (the first entry is the least recently used)
+        List<Map.Entry<String, Entry>> sortedEntries = new ArrayList<>(this.entries.entrySet());
+        Collections.sort(sortedEntries, Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+
+        List<String> keys = new ArrayList<>();
+        long remainingMemory = this.memory;
+        for (Iterator<Map.Entry<String, Entry>> it = sortedEntries.iterator(); it.hasNext()
+            && remainingMemory > this.maxMemory;) {
+            Map.Entry<String, Entry> entry = it.next();
+            keys.add(entry.getKey());
+            remainingMemory -= entry.getValue().size;
+        }
+
+        this.evictions.addAndGet(keys.size());
+
+        return keys;
+    }
+
+    /**
+     * Forget about all the tracked entries (generally because the cache has been emptied).
+     */
+    public synchronized void reset()
+    {
+        this.entries.clear();
+        this.wikisMemory.clear();
+        this.memory = 0;
+    }
+
+    @Override
+    public long getMaxMemory()
+    {
+        return this.maxMemory;
+    }
+
+    @Override
+    public synchronized long getMemory()
+    {
+        return this.memory;
+    }
+
+    @Override
+    public synchronized Map<String, Long> getWikisMemory()
+    {
+        return new HashMap<>(this.wikisMemory);
+    }
+
+    @Override
+    public int getSize()
+    {
+        return this.entries.size();
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        return this.hits.get();
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return this.misses.get();
+    }
+
+    @Override
+    public long getEvictionCount()
+    {
+        return this.evictions.get();
+    }
+}
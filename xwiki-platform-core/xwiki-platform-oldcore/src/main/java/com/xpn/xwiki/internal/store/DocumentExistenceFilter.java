@@ -0,0 +1,98 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+/**
+ * Compact probabilistic set of the identifiers of the documents existing in a wiki. It can tell for sure that a
+ * document does not exist (without any database access) but can only tell that a document might exist.
+ * <p>
+ * Since elements cannot be removed from the set, deleted documents are still considered as possibly existing. The
+ * filter is not usable until it has been fully filled (see {@link #setReady()}): before that all documents are
+ * considered as possibly existing.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public class DocumentExistenceFilter
+{
+    /**
+     * The accepted probability for a missing document to be reported as possibly existing.
+     */
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    /**
+     * Minimum number of documents which can be created after the filter is built without degrading its accuracy.
+     */
+    private static final long MINIMUM_GROWTH = 10000;
+
+    private final BloomFilter<Long> filter;
+
+    private volatile boolean ready;
+
+    /**
+     * @param documentCount the number of documents currently in the wiki
+     */
+    public DocumentExistenceFilter(long documentCount)
+    {
+        // Leave room for the documents created after the filter is built
+        long expectedInsertions = documentCount + Math.max(documentCount / 2, MINIMUM_GROWTH);
+
+        this.filter = BloomFilter.create(Funnels.longFunnel(), expectedInsertions, FALSE_POSITIVE_PROBABILITY);
+    }
+
+    /**
+     * @param documentId the identifier of a document which exists
+     */
+    public void add(long documentId)
+    {
+        // BloomFilter is not thread safe for writes (concurrent writes to the same word of the bit array can be lost)
+        synchronized (this.filter) {
+            this.filter.put(documentId);
+        }
+    }
+
+    /**
+     * Indicate that all the existing documents have been added to the filter, which can be used from now on.
+     */
+    public void setReady()
+    {
+        this.ready = true;
+    }
+
+    /**
+     * @return true if the filter contains all the existing documents
+     */
+    public boolean isReady()
+    {
+        return this.ready;
+    }
+
+    /**
+     * @param documentId the identifier of the document
+     * @return false if the document does not exist for sure, true if it might exist
+     */
+    public boolean mightExist(long documentId)
+    {
+        return !this.ready || this.filter.mightContain(documentId);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xwiki.context.ExecutionContext;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.store.XWikiStoreInterface;
+import com.xpn.xwiki.util.AbstractXWikiRunnable;
+
+/**
+ * Fill a {@link DocumentExistenceFilter} with the identifiers of all the documents of a wiki, in the background.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public class DocumentExistenceFilterBuilder extends AbstractXWikiRunnable
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentExistenceFilterBuilder.class);
+
+    /**
+     * The number of document identifiers to load at once.
+     */
+    private static final int BATCH_SIZE = 10000;
+
+    private final XWikiStoreInterface store;
+
+    private final String wiki;
+
+    private final DocumentExistenceFilter filter;
+
+    private XWikiContext xcontext;
+
+    /**
+     * @param store the store to get the documents identifiers from
+     * @param wiki the wiki for which to fill the filter
+     * @param filter the filter to fill
+     * @param xcontext the XWiki context
+     */
+    public DocumentExistenceFilterBuilder(XWikiStoreInterface store, String wiki, DocumentExistenceFilter filter,
+        XWikiContext xcontext)
+    {
+        this.store = store;
+        this.wiki = wiki;
+        this.filter = filter;
+
+        this.xcontext = xcontext.clone();
+        this.xcontext.setWikiId(wiki);
+    }
+
+    @Override
+    protected void declareProperties(ExecutionContext executionContext)
+    {
+        this.xcontext.declareInExecutionContext(executionContext);
+    }
+
+    @Override
+    protected void runInternal()
+    {
+        LOGGER.debug("Start filling the document existence filter of wiki [{}]", this.wiki);
+
+        try {
+            // Use the last identifier as lower bound instead of an offset to not make the database count the skipped
+            // rows
+            Long lastId = Long.MIN_VALUE;
+            List<Long> ids;
+            do {
+                ids = this.store.search("select doc.id from XWikiDocument as doc where doc.id > ? order by doc.id",
+                    BATCH_SIZE, 0, Arrays.asList(lastId), this.xcontext);
+                for (Long id : ids) {
+                    this.filter.add(id);
+                    lastId = id;
+                }
+            } while (ids.size() == BATCH_SIZE);
+
+            this.filter.setReady();
+
+            LOGGER.debug("Document existence filter of wiki [{}] is ready", this.wiki);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to fill the document existence filter of wiki [{}]: {}", this.wiki,
+                ExceptionUtils.getRootCauseMessage(e));
+        } finally {
+            this.xcontext = null;
+        }
+    }
+}
@@ -19,6 +19,7 @@
  */
 package com.xpn.xwiki.internal.template;
 
+import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -33,6 +34,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -43,9 +45,17 @@
 
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
 import org.xwiki.configuration.ConfigurationSource;
 import org.xwiki.environment.Environment;
 import org.xwiki.filter.input.InputSource;
@@ -55,6 +65,9 @@
 import org.xwiki.job.event.status.JobProgressManager;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.ObservationManager;
+import org.xwiki.observation.event.Event;
 import org.xwiki.properties.BeanManager;
 import org.xwiki.properties.ConverterManager;
 import org.xwiki.properties.PropertyException;
@@ -82,12 +95,17 @@
 import org.xwiki.skin.Skin;
 import org.xwiki.template.Template;
 import org.xwiki.template.TemplateContent;
+import org.xwiki.template.event.TemplateDeletedEvent;
+import org.xwiki.template.event.TemplateEvent;
+import org.xwiki.template.event.TemplateUpdatedEvent;
 import org.xwiki.velocity.VelocityManager;
 
 import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.internal.skin.AbstractEnvironmentResource;
 import com.xpn.xwiki.internal.skin.InternalSkinManager;
 import com.xpn.xwiki.internal.skin.WikiResource;
+import com.xpn.xwiki.internal.skin.WikiSkinUtils;
 import com.xpn.xwiki.user.api.XWikiRightService;
 
 /**
@@ -98,7 +116,7 @@
  */
 @Component(roles = InternalTemplateManager.class)
 @Singleton
-public class InternalTemplateManager
+public class InternalTemplateManager implements Initializable
 {
     private static final Pattern PROPERTY_LINE = Pattern.compile("^##!(.+)=(.*)$\r?\n?", Pattern.MULTILINE);
 
@@ -161,9 +179,36 @@
     @Inject
     private JobProgressManager progress;
 
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private ObservationManager observation;
+
     @Inject
     private Logger logger;
 
+    /**
+     * The content of the templates indexed by resource id, to not read and parse the same templates on each request.
+     */
+    private Cache<CachedTemplateContent> contentCache;
+
+    private static final class CachedTemplateContent
+    {
+        private final long modified;
+
+        private final DocumentReference authorReference;
+
+        private final TemplateContent content;
+
+        CachedTemplateContent(long modified, DocumentReference authorReference, TemplateContent content)
+        {
+            this.modified = modified;
+            this.authorReference = authorReference;
+            this.content = content;
+        }
+    }
+
     private static abstract class AbtractTemplate<T extends TemplateContent, R extends Resource<?>> implements Template
     {
         protected R resource;
@@ -190,6 +235,10 @@ public String getPath()
         @Override
         public TemplateContent getContent() throws Exception
         {
+            if (this.content == null) {
+                this.content = getCachedContent();
+            }
+
             if (this.content == null) {
                 // TODO: work with streams instead of forcing String
                 String strinContent;
@@ -210,6 +259,8 @@ public TemplateContent getContent() throws Exception
                 }
 
                 this.content = getContentInternal(strinContent);
+
+                setCachedContent(this.content);
             }
 
             return this.content;
@@ -217,6 +268,21 @@ public TemplateContent getContent() throws Exception
 
         protected abstract T getContentInternal(String content) throws Exception;
 
+        /**
+         * @return the content already parsed by another instance of the template, null if there is none
+         */
+        protected T getCachedContent()
+        {
+            return null;
+        }
+
+        /**
+         * @param content the parsed content to share with the next instances of the template
+         */
+        protected void setCachedContent(T content)
+        {
+        }
+
         @Override
         public String toString()
         {
@@ -236,6 +302,18 @@ protected FilesystemTemplateContent getContentInternal(String content)
         {
             return new FilesystemTemplateContent(content);
         }
+
+        @Override
+        protected FilesystemTemplateContent getCachedContent()
+        {
+            return InternalTemplateManager.this.getCachedContent(this.resource, FilesystemTemplateContent.class);
+        }
+
+        @Override
+        protected void setCachedContent(FilesystemTemplateContent content)
+        {
+            InternalTemplateManager.this.setCachedContent(this.resource, content);
+        }
     }
 
     private class DefaultTemplate extends AbtractTemplate<DefaultTemplateContent, Resource<?>>
@@ -254,6 +332,18 @@ protected DefaultTemplateContent getContentInternal(String content)
                 return new DefaultTemplateContent(content);
             }
         }
+
+        @Override
+        protected DefaultTemplateContent getCachedContent()
+        {
+            return InternalTemplateManager.this.getCachedContent(this.resource, DefaultTemplateContent.class);
+        }
+
+        @Override
+        protected void setCachedContent(DefaultTemplateContent content)
+        {
+            InternalTemplateManager.this.setCachedContent(this.resource, content);
+        }
     }
 
     private class StringTemplate extends DefaultTemplate
@@ -284,6 +374,11 @@ private class DefaultTemplateContent implements RawProperties, TemplateContent
 
         protected Map<String, Object> properties = new HashMap<>();
 
+        /**
+         * The parsed content, when the template is written in a wiki syntax.
+         */
+        private XDOM xdom;
+
         DefaultTemplateContent(String content)
         {
             this.content = content;
@@ -359,6 +454,20 @@ public String getContent()
             return this.content;
         }
 
+        /**
+         * @return a copy of the parsed content, the content is parsed only once
+         * @throws Exception when failing to parse the content
+         */
+        protected synchronized XDOM getXDOM() throws Exception
+        {
+            if (this.xdom == null) {
+                this.xdom = parser.parse(this.content, this.sourceSyntax);
+            }
+
+            // The XDOM is modified by the transformations
+            return this.xdom.clone();
+        }
+
         @PropertyHidden
         @Override
         public boolean isAuthorProvided()
@@ -442,6 +551,110 @@ public void setPrivileged(boolean privileged)
         }
     }
 
+    @Override
+    public void initialize() throws InitializationException
+    {
+        try {
+            this.contentCache =
+                this.cacheManager.createNewCache(new LRUCacheConfiguration("templates.content", 1000, 86400));
+        } catch (CacheException e) {
+            throw new InitializationException("Failed to initialize the templates cache", e);
+        }
+
+        this.observation.addListener(new AbstractEventListener("templates.content", new TemplateUpdatedEvent(),
+            new TemplateDeletedEvent(), new DocumentUpdatedEvent(), new DocumentDeletedEvent())
+        {
+            @Override
+            public void onEvent(Event event, Object source, Object data)
+            {
+                if (event instanceof TemplateEvent) {
+                    String id = ((TemplateEvent) event).getId();
+                    if (id != null) {
+                        InternalTemplateManager.this.contentCache.remove(id);
+                    }
+                } else {
+                    XWikiDocument document = (XWikiDocument) source;
+                    if (document.getXObject(WikiSkinUtils.SKINCLASS_REFERENCE) != null
+                        || document.getOriginalDocument().getXObject(WikiSkinUtils.SKINCLASS_REFERENCE) != null) {
+                        // The author of the skin might have changed
+                        InternalTemplateManager.this.contentCache.removeAll();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @param resource the resource of the template
+     * @return the last modification date of the resource, 0 if it's modified only through events (wiki resources) or
+     *         never (jar resources), -1 if it's unknown (in which case the content is not cached)
+     */
+    private long getModified(Resource<?> resource)
+    {
+        if (resource instanceof WikiResource) {
+            // Invalidated by TemplateListener
+            return 0;
+        } else if (resource instanceof AbstractEnvironmentResource) {
+            return getModified(this.environment.getResource(resource.getPath()));
+        } else if (resource instanceof ClassloaderResource) {
+            try {
+                return getModified(new URL(resource.getId()));
+            } catch (Exception e) {
+                return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    private long getModified(URL url)
+    {
+        if (url != null) {
+            try {
+                if (url.getProtocol().equals("file")) {
+                    return new File(url.toURI()).lastModified();
+                } else if (url.getProtocol().equals("jar")) {
+                    // The content of a jar does not change while it's loaded (installing another version of an
+                    // extension produces a different jar URL) so there is no need to check it each time
+                    return 0;
+                }
+            } catch (Exception e) {
+                this.logger.debug("Failed to get the last modification date of [{}]", url, e);
+            }
+        }
+
+        return -1;
+    }
+
+    private DocumentReference getCacheAuthorReference(Resource<?> resource)
+    {
+        return resource instanceof WikiResource ? ((WikiResource<?>) resource).getAuthorReference() : null;
+    }
+
+    private <T extends TemplateContent> T getCachedContent(Resource<?> resource, Class<T> type)
+    {
+        CachedTemplateContent cachedContent = this.contentCache.get(resource.getId());
+
+        if (cachedContent != null && type.isInstance(cachedContent.content)) {
+            long modified = getModified(resource);
+            if (modified >= 0 && modified == cachedContent.modified
+                && Objects.equals(getCacheAuthorReference(resource), cachedContent.authorReference)) {
+                return type.cast(cachedContent.content);
+            }
+        }
+
+        return null;
+    }
+
+    private void setCachedContent(Resource<?> resource, TemplateContent content)
+    {
+        long modified = getModified(resource);
+        if (modified >= 0) {
+            this.contentCache.set(resource.getId(),
+                new CachedTemplateContent(modified, getCacheAuthorReference(resource), content));
+        }
+    }
+
     private String getResourcePath(String suffixPath, String templateName, boolean testExist)
     {
         String templatePath = suffixPath + templateName;
@@ -565,7 +778,11 @@ private XDOM getXDOM(Template template, TemplateContent content) throws Exceptio
         XDOM xdom;
 
         if (content.getSourceSyntax() != null) {
-            xdom = this.parser.parse(content.getContent(), content.getSourceSyntax());
+            if (content instanceof DefaultTemplateContent) {
+                xdom = ((DefaultTemplateContent) content).getXDOM();
+            } else {
+                xdom = this.parser.parse(content.getContent(), content.getSourceSyntax());
+            }
         } else {
             String result = evaluateContent(template, content);
             xdom = new XDOM(Arrays.asList(new RawBlock(result,
@@ -100,6 +100,11 @@
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Package.class);
 
+    /**
+     * The maximum number of documents saved in the same transaction.
+     */
+    private static final int BATCH_SIZE = 100;
+
     private String name = "My package";
 
     private String description = "";
@@ -693,19 +698,28 @@ public int install(XWikiContext context) throws XWikiException
             // Start by installing all documents having a class definition so that their
             // definitions are available when installing documents using them.
             for (DocumentInfo classFile : this.classFiles) {
-                if (installDocument(classFile, isAdmin, backup, context) == DocumentInfo.INSTALL_ERROR) {
+                if (installDocument(classFile, isAdmin, backup, null, context) == DocumentInfo.INSTALL_ERROR) {
                     status = DocumentInfo.INSTALL_ERROR;
                 }
             }
 
-            // Install the remaining documents (without class definitions).
+            // Install the remaining documents (without class definitions) by batches of documents saved in a single
+            // transaction.
+            List<InstallingDocument> batch = new ArrayList<>(BATCH_SIZE);
             for (DocumentInfo docInfo : this.files) {
                 if (!this.classFiles.contains(docInfo)) {
-                    if (installDocument(docInfo, isAdmin, backup, context) == DocumentInfo.INSTALL_ERROR) {
+                    if (installDocument(docInfo, isAdmin, backup, batch, context) == DocumentInfo.INSTALL_ERROR) {
+                        status = DocumentInfo.INSTALL_ERROR;
+                    }
+
+                    if (batch.size() >= BATCH_SIZE && installBatch(batch, context) == DocumentInfo.INSTALL_ERROR) {
                         status = DocumentInfo.INSTALL_ERROR;
                     }
                 }
             }
+            if (installBatch(batch, context) == DocumentInfo.INSTALL_ERROR) {
+                status = DocumentInfo.INSTALL_ERROR;
+            }
             setStatus(status, context);
 
         } finally {
@@ -793,8 +807,12 @@ private boolean isFarmAdmin(XWikiContext context)
         }
     }
 
-    private int installDocument(DocumentInfo doc, boolean isAdmin, boolean backup, XWikiContext context)
-        throws XWikiException
+    /**
+     * @param batch the documents waiting to be saved, null to save the document right away (documents replacing an
+     *            existing one are always saved right away)
+     */
+    private int installDocument(DocumentInfo doc, boolean isAdmin, boolean backup, List<InstallingDocument> batch,
+        XWikiContext context) throws XWikiException
     {
         if (this.preserveVersion && this.withVersions) {
             // Right now importing an archive and the history revisions it contains
@@ -823,6 +841,7 @@ private int installDocument(DocumentInfo doc, boolean isAdmin, boolean backup, X
         if (status == DocumentInfo.INSTALL_OK
             || status == DocumentInfo.INSTALL_ALREADY_EXIST && doc.getAction() == DocumentInfo.ACTION_OVERWRITE) {
             XWikiDocument previousdoc = null;
+            boolean previousDeleted = false;
             if (status == DocumentInfo.INSTALL_ALREADY_EXIST) {
                 previousdoc = context.getWiki().getDocument(doc.getFullName(), context);
                 // if this document is a translation: we should only delete the translation
@@ -836,6 +855,7 @@ private int installDocument(DocumentInfo doc, boolean isAdmin, boolean backup, X
                         // This is not a real document delete, it's a upgrade. To be sure to not
                         // generate DELETE notification we directly use {@link XWikiStoreInterface}
                         context.getWiki().getStore().deleteXWikiDoc(previousdoc, context);
+                        previousDeleted = true;
                     } catch (Exception e) {
                         // let's log the error but not stop
                         result = DocumentInfo.INSTALL_ERROR;
@@ -907,25 +927,22 @@ private int installDocument(DocumentInfo doc, boolean isAdmin, boolean backup, X
                     }
                 }
 
+                InstallingDocument installingDocument = new InstallingDocument(doc,
+                    (this.withVersions && packageHasHistory) || conserveExistingHistory, shouldResetToInitialVersion);
+
                 String saveMessage = context.getMessageTool().get("core.importer.saveDocumentComment");
-                context.getWiki().saveDocument(doc.getDoc(), saveMessage, context);
-                addToInstalled(doc.getFullName() + ":" + doc.getLanguage(), context);
-
-                if ((this.withVersions && packageHasHistory) || conserveExistingHistory) {
-                    // we need to force the saving the document archive.
-                    if (doc.getDoc().getDocumentArchive() != null) {
-                        context.getWiki().getVersioningStore()
-                            .saveXWikiDocArchive(doc.getDoc().getDocumentArchive(context), true, context);
-                    }
-                }
+                // A document replacing a deleted one is saved right away since the previous document would be lost if
+                // the batch failed
+                if (batch != null && !previousDeleted) {
+                    doc.getDoc().setComment(saveMessage);
+                    doc.getDoc().setMinorEdit(false);
 
-                if (shouldResetToInitialVersion) {
-                    // If we override and do not import version, (meaning reset document to 1.1)
-                    // We need manually reset possible existing revision for the document
-                    // This means making the history empty (it does not affect the version number)
-                    doc.getDoc().resetArchive(context);
-                }
+                    batch.add(installingDocument);
+                } else {
+                    context.getWiki().saveDocument(doc.getDoc(), saveMessage, context);
 
+                    completeInstall(installingDocument, context);
+                }
             } catch (XWikiException e) {
                 addToErrors(doc.getFullName() + ":" + doc.getLanguage(), context);
                 if (LOGGER.isErrorEnabled()) {
@@ -937,6 +954,70 @@ private int installDocument(DocumentInfo doc, boolean isAdmin, boolean backup, X
         return result;
     }
 
+    private int installBatch(List<InstallingDocument> batch, XWikiContext context)
+    {
+        if (batch.isEmpty()) {
+            return DocumentInfo.INSTALL_OK;
+        }
+
+        int result = DocumentInfo.INSTALL_OK;
+
+        List<XWikiDocument> documents = new ArrayList<>(batch.size());
+        for (InstallingDocument installingDocument : batch) {
+            documents.add(installingDocument.doc.getDoc());
+        }
+
+        try {
+            context.getWiki().saveDocuments(documents, context);
+        } catch (XWikiException e) {
+            // The documents are saved in a single transaction so none of them have been saved
+            LOGGER.error("Failed to save [{}] documents", documents.size(), e);
+            for (InstallingDocument installingDocument : batch) {
+                addToErrors(installingDocument.doc.getFullName() + ":" + installingDocument.doc.getLanguage(),
+                    context);
+            }
+            batch.clear();
+
+            return DocumentInfo.INSTALL_ERROR;
+        }
+
+        for (InstallingDocument installingDocument : batch) {
+            DocumentInfo doc = installingDocument.doc;
+            try {
+                completeInstall(installingDocument, context);
+            } catch (XWikiException e) {
+                addToErrors(doc.getFullName() + ":" + doc.getLanguage(), context);
+                LOGGER.error("Failed to save document " + doc.getFullName(), e);
+                result = DocumentInfo.INSTALL_ERROR;
+            }
+        }
+        batch.clear();
+
+        return result;
+    }
+
+    private void completeInstall(InstallingDocument installingDocument, XWikiContext context) throws XWikiException
+    {
+        DocumentInfo doc = installingDocument.doc;
+
+        addToInstalled(doc.getFullName() + ":" + doc.getLanguage(), context);
+
+        if (installingDocument.saveArchive) {
+            // we need to force the saving the document archive.
+            if (doc.getDoc().getDocumentArchive() != null) {
+                context.getWiki().getVersioningStore()
+                    .saveXWikiDocArchive(doc.getDoc().getDocumentArchive(context), true, context);
+            }
+        }
+
+        if (installingDocument.resetArchive) {
+            // If we override and do not import version, (meaning reset document to 1.1)
+            // We need manually reset possible existing revision for the document
+            // This means making the history empty (it does not affect the version number)
+            doc.getDoc().resetArchive(context);
+        }
+    }
+
     /**
      * @return true if the passed document contains a (not-empty) history of previous versions, false otherwise
      */
@@ -1501,4 +1582,23 @@ public JSONObject toJSON(XWikiContext wikiContext)
 
         return jsonObject;
     }
+
+    /**
+     * A document to save and the updates of its history to do once it is saved.
+     */
+    private static class InstallingDocument
+    {
+        private final DocumentInfo doc;
+
+        private final boolean saveArchive;
+
+        private final boolean resetArchive;
+
+        InstallingDocument(DocumentInfo doc, boolean saveArchive, boolean resetArchive)
+        {
+            this.doc = doc;
+            this.saveArchive = saveArchive;
+            this.resetArchive = resetArchive;
+        }
+    }
 }
@@ -22,12 +22,16 @@
 import java.util.Date;
 import java.util.List;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.stats.impl.StatsUtil;
 import com.xpn.xwiki.stats.impl.StatsUtil.PeriodType;
+import com.xpn.xwiki.store.XWikiHibernateStore;
 import com.xpn.xwiki.web.Utils;
 
 /**
@@ -38,6 +42,11 @@
  */
 public abstract class AbstractStatsStoreItem implements XWikiStatsStoreItem
 {
+    /**
+     * Logging tools.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractStatsStoreItem.class);
+
     /**
      * The XWiki context clone made when this statistics event occurred.
      */
@@ -96,6 +105,113 @@ public void store(List<XWikiStatsStoreItem> statsList)
         }
     }
 
+    /**
+     * @return the identifier of the wiki where this statistics event occurred
+     * @since 9.7RC1
+     */
+    String getWikiId()
+    {
+        return this.context.getWikiId();
+    }
+
+    /**
+     * Store several groups of statistics of the wiki of this item in a single transaction, instead of one transaction
+     * per group. When that transaction fails, each group is stored again in its own transaction so that a failing
+     * statistic does not prevent the others from being stored.
+     *
+     * @param batch the statistics to store, each list containing the items having the same identifier
+     * @since 9.7RC1
+     */
+    void storeBatch(List<List<XWikiStatsStoreItem>> batch)
+    {
+        if (!storeInTransaction(batch)) {
+            for (List<XWikiStatsStoreItem> stats : batch) {
+                try {
+                    stats.get(0).store(stats);
+                } catch (Exception e) {
+                    LOGGER.error("Failed to store statistics [{}]", stats.get(0).getId(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param batch the statistics to store, each list containing the items having the same identifier
+     * @return true if all the statistics have been stored in a single transaction, false if nothing has been stored
+     */
+    private boolean storeInTransaction(List<List<XWikiStatsStoreItem>> batch)
+    {
+        XWikiHibernateStore store = this.context.getWiki().getHibernateStore();
+        if (store == null) {
+            return false;
+        }
+
+        ExecutionContext econtext = Utils.getComponent(Execution.class).getContext();
+
+        XWikiContext currentContext = (XWikiContext) econtext.getProperty(XWikiContext.EXECUTIONCONTEXT_KEY);
+
+        try {
+            econtext.setProperty(XWikiContext.EXECUTIONCONTEXT_KEY, this.context);
+
+            boolean transaction;
+            try {
+                store.checkHibernate(this.context);
+                transaction = store.beginTransaction(this.context);
+            } catch (Exception e) {
+                LOGGER.warn("Failed to open a transaction to store statistics, storing them separately", e);
+
+                return false;
+            }
+
+            boolean stored = false;
+            try {
+                for (List<XWikiStatsStoreItem> stats : batch) {
+                    ((AbstractStatsStoreItem) stats.get(0)).storeInternal(stats, this.context);
+                }
+
+                stored = true;
+            } catch (Exception e) {
+                LOGGER.warn("Failed to store the statistics of wiki [{}] in a single transaction: {}", getWikiId(),
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+
+            if (transaction) {
+                try {
+                    store.endTransaction(this.context, stored);
+                } catch (Exception e) {
+                    LOGGER.warn("Failed to commit the statistics of wiki [{}], storing them separately: {}",
+                        getWikiId(), ExceptionUtils.getRootCauseMessage(e));
+
+                    stored = false;
+                }
+            }
+
+            return stored;
+        } finally {
+            econtext.setProperty(XWikiContext.EXECUTIONCONTEXT_KEY, currentContext);
+        }
+    }
+
+    /**
+     * Store the provided statistics using the passed context (which holds the current transaction) instead of the
+     * context of this item.
+     *
+     * @param statsList the list of statistics item to store
+     * @param batchContext the context to use
+     */
+    private void storeInternal(List<XWikiStatsStoreItem> statsList, XWikiContext batchContext)
+    {
+        XWikiContext itemContext = this.context;
+
+        try {
+            this.context = batchContext;
+
+            storeInternal(statsList);
+        } finally {
+            this.context = itemContext;
+        }
+    }
+
     /**
      * Store provided statistics into the database.
      *
@@ -21,10 +21,11 @@
 
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +58,11 @@ public class XWikiStatsStoreService extends AbstractXWikiRunnable
      */
     private ArrayBlockingQueue<XWikiStatsStoreItem> queue;
 
+    /**
+     * How long (in milliseconds) the received statistics are aggregated before being stored.
+     */
+    private long flushDelay;
+
     /**
      * The thread on which the storing service is running.
      */
@@ -77,6 +83,7 @@ public XWikiStatsStoreService(XWikiContext context)
         this.xwikiContext = context.clone();
         long queueSize = context.getWiki().ParamAsLong("stats.queue.size", 200);
         this.queue = new ArrayBlockingQueue<XWikiStatsStoreItem>((int) queueSize);
+        this.flushDelay = context.getWiki().ParamAsLong("stats.queue.flushdelay", 1000);
     }
 
     @Override
@@ -136,6 +143,10 @@ public void runInternal()
 
     /**
      * Store the statistics in the queue.
+     * <p>
+     * The statistics received during the flush delay are aggregated (by wiki and identifier) so that a frequently
+     * viewed document leads to a single database update per period, and the statistics of a wiki are all stored in a
+     * single transaction.
      *
      * @throws InterruptedException thread has been interrupted.
      * @throws StopStatsStoreException service received stop order.
@@ -144,32 +155,52 @@ private void register() throws InterruptedException, StopStatsStoreException
     {
         XWikiStatsStoreItem stat = this.queue.take();
 
-        List<List<XWikiStatsStoreItem>> statsList = new ArrayList<List<XWikiStatsStoreItem>>();
-        Map<String, List<XWikiStatsStoreItem>> statsMap = new HashMap<String, List<XWikiStatsStoreItem>>();
+        Map<String, List<List<XWikiStatsStoreItem>>> statsByWiki = new LinkedHashMap<>();
+        Map<String, List<XWikiStatsStoreItem>> statsMap = new LinkedHashMap<>();
 
-        do {
-            if (stat instanceof StopStatsRegisterObject) {
-                throw new StopStatsStoreException();
-            }
+        long flushTime = System.currentTimeMillis() + this.flushDelay;
 
-            String statId = stat.getId();
+        try {
+            do {
+                if (stat instanceof StopStatsRegisterObject) {
+                    throw new StopStatsStoreException();
+                }
 
-            List<XWikiStatsStoreItem> stats = statsMap.get(statId);
+                String wikiId = stat instanceof AbstractStatsStoreItem ? ((AbstractStatsStoreItem) stat).getWikiId()
+                    : null;
+                String statId = wikiId + ' ' + stat.getId();
 
-            if (stats == null) {
-                stats = new ArrayList<XWikiStatsStoreItem>();
+                List<XWikiStatsStoreItem> stats = statsMap.get(statId);
 
-                statsMap.put(statId, stats);
-                statsList.add(stats);
-            }
+                if (stats == null) {
+                    stats = new ArrayList<XWikiStatsStoreItem>();
 
-            stats.add(stat);
+                    statsMap.put(statId, stats);
+                    statsByWiki.computeIfAbsent(wikiId, key -> new ArrayList<>()).add(stats);
+                }
 
-            stat = this.queue.poll();
-        } while (stat != null);
+                stats.add(stat);
 
-        for (List<XWikiStatsStoreItem> stats : statsList) {
-            stats.get(0).store(stats);
+                long remaining = flushTime - System.currentTimeMillis();
+                stat = remaining > 0 ? this.queue.poll(remaining, TimeUnit.MILLISECONDS) : null;
+            } while (stat != null);
+        } finally {
+            // Store what has been aggregated so far, even when stopping
+            store(statsByWiki);
+        }
+    }
+
+    private void store(Map<String, List<List<XWikiStatsStoreItem>>> statsByWiki)
+    {
+        for (Map.Entry<String, List<List<XWikiStatsStoreItem>>> entry : statsByWiki.entrySet()) {
+            List<List<XWikiStatsStoreItem>> batch = entry.getValue();
+            if (entry.getKey() != null) {
+                ((AbstractStatsStoreItem) batch.get(0).get(0)).storeBatch(batch);
+            } else {
+                for (List<XWikiStatsStoreItem> stats : batch) {
+                    stats.get(0).store(stats);
+                }
+            }
         }
     }
 
@@ -201,6 +232,8 @@ public void add(XWikiStatsStoreItem statsRegisterItem)
     public void addStats(XWikiDocument doc, String action, XWikiContext context)
     {
         VisitStats vobject = StatsUtil.findVisit(context);
+        boolean isVisit;
+        // Only the update of the visit needs to be synchronized, the other statistics don't depend on it
         synchronized (vobject) {
             if (action.equals(ViewAction.VIEW_ACTION)) {
                 // We count page views in the sessions only for the "view" action
@@ -215,11 +248,11 @@ public void addStats(XWikiDocument doc, String action, XWikiContext context)
 
             addVisitStats(vobject, context);
 
-            boolean isVisit = (vobject.getPageViews() == 1) && (action.equals(ViewAction.VIEW_ACTION));
-
-            addDocumentStats(doc, action, isVisit, context);
+            isVisit = (vobject.getPageViews() == 1) && (action.equals(ViewAction.VIEW_ACTION));
         }
 
+        addDocumentStats(doc, action, isVisit, context);
+
         // In case of a "view" action we want to store referer info
         if (action.equals(ViewAction.VIEW_ACTION)) {
             addRefererStats(doc, context);
@@ -0,0 +1,67 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.store;
+
+import java.util.Map;
+
+/**
+ * Statistics of the document cache: hits, misses, memory based evictions and estimated memory retained by the cached
+ * documents. Also exposed through JMX.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public interface DocumentCacheStatisticsMBean
+{
+    /**
+     * @return the maximum estimated memory the cached documents are allowed to retain, 0 or less if not limited
+     */
+    long getMaxMemory();
+
+    /**
+     * @return the estimated memory retained by all the cached documents
+     */
+    long getMemory();
+
+    /**
+     * @return the estimated memory retained by the cached documents of each wiki
+     */
+    Map<String, Long> getWikisMemory();
+
+    /**
+     * @return the number of documents currently tracked in the cache
+     */
+    int getSize();
+
+    /**
+     * @return the number of times a document has been found in the cache
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of times a document has not been found in the cache
+     */
+    long getMissCount();
+
+    /**
+     * @return the number of documents evicted from the cache to stay under the maximum memory
+     */
+    long getEvictionCount();
+}
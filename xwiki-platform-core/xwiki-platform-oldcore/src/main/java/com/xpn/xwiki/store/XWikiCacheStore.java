@@ -19,8 +19,15 @@
  */
 package com.xpn.xwiki.store;
 
+import java.lang.management.ManagementFactory;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +52,9 @@
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.doc.XWikiLink;
 import com.xpn.xwiki.doc.XWikiLock;
+import com.xpn.xwiki.internal.store.DocumentCacheStatistics;
+import com.xpn.xwiki.internal.store.DocumentExistenceFilter;
+import com.xpn.xwiki.internal.store.DocumentExistenceFilterBuilder;
 import com.xpn.xwiki.objects.classes.BaseClass;
 import com.xpn.xwiki.web.Utils;
 
@@ -58,12 +68,27 @@ public class XWikiCacheStore implements XWikiCacheStoreInterface, EventListener
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(XWikiCacheStore.class);
 
+    private static final String STATISTICS_JMX_NAME = "org.xwiki:type=Cache,name=DocumentCache";
+
     private XWikiStoreInterface store;
 
     private Cache<XWikiDocument> cache;
 
     private Cache<Boolean> pageExistCache;
 
+    private DocumentCacheStatistics cacheStatistics = new DocumentCacheStatistics(0);
+
+    /**
+     * Indicate if the existence of documents should be checked against per wiki probabilistic filters before accessing
+     * the database.
+     */
+    private boolean existenceFilterEnabled;
+
+    /**
+     * The document existence filters, indexed by wiki identifier.
+     */
+    private final ConcurrentMap<String, DocumentExistenceFilter> existenceFilters = new ConcurrentHashMap<>();
+
     /**
      * Used to know if a received event is a local or remote one.
      */
@@ -110,16 +135,39 @@ public void initCache(XWikiContext context) throws XWikiException
             this.cache =
                 cacheManager.createNewCache(new LRUCacheConfiguration("xwiki.store.pagecache", pageCacheCapacity));
 
+            // Keep track of the memory retained by the cached documents and limit it if asked to
+            long pageCacheMaxMemory =
+                DocumentCacheStatistics.parseMemory(context.getWiki().Param("xwiki.store.cache.maxMemory"));
+            this.cacheStatistics = new DocumentCacheStatistics(pageCacheMaxMemory);
+            this.cache.addCacheEntryListener(this.cacheStatistics);
+            registerCacheStatistics();
+
             int pageExistCacheCapacity =
                 (int) context.getWiki().ParamAsLong("xwiki.store.cache.pageexistcapacity", 10000);
             this.pageExistCache = cacheManager
                 .createNewCache(new LRUCacheConfiguration("xwiki.store.pageexistcache", pageExistCacheCapacity));
+
+            this.existenceFilterEnabled = context.getWiki().ParamAsLong("xwiki.store.cache.existfilter", 0) == 1;
         } catch (CacheException e) {
             throw new XWikiException(XWikiException.MODULE_XWIKI_CACHE, XWikiException.ERROR_CACHE_INITIALIZING,
                 "Failed to initialize cache", e);
         }
     }
 
+    private void registerCacheStatistics()
+    {
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(STATISTICS_JMX_NAME);
+            if (mbs.isRegistered(name)) {
+                mbs.unregisterMBean(name);
+            }
+            mbs.registerMBean(new StandardMBean(this.cacheStatistics, DocumentCacheStatisticsMBean.class), name);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to register the document cache statistics against the JMX Server", e);
+        }
+    }
+
     @Deprecated
     @Override
     public void initCache(int capacity, int pageExistCacheCapacity, XWikiContext context) throws XWikiException
@@ -150,8 +198,25 @@ public void saveXWikiDoc(XWikiDocument doc, XWikiContext context, boolean bTrans
     {
         this.store.saveXWikiDoc(doc, context, bTransaction);
 
+        onSaved(doc, context);
+    }
+
+    @Override
+    public void saveXWikiDocs(List<XWikiDocument> documents, XWikiContext context) throws XWikiException
+    {
+        this.store.saveXWikiDocs(documents, context);
+
+        for (XWikiDocument document : documents) {
+            onSaved(document, context);
+        }
+    }
+
+    private void onSaved(XWikiDocument doc, XWikiContext context)
+    {
         doc.setStore(this.store);
 
+        addToExistenceFilter(doc, context.getWikiId());
+
         // We need to flush so that caches
         // on the cluster are informed about the change
         String key = getKey(doc, context);
@@ -170,12 +235,69 @@ public void saveXWikiDoc(XWikiDocument doc, XWikiContext context, boolean bTrans
     public void flushCache()
     {
         getCache().removeAll();
+        this.cacheStatistics.reset();
         getPageExistCache().removeAll();
+        this.existenceFilters.clear();
+    }
+
+    private void addToExistenceFilter(XWikiDocument document, String wiki)
+    {
+        DocumentExistenceFilter filter = this.existenceFilters.get(wiki);
+        if (filter != null) {
+            filter.add(document.getId());
+        }
+    }
+
+    /**
+     * @param doc the document
+     * @param context the XWiki context
+     * @return false if the document does not exist for sure, true if it might exist
+     */
+    private boolean mightExist(XWikiDocument doc, XWikiContext context)
+    {
+        if (!this.existenceFilterEnabled) {
+            return true;
+        }
+
+        String wiki = context.getWikiId();
+        DocumentExistenceFilter filter = this.existenceFilters.get(wiki);
+        if (filter == null) {
+            try {
+                List<Number> count =
+                    this.store.search("select count(doc.id) from XWikiDocument as doc", 0, 0, context);
+                filter = new DocumentExistenceFilter(count.get(0).longValue());
+            } catch (XWikiException e) {
+                LOGGER.warn("Failed to count the documents of wiki [{}]", wiki, e);
+
+                return true;
+            }
+
+            // Register the filter before filling it so that it does not miss documents created in the meantime
+            if (this.existenceFilters.putIfAbsent(wiki, filter) == null) {
+                Thread thread = new Thread(new DocumentExistenceFilterBuilder(this.store, wiki, filter, context),
+                    "Document existence filter builder for wiki [" + wiki + "]");
+                // The JVM should be allowed to shutdown while this thread is running
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                thread.start();
+            }
+
+            return true;
+        }
+
+        return filter.mightExist(doc.getId());
     }
 
     @Override
     public void onEvent(Event event, Object source, Object data)
     {
+        // Make sure all the created documents end up in the existence filter (including those not saved through this
+        // store)
+        if (event instanceof DocumentCreatedEvent) {
+            XWikiDocument doc = (XWikiDocument) source;
+            addToExistenceFilter(doc, doc.getDocumentReference().getWikiReference().getName());
+        }
+
         // only react to remote events since local actions are already taken into account
         if (this.remoteObservationManagerContext.isRemoteState()) {
             if (event instanceof WikiDeletedEvent) {
@@ -259,13 +381,17 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext context) throw
         }
 
         if (cachedoc != null) {
+            this.cacheStatistics.onHit(key);
+
             cachedoc.setFromCache(true);
 
             LOGGER.debug("Cache: got doc {} from cache", key);
         } else {
+            this.cacheStatistics.onMiss();
+
             Boolean result = getPageExistCache().get(key);
 
-            if (result == Boolean.FALSE) {
+            if (result == Boolean.FALSE || (result == null && !mightExist(doc, context))) {
                 LOGGER.debug("Cache: The document {} does not exist, return an empty one", key);
 
                 cachedoc = doc;
@@ -286,6 +412,11 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext context) throw
                 } else {
                     getCache().set(key, cachedoc);
 
+                    // Make sure the cached documents don't retain more than the allowed memory
+                    for (String evictedKey : this.cacheStatistics.getEntriesToEvict()) {
+                        getCache().remove(evictedKey);
+                    }
+
                     // Also update exist cache
                     getPageExistCache().set(key, Boolean.TRUE);
                 }
@@ -627,6 +758,10 @@ public boolean exists(XWikiDocument doc, XWikiContext context) throws XWikiExcep
         } catch (Exception e) {
         }
 
+        if (!mightExist(doc, context)) {
+            return false;
+        }
+
         boolean result = this.store.exists(doc, context);
         getPageExistCache().set(key, Boolean.valueOf(result));
 
@@ -643,6 +778,15 @@ public void setCache(Cache<XWikiDocument> cache)
         this.cache = cache;
     }
 
+    /**
+     * @return the statistics of the document cache (hits, misses, evictions, estimated retained memory)
+     * @since 9.7RC1
+     */
+    public DocumentCacheStatisticsMBean getCacheStatistics()
+    {
+        return this.cacheStatistics;
+    }
+
     public Cache<Boolean> getPageExistCache()
     {
         return this.pageExistCache;
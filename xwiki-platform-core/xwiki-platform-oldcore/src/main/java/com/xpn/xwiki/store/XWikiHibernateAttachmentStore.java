@@ -229,6 +229,9 @@ public void loadAttachmentContent(XWikiAttachment attachment, XWikiContext input
             XWikiAttachmentContent content = new XWikiAttachmentContent(attachment);
             session.load(content, Long.valueOf(content.getId()));
 
+            // The content has been copied so there is no need to compare it with the database on each flush.
+            session.evict(content);
+
             // Hibernate calls setContent which causes isContentDirty to be true. This is not what we want.
             content.setContentDirty(false);
 
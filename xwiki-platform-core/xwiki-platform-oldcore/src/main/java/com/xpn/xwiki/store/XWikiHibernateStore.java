@@ -31,6 +31,7 @@
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
@@ -74,6 +75,7 @@
 import org.xwiki.observation.event.Event;
 import org.xwiki.query.QueryException;
 import org.xwiki.query.QueryManager;
+import org.xwiki.query.internal.QueryStatementCache;
 import org.xwiki.store.UnexpectedException;
 
 import com.xpn.xwiki.XWiki;
@@ -123,6 +125,12 @@ public class XWikiHibernateStore extends XWikiHibernateBaseStore implements XWik
     @Inject
     private QueryManager queryManager;
 
+    /**
+     * The translation of some queries depends on the mapping.
+     */
+    @Inject
+    private QueryStatementCache queryStatementCache;
+
     /** Needed so we can register an event to trap logout and delete held locks. */
     @Inject
     private ObservationManager observationManager;
@@ -164,6 +172,12 @@ public class XWikiHibernateStore extends XWikiHibernateBaseStore implements XWik
 
     private Map<String, String[]> validTypesMap = new HashMap<String, String[]>();
 
+    /**
+     * The maximum number of object identifiers passed in a single {@code in} clause when bulk loading object
+     * properties. Some databases (e.g. Oracle) don't support more than 1000 elements in a list.
+     */
+    private static final int MAX_PROPERTIES_BULK_LOAD = 1000;
+
     /**
      * This allows to initialize our storage engine. The hibernate config file path is taken from xwiki.cfg or directly
      * in the WEB-INF directory.
@@ -490,6 +504,66 @@ public boolean exists(XWikiDocument doc, XWikiContext inputxcontext) throws XWik
 
     @Override
     public void saveXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext, boolean bTransaction) throws XWikiException
+    {
+        saveXWikiDoc(doc, inputxcontext, bTransaction, true);
+    }
+
+    @Override
+    public void saveXWikiDocs(List<XWikiDocument> documents, XWikiContext inputxcontext) throws XWikiException
+    {
+        XWikiContext context = getXWikiContext(inputxcontext);
+
+        // With dynamic custom mappings each document might need its own session factory
+        if (context.getWiki().hasDynamicCustomMappings()) {
+            for (XWikiDocument document : documents) {
+                saveXWikiDoc(document, context);
+            }
+
+            return;
+        }
+
+        boolean bTransaction = true;
+        try {
+            checkHibernate(context);
+            bTransaction = beginTransaction(context);
+
+            // All the documents are saved in the same transaction which means that the statements are flushed, and
+            // batched by Hibernate, only once at commit time
+            for (XWikiDocument document : documents) {
+                saveXWikiDoc(document, context, false, false);
+            }
+
+            // Save the links once all the documents are saved so that the statements of the same table are grouped
+            if (context.getWiki().hasBacklinks(context)) {
+                for (XWikiDocument document : documents) {
+                    try {
+                        saveLinks(document, context, false);
+                    } catch (Exception e) {
+                        this.logger.error("Failed to save links for document [{}]",
+                            document.getDocumentReferenceWithLocale(), e);
+                    }
+                }
+            }
+
+            if (bTransaction) {
+                endTransaction(context, true);
+            }
+        } catch (Exception e) {
+            throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
+                XWikiException.ERROR_XWIKI_STORE_HIBERNATE_SAVING_DOC,
+                String.format("Exception while saving [%d] documents", documents.size()), e);
+        } finally {
+            try {
+                if (bTransaction) {
+                    endTransaction(context, false);
+                }
+            } catch (Exception e) {
+            }
+        }
+    }
+
+    private void saveXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext, boolean bTransaction, boolean links)
+        throws XWikiException
     {
         XWikiContext context = getXWikiContext(inputxcontext);
 
@@ -640,7 +714,7 @@ public void saveXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext, boolean
                 }
             }
 
-            if (context.getWiki().hasBacklinks(context)) {
+            if (links && context.getWiki().hasBacklinks(context)) {
                 try {
                     saveLinks(doc, context, true);
                 } catch (Exception e) {
@@ -683,8 +757,10 @@ private void updateXWikiSpaceTable(XWikiDocument document, Session session)
     {
         if (document.getLocale().equals(Locale.ROOT)) {
             if (!document.isNew()) {
-                // If the hidden state of an existing document did not changed there is nothing to do
-                if (document.isHidden() != document.getOriginalDocument().isHidden()) {
+                // If the hidden state of an existing document did not changed there is nothing to do (when the
+                // document is its own original document we can't know so we assume it did)
+                XWikiDocument originalDocument = document.getOriginalDocument();
+                if (originalDocument == document || document.isHidden() != originalDocument.isHidden()) {
                     if (document.isHidden()) {
                         // If the document became hidden it's possible the space did too
                         maybeMakeSpaceHidden(document.getDocumentReference().getLastSpaceReference(),
@@ -916,6 +992,7 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext)
                     localGroupEntityReference.getParent().getName(), localGroupEntityReference.getName());
 
                 boolean hasGroups = false;
+                List<BaseObject> objectsToLoad = new ArrayList<>();
                 while (it.hasNext()) {
                     BaseObject object = it.next();
                     DocumentReference classReference = object.getXClassReference();
@@ -949,11 +1026,14 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext)
                         // Groups objects are handled differently.
                         hasGroups = true;
                     } else {
-                        loadXWikiCollectionInternal(object, doc, context, false, true);
+                        objectsToLoad.add(object);
                     }
                     doc.setXObject(object.getNumber(), object);
                 }
 
+                // Load the properties of all the objects at once instead of doing several queries per object
+                loadXWikiObjectsProperties(objectsToLoad, doc, context);
+
                 // AFAICT this was added as an emergency patch because loading of objects has proven
                 // too slow and the objects which cause the most overhead are the XWikiGroups objects
                 // as each group object (each group member) would otherwise cost 2 database queries.
@@ -982,8 +1062,11 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext)
             doc.setContentDirty(false);
             doc.setMetaDataDirty(false);
 
-            // We need to ensure that the loaded document becomes the original document
-            doc.setOriginalDocument(doc.clone());
+            // We need to ensure that the loaded document becomes the original document. Loaded documents are shared
+            // (e.g. through the document cache) and must be cloned before being modified so there is no need to make
+            // a defensive copy: the loaded instance is used as its own original document (see
+            // XWiki#saveDocument() for documents modified without being cloned).
+            doc.setOriginalDocument(doc);
 
             if (bTransaction) {
                 endTransaction(context, false, false);
@@ -1356,55 +1439,8 @@ private void loadXWikiCollectionInternal(BaseCollection object1, XWikiDocument d
                         continue;
                     }
                     String classType = (String) result[1];
-                    BaseProperty property = null;
-
-                    try {
-                        property = (BaseProperty) Class.forName(classType).newInstance();
-                        property.setObject(object);
-                        property.setName(name);
-                        loadXWikiProperty(property, context, false);
-                    } catch (Exception e) {
-                        // WORKAROUND IN CASE OF MIXMATCH BETWEEN STRING AND LARGESTRING
-                        try {
-                            if (property instanceof StringProperty) {
-                                LargeStringProperty property2 = new LargeStringProperty();
-                                property2.setObject(object);
-                                property2.setName(name);
-                                loadXWikiProperty(property2, context, false);
-                                property.setValue(property2.getValue());
-
-                                if (bclass != null) {
-                                    if (bclass.get(name) instanceof TextAreaClass) {
-                                        property = property2;
-                                    }
-                                }
-
-                            } else if (property instanceof LargeStringProperty) {
-                                StringProperty property2 = new StringProperty();
-                                property2.setObject(object);
-                                property2.setName(name);
-                                loadXWikiProperty(property2, context, false);
-                                property.setValue(property2.getValue());
-
-                                if (bclass != null) {
-                                    if (bclass.get(name) instanceof StringClass) {
-                                        property = property2;
-                                    }
-                                }
-                            } else {
-                                throw e;
-                            }
-                        } catch (Throwable e2) {
-                            Object[] args =
-                                { object.getName(), object.getClass(), Integer.valueOf(object.getNumber() + ""), name };
-                            throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
-                                XWikiException.ERROR_XWIKI_STORE_HIBERNATE_LOADING_OBJECT,
-                                "Exception while loading object '{0}' of class '{1}', number '{2}' and property '{3}'",
-                                e, args);
-                        }
-                    }
 
-                    object.addField(name, property);
+                    object.addField(name, loadXWikiProperty(object, name, classType, bclass, context));
                 }
             }
 
@@ -1428,6 +1464,112 @@ private void loadXWikiCollectionInternal(BaseCollection object1, XWikiDocument d
 
     }
 
+    /**
+     * Load the properties of the passed objects using a fixed number of queries per property table (instead of
+     * several queries per object). Objects which are stored using a custom mapping and properties which cannot be
+     * loaded in bulk (e.g. because of a mismatch between the declared property type and the table actually containing
+     * the value) are loaded one by one as fallback.
+     *
+     * @param objects the objects to fill, already loaded from the database (but without their properties)
+     * @param doc the document containing the objects
+     * @param context the XWiki context
+     * @throws XWikiException when failing to load the properties
+     */
+    protected void loadXWikiObjectsProperties(List<BaseObject> objects, XWikiDocument doc, XWikiContext context)
+        throws XWikiException
+    {
+        Map<Long, BaseObject> bulkObjects = new LinkedHashMap<>();
+        Map<Long, BaseClass> bulkClasses = new HashMap<>();
+        for (BaseObject object : objects) {
+            BaseClass bclass;
+            if (!object.getXClassReference().equals(object.getDocumentReference())) {
+                bclass = object.getXClass(context);
+            } else {
+                bclass = doc.getXClass();
+            }
+
+            if (bclass != null && bclass.hasCustomMapping() && context.getWiki().hasCustomMappings()) {
+                loadXWikiCollectionInternal(object, doc, context, false, true);
+            } else {
+                bulkObjects.put(object.getId(), object);
+                bulkClasses.put(object.getId(), bclass);
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(bulkObjects.keySet());
+        Session session = getSession(context);
+        for (int i = 0; i < ids.size(); i += MAX_PROPERTIES_BULK_LOAD) {
+            List<Long> idsChunk = ids.subList(i, Math.min(i + MAX_PROPERTIES_BULK_LOAD, ids.size()));
+
+            // Find which property tables need to be queried
+            Query query = session.createQuery(
+                "select prop.id.id, prop.name, prop.classType from BaseProperty as prop where prop.id.id in (:ids)");
+            query.setParameterList("ids", idsChunk);
+            Map<String, Map<Long, Set<String>>> expectedProperties = new HashMap<>();
+            for (Object[] result : (List<Object[]>) query.list()) {
+                Map<Long, Set<String>> expectedByType = expectedProperties.get(result[2]);
+                if (expectedByType == null) {
+                    expectedByType = new HashMap<>();
+                    expectedProperties.put((String) result[2], expectedByType);
+                }
+                Set<String> expectedNames = expectedByType.get(result[0]);
+                if (expectedNames == null) {
+                    expectedNames = new HashSet<>();
+                    expectedByType.put((Long) result[0], expectedNames);
+                }
+                expectedNames.add((String) result[1]);
+            }
+
+            // Load all the properties stored in a given table at once
+            for (Map.Entry<String, Map<Long, Set<String>>> entry : expectedProperties.entrySet()) {
+                String classType = entry.getKey();
+                Map<Long, Set<String>> expectedByType = entry.getValue();
+
+                Query propertiesQuery =
+                    session.createQuery("from " + classType + " as prop where prop.id.id in (:ids)");
+                propertiesQuery.setParameterList("ids", new ArrayList<>(expectedByType.keySet()));
+                for (BaseProperty property : (List<BaseProperty>) propertiesQuery.list()) {
+                    Set<String> expectedNames = expectedByType.get(property.getId());
+                    if (expectedNames != null && expectedNames.remove(property.getName())) {
+                        BaseObject object = bulkObjects.get(property.getId());
+                        initializeLoadedProperty(property, object);
+                        object.addField(property.getName(), property);
+                    }
+                }
+
+                // Properties which could not be found in the table matching their declared type
+                for (Map.Entry<Long, Set<String>> missing : expectedByType.entrySet()) {
+                    BaseObject object = bulkObjects.get(missing.getKey());
+                    for (String name : missing.getValue()) {
+                        object.addField(name,
+                            loadXWikiProperty(object, name, classType, bulkClasses.get(missing.getKey()), context));
+                    }
+                }
+            }
+        }
+    }
+
+    private void initializeLoadedProperty(BaseProperty property, BaseCollection object)
+    {
+        property.setObject(object);
+
+        // In Oracle, empty string are converted to NULL. Since an undefined property is not found at all, it is
+        // safe to assume that a retrieved NULL value should actually be an empty string.
+        if (property instanceof BaseStringProperty) {
+            BaseStringProperty stringProperty = (BaseStringProperty) property;
+            if (stringProperty.getValue() == null) {
+                stringProperty.setValue("");
+            }
+        }
+
+        // Force reading lists (they are lazy loaded)
+        if (property instanceof ListProperty) {
+            ((ListProperty) property).getList();
+        }
+
+        property.setValueDirty(false);
+    }
+
     /**
      * @deprecated This is internal to XWikiHibernateStore and may be removed in the future.
      */
@@ -1514,6 +1656,60 @@ public void deleteXWikiCollection(BaseCollection object, XWikiContext inputxcont
         }
     }
 
+    private BaseProperty loadXWikiProperty(BaseCollection object, String name, String classType, BaseClass bclass,
+        XWikiContext context) throws XWikiException
+    {
+        BaseProperty property = null;
+
+        try {
+            property = (BaseProperty) Class.forName(classType).newInstance();
+            property.setObject(object);
+            property.setName(name);
+            loadXWikiProperty(property, context, false);
+        } catch (Exception e) {
+            // WORKAROUND IN CASE OF MIXMATCH BETWEEN STRING AND LARGESTRING
+            try {
+                if (property instanceof StringProperty) {
+                    LargeStringProperty property2 = new LargeStringProperty();
+                    property2.setObject(object);
+                    property2.setName(name);
+                    loadXWikiProperty(property2, context, false);
+                    property.setValue(property2.getValue());
+
+                    if (bclass != null) {
+                        if (bclass.get(name) instanceof TextAreaClass) {
+                            property = property2;
+                        }
+                    }
+
+                } else if (property instanceof LargeStringProperty) {
+                    StringProperty property2 = new StringProperty();
+                    property2.setObject(object);
+                    property2.setName(name);
+                    loadXWikiProperty(property2, context, false);
+                    property.setValue(property2.getValue());
+
+                    if (bclass != null) {
+                        if (bclass.get(name) instanceof StringClass) {
+                            property = property2;
+                        }
+                    }
+                } else {
+                    throw e;
+                }
+            } catch (Throwable e2) {
+                Object[] args =
+                    { object.getName(), object.getClass(), Integer.valueOf(object.getNumber() + ""), name };
+                throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
+                    XWikiException.ERROR_XWIKI_STORE_HIBERNATE_LOADING_OBJECT,
+                    "Exception while loading object '{0}' of class '{1}', number '{2}' and property '{3}'",
+                    e, args);
+            }
+        }
+
+        return property;
+    }
+
     private void loadXWikiProperty(PropertyInterface property, XWikiContext context, boolean bTransaction)
         throws XWikiException
     {
@@ -2785,6 +2981,7 @@ private SessionFactory injectCustomMappingsInSessionFactory(XWikiDocument doc, X
 
         Configuration config = getConfiguration();
         SessionFactoryImpl sfactory = (SessionFactoryImpl) config.buildSessionFactory();
+        invalidateQueryStatements();
         Settings settings = sfactory.getSettings();
         ConnectionProvider provider = ((SessionFactoryImpl) getSessionFactory()).getSettings().getConnectionProvider();
         Field field = null;
@@ -2825,9 +3022,18 @@ public SessionFactory injectCustomMappingsInSessionFactory(BaseClass bclass, XWi
         return injectInSessionFactory(config);
     }
 
+    private void invalidateQueryStatements()
+    {
+        // Might be null when the store is not created as a component
+        if (this.queryStatementCache != null) {
+            this.queryStatementCache.invalidate();
+        }
+    }
+
     private SessionFactory injectInSessionFactory(Configuration config) throws XWikiException
     {
         SessionFactoryImpl sfactory = (SessionFactoryImpl) config.buildSessionFactory();
+        invalidateQueryStatements();
         Settings settings = sfactory.getSettings();
         ConnectionProvider provider = ((SessionFactoryImpl) getSessionFactory()).getSettings().getConnectionProvider();
         Field field = null;
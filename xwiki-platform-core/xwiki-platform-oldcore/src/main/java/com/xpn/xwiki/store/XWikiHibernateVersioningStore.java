@@ -19,21 +19,31 @@
  */
 package com.xpn.xwiki.store;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.hibernate.Criteria;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Restrictions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.suigeneris.jrcs.rcs.Version;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.InitializationException;
 
 import com.xpn.xwiki.XWiki;
 import com.xpn.xwiki.XWikiContext;
@@ -57,6 +67,18 @@ public class XWikiHibernateVersioningStore extends XWikiHibernateBaseStore imple
     /** Logger. */
     private static final Logger LOGGER = LoggerFactory.getLogger(XWikiHibernateVersioningStore.class);
 
+    private static final String VERSION1 = "id.version1";
+
+    private static final String VERSION2 = "id.version2";
+
+    @Inject
+    private CacheManager cacheManager;
+
+    /**
+     * Documents loaded from the archives (reconstructed from the patches), by wiki, document id, version and date.
+     */
+    private Cache<XWikiDocument> revisionCache;
+
     /**
      * This allows to initialize our storage engine. The hibernate config file path is taken from xwiki.cfg or directly
      * in the WEB-INF directory.
@@ -101,6 +123,23 @@ public XWikiHibernateVersioningStore()
     {
     }
 
+    @Override
+    public void initialize() throws InitializationException
+    {
+        super.initialize();
+
+        XWikiContext context = getXWikiContext(null);
+        int capacity = (int) context.getWiki().ParamAsLong("xwiki.store.rcs.cache.capacity", 100);
+        if (capacity > 0) {
+            try {
+                this.revisionCache =
+                    this.cacheManager.createNewCache(new LRUCacheConfiguration("xwiki.store.rcs.revisions", capacity));
+            } catch (CacheException e) {
+                throw new InitializationException("Failed to create the document revisions cache", e);
+            }
+        }
+    }
+
     @Override
     public Version[] getXWikiDocVersions(XWikiDocument doc, XWikiContext context) throws XWikiException
     {
@@ -125,6 +164,32 @@ public Version[] getXWikiDocVersions(XWikiDocument doc, XWikiContext context) th
         }
     }
 
+    @Override
+    public Version[] getXWikiDocVersions(XWikiDocument doc, int max, XWikiContext inputxcontext) throws XWikiException
+    {
+        if (doc.getDocumentArchive() != null) {
+            return XWikiVersioningStoreInterface.super.getXWikiDocVersions(doc, max, inputxcontext);
+        }
+
+        XWikiContext context = getXWikiContext(inputxcontext);
+
+        try {
+            XWikiDocumentArchive archive = loadLatestXWikiDocArchive(doc, max, context);
+            Collection<XWikiRCSNodeInfo> nodes = archive.getNodes();
+            Version[] versions = new Version[nodes.size()];
+            Iterator<XWikiRCSNodeInfo> it = nodes.iterator();
+            for (int i = 0; i < versions.length; i++) {
+                versions[versions.length - 1 - i] = it.next().getId().getVersion();
+            }
+            return versions;
+        } catch (Exception e) {
+            Object[] args = { doc.getFullName() };
+            throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
+                XWikiException.ERROR_XWIKI_STORE_HIBERNATE_READING_REVISIONS,
+                "Exception while reading document {0} revisions", e, args);
+        }
+    }
+
     @Override
     public XWikiDocumentArchive getXWikiDocumentArchive(XWikiDocument doc, XWikiContext inputxcontext)
         throws XWikiException
@@ -150,6 +215,121 @@ public XWikiDocumentArchive getXWikiDocumentArchive(XWikiDocument doc, XWikiCont
         return archiveDoc;
     }
 
+    /**
+     * Load only the most recent part of the history of a document. The returned archive is not attached to the
+     * document.
+     *
+     * @param doc the document
+     * @param max the maximum number of versions to load, 0 or less for all of them
+     * @param context the XWiki context
+     * @return an archive containing the most recent versions of the document
+     * @throws XWikiException when failing to load the versions
+     */
+    private XWikiDocumentArchive loadLatestXWikiDocArchive(XWikiDocument doc, final int max, XWikiContext context)
+        throws XWikiException
+    {
+        final long docId = doc.getId();
+
+        return loadPartialXWikiDocArchive(doc, context, new HibernateCallback<List<XWikiRCSNodeInfo>>()
+        {
+            @SuppressWarnings("unchecked")
+            @Override
+            public List<XWikiRCSNodeInfo> doInHibernate(Session session) throws HibernateException
+            {
+                Criteria criteria = createRCSNodeInfoCriteria(session, docId).addOrder(Order.desc(VERSION1))
+                    .addOrder(Order.desc(VERSION2));
+                if (max > 0) {
+                    criteria.setMaxResults(max);
+                }
+                return criteria.list();
+            }
+        });
+    }
+
+    /**
+     * Load only the versions needed to get the passed version of a document: the version itself, the more recent
+     * versions until the nearest full version and the latest version. The returned archive is not attached to the
+     * document.
+     *
+     * @param doc the document
+     * @param version the version to load
+     * @param context the XWiki context
+     * @return an archive containing the versions needed to load the passed version, null if no full version could be
+     *         found
+     * @throws XWikiException when failing to load the versions
+     */
+    private XWikiDocumentArchive loadRevisionXWikiDocArchive(XWikiDocument doc, final Version version,
+        XWikiContext context) throws XWikiException
+    {
+        final long docId = doc.getId();
+
+        XWikiDocumentArchive archive =
+            loadPartialXWikiDocArchive(doc, context, new HibernateCallback<List<XWikiRCSNodeInfo>>()
+            {
+                @SuppressWarnings("unchecked")
+                @Override
+                public List<XWikiRCSNodeInfo> doInHibernate(Session session) throws HibernateException
+                {
+                    List<XWikiRCSNodeInfo> fullNodes = createRCSNodeInfoCriteria(session, docId)
+                        .add(Restrictions.eq("diff", Boolean.FALSE)).add(versionGreaterOrEqual(version))
+                        .addOrder(Order.asc(VERSION1)).addOrder(Order.asc(VERSION2)).setMaxResults(1).list();
+                    if (fullNodes.isEmpty()) {
+                        return fullNodes;
+                    }
+
+                    List<XWikiRCSNodeInfo> nodes = new ArrayList<>();
+                    nodes.addAll(createRCSNodeInfoCriteria(session, docId).add(versionGreaterOrEqual(version))
+                        .add(versionLowerOrEqual(fullNodes.get(0).getVersion()))
+                        .list());
+                    nodes.addAll(createRCSNodeInfoCriteria(session, docId).addOrder(Order.desc(VERSION1))
+                        .addOrder(Order.desc(VERSION2)).setMaxResults(1).list());
+                    return nodes;
+                }
+            });
+
+        return archive.getNodes().isEmpty() ? null : archive;
+    }
+
+    private XWikiDocumentArchive loadPartialXWikiDocArchive(XWikiDocument doc, XWikiContext context,
+        HibernateCallback<List<XWikiRCSNodeInfo>> callback) throws XWikiException
+    {
+        XWikiDocumentArchive archive = new XWikiDocumentArchive(doc.getId());
+
+        String db = context.getWikiId();
+        try {
+            if (doc.getDatabase() != null) {
+                context.setWikiId(doc.getDatabase());
+            }
+            archive.setNodes(executeRead(context, true, callback));
+        } finally {
+            context.setWikiId(db);
+        }
+
+        return archive;
+    }
+
+    private Criteria createRCSNodeInfoCriteria(Session session, long docId)
+    {
+        return session.createCriteria(XWikiRCSNodeInfo.class).add(Restrictions.eq("id.docId", Long.valueOf(docId)))
+            .add(Restrictions.isNotNull("diff"));
+    }
+
+    private static Criterion versionGreaterOrEqual(Version version)
+    {
+        Integer version1 = Integer.valueOf(version.at(0));
+
+        return Restrictions.or(Restrictions.gt(VERSION1, version1), Restrictions
+            .and(Restrictions.eq(VERSION1, version1), Restrictions.ge(VERSION2, Integer.valueOf(version.at(1)))));
+    }
+
+    private static Criterion versionLowerOrEqual(Version version)
+    {
+        Integer version1 = Integer.valueOf(version.at(0));
+
+        return Restrictions.or(Restrictions.lt(VERSION1, version1), Restrictions
+            .and(Restrictions.eq(VERSION1, version1), Restrictions.le(VERSION2, Integer.valueOf(version.at(1)))));
+    }
+
     @Override
     public void loadXWikiDocArchive(XWikiDocumentArchive archivedoc, boolean bTransaction, XWikiContext context)
         throws XWikiException
@@ -197,10 +377,18 @@ public XWikiDocument loadXWikiDoc(XWikiDocument basedoc, String sversion, XWikiC
     {
         XWikiContext context = getXWikiContext(inputxcontext);
 
-        XWikiDocumentArchive archive = getXWikiDocumentArchive(basedoc, context);
         Version version = new Version(sversion);
 
-        XWikiDocument doc = archive.loadDocument(version, context);
+        // Avoid loading the whole history when it's not already loaded
+        XWikiDocumentArchive archive = basedoc.getDocumentArchive();
+        if (archive == null) {
+            archive = loadRevisionXWikiDocArchive(basedoc, version, context);
+            if (archive == null) {
+                archive = getXWikiDocumentArchive(basedoc, context);
+            }
+        }
+
+        XWikiDocument doc = loadRevision(getWikiId(basedoc, context), archive, version, context);
         if (doc == null) {
             Object[] args = { basedoc.getDocumentReferenceWithLocale(), version.toString() };
             throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
@@ -218,6 +406,50 @@ public XWikiDocument loadXWikiDoc(XWikiDocument basedoc, String sversion, XWikiC
         return doc;
     }
 
+    private XWikiDocument loadRevision(String wikiId, XWikiDocumentArchive archive, Version version,
+        XWikiContext context) throws XWikiException
+    {
+        if (this.revisionCache == null) {
+            return archive.loadDocument(version, context);
+        }
+
+        XWikiRCSNodeInfo nodeInfo = archive.getNode(version);
+        if (nodeInfo == null) {
+            return null;
+        }
+
+        String key = getRevisionCacheKey(wikiId, nodeInfo);
+        XWikiDocument doc = this.revisionCache.get(key);
+        if (doc == null) {
+            doc = archive.loadDocument(version, context);
+            this.revisionCache.set(key, doc);
+        }
+
+        // The cached instance is shared so return a copy
+        XWikiDocument revision = doc.clone();
+        revision.setMostRecent(version.equals(archive.getLatestVersion()));
+
+        return revision;
+    }
+
+    private String getWikiId(XWikiDocument doc, XWikiContext context)
+    {
+        return doc.getDatabase() != null ? doc.getDatabase() : context.getWikiId();
+    }
+
+    /**
+     * The version numbers can be reused (when a version or the whole history is deleted, or when an archive is
+     * imported), possibly by another cluster member, so the key also contains the date of the version, which changes
+     * whenever a version is created again.
+     */
+    private String getRevisionCacheKey(String wikiId, XWikiRCSNodeInfo nodeInfo)
+    {
+        XWikiRCSNodeId nodeId = nodeInfo.getId();
+        long date = nodeInfo.getDate() != null ? nodeInfo.getDate().getTime() : 0;
+
+        return wikiId + ':' + nodeId.getDocId() + ':' + nodeId.getVersion() + ':' + date;
+    }
+
     @Override
     public void resetRCSArchive(final XWikiDocument doc, boolean bTransaction, final XWikiContext inputxcontext)
         throws XWikiException
@@ -247,7 +479,13 @@ public void updateXWikiDocArchive(XWikiDocument doc, boolean bTransaction, XWiki
         XWikiContext context = getXWikiContext(inputxcontext);
 
         try {
-            XWikiDocumentArchive archiveDoc = getXWikiDocumentArchive(doc, context);
+            XWikiDocumentArchive archiveDoc = doc.getDocumentArchive();
+            if (archiveDoc == null) {
+                // Adding a version only requires the most recent part of the history
+                int max = XWikiDocumentArchive.getLatestNodesCountForUpdate(context);
+                archiveDoc =
+                    max > 0 ? loadLatestXWikiDocArchive(doc, max, context) : getXWikiDocumentArchive(doc, context);
+            }
             archiveDoc.updateArchive(doc, doc.getAuthor(), doc.getDate(), doc.getComment(), doc.getRCSVersion(),
                 context);
             doc.setRCSVersion(archiveDoc.getLatestVersion());
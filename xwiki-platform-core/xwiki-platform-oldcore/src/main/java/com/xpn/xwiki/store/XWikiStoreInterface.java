@@ -39,6 +39,22 @@
 
     void saveXWikiDoc(XWikiDocument doc, XWikiContext context, boolean bTransaction) throws XWikiException;
 
+    /**
+     * Save several documents of the current wiki at once. Stores supporting it save all the documents in a single
+     * transaction: either all the documents are saved or none is.
+     *
+     * @param documents the documents to save
+     * @param context the XWiki context
+     * @throws XWikiException when failing to save the documents
+     * @since 9.7RC1
+     */
+    default void saveXWikiDocs(List<XWikiDocument> documents, XWikiContext context) throws XWikiException
+    {
+        for (XWikiDocument document : documents) {
+            saveXWikiDoc(document, context);
+        }
+    }
+
     XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext context) throws XWikiException;
 
     void deleteXWikiDoc(XWikiDocument doc, XWikiContext context) throws XWikiException;
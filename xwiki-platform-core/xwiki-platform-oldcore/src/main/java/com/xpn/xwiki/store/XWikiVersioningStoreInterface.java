@@ -19,6 +19,8 @@
  */
 package com.xpn.xwiki.store;
 
+import java.util.Arrays;
+
 import org.suigeneris.jrcs.rcs.Version;
 import org.xwiki.component.annotation.Role;
 
@@ -47,6 +49,24 @@ void saveXWikiDocArchive(XWikiDocumentArchive archivedoc, boolean bTransaction,
 
     Version[] getXWikiDocVersions(XWikiDocument doc, XWikiContext context) throws XWikiException;
 
+    /**
+     * Get the most recent versions of a document, without loading its whole history when possible.
+     *
+     * @param doc the document for which to get the versions
+     * @param max the maximum number of versions to return
+     * @param context the XWiki context
+     * @return the {@code max} most recent versions, ordered like
+     *         {@link #getXWikiDocVersions(XWikiDocument, XWikiContext)} (the oldest first)
+     * @throws XWikiException when failing to read the versions
+     * @since 9.7RC1
+     */
+    default Version[] getXWikiDocVersions(XWikiDocument doc, int max, XWikiContext context) throws XWikiException
+    {
+        Version[] versions = getXWikiDocVersions(doc, context);
+
+        return versions.length > max ? Arrays.copyOfRange(versions, versions.length - max, versions.length) : versions;
+    }
+
     XWikiDocument loadXWikiDoc(XWikiDocument doc, String version, XWikiContext context) throws XWikiException;
 
     void resetRCSArchive(XWikiDocument doc, boolean bTransaction, XWikiContext context) throws XWikiException;
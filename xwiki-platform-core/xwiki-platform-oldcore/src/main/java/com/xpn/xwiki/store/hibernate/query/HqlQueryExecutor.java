@@ -52,6 +52,7 @@
 import org.xwiki.query.QueryParameter;
 import org.xwiki.query.SecureQuery;
 import org.xwiki.query.WrappingQuery;
+import org.xwiki.query.internal.QueryStatementCache;
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
 import org.xwiki.security.authorization.Right;
 
@@ -103,6 +104,9 @@ public class HqlQueryExecutor implements QueryExecutor, Initializable
     @Named("context")
     private Provider<ComponentManager> componentManagerProvider;
 
+    @Inject
+    private QueryStatementCache statementCache;
+
     private volatile Set<String> allowedNamedQueries;
 
     @Override
@@ -145,6 +149,18 @@ protected static boolean isSafeSelect(String statementString)
         return HqlQueryUtils.isShortFormStatement(statementString) || HqlQueryUtils.isSafe(statementString);
     }
 
+    private boolean isSafeSelectCached(String statementString)
+    {
+        // Validating the statement requires parsing it, which is costly
+        Boolean safe = this.statementCache.get(Query.HQL, statementString);
+        if (safe == null) {
+            safe = isSafeSelect(statementString);
+            this.statementCache.set(Query.HQL, statementString, safe);
+        }
+
+        return safe;
+    }
+
     protected void checkAllowed(final Query query) throws QueryException
     {
         if (query instanceof SecureQuery && ((SecureQuery) query).isCurrentAuthorChecked()) {
@@ -153,7 +169,7 @@ protected void checkAllowed(final Query query) throws QueryException
                     throw new QueryException("Named queries requires programming right", query, null);
                 }
 
-                if (!isSafeSelect(query.getStatement())) {
+                if (!isSafeSelectCached(query.getStatement())) {
                     throw new QueryException("The query requires programming right", query, null);
                 }
             }
@@ -141,7 +141,7 @@ public Object doInHibernate(Session session) throws HibernateException, XWikiExc
                         if (sArchive.trim().length() != 0) {
                             XWikiDocumentArchive docArchive = new XWikiDocumentArchive(docId);
                             try {
-                                docArchive.setArchive(sArchive);
+                                docArchive.setArchive(sArchive, context);
                             } catch (XWikiException e) {
                                 R4359XWIKI1459DataMigration.this.logger.warn(
                                     "The RCS archive for [{}] is broken. Internal error [{}]."
@@ -0,0 +1,119 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.store.migration.hibernate;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLookupException;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocumentArchive;
+import com.xpn.xwiki.store.XWikiHibernateBaseStore.HibernateCallback;
+import com.xpn.xwiki.store.XWikiHibernateVersioningStore;
+import com.xpn.xwiki.store.XWikiVersioningStoreInterface;
+import com.xpn.xwiki.store.migration.DataMigrationException;
+import com.xpn.xwiki.store.migration.XWikiDBVersion;
+
+/**
+ * Make full versions in the existing document archives according to the configured checkpoint policy (see
+ * {@link XWikiDocumentArchive#checkpoint(XWikiContext)}), so that loading any revision requires applying a bounded
+ * number of patches. Before this, imported archives used to contain only one full version (the latest one).
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component
+@Named("R97000RCSCheckpoint")
+@Singleton
+public class R97000RCSCheckpointDataMigration extends AbstractHibernateDataMigration
+{
+    @Inject
+    private Logger logger;
+
+    @Override
+    public String getDescription()
+    {
+        return "Make full versions in the document archives with too many patches.";
+    }
+
+    @Override
+    public XWikiDBVersion getVersion()
+    {
+        return new XWikiDBVersion(97000);
+    }
+
+    /**
+     * @return version store system for execute store-specific actions.
+     * @throws XWikiException if the store could not be reached
+     */
+    private XWikiHibernateVersioningStore getVersioningStore() throws XWikiException
+    {
+        try {
+            return (XWikiHibernateVersioningStore) this.componentManager
+                .getInstance(XWikiVersioningStoreInterface.class, "hibernate");
+        } catch (ComponentLookupException e) {
+            throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
+                XWikiException.ERROR_XWIKI_STORE_MIGRATION,
+                String.format("Unable to reach the versioning store for database %s", getXWikiContext().getWikiId()),
+                e);
+        }
+    }
+
+    @Override
+    public void hibernateMigrate() throws DataMigrationException, XWikiException
+    {
+        XWikiContext context = getXWikiContext();
+
+        // Only the archives with several patches can need a new full version
+        List<Long> docIds = getStore().executeRead(context, new HibernateCallback<List<Long>>()
+        {
+            @SuppressWarnings("unchecked")
+            @Override
+            public List<Long> doInHibernate(Session session) throws HibernateException
+            {
+                return session.createQuery("select rcs.id.docId from XWikiRCSNodeInfo as rcs where rcs.diff = true"
+                    + " group by rcs.id.docId having count(*) > 1").list();
+            }
+        });
+
+        XWikiHibernateVersioningStore versioningStore = getVersioningStore();
+        int count = 0;
+        for (Long docId : docIds) {
+            // Each archive is loaded and saved in its own transaction to not keep all of them in memory
+            XWikiDocumentArchive archive = new XWikiDocumentArchive(docId);
+            versioningStore.loadXWikiDocArchive(archive, true, context);
+            if (archive.checkpoint(context)) {
+                versioningStore.saveXWikiDocArchive(archive, true, context);
+                count++;
+            }
+        }
+
+        this.logger.info("Made full versions in [{}] document archives out of [{}]", count, docIds.size());
+    }
+}
@@ -20,7 +20,6 @@
 package com.xpn.xwiki.web;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.IllegalCharsetNameException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,8 +32,6 @@
 
 import javax.servlet.http.HttpServletResponse;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -263,9 +260,6 @@ private void writeByteRange(final XWikiAttachment attachment, Long start, Long e
         throws XWikiException, IOException
     {
         if (start >= 0 && start < attachment.getContentSize(context)) {
-            InputStream data = attachment.getContentInputStream(context);
-            data = new BoundedInputStream(data, end + 1);
-            data.skip(start);
             setCommonHeaders(attachment, request, response, context);
             response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
             if ((end - start + 1L) < Integer.MAX_VALUE) {
@@ -273,7 +267,7 @@ private void writeByteRange(final XWikiAttachment attachment, Long start, Long e
             }
             response.setHeader("Content-Range", "bytes " + start + "-" + end + SEPARATOR
                 + attachment.getContentSize(context));
-            IOUtils.copyLarge(data, response.getOutputStream());
+            attachment.writeContent(response.getOutputStream(), start, end - start + 1L, context);
         } else {
             response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
         }
@@ -296,20 +290,15 @@ private void sendContent(final XWikiAttachment attachment,
         final XWikiContext context)
         throws XWikiException
     {
-        InputStream stream = null;
         try {
             setCommonHeaders(attachment, request, response, context);
             response.setContentLength(attachment.getContentSize(context));
-            stream = attachment.getContentInputStream(context);
-            IOUtils.copy(stream, response.getOutputStream());
+            // Stream the content without loading it in memory, whatever its size
+            attachment.writeContent(response.getOutputStream(), 0, attachment.getContentLongSize(context), context);
         } catch (IOException e) {
             throw new XWikiException(XWikiException.MODULE_XWIKI_APP,
                 XWikiException.ERROR_XWIKI_APP_SEND_RESPONSE_EXCEPTION,
                 "Exception while sending response", e);
-        } finally {
-            if (stream != null) {
-                IOUtils.closeQuietly(stream);
-            }
         }
     }
 
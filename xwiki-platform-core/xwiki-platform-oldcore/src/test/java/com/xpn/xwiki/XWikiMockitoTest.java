@@ -31,6 +31,7 @@
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.ArgumentMatcher;
+import org.mockito.InOrder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.xwiki.bridge.event.DocumentDeletedEvent;
@@ -81,6 +82,7 @@
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -336,6 +338,75 @@ public boolean matches(XWikiDocument argument)
         verifyNoMoreInteractions(observation);
     }
 
+    @Test
+    public void saveDocumentWhichIsItsOwnOriginalDocument() throws Exception
+    {
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getDocumentReference()).thenReturn(documentReference);
+        when(document.getLocale()).thenReturn(Locale.ROOT);
+        when(document.getOriginalDocument()).thenReturn(document);
+
+        XWikiDocument originalDocument = mock(XWikiDocument.class);
+        when(this.storeMock.loadXWikiDoc(any(XWikiDocument.class), same(this.context))).thenReturn(originalDocument);
+
+        this.xwiki.saveDocument(document, this.context);
+
+        // The original state of the document has been reloaded from the store
+        verify(document).setOriginalDocument(originalDocument);
+        verify(this.storeMock).saveXWikiDoc(document, this.context);
+
+        ObservationManager observation = this.mocker.getInstance(ObservationManager.class);
+        verify(observation).notify(new DocumentUpdatingEvent(documentReference), document, this.context);
+        verify(observation).notify(new DocumentUpdatedEvent(documentReference), document, this.context);
+    }
+
+    @Test
+    public void saveDocuments() throws Exception
+    {
+        XWikiDocument document1 = mockDocumentToSave(new DocumentReference("wiki", "Space", "Page1"));
+        XWikiDocument document2 = mockDocumentToSave(new DocumentReference("otherwiki", "Space", "Page2"));
+        XWikiDocument document3 = mockDocumentToSave(new DocumentReference("wiki", "Space", "Page3"));
+
+        this.xwiki.saveDocuments(Arrays.asList(document1, document2, document3), this.context);
+
+        ObservationManager observation = this.mocker.getInstance(ObservationManager.class);
+        InOrder inOrder = inOrder(observation, this.storeMock);
+
+        // All the documents are checked before saving anything
+        inOrder.verify(observation).notify(new DocumentUpdatingEvent(document1.getDocumentReference()), document1,
+            this.context);
+        inOrder.verify(observation).notify(new DocumentUpdatingEvent(document2.getDocumentReference()), document2,
+            this.context);
+        inOrder.verify(observation).notify(new DocumentUpdatingEvent(document3.getDocumentReference()), document3,
+            this.context);
+
+        // The documents are saved by wiki
+        inOrder.verify(this.storeMock).saveXWikiDocs(Arrays.asList(document1, document3), this.context);
+        inOrder.verify(this.storeMock).saveXWikiDocs(Arrays.asList(document2), this.context);
+
+        inOrder.verify(observation).notify(new DocumentUpdatedEvent(document1.getDocumentReference()), document1,
+            this.context);
+        inOrder.verify(observation).notify(new DocumentUpdatedEvent(document2.getDocumentReference()), document2,
+            this.context);
+        inOrder.verify(observation).notify(new DocumentUpdatedEvent(document3.getDocumentReference()), document3,
+            this.context);
+
+        verify(this.storeMock, never()).saveXWikiDoc(any(XWikiDocument.class), any(XWikiContext.class));
+    }
+
+    private XWikiDocument mockDocumentToSave(DocumentReference documentReference)
+    {
+        XWikiDocument document = mock(XWikiDocument.class, documentReference.getName());
+        when(document.getDocumentReference()).thenReturn(documentReference);
+        when(document.getLocale()).thenReturn(Locale.ROOT);
+
+        XWikiDocument originalDocument = mock(XWikiDocument.class);
+        when(document.getOriginalDocument()).thenReturn(originalDocument);
+
+        return document;
+    }
+
     @Test
     public void getPlainUserName() throws XWikiException
     {
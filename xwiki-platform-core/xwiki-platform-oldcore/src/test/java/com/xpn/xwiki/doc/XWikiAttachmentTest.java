@@ -20,13 +20,16 @@
 package com.xpn.xwiki.doc;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringReader;
+import java.sql.Blob;
 import java.util.Date;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.ReaderInputStream;
+import org.hibernate.engine.jdbc.BlobProxy;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -48,6 +51,7 @@
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -209,6 +213,52 @@ public void testSetContentWithMaxSize() throws Exception
         assertEquals("12345", IOUtils.toString(attachment.getContentInputStream(null)));
     }
 
+    @Test
+    public void writeContentRange() throws Exception
+    {
+        XWikiAttachment attachment = new XWikiAttachment();
+        attachment.setContent(new ReaderInputStream(new StringReader("0123456789")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(3L, attachment.writeContent(out, 2, 3, null));
+        assertEquals("234", out.toString());
+
+        out = new ByteArrayOutputStream();
+        assertEquals(2L, attachment.writeContent(out, 8, 5, null));
+        assertEquals("89", out.toString());
+    }
+
+    @Test
+    public void getContentBlob() throws Exception
+    {
+        XWikiAttachmentContent content = new XWikiAttachmentContent(new XWikiAttachment());
+        content.setContent(new ReaderInputStream(new StringReader("content")));
+
+        // The same Blob is returned as long as the content does not change so that Hibernate does not see it as dirty
+        Blob blob = content.getContentBlob();
+        assertSame(blob, content.getContentBlob());
+        assertEquals(7L, blob.length());
+
+        // The Blob can be read by several saves
+        assertEquals("content", IOUtils.toString(blob.getBinaryStream()));
+        assertEquals("content", IOUtils.toString(blob.getBinaryStream()));
+
+        content.setContent(new ReaderInputStream(new StringReader("other")));
+
+        assertNotSame(blob, content.getContentBlob());
+        assertEquals("other", IOUtils.toString(content.getContentBlob().getBinaryStream()));
+    }
+
+    @Test
+    public void setContentBlob() throws Exception
+    {
+        XWikiAttachmentContent content = new XWikiAttachmentContent(new XWikiAttachment());
+        content.setContentBlob(BlobProxy.generateProxy("content".getBytes()));
+
+        assertEquals("content", IOUtils.toString(content.getContentInputStream()));
+        assertEquals(7L, content.getLongSize());
+    }
+
     @Test
     public void testGetMime() throws Exception
     {
@@ -19,6 +19,7 @@
  */
 package com.xpn.xwiki.doc;
 
+import java.util.ArrayList;
 import java.util.Date;
 
 import org.jmock.Mock;
@@ -29,6 +30,7 @@
 import com.xpn.xwiki.XWikiConfig;
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.rcs.XWikiRCSNodeInfo;
 import com.xpn.xwiki.test.AbstractBridgedXWikiComponentTestCase;
 import com.xpn.xwiki.user.api.XWikiRightService;
 
@@ -43,6 +45,8 @@ public class XWikiDocumentArchiveTest extends AbstractBridgedXWikiComponentTestC
 
     private Mock mockXWiki;
 
+    private XWikiConfig config;
+
     @Override
     protected void setUp() throws Exception
     {
@@ -50,7 +54,8 @@ protected void setUp() throws Exception
 
         this.mockXWiki = mock(XWiki.class);
         this.mockXWiki.stubs().method("getEncoding").will(returnValue("iso-8859-1"));
-        this.mockXWiki.stubs().method("getConfig").will(returnValue(new XWikiConfig()));
+        this.config = new XWikiConfig();
+        this.mockXWiki.stubs().method("getConfig").will(returnValue(this.config));
 
         this.context = new XWikiContext();
         this.context.setWiki((XWiki) this.mockXWiki.proxy());
@@ -326,6 +331,124 @@ public void testVerifyDiffAndFullRevisionAlgorithm() throws Exception
         assertFalse(archive.getNode(new Version(6, 1)).isDiff());
     }
 
+    public void testKeepFullVersionWhenPatchesSizeIsReached() throws Exception
+    {
+        this.config.setProperty("xwiki.store.rcs.nodesPerFull", "0");
+        this.config.setProperty("xwiki.store.rcs.patchesSizePerFull", "1");
+
+        XWikiDocument doc = new XWikiDocument(new DocumentReference("Test", "Test", "Test"));
+        XWikiDocumentArchive archive = new XWikiDocumentArchive(doc.getId());
+        String author = "XWiki.some author";
+
+        addRevisionToHistory(archive, doc, "content 1.1", author, "1.1");
+        addRevisionToHistory(archive, doc, "content 2.1", author, "2.1");
+        addRevisionToHistory(archive, doc, "content 3.1", author, "3.1");
+
+        assertTrue(archive.getNode(new Version(1, 1)).isDiff());
+        assertFalse(archive.getNode(new Version(2, 1)).isDiff());
+        assertFalse(archive.getNode(new Version(3, 1)).isDiff());
+    }
+
+    public void testCheckpoint() throws Exception
+    {
+        // Only keep the latest version full
+        this.config.setProperty("xwiki.store.rcs.nodesPerFull", "0");
+
+        XWikiDocument doc = new XWikiDocument(new DocumentReference("Test", "Test", "Test"));
+        XWikiDocumentArchive archive = new XWikiDocumentArchive(doc.getId());
+        String author = "XWiki.some author";
+
+        for (int i = 1; i <= 7; i++) {
+            addRevisionToHistory(archive, doc, "content " + i + ".1", author, i + ".1");
+        }
+        for (int i = 1; i <= 6; i++) {
+            assertTrue(archive.getNode(new Version(i, 1)).isDiff());
+        }
+        archive.getUpdatedNodeContents().clear();
+
+        // At most 2 patches to apply on a full version
+        this.config.setProperty("xwiki.store.rcs.nodesPerFull", "3");
+        assertTrue(archive.checkpoint(this.context));
+
+        assertFalse(archive.getNode(new Version(7, 1)).isDiff());
+        assertTrue(archive.getNode(new Version(6, 1)).isDiff());
+        assertTrue(archive.getNode(new Version(5, 1)).isDiff());
+        assertFalse(archive.getNode(new Version(4, 1)).isDiff());
+        assertTrue(archive.getNode(new Version(3, 1)).isDiff());
+        assertTrue(archive.getNode(new Version(2, 1)).isDiff());
+        assertFalse(archive.getNode(new Version(1, 1)).isDiff());
+        assertEquals(2, archive.getUpdatedNodeContents().size());
+
+        for (int i = 1; i <= 7; i++) {
+            assertEquals("content " + i + ".1", archive.loadDocument(new Version(i, 1), this.context).getContent());
+        }
+
+        // Nothing more to do
+        assertFalse(archive.checkpoint(this.context));
+    }
+
+    public void testUpdatePartialArchive() throws Exception
+    {
+        XWikiDocument doc = new XWikiDocument(new DocumentReference("Test", "Test", "Test"));
+        XWikiDocumentArchive archive = new XWikiDocumentArchive(doc.getId());
+        String author = "XWiki.some author";
+
+        for (int i = 1; i <= 10; i++) {
+            addRevisionToHistory(archive, doc, "content " + i + ".1", author, i + ".1");
+        }
+
+        // Only the most recent versions are needed to add a new one
+        int max = XWikiDocumentArchive.getLatestNodesCountForUpdate(this.context);
+        assertEquals(5, max);
+        XWikiDocumentArchive partialArchive = new XWikiDocumentArchive(doc.getId());
+        partialArchive.setNodes(new ArrayList<XWikiRCSNodeInfo>(archive.getNodes()).subList(0, max));
+
+        addRevisionToHistory(partialArchive, doc, "content 11.1", author, "11.1");
+
+        assertEquals(new Version(11, 1), partialArchive.getLatestVersion());
+        // 10.1 is kept full since 4 patches are applied on it to get 6.1
+        assertFalse(partialArchive.getNode(new Version(10, 1)).isDiff());
+        assertTrue(partialArchive.getNode(new Version(9, 1)).isDiff());
+
+        this.config.setProperty("xwiki.store.rcs.nodesPerFull", "0");
+        assertEquals(1, XWikiDocumentArchive.getLatestNodesCountForUpdate(this.context));
+        this.config.setProperty("xwiki.store.rcs.patchesSizePerFull", "1000");
+        assertEquals(0, XWikiDocumentArchive.getLatestNodesCountForUpdate(this.context));
+    }
+
+    public void testSetArchiveAppliesConfiguredCheckpoint() throws Exception
+    {
+        // Only keep the latest version full
+        this.config.setProperty("xwiki.store.rcs.nodesPerFull", "0");
+
+        XWikiDocument doc = new XWikiDocument(new DocumentReference("Test", "Test", "Test"));
+        XWikiDocumentArchive archive = new XWikiDocumentArchive(doc.getId());
+        String author = "XWiki.some author";
+
+        for (int i = 1; i <= 7; i++) {
+            addRevisionToHistory(archive, doc, "content " + i + ".1", author, i + ".1");
+        }
+        String text = archive.getArchive(this.context);
+
+        // At most 2 patches to apply on a full version
+        this.config.setProperty("xwiki.store.rcs.nodesPerFull", "3");
+        XWikiDocumentArchive importedArchive = new XWikiDocumentArchive(doc.getId());
+        importedArchive.setArchive(text, this.context);
+
+        assertFalse(importedArchive.getNode(new Version(7, 1)).isDiff());
+        assertTrue(importedArchive.getNode(new Version(6, 1)).isDiff());
+        assertTrue(importedArchive.getNode(new Version(5, 1)).isDiff());
+        assertFalse(importedArchive.getNode(new Version(4, 1)).isDiff());
+        assertTrue(importedArchive.getNode(new Version(3, 1)).isDiff());
+        assertTrue(importedArchive.getNode(new Version(2, 1)).isDiff());
+        assertFalse(importedArchive.getNode(new Version(1, 1)).isDiff());
+
+        for (int i = 1; i <= 7; i++) {
+            assertEquals("content " + i + ".1",
+                importedArchive.loadDocument(new Version(i, 1), this.context).getContent());
+        }
+    }
+
     private void addRevisionToHistory(XWikiDocumentArchive archive, XWikiDocument document, String content,
         String author, String comment) throws XWikiException
     {
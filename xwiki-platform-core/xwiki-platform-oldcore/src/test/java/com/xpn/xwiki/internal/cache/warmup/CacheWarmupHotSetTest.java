@@ -0,0 +1,90 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.cache.warmup;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link CacheWarmupHotSet}.
+ *
+ * @version $Id$
+ */
+public class CacheWarmupHotSetTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordAndSort()
+    {
+        CacheWarmupHotSet hotSet = new CacheWarmupHotSet(2);
+
+        assertTrue(hotSet.isEmpty());
+
+        hotSet.record("wiki:Space.A", null);
+        hotSet.record("wiki:Space.B", "wiki:XWiki.U1");
+        hotSet.record("wiki:Space.B", "wiki:XWiki.U2");
+        hotSet.record("wiki:Space.C", "wiki:XWiki.U2");
+        hotSet.record("wiki:Space.C", "wiki:XWiki.U2");
+        hotSet.record("wiki:Space.C", null);
+
+        assertEquals(Arrays.asList("wiki:Space.C", "wiki:Space.B"), hotSet.getDocuments());
+        assertEquals(Arrays.asList("wiki:XWiki.U2", "wiki:XWiki.U1"), hotSet.getUsers());
+    }
+
+    @Test
+    public void forgetLeastViewed()
+    {
+        CacheWarmupHotSet hotSet = new CacheWarmupHotSet(1);
+
+        hotSet.record("wiki:Space.A", null);
+        hotSet.record("wiki:Space.A", null);
+        for (int i = 0; i < 10; i++) {
+            hotSet.record("wiki:Space.Other" + i, null);
+        }
+
+        assertEquals(Arrays.asList("wiki:Space.A"), hotSet.getDocuments());
+    }
+
+    @Test
+    public void writeAndRead() throws Exception
+    {
+        CacheWarmupHotSet hotSet = new CacheWarmupHotSet(10);
+        hotSet.record("wiki:Space.A", "wiki:XWiki.U1");
+        hotSet.record("wiki:Space.B", null);
+        hotSet.record("wiki:Space.B", null);
+
+        File file = new File(this.folder.getRoot(), "hotset.txt");
+        hotSet.write(file);
+
+        CacheWarmupHotSet readHotSet = CacheWarmupHotSet.read(file, 10);
+
+        assertEquals(Arrays.asList("wiki:Space.B", "wiki:Space.A"), readHotSet.getDocuments());
+        assertEquals(Arrays.asList("wiki:XWiki.U1"), readHotSet.getUsers());
+    }
+}
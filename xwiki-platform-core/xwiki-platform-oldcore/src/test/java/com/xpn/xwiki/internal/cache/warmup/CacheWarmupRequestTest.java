@@ -0,0 +1,59 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.cache.warmup;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.xwiki.job.DefaultRequest;
+import org.xwiki.model.reference.DocumentReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Validate {@link CacheWarmupRequest}.
+ *
+ * @version $Id$
+ */
+public class CacheWarmupRequestTest
+{
+    @Test
+    public void copy()
+    {
+        DocumentReference document = new DocumentReference("wiki", "Space", "Page");
+        DocumentReference user = new DocumentReference("wiki", "XWiki", "User");
+
+        CacheWarmupRequest request = new CacheWarmupRequest();
+        request.getDocuments().add(document);
+        request.getUsers().add(null);
+        request.getUsers().add(user);
+        request.setRender(true);
+        request.setPause(42);
+
+        // What the job does when it receives a generic request
+        CacheWarmupRequest copy = new CacheWarmupRequest(new DefaultRequest(request));
+
+        assertEquals(Arrays.asList(document), copy.getDocuments());
+        assertEquals(Arrays.asList(null, user), copy.getUsers());
+        assertTrue(copy.isRender());
+        assertEquals(42, copy.getPause());
+    }
+}
@@ -43,6 +43,12 @@
 import com.xpn.xwiki.objects.classes.BaseClass;
 import com.xpn.xwiki.objects.classes.NumberClass;
 
+import static com.xpn.xwiki.test.mockito.OldcoreMatchers.anyXWikiContext;
+import static com.xpn.xwiki.test.mockito.OldcoreMatchers.anyXWikiDocument;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
 /**
  * Validate {@link DocumentInstanceOutputFilterStream}.
  * 
@@ -333,6 +339,43 @@ public void testDocumentwithoutauthorandcreator() throws FilterException, XWikiE
         Assert.assertEquals(contextUser, document.getContentAuthorReference());
     }
 
+    @Test
+    public void testImportNewDocumentInBatch() throws FilterException, XWikiException
+    {
+        DocumentInstanceOutputProperties outputProperties = new DocumentInstanceOutputProperties();
+
+        outputProperties.setVerbose(false);
+
+        importFromXML("documentwithnumberversion", outputProperties);
+
+        verify(this.oldcore.getSpyXWiki()).saveDocuments(anyList(), anyXWikiContext());
+        Assert.assertFalse(this.oldcore.getSpyXWiki()
+            .getDocument(new DocumentReference("wiki", "space", "page"), this.oldcore.getXWikiContext()).isNew());
+    }
+
+    @Test
+    public void testImportReplacedDocumentOutsideBatch() throws FilterException, XWikiException
+    {
+        XWikiDocument previousDocument = new XWikiDocument(new DocumentReference("wiki", "space", "page"));
+        previousDocument.setContent("previous content");
+        this.oldcore.getSpyXWiki().saveDocument(previousDocument, this.oldcore.getXWikiContext());
+
+        DocumentInstanceOutputProperties outputProperties = new DocumentInstanceOutputProperties();
+
+        outputProperties.setVerbose(false);
+
+        importFromXML("documentwithnumberversion", outputProperties);
+
+        // The previous document is deleted so the new one must not wait in a batch which could fail
+        verify(this.oldcore.getMockStore()).deleteXWikiDoc(anyXWikiDocument(), anyXWikiContext());
+        verify(this.oldcore.getSpyXWiki(), never()).saveDocuments(anyList(), anyXWikiContext());
+
+        XWikiDocument document = this.oldcore.getSpyXWiki()
+            .getDocument(new DocumentReference("wiki", "space", "page"), this.oldcore.getXWikiContext());
+        Assert.assertFalse(document.isNew());
+        Assert.assertNotEquals("previous content", document.getContent());
+    }
+
     @Test
     public void testDocumentwithattachmentwithoutdate() throws FilterException, XWikiException
     {
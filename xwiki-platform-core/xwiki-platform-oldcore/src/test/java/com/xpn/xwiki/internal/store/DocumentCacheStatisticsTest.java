@@ -0,0 +1,127 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.xwiki.cache.CacheEntry;
+import org.xwiki.cache.event.CacheEntryEvent;
+import org.xwiki.model.reference.DocumentReference;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DocumentCacheStatistics}.
+ *
+ * @version $Id$
+ */
+public class DocumentCacheStatisticsTest
+{
+    private CacheEntryEvent<XWikiDocument> event(String key, String wiki, String content)
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getDocumentReference()).thenReturn(new DocumentReference(wiki, "Space", key));
+        when(document.getContent()).thenReturn(content);
+
+        CacheEntry<XWikiDocument> entry = mock(CacheEntry.class);
+        when(entry.getKey()).thenReturn(key);
+        when(entry.getValue()).thenReturn(document);
+
+        CacheEntryEvent<XWikiDocument> event = mock(CacheEntryEvent.class);
+        when(event.getEntry()).thenReturn(entry);
+
+        return event;
+    }
+
+    @Test
+    public void parseMemory()
+    {
+        assertEquals(0, DocumentCacheStatistics.parseMemory(null));
+        assertEquals(0, DocumentCacheStatistics.parseMemory(" "));
+        assertEquals(42, DocumentCacheStatistics.parseMemory("42"));
+        assertEquals(2048, DocumentCacheStatistics.parseMemory("2k"));
+        assertEquals(512L * 1024 * 1024, DocumentCacheStatistics.parseMemory("512m"));
+        assertEquals(2L * 1024 * 1024 * 1024, DocumentCacheStatistics.parseMemory("2G"));
+    }
+
+    @Test
+    public void trackMemoryPerWiki()
+    {
+        DocumentCacheStatistics statistics = new DocumentCacheStatistics(0);
+
+        statistics.cacheEntryAdded(event("a", "wiki1", "content"));
+        statistics.cacheEntryAdded(event("b", "wiki2", "content"));
+
+        assertEquals(2, statistics.getSize());
+        long memory = statistics.getMemory();
+        assertEquals(memory / 2, statistics.getWikisMemory().get("wiki1").longValue());
+        assertEquals(memory / 2, statistics.getWikisMemory().get("wiki2").longValue());
+
+        statistics.cacheEntryRemoved(event("a", "wiki1", "content"));
+
+        assertEquals(1, statistics.getSize());
+        assertEquals(memory / 2, statistics.getMemory());
+        assertEquals(Collections.singleton("wiki2"), statistics.getWikisMemory().keySet());
+
+        // No limit
+        assertEquals(Collections.emptyList(), statistics.getEntriesToEvict());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed()
+    {
+        char[] content = new char[1000];
+        long documentSize = DocumentCacheStatistics.estimateSize(
+            event("a", "wiki", new String(content)).getEntry().getValue());
+
+        DocumentCacheStatistics statistics = new DocumentCacheStatistics(documentSize * 2);
+
+        statistics.cacheEntryAdded(event("a", "wiki", new String(content)));
+        statistics.cacheEntryAdded(event("b", "wiki", new String(content)));
+
+        assertEquals(Collections.emptyList(), statistics.getEntriesToEvict());
+
+        statistics.onHit("a");
+        statistics.cacheEntryAdded(event("c", "wiki", new String(content)));
+
+        assertEquals(Arrays.asList("b"), statistics.getEntriesToEvict());
+        assertEquals(1, statistics.getEvictionCount());
+        assertEquals(1, statistics.getHitCount());
+
+        // The entry is still tracked until the cache notifies its removal
+        statistics.onHit("b");
+        statistics.onHit("a");
+
+        assertEquals(Arrays.asList("c"), statistics.getEntriesToEvict());
+
+        statistics.cacheEntryRemoved(event("c", "wiki", new String(content)));
+        // Hits on entries that are not tracked (anymore) are only counted
+        statistics.onHit("c");
+
+        assertEquals(Collections.emptyList(), statistics.getEntriesToEvict());
+        assertEquals(4, statistics.getHitCount());
+    }
+}
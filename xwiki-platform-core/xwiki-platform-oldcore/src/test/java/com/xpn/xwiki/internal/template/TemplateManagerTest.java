@@ -20,15 +20,20 @@
 package com.xpn.xwiki.internal.template;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
 
 import org.apache.velocity.VelocityContext;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.xwiki.component.manager.ComponentLookupException;
@@ -49,6 +54,8 @@
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -59,6 +66,9 @@
 @AllComponents
 public class TemplateManagerTest
 {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     @Rule
     public final MockitoComponentMockingRule<TemplateManager> mocker =
         new MockitoComponentMockingRule<TemplateManager>(DefaultTemplateManager.class);
@@ -131,6 +141,48 @@ public void testRenderWiki() throws Exception
         assertEquals("<p>first line<br/>second line</p>", mocker.getComponentUnderTest().render("template"));
     }
 
+    @Test
+    public void testRenderCachedTemplate() throws Exception
+    {
+        mockVelocity("source", "OK");
+
+        File file = this.folder.newFile("template");
+        when(this.environmentMock.getResourceAsStream("/templates/template"))
+            .thenReturn(new ByteArrayInputStream("source".getBytes("UTF8")));
+        when(this.environmentMock.getResource("/templates/template")).thenReturn(file.toURI().toURL());
+
+        assertEquals("OK", this.mocker.getComponentUnderTest().render("template"));
+        assertEquals("OK", this.mocker.getComponentUnderTest().render("template"));
+
+        // The file is read only once
+        verify(this.environmentMock, times(1)).getResourceAsStream("/templates/template");
+    }
+
+    @Test
+    public void testRenderCachedJarTemplate() throws Exception
+    {
+        mockVelocity("source", "OK");
+
+        File file = this.folder.newFile("templates.jar");
+        try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(file))) {
+            jar.putNextEntry(new ZipEntry("templates/template"));
+            jar.write("source".getBytes("UTF8"));
+        }
+        when(this.environmentMock.getResourceAsStream("/templates/template"))
+            .thenReturn(new ByteArrayInputStream("source".getBytes("UTF8")));
+        when(this.environmentMock.getResource("/templates/template"))
+            .thenReturn(new URL("jar:" + file.toURI() + "!/templates/template"));
+
+        assertEquals("OK", this.mocker.getComponentUnderTest().render("template"));
+
+        // The jar is not accessed anymore once the template is cached
+        file.delete();
+
+        assertEquals("OK", this.mocker.getComponentUnderTest().render("template"));
+
+        verify(this.environmentMock, times(1)).getResourceAsStream("/templates/template");
+    }
+
     @Test
     public void testRenderClassloaderTemplate() throws ComponentLookupException, Exception
     {
@@ -124,6 +124,19 @@ public Object invoke(Invocation invocation) throws Throwable
                     return null;
                 }
             });
+        this.mockXWikiStore.stubs().method("saveXWikiDocs")
+            .will(new CustomStub("Implements XWikiStoreInterface.saveXWikiDocs")
+            {
+                @Override
+                public Object invoke(Invocation invocation) throws Throwable
+                {
+                    XWikiStoreInterface store = (XWikiStoreInterface) mockXWikiStore.proxy();
+                    for (Object document : (List) invocation.parameterValues.get(0)) {
+                        store.saveXWikiDoc((XWikiDocument) document, (XWikiContext) invocation.parameterValues.get(1));
+                    }
+                    return null;
+                }
+            });
         this.mockXWikiStore.stubs().method("deleteXWikiDoc")
             .will(new CustomStub("Implements XWikiStoreInterface.deleteXWikiDoc")
             {
@@ -0,0 +1,124 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.stats.impl.xwiki;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.store.XWikiHibernateStore;
+import com.xpn.xwiki.test.MockitoOldcoreRule;
+
+import static com.xpn.xwiki.test.mockito.OldcoreMatchers.anyXWikiContext;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link AbstractStatsStoreItem}.
+ *
+ * @version $Id$
+ */
+public class AbstractStatsStoreItemTest
+{
+    @Rule
+    public MockitoOldcoreRule oldcore = new MockitoOldcoreRule();
+
+    private XWikiHibernateStore store;
+
+    private final List<List<XWikiStatsStoreItem>> stored = new ArrayList<>();
+
+    private final List<XWikiContext> storeContexts = new ArrayList<>();
+
+    @Before
+    public void before() throws Exception
+    {
+        this.store = this.oldcore.getSpyXWiki().getHibernateStore();
+        when(this.store.beginTransaction(anyXWikiContext())).thenReturn(true);
+    }
+
+    private RecordingStatsStoreItem item(String name, boolean failing)
+    {
+        return new RecordingStatsStoreItem(name, failing, this.stored, this.storeContexts, this.oldcore.getXWikiContext());
+    }
+
+    @Test
+    public void storeBatchInSingleTransaction() throws Exception
+    {
+        RecordingStatsStoreItem item1 = item("item1", false);
+        RecordingStatsStoreItem item2 = item("item2", false);
+        XWikiContext item2Context = item2.getContext();
+
+        item1.storeBatch(RecordingStatsStoreItem.batch(item1, item2));
+
+        verify(this.store).beginTransaction(item1.getContext());
+        verify(this.store).endTransaction(item1.getContext(), true);
+
+        assertEquals(Arrays.asList(Arrays.asList(item1), Arrays.asList(item2)), this.stored);
+
+        // Both items are stored with the context holding the transaction
+        assertEquals(Arrays.asList(item1.getContext(), item1.getContext()), this.storeContexts);
+
+        // The context of the item is left untouched
+        assertSame(item2Context, item2.getContext());
+        assertNotSame(item1.getContext(), item2.getContext());
+    }
+
+    @Test
+    public void storeBatchWithFailingItem() throws Exception
+    {
+        RecordingStatsStoreItem item1 = item("item1", false);
+        RecordingStatsStoreItem failing = item("failing", true);
+        RecordingStatsStoreItem item2 = item("item2", false);
+
+        item1.storeBatch(RecordingStatsStoreItem.batch(item1, failing, item2));
+
+        // The batch transaction is rolled back
+        verify(this.store).endTransaction(item1.getContext(), false);
+
+        // Then each item is stored on its own, with its own context
+        assertEquals(Arrays.asList(Arrays.asList(item1), Arrays.asList(item1), Arrays.asList(item2)), this.stored);
+        assertSame(item2.getContext(), this.storeContexts.get(this.storeContexts.size() - 1));
+    }
+
+    @Test
+    public void storeBatchWhenCommitFails() throws Exception
+    {
+        RecordingStatsStoreItem item1 = item("item1", false);
+        RecordingStatsStoreItem item2 = item("item2", false);
+
+        doThrow(new RuntimeException("commit")).when(this.store).endTransaction(item1.getContext(), true);
+
+        item1.storeBatch(RecordingStatsStoreItem.batch(item1, item2));
+
+        // Stored again, each item on its own
+        assertEquals(4, this.stored.size());
+        verify(this.store, times(1)).endTransaction(item1.getContext(), true);
+    }
+}
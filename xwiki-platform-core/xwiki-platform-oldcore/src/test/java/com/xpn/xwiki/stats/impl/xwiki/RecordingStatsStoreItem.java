@@ -0,0 +1,110 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.stats.impl.xwiki;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.stats.impl.StatsUtil.PeriodType;
+
+/**
+ * A statistics item remembering how it's stored.
+ *
+ * @version $Id$
+ */
+public class RecordingStatsStoreItem extends AbstractStatsStoreItem
+{
+    private final boolean failing;
+
+    private final List<List<XWikiStatsStoreItem>> stored;
+
+    private final List<XWikiContext> storeContexts;
+
+    /**
+     * @param name the identifier of the statistic
+     * @param failing true if the item should fail to be stored
+     * @param stored where to remember the stored statistics
+     * @param storeContexts where to remember the contexts used to store the statistics
+     * @param context the XWiki context
+     */
+    public RecordingStatsStoreItem(String name, boolean failing, List<List<XWikiStatsStoreItem>> stored,
+        List<XWikiContext> storeContexts, XWikiContext context)
+    {
+        super(name, new Date(), PeriodType.DAY, context);
+
+        this.failing = failing;
+        this.stored = stored;
+        this.storeContexts = storeContexts;
+    }
+
+    /**
+     * @param name the identifier of the statistic
+     * @param stored where to remember the stored statistics
+     * @param context the XWiki context
+     */
+    public RecordingStatsStoreItem(String name, List<List<XWikiStatsStoreItem>> stored, XWikiContext context)
+    {
+        this(name, false, stored, Collections.synchronizedList(new ArrayList<>()), context);
+    }
+
+    /**
+     * @return the context of this item
+     */
+    public XWikiContext getContext()
+    {
+        return this.context;
+    }
+
+    @Override
+    public String getId()
+    {
+        return this.name;
+    }
+
+    @Override
+    protected void storeInternal(List<XWikiStatsStoreItem> statsList)
+    {
+        this.storeContexts.add(this.context);
+
+        if (this.failing) {
+            throw new RuntimeException("Failed to store [" + this.name + "]");
+        }
+
+        this.stored.add(new ArrayList<>(statsList));
+    }
+
+    /**
+     * @param items the items to group
+     * @return a batch containing one group per item
+     */
+    public static List<List<XWikiStatsStoreItem>> batch(XWikiStatsStoreItem... items)
+    {
+        List<List<XWikiStatsStoreItem>> batch = new ArrayList<>();
+        for (XWikiStatsStoreItem item : items) {
+            batch.add(new ArrayList<>(Arrays.asList(item)));
+        }
+
+        return batch;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.stats.impl.xwiki;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.context.ExecutionContextManager;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.test.MockitoOldcoreRule;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Validate {@link XWikiStatsStoreService}.
+ *
+ * @version $Id$
+ */
+public class XWikiStatsStoreServiceTest
+{
+    @Rule
+    public MockitoOldcoreRule oldcore = new MockitoOldcoreRule();
+
+    private XWikiStatsStoreService service;
+
+    private final List<List<XWikiStatsStoreItem>> stored = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void before() throws Exception
+    {
+        this.oldcore.getMocker().registerMockComponent(ExecutionContextManager.class);
+        this.oldcore.getMockXWikiCfg().setProperty("stats.queue.flushdelay", 500L);
+
+        this.service = new XWikiStatsStoreService(this.oldcore.getXWikiContext());
+        this.service.start();
+    }
+
+    @After
+    public void after()
+    {
+        this.service.stop();
+    }
+
+    private void waitForStored(int size) throws InterruptedException
+    {
+        for (int i = 0; i < 100 && this.stored.size() < size; i++) {
+            Thread.sleep(100);
+        }
+    }
+
+    @Test
+    public void aggregateDuringFlushDelay() throws Exception
+    {
+        XWikiContext xcontext = this.oldcore.getXWikiContext();
+
+        RecordingStatsStoreItem item1 = new RecordingStatsStoreItem("page", this.stored, xcontext);
+        this.service.add(item1);
+        Thread.sleep(50);
+        RecordingStatsStoreItem item2 = new RecordingStatsStoreItem("page", this.stored, xcontext);
+        this.service.add(item2);
+        RecordingStatsStoreItem item3 = new RecordingStatsStoreItem("other", this.stored, xcontext);
+        this.service.add(item3);
+
+        waitForStored(2);
+
+        // The statistics received during the flush delay are stored once per identifier
+        assertEquals(Arrays.asList(Arrays.asList(item1, item2), Arrays.asList(item3)), this.stored);
+    }
+
+    @Test
+    public void aggregateByWiki() throws Exception
+    {
+        XWikiContext xcontext = this.oldcore.getXWikiContext();
+
+        RecordingStatsStoreItem item1 = new RecordingStatsStoreItem("page", this.stored, xcontext);
+        this.service.add(item1);
+
+        XWikiContext otherContext = xcontext.clone();
+        otherContext.setWikiId("otherwiki");
+        RecordingStatsStoreItem item2 = new RecordingStatsStoreItem("page", this.stored, otherContext);
+        this.service.add(item2);
+
+        waitForStored(2);
+
+        // The same statistic in two wikis is stored in each wiki
+        assertEquals(Arrays.asList(Arrays.asList(item1), Arrays.asList(item2)), this.stored);
+    }
+}
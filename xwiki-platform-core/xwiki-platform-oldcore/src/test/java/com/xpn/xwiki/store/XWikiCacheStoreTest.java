@@ -19,6 +19,10 @@
  */
 package com.xpn.xwiki.store;
 
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -31,9 +35,11 @@
 import org.xwiki.test.annotation.ComponentList;
 
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.store.DocumentCacheStatistics;
 import com.xpn.xwiki.test.MockitoOldcoreRule;
 
 import static com.xpn.xwiki.test.mockito.OldcoreMatchers.isCacheConfiguration;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -91,6 +97,7 @@ public void testLoadXWikiDoc() throws Exception
             store.loadXWikiDoc(new XWikiDocument(reference), this.oldcore.getXWikiContext());
 
         assertFalse(existingDocument.isNew());
+        verify(this.cache).addCacheEntryListener((DocumentCacheStatistics) store.getCacheStatistics());
         verify(this.cache).set(eq("4:wiki5:space4:page"), any(XWikiDocument.class));
         verify(this.existCache).set("4:wiki5:space4:page", Boolean.TRUE);
         verify(this.cache).get(any());
@@ -115,4 +122,18 @@ public void testLoadXWikiDoc() throws Exception
         verifyNoMoreInteractions(this.cache);
         verifyNoMoreInteractions(this.existCache);
     }
+
+    @Test
+    public void cacheStatisticsAreExposedThroughJMX() throws Exception
+    {
+        XWikiCacheStore store = new XWikiCacheStore(this.oldcore.getMockStore(), this.oldcore.getXWikiContext());
+
+        store.loadXWikiDoc(new XWikiDocument(new DocumentReference("wiki", "space", "page")),
+            this.oldcore.getXWikiContext());
+
+        ObjectName name = new ObjectName("org.xwiki:type=Cache,name=DocumentCache");
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "MissCount"));
+        assertEquals(store.getCacheStatistics().getMaxMemory(),
+            ManagementFactory.getPlatformMBeanServer().getAttribute(name, "MaxMemory"));
+    }
 }
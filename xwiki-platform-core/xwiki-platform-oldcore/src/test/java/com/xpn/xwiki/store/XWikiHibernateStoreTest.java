@@ -49,8 +49,10 @@
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.objects.BaseProperty;
+import com.xpn.xwiki.objects.IntegerProperty;
 import com.xpn.xwiki.objects.LargeStringProperty;
 import com.xpn.xwiki.objects.StringProperty;
+import com.xpn.xwiki.objects.classes.BaseClass;
 import com.xpn.xwiki.store.hibernate.HibernateSessionFactory;
 import com.xpn.xwiki.store.migration.DataMigrationManager;
 
@@ -358,4 +360,81 @@ public void getTranslationList() throws Exception
         verify(query).bindValue("space", "Path.To");
         verify(query).bindValue("name", documentReference.getName());
     }
+
+    @Test
+    public void loadXWikiObjectsProperties() throws Exception
+    {
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+        XWikiDocument doc = mock(XWikiDocument.class);
+        when(doc.getXClass()).thenReturn(mock(BaseClass.class));
+
+        // The class of the objects is the document itself.
+        BaseObject object1 = mock(BaseObject.class);
+        when(object1.getId()).thenReturn(1L);
+        when(object1.getXClassReference()).thenReturn(documentReference);
+        when(object1.getDocumentReference()).thenReturn(documentReference);
+        BaseObject object2 = mock(BaseObject.class);
+        when(object2.getId()).thenReturn(2L);
+        when(object2.getXClassReference()).thenReturn(documentReference);
+        when(object2.getDocumentReference()).thenReturn(documentReference);
+
+        when(context.get("hibsession")).thenReturn(session);
+
+        // The properties of all the objects are listed with a single query.
+        Query propertiesQuery = mock(Query.class);
+        when(session.createQuery(
+            "select prop.id.id, prop.name, prop.classType from BaseProperty as prop where prop.id.id in (:ids)"))
+                .thenReturn(propertiesQuery);
+        when(propertiesQuery.list()).thenReturn(Arrays.asList(
+            new Object[] {1L, "title", StringProperty.class.getName()},
+            new Object[] {1L, "count", IntegerProperty.class.getName()},
+            new Object[] {2L, "title", StringProperty.class.getName()}));
+
+        // Then each property table is queried once.
+        StringProperty title1 = new StringProperty();
+        title1.setId(1L);
+        title1.setName("title");
+        title1.setValue("first");
+        StringProperty title2 = new StringProperty();
+        title2.setId(2L);
+        title2.setName("title");
+        // Oracle returns null for empty strings.
+        title2.setValue(null);
+        Query stringQuery = mock(Query.class);
+        when(session.createQuery("from " + StringProperty.class.getName() + " as prop where prop.id.id in (:ids)"))
+            .thenReturn(stringQuery);
+        when(stringQuery.list()).thenReturn(Arrays.asList(title1, title2));
+
+        IntegerProperty count1 = new IntegerProperty();
+        count1.setId(1L);
+        count1.setName("count");
+        count1.setValue(42);
+        Query integerQuery = mock(Query.class);
+        when(session.createQuery("from " + IntegerProperty.class.getName() + " as prop where prop.id.id in (:ids)"))
+            .thenReturn(integerQuery);
+        when(integerQuery.list()).thenReturn(Collections.singletonList(count1));
+
+        store.loadXWikiObjectsProperties(Arrays.asList(object1, object2), doc, context);
+
+        verify(propertiesQuery).setParameterList("ids", Arrays.asList(1L, 2L));
+        verify(integerQuery).setParameterList("ids", Arrays.asList(1L));
+
+        verify(object1).addField("title", title1);
+        verify(object1).addField("count", count1);
+        verify(object2).addField("title", title2);
+        verify(object1, times(2)).addField(any(), any());
+        verify(object2, times(1)).addField(any(), any());
+
+        assertSame(object1, title1.getObject());
+        assertSame(object1, count1.getObject());
+        assertSame(object2, title2.getObject());
+        assertEquals("first", title1.getValue());
+        assertEquals("", title2.getValue());
+        assertEquals(42, count1.getValue());
+        assertFalse(title1.isValueDirty());
+        assertFalse(count1.isValueDirty());
+
+        // No property was loaded one by one.
+        verify(session, never()).load(any(BaseProperty.class), any());
+    }
 }
@@ -87,6 +87,7 @@
 import static com.xpn.xwiki.test.mockito.OldcoreMatchers.anyXWikiDocument;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -528,6 +529,21 @@ public Void answer(InvocationOnMock invocation) throws Throwable
             }
         }).when(getSpyXWiki()).saveDocument(anyXWikiDocument(), any(String.class), anyBoolean(), anyXWikiContext());
         doAnswer(new Answer<Void>()
+        {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable
+            {
+                List<XWikiDocument> batch = invocation.getArgument(0);
+                XWikiContext xcontext = invocation.getArgument(1);
+
+                for (XWikiDocument document : batch) {
+                    getSpyXWiki().saveDocument(document, document.getComment(), document.isMinorEdit(), xcontext);
+                }
+
+                return null;
+            }
+        }).when(getSpyXWiki()).saveDocuments(anyList(), anyXWikiContext());
+        doAnswer(new Answer<Void>()
         {
             @Override
             public Void answer(InvocationOnMock invocation) throws Throwable
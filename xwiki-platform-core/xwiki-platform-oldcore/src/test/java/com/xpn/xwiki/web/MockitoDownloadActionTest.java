@@ -19,9 +19,9 @@
  */
 package com.xpn.xwiki.web;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Date;
 
@@ -87,7 +87,11 @@ public void renderWhenAttachmentIsInANestedSpace() throws Exception
         Date now = new Date();
         when(attachment.getDate()).thenReturn(now);
         when(attachment.getFilename()).thenReturn("file.ext");
-        when(attachment.getContentInputStream(xcontext)).thenReturn(new ByteArrayInputStream("test".getBytes()));
+        when(attachment.getContentLongSize(xcontext)).thenReturn(4L);
+        when(attachment.writeContent(any(OutputStream.class), eq(0L), eq(4L), same(xcontext))).then(invocation -> {
+            ((OutputStream) invocation.getArguments()[0]).write("test".getBytes());
+            return 4L;
+        });
         when(attachment.getMimeType(xcontext)).thenReturn("mimetype");
 
         // Set the current doc
@@ -160,7 +164,11 @@ public void renderWhenZipExplorerPluginURL() throws Exception
         Date now = new Date();
         when(attachment.getDate()).thenReturn(now);
         when(attachment.getFilename()).thenReturn("file.ext");
-        when(attachment.getContentInputStream(xcontext)).thenReturn(new ByteArrayInputStream("test".getBytes()));
+        when(attachment.getContentLongSize(xcontext)).thenReturn(4L);
+        when(attachment.writeContent(any(OutputStream.class), eq(0L), eq(4L), same(xcontext))).then(invocation -> {
+            ((OutputStream) invocation.getArguments()[0]).write("test".getBytes());
+            return 4L;
+        });
         when(attachment.getMimeType(xcontext)).thenReturn("mimetype");
         when(attachment.clone()).thenReturn(attachment);
 
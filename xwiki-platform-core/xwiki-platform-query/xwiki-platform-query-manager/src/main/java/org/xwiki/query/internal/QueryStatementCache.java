@@ -0,0 +1,230 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.internal;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.configuration.ConfigurationSource;
+
+/**
+ * Keep the result of the work done by the query executors to prepare a statement before executing it (translation to
+ * another language, validation, etc.) so that executing the same statement again does not require parsing it again.
+ * The entries are keyed by language and statement and the least recently used ones are evicted. The statistics of
+ * the cache are exposed through JMX.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component(roles = QueryStatementCache.class)
+@Singleton
+public class QueryStatementCache implements Initializable, Disposable, QueryStatementCacheMBean
+{
+    /**
+     * The name under which the statistics of the cache are registered against the JMX server.
+     */
+    public static final String JMX_NAME = "org.xwiki:type=Cache,name=QueryStatementCache";
+
+    private static final String CAPACITY_PROPERTY = "query.statementCache.capacity";
+
+    private static final int DEFAULT_CAPACITY = 1000;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private Logger logger;
+
+    private Cache<Object> cache;
+
+    private int capacity;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        this.capacity = this.configuration.getProperty(CAPACITY_PROPERTY, DEFAULT_CAPACITY);
+
+        if (this.capacity > 0) {
+            try {
+                this.cache = this.cacheManager.createNewCache(new LRUCacheConfiguration("query.statements",
+                    this.capacity));
+            } catch (CacheException e) {
+                throw new InitializationException("Failed to create the query statements cache", e);
+            }
+        }
+
+        registerMBean();
+    }
+
+    private void registerMBean()
+    {
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(JMX_NAME);
+            if (mbs.isRegistered(name)) {
+                mbs.unregisterMBean(name);
+            }
+            mbs.registerMBean(new StandardMBean(this, QueryStatementCacheMBean.class), name);
+        } catch (Exception e) {
+            this.logger.warn("Failed to register the query statements cache statistics against the JMX Server", e);
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        if (this.cache != null) {
+            this.cache.dispose();
+        }
+
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(JMX_NAME);
+            if (mbs.isRegistered(name)) {
+                mbs.unregisterMBean(name);
+            }
+        } catch (Exception e) {
+            this.logger.warn("Failed to unregister the query statements cache statistics from the JMX Server", e);
+        }
+    }
+
+    private String getKey(String language, String statement)
+    {
+        return language + ':' + statement;
+    }
+
+    /**
+     * @param language the language of the statement
+     * @param statement the statement
+     * @param <T> the type of the prepared statement
+     * @return the prepared statement cached for the passed language and statement, null if none
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String language, String statement)
+    {
+        Object prepared = this.cache != null ? this.cache.get(getKey(language, statement)) : null;
+
+        if (prepared != null) {
+            this.hits.incrementAndGet();
+        } else {
+            this.misses.incrementAndGet();
+        }
+
+        return (T) prepared;
+    }
+
+    /**
+     * @param language the language of the statement
+     * @param statement the statement
+     * @param prepared the result of the preparation of the statement, it must not depend on the context in which
+     *            the statement was prepared (or the caller must check it's still valid)
+     */
+    public void set(String language, String statement, Object prepared)
+    {
+        if (this.cache != null) {
+            this.cache.set(getKey(language, statement), prepared);
+        }
+    }
+
+    /**
+     * @param language the language of the statement
+     * @param statement the statement to forget (e.g. because the prepared statement is not valid anymore)
+     */
+    public void remove(String language, String statement)
+    {
+        if (this.cache != null) {
+            this.cache.remove(getKey(language, statement));
+        }
+    }
+
+    /**
+     * Forget all the prepared statements, for example because the mapping of the database changed.
+     */
+    public void invalidate()
+    {
+        if (this.cache != null) {
+            this.cache.removeAll();
+            this.invalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the maximum number of prepared statements kept, 0 if the cache is disabled
+     */
+    @Override
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+
+    /**
+     * @return the number of statements which have been found in the cache
+     */
+    @Override
+    public long getHitCount()
+    {
+        return this.hits.get();
+    }
+
+    /**
+     * @return the number of statements which had to be prepared
+     */
+    @Override
+    public long getMissCount()
+    {
+        return this.misses.get();
+    }
+
+    /**
+     * @return the number of times the whole cache has been invalidated
+     */
+    @Override
+    public long getInvalidationCount()
+    {
+        return this.invalidations.get();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.internal;
+
+/**
+ * Statistics of the {@link QueryStatementCache}, exposed through JMX.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public interface QueryStatementCacheMBean
+{
+    /**
+     * @return the maximum number of prepared statements kept, 0 if the cache is disabled
+     */
+    int getCapacity();
+
+    /**
+     * @return the number of statements which have been found in the cache
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of statements which had to be prepared
+     */
+    long getMissCount();
+
+    /**
+     * @return the number of times the whole cache has been invalidated
+     */
+    long getInvalidationCount();
+}
@@ -0,0 +1,125 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.internal;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.query.Query;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link QueryStatementCache}.
+ *
+ * @version $Id$
+ */
+public class QueryStatementCacheTest
+{
+    @Rule
+    public MockitoComponentMockingRule<QueryStatementCache> mocker =
+        new MockitoComponentMockingRule<>(QueryStatementCache.class);
+
+    private Cache<Object> cache;
+
+    @BeforeComponent
+    @SuppressWarnings("unchecked")
+    public void beforeComponent() throws Exception
+    {
+        ConfigurationSource configuration =
+            this.mocker.registerMockComponent(ConfigurationSource.class, "xwikiproperties");
+        when(configuration.getProperty("query.statementCache.capacity", 1000)).thenReturn(10);
+
+        this.cache = mock(Cache.class);
+        CacheManager cacheManager = this.mocker.registerMockComponent(CacheManager.class);
+        when(cacheManager.<Object>createNewCache(any(CacheConfiguration.class))).thenReturn(this.cache);
+    }
+
+    @Test
+    public void getAndSet() throws Exception
+    {
+        QueryStatementCache statementCache = this.mocker.getComponentUnderTest();
+
+        assertEquals(10, statementCache.getCapacity());
+
+        assertNull(statementCache.get(Query.XWQL, "where 1=1"));
+        assertEquals(1, statementCache.getMissCount());
+
+        statementCache.set(Query.XWQL, "where 1=1", "translated");
+        verify(this.cache).set("xwql:where 1=1", "translated");
+
+        when(this.cache.get("xwql:where 1=1")).thenReturn("translated");
+        assertEquals("translated", statementCache.get(Query.XWQL, "where 1=1"));
+        assertEquals(1, statementCache.getHitCount());
+
+        // Same statement in another language
+        assertNull(statementCache.get(Query.HQL, "where 1=1"));
+        assertEquals(2, statementCache.getMissCount());
+    }
+
+    @Test
+    public void invalidate() throws Exception
+    {
+        QueryStatementCache statementCache = this.mocker.getComponentUnderTest();
+
+        statementCache.invalidate();
+
+        verify(this.cache).removeAll();
+        assertEquals(1, statementCache.getInvalidationCount());
+    }
+
+    @Test
+    public void statisticsExposedThroughJMX() throws Exception
+    {
+        QueryStatementCache statementCache = this.mocker.getComponentUnderTest();
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(QueryStatementCache.JMX_NAME);
+
+        statementCache.get(Query.XWQL, "where 1=1");
+        when(this.cache.get("xwql:where 1=1")).thenReturn("translated");
+        statementCache.get(Query.XWQL, "where 1=1");
+        statementCache.invalidate();
+
+        assertEquals(10, mbs.getAttribute(name, "Capacity"));
+        assertEquals(1L, mbs.getAttribute(name, "HitCount"));
+        assertEquals(1L, mbs.getAttribute(name, "MissCount"));
+        assertEquals(1L, mbs.getAttribute(name, "InvalidationCount"));
+
+        statementCache.dispose();
+
+        assertFalse(mbs.isRegistered(name));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.xwql.internal.hql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.query.xwql.internal.QueryContext;
+import org.xwiki.query.xwql.internal.QueryContext.ObjectInfo;
+import org.xwiki.query.xwql.internal.QueryContext.PropertyInfo;
+
+/**
+ * The result of the translation of a XWQL statement to HQL, along with the class properties it depends on. The same
+ * XWQL statement can produce a different HQL statement when the type or the mapping of the properties it manipulates
+ * changes (or when executed on another wiki), so the translation can only be reused when {@link #isValid} says so.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public class TranslatedStatement
+{
+    private final String statement;
+
+    private final List<PropertyDependency> dependencies = new ArrayList<>();
+
+    private static final class PropertyDependency
+    {
+        private final String className;
+
+        private final String propertyName;
+
+        private final String type;
+
+        private final boolean customMapped;
+
+        PropertyDependency(PropertyInfo property) throws Exception
+        {
+            this.className = property.object.className;
+            this.propertyName = property.name;
+            this.type = property.getType();
+            this.customMapped = property.isCustomMapped();
+        }
+
+        boolean isValid(DocumentAccessBridge bridge) throws Exception
+        {
+            return Objects.equals(this.type, bridge.getPropertyType(this.className, this.propertyName))
+                && this.customMapped == bridge.isPropertyCustomMapped(this.className, this.propertyName);
+        }
+    }
+
+    /**
+     * @param statement the HQL statement
+     * @param context the context of the translation, containing the properties used in the statement
+     * @throws Exception when failing to get the type of a property
+     */
+    public TranslatedStatement(String statement, QueryContext context) throws Exception
+    {
+        this.statement = statement;
+
+        for (ObjectInfo object : context.getObjects()) {
+            for (PropertyInfo property : object.properties.values()) {
+                this.dependencies.add(new PropertyDependency(property));
+            }
+        }
+    }
+
+    /**
+     * @return the HQL statement
+     */
+    public String getStatement()
+    {
+        return this.statement;
+    }
+
+    /**
+     * @param bridge used to access the current definition of the properties
+     * @return true if the type and the mapping of the properties used in the statement did not change since it was
+     *         translated
+     * @throws Exception when failing to get the type of a property
+     */
+    public boolean isValid(DocumentAccessBridge bridge) throws Exception
+    {
+        for (PropertyDependency dependency : this.dependencies) {
+            if (!dependency.isValid(bridge)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -29,6 +29,7 @@
 import org.xwiki.query.xwql.internal.QueryContext;
 import org.xwiki.query.xwql.internal.QueryTranslator;
 import org.xwiki.query.Query;
+import org.xwiki.query.internal.QueryStatementCache;
 import org.xwiki.bridge.DocumentAccessBridge;
 import org.xwiki.component.annotation.Component;
 
@@ -40,10 +41,29 @@ public class XWQLtoHQLTranslator implements QueryTranslator
     @Inject
     protected DocumentAccessBridge documentAccessBridge;
 
+    @Inject
+    protected QueryStatementCache statementCache;
+
     @Override
     public String translate(String input) throws Exception
     {
-        input = input.trim();
+        if (this.statementCache == null) {
+            return translateStatement(input).getStatement();
+        }
+
+        // Parsing the statement is costly and most statements are executed many times
+        TranslatedStatement translated = this.statementCache.get(Query.XWQL, input);
+        if (translated == null || !translated.isValid(getDocumentAccessBridge())) {
+            translated = translateStatement(input);
+            this.statementCache.set(Query.XWQL, input, translated);
+        }
+
+        return translated.getStatement();
+    }
+
+    private TranslatedStatement translateStatement(String statement) throws Exception
+    {
+        String input = statement.trim();
         String lcInput = input.toLowerCase();
         String addition = "select doc.fullName from Document as doc ";
         if (lcInput.startsWith("where") || lcInput.startsWith("order") || lcInput.length() == 0) {
@@ -58,7 +78,7 @@ public String translate(String input) throws Exception
         tree.apply(new QueryAnalyzer(context));
 
         Printer printer = getPrinter(context);
-        return printer.print();
+        return new TranslatedStatement(printer.print(), context);
     }
 
     @Override
@@ -0,0 +1,133 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.xwql.internal.hql;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.bridge.DocumentAccessBridge;
+import org.xwiki.query.Query;
+import org.xwiki.query.internal.QueryStatementCache;
+import org.xwiki.query.xwql.internal.QueryTranslator;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the reuse of the statements cached by {@link XWQLtoHQLTranslator}.
+ *
+ * @version $Id$
+ */
+public class XWQLtoHQLTranslatorStatementCacheTest
+{
+    private static final String STATEMENT = "from doc.object(XWiki.XWikiUsers) as user where user.email = 'some'";
+
+    @Rule
+    public MockitoComponentMockingRule<QueryTranslator> mocker =
+        new MockitoComponentMockingRule<>(XWQLtoHQLTranslator.class, QueryTranslator.class, "hql");
+
+    private DocumentAccessBridge bridge;
+
+    private QueryStatementCache statementCache;
+
+    private Map<String, Object> cachedStatements = new HashMap<>();
+
+    @Before
+    public void setUp() throws Exception
+    {
+        this.bridge = this.mocker.getInstance(DocumentAccessBridge.class);
+        when(this.bridge.getPropertyType(anyString(), anyString())).thenReturn("StringProperty");
+
+        this.statementCache = this.mocker.getInstance(QueryStatementCache.class);
+        when(this.statementCache.get(eq(Query.XWQL), anyString()))
+            .then(invocation -> this.cachedStatements.get(invocation.getArgument(1)));
+        doAnswer(invocation -> this.cachedStatements.put(invocation.getArgument(1), invocation.getArgument(2)))
+            .when(this.statementCache).set(eq(Query.XWQL), anyString(), any());
+    }
+
+    @Test
+    public void reuseTranslation() throws Exception
+    {
+        String hql = this.mocker.getComponentUnderTest().translate(STATEMENT);
+        clearInvocations(this.bridge);
+
+        assertEquals(hql, this.mocker.getComponentUnderTest().translate(STATEMENT));
+
+        // Translated only once, but the properties it depends on are checked again
+        verify(this.statementCache).set(eq(Query.XWQL), eq(STATEMENT), any(TranslatedStatement.class));
+        verify(this.bridge).getPropertyType("XWiki.XWikiUsers", "email");
+        verify(this.bridge).isPropertyCustomMapped("XWiki.XWikiUsers", "email");
+    }
+
+    @Test
+    public void reuseTranslationInAnotherWikiWithSameClass() throws Exception
+    {
+        String hql = this.mocker.getComponentUnderTest().translate(STATEMENT);
+
+        // The bridge gives the definition of the class in the current wiki, which is the same here
+        when(this.bridge.getPropertyType("XWiki.XWikiUsers", "email")).thenReturn("StringProperty");
+        assertEquals(hql, this.mocker.getComponentUnderTest().translate(STATEMENT));
+
+        verify(this.statementCache).set(eq(Query.XWQL), eq(STATEMENT), any(TranslatedStatement.class));
+    }
+
+    @Test
+    public void translateAgainWhenPropertyTypeChanged() throws Exception
+    {
+        String hql = this.mocker.getComponentUnderTest().translate(STATEMENT);
+        assertTrue(hql.contains("StringProperty"));
+
+        // Another wiki, or the class has been modified
+        when(this.bridge.getPropertyType("XWiki.XWikiUsers", "email")).thenReturn("LargeStringProperty");
+        String newHql = this.mocker.getComponentUnderTest().translate(STATEMENT);
+
+        assertTrue(newHql.contains("LargeStringProperty"));
+        verify(this.statementCache, times(2)).set(eq(Query.XWQL), eq(STATEMENT), any(TranslatedStatement.class));
+
+        // The new translation is reused
+        assertEquals(newHql, this.mocker.getComponentUnderTest().translate(STATEMENT));
+        verify(this.statementCache, times(2)).set(eq(Query.XWQL), eq(STATEMENT), any(TranslatedStatement.class));
+    }
+
+    @Test
+    public void translateAgainWhenPropertyMappingChanged() throws Exception
+    {
+        String hql = this.mocker.getComponentUnderTest().translate(STATEMENT);
+
+        when(this.bridge.isPropertyCustomMapped("XWiki.XWikiUsers", "email")).thenReturn(true);
+        String newHql = this.mocker.getComponentUnderTest().translate(STATEMENT);
+
+        assertNotEquals(hql, newHql);
+        verify(this.statementCache, times(2)).set(eq(Query.XWQL), eq(STATEMENT), any(TranslatedStatement.class));
+    }
+}
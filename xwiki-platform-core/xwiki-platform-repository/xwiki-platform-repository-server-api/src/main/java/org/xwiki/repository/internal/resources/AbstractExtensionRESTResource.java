@@ -846,7 +846,7 @@ protected ResponseBuilder getAttachmentResponse(XWikiAttachment xwikiAttachment)
         XWikiContext xcontext = getXWikiContext();
 
         response = response.type(xwikiAttachment.getMimeType(xcontext));
-        response = response.entity(xwikiAttachment.getContent(xcontext));
+        response = response.entity(xwikiAttachment.getContentInputStream(xcontext));
         response =
             response.header("content-disposition", "attachment; filename=\"" + xwikiAttachment.getFilename() + "\"");
 
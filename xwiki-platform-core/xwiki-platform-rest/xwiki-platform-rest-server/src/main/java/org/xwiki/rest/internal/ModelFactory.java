@@ -22,20 +22,26 @@
 import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Formatter;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.job.DefaultRequest;
 import org.xwiki.job.Request;
@@ -43,8 +49,13 @@
 import org.xwiki.logging.LogQueue;
 import org.xwiki.logging.event.LogEvent;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.model.reference.ObjectReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.query.QueryManager;
 import org.xwiki.rest.Relations;
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.model.jaxb.Attachment;
@@ -100,6 +111,8 @@
 import org.xwiki.rest.resources.spaces.SpacesResource;
 import org.xwiki.rest.resources.wikis.WikiSearchQueryResource;
 import org.xwiki.rest.resources.wikis.WikiSearchResource;
+import org.xwiki.security.authorization.AuthorizationManager;
+import org.xwiki.security.authorization.Right;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
@@ -122,6 +135,12 @@
 @Singleton
 public class ModelFactory
 {
+    /**
+     * The maximum number of values passed in a single {@code in} clause when looking for the parents and the children
+     * of the listed pages. Some databases (e.g. Oracle) don't support more than 1000 elements in a list.
+     */
+    private static final int MAX_IN_LIST_SIZE = 1000;
+
     private final ObjectFactory objectFactory;
 
     @Inject
@@ -130,9 +149,39 @@
     @Inject
     private EntityReferenceSerializer<String> serializer;
 
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
     @Inject
     private JAXBConverter jaxbConverter;
 
+    @Inject
+    private AuthorizationManager authorization;
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    @Named("hidden")
+    private QueryFilter hiddenFilter;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * What is known about a list of pages, computed once for the whole list instead of for each page.
+     */
+    private static final class PageListing
+    {
+        /**
+         * The local references of the existing parents, per wiki.
+         */
+        private final Map<String, Set<String>> existingParents = new HashMap<>();
+
+        private final Set<DocumentReference> pagesWithChildren = new HashSet<>();
+    }
+
     public ModelFactory()
     {
         this.objectFactory = new ObjectFactory();
@@ -516,6 +565,12 @@ public Translations toRestTranslations(URI baseUri, Document doc) throws XWikiEx
      */
     private void toRestPageSummary(PageSummary pageSummary, URI baseUri, Document doc, boolean useVersion,
         Boolean withPrettyNames) throws XWikiException
+    {
+        toRestPageSummary(pageSummary, baseUri, doc, useVersion, withPrettyNames, null);
+    }
+
+    private void toRestPageSummary(PageSummary pageSummary, URI baseUri, Document doc, boolean useVersion,
+        Boolean withPrettyNames, PageListing listing) throws XWikiException
     {
         XWikiContext xwikiContext = this.xcontextProvider.get();
 
@@ -537,7 +592,16 @@ private void toRestPageSummary(PageSummary pageSummary, URI baseUri, Document do
 
         pageSummary.setParent(doc.getParent());
         DocumentReference parentReference = doc.getParentReference();
-        boolean parentExist = parentReference != null && xwikiContext.getWiki().exists(parentReference, xwikiContext);
+        boolean parentExist;
+        if (parentReference == null) {
+            parentExist = false;
+        } else if (listing != null) {
+            Set<String> existingParents = listing.existingParents.get(parentReference.getWikiReference().getName());
+            parentExist =
+                existingParents != null && existingParents.contains(this.localSerializer.serialize(parentReference));
+        } else {
+            parentExist = xwikiContext.getWiki().exists(parentReference, xwikiContext);
+        }
         // parentId must not be set if the parent document does not exist.
         if (parentExist) {
             pageSummary.setParentId(this.serializer.serialize(parentReference));
@@ -568,7 +632,9 @@ private void toRestPageSummary(PageSummary pageSummary, URI baseUri, Document do
         historyLink.setRel(Relations.HISTORY);
         pageSummary.getLinks().add(historyLink);
 
-        if (!doc.getChildren().isEmpty()) {
+        boolean hasChildren = listing != null ? listing.pagesWithChildren.contains(doc.getDocumentReference())
+            : !doc.getChildren(1, 0).isEmpty();
+        if (hasChildren) {
             String pageChildrenUri =
                 Utils.createURI(baseUri, PageChildrenResource.class, doc.getWiki(), spaces, doc.getName()).toString();
             Link pageChildrenLink = this.objectFactory.createLink();
@@ -645,9 +711,162 @@ private void toRestPageSummary(PageSummary pageSummary, URI baseUri, Document do
     }
 
     public PageSummary toRestPageSummary(URI baseUri, Document doc, Boolean withPrettyNames) throws XWikiException
+    {
+        return toRestPageSummary(baseUri, doc, withPrettyNames, null);
+    }
+
+    /**
+     * Create the summaries of the specified pages, skipping the pages that don't exist or that the current user is not
+     * allowed to view. The work is shared between the pages: the view right is checked for all of them at once, each
+     * document is loaded only once and the existence of their parents and of their children is computed with one
+     * query for the whole list instead of one lookup per page.
+     *
+     * @param baseUri the base URI of the REST resources
+     * @param references the references of the pages
+     * @param withPrettyNames true if the pretty names of the users should be included
+     * @return the summaries of the pages which exist and which can be viewed, in the same order as the references
+     * @throws XWikiException when failing to load the pages
+     * @since 9.7RC1
+     */
+    public List<PageSummary> toRestPageSummaries(URI baseUri, List<DocumentReference> references,
+        Boolean withPrettyNames) throws XWikiException
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        Set<EntityReference> viewable = getViewableReferences(references);
+
+        List<Document> documents = new ArrayList<>(references.size());
+        for (DocumentReference reference : references) {
+            if (viewable.contains(reference)) {
+                XWikiDocument document = xcontext.getWiki().getDocument(reference, xcontext);
+                if (document.isNew()) {
+                    this.logger.warn("Page [{}] appears to exist but no information is available.", reference);
+                } else {
+                    documents.add(document.newDocument(xcontext));
+                }
+            }
+        }
+
+        PageListing listing = new PageListing();
+        try {
+            addExistingParents(documents, listing);
+            addPagesWithChildren(documents, listing);
+        } catch (QueryException e) {
+            throw new XWikiException(XWikiException.MODULE_XWIKI_STORE, XWikiException.ERROR_XWIKI_UNKNOWN,
+                "Failed to get the parents and the children of the listed pages", e);
+        }
+
+        List<PageSummary> pageSummaries = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            pageSummaries.add(toRestPageSummary(baseUri, document, withPrettyNames, listing));
+        }
+
+        return pageSummaries;
+    }
+
+    /**
+     * Check the view right of the current user on all the passed entities at once, which is cheaper than checking
+     * each entity separately when they share their parents (e.g. the pages of a listing or the results of a search).
+     *
+     * @param references the entities to check
+     * @return the entities that the current user is allowed to view
+     * @since 9.7RC1
+     */
+    public Set<EntityReference> getViewableReferences(Collection<? extends EntityReference> references)
+    {
+        Set<EntityReference> viewable = new HashSet<>();
+        if (!references.isEmpty()) {
+            Map<EntityReference, Boolean> access = this.authorization.hasAccess(Right.VIEW,
+                this.xcontextProvider.get().getUserReference(), new LinkedHashSet<>(references));
+            for (Map.Entry<EntityReference, Boolean> entry : access.entrySet()) {
+                if (Boolean.TRUE.equals(entry.getValue())) {
+                    viewable.add(entry.getKey());
+                }
+            }
+        }
+
+        return viewable;
+    }
+
+    private void addExistingParents(List<Document> documents, PageListing listing) throws QueryException
+    {
+        Map<String, Set<String>> parents = new HashMap<>();
+        for (Document document : documents) {
+            DocumentReference parentReference = document.getParentReference();
+            if (parentReference != null) {
+                parents.computeIfAbsent(parentReference.getWikiReference().getName(), k -> new HashSet<>())
+                    .add(this.localSerializer.serialize(parentReference));
+            }
+        }
+
+        for (Map.Entry<String, Set<String>> wikiParents : parents.entrySet()) {
+            Set<String> existingParents = new HashSet<>();
+            List<String> fullNames = new ArrayList<>(wikiParents.getValue());
+            for (int i = 0; i < fullNames.size(); i += MAX_IN_LIST_SIZE) {
+                List<String> fullNamesChunk = fullNames.subList(i, Math.min(i + MAX_IN_LIST_SIZE, fullNames.size()));
+                existingParents.addAll(this.queryManager.createQuery(
+                    "select distinct doc.fullName from XWikiDocument doc where doc.fullName in (:fullNames)",
+                    Query.HQL).setWiki(wikiParents.getKey()).bindValue("fullNames", fullNamesChunk).<String>execute());
+            }
+            listing.existingParents.put(wikiParents.getKey(), existingParents);
+        }
+    }
+
+    /**
+     * Same as {@link XWikiDocument#getChildrenReferences(XWikiContext)} but for a list of documents.
+     */
+    private void addPagesWithChildren(List<Document> documents, PageListing listing) throws QueryException
+    {
+        Map<String, List<Document>> documentsPerWiki = new HashMap<>();
+        for (Document document : documents) {
+            documentsPerWiki.computeIfAbsent(document.getWiki(), k -> new ArrayList<>()).add(document);
+        }
+
+        for (Map.Entry<String, List<Document>> wikiDocuments : documentsPerWiki.entrySet()) {
+            // The parent is saved either with or without the wiki part, or as the page name when the child is in the
+            // same space
+            Set<String> parentNames = new HashSet<>();
+            for (Document document : wikiDocuments.getValue()) {
+                parentNames.add(this.serializer.serialize(document.getDocumentReference()));
+                parentNames.add(this.localSerializer.serialize(document.getDocumentReference()));
+                parentNames.add(document.getDocumentReference().getName());
+            }
+
+            Set<String> childParents = new HashSet<>();
+            Set<List<String>> childRelativeParents = new HashSet<>();
+            List<String> parentNamesList = new ArrayList<>(parentNames);
+            for (int i = 0; i < parentNamesList.size(); i += MAX_IN_LIST_SIZE) {
+                List<String> parentNamesChunk =
+                    parentNamesList.subList(i, Math.min(i + MAX_IN_LIST_SIZE, parentNamesList.size()));
+                List<java.lang.Object[]> parents = this.queryManager
+                    .createQuery(
+                        "select distinct doc.parent, doc.space from XWikiDocument doc where doc.parent in (:parents)",
+                        Query.HQL)
+                    .setWiki(wikiDocuments.getKey()).bindValue("parents", parentNamesChunk)
+                    .addFilter(this.hiddenFilter).execute();
+                for (java.lang.Object[] parent : parents) {
+                    childParents.add((String) parent[0]);
+                    childRelativeParents.add(Arrays.asList((String) parent[0], (String) parent[1]));
+                }
+            }
+
+            for (Document document : wikiDocuments.getValue()) {
+                DocumentReference reference = document.getDocumentReference();
+                if (childParents.contains(this.serializer.serialize(reference))
+                    || childParents.contains(this.localSerializer.serialize(reference))
+                    || childRelativeParents.contains(Arrays.asList(reference.getName(),
+                        this.localSerializer.serialize(reference.getLastSpaceReference())))) {
+                    listing.pagesWithChildren.add(reference);
+                }
+            }
+        }
+    }
+
+    private PageSummary toRestPageSummary(URI baseUri, Document doc, Boolean withPrettyNames, PageListing listing)
+        throws XWikiException
     {
         PageSummary pageSummary = this.objectFactory.createPageSummary();
-        toRestPageSummary(pageSummary, baseUri, doc, false, withPrettyNames);
+        toRestPageSummary(pageSummary, baseUri, doc, false, withPrettyNames, listing);
 
         String pageUri = Utils.createURI(baseUri, PageResource.class, doc.getWiki(),
             Utils.getSpacesFromSpaceId(doc.getSpace()), doc.getName()).toString();
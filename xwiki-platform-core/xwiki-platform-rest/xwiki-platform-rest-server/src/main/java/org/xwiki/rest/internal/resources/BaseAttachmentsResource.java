@@ -24,6 +24,7 @@
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Formatter;
 import java.util.HashMap;
@@ -32,12 +33,17 @@
 import java.util.Map;
 import java.util.Set;
 
+import javax.inject.Inject;
+
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryException;
 import org.xwiki.rest.Relations;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.ModelFactory;
 import org.xwiki.rest.internal.RangeIterable;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Attachment;
@@ -56,6 +62,9 @@
  */
 public class BaseAttachmentsResource extends XWikiResource
 {
+    @Inject
+    private ModelFactory factory;
+
     /**
      * Helper class that contains newly created attachment information to be returned to the client. It contains the
      * JAXB attachment object and a boolean variable that states if the attachment existed before. This class is used by
@@ -169,8 +178,21 @@ public Attachments getAttachments(String wikiName, String name, String page, Str
                 }
             }
 
+            /* Check the view right on the pages of all the found attachments at once */
+            List<DocumentReference> pageReferences = new ArrayList<>(queryResult.size());
             for (Object object : queryResult) {
                 Object[] fields = (Object[]) object;
+                pageReferences.add(new DocumentReference(wikiName, Utils.getSpacesFromSpaceId((String) fields[0]),
+                    (String) fields[1]));
+            }
+            Set<EntityReference> viewablePages = this.factory.getViewableReferences(pageReferences);
+
+            for (int i = 0; i < queryResult.size(); i++) {
+                if (!viewablePages.contains(pageReferences.get(i))) {
+                    continue;
+                }
+
+                Object[] fields = (Object[]) queryResult.get(i);
                 String pageSpaceId = (String) fields[0];
                 List<String> pageSpaces = Utils.getSpacesFromSpaceId(pageSpaceId);
                 String pageName = (String) fields[1];
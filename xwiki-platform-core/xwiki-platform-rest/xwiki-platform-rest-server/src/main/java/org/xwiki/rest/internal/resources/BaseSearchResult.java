@@ -21,20 +21,25 @@
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Formatter;
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.ws.rs.core.UriBuilderException;
 
 import org.apache.commons.lang3.StringUtils;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.SpaceReference;
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryException;
 import org.xwiki.query.QueryFilter;
 import org.xwiki.rest.Relations;
 import org.xwiki.rest.XWikiResource;
+import org.xwiki.rest.internal.ModelFactory;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.internal.resources.search.SearchSource;
 import org.xwiki.rest.model.jaxb.Link;
@@ -43,8 +48,6 @@
 import org.xwiki.rest.resources.pages.PageResource;
 import org.xwiki.rest.resources.pages.PageTranslationResource;
 import org.xwiki.rest.resources.spaces.SpaceResource;
-import org.xwiki.security.authorization.ContextualAuthorizationManager;
-import org.xwiki.security.authorization.Right;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
@@ -72,7 +75,7 @@ public class BaseSearchResult extends XWikiResource
     }
 
     @Inject
-    private ContextualAuthorizationManager authorizationManager;
+    private ModelFactory modelFactory;
 
     @Inject
     @Named("hidden/space")
@@ -131,8 +134,6 @@ protected List<SearchResult> searchPages(List<SearchScope> searchScopes, String
         String space, boolean hasProgrammingRights, int number, int start, String orderField, String order,
         Boolean withPrettyNames) throws QueryException, IllegalArgumentException, UriBuilderException, XWikiException
     {
-        XWiki xwikiApi = Utils.getXWikiApi(componentManager);
-
         String database = Utils.getXWikiContext(componentManager).getWikiId();
 
         /* This try is just needed for executing the finally clause. */
@@ -231,6 +232,9 @@ protected List<SearchResult> searchPages(List<SearchScope> searchScopes, String
                         .execute();
             }
 
+            /* Check if the user has the right to see the found documents, all at once */
+            Set<EntityReference> viewable = getViewableDocuments(queryResult, wikiName);
+
             for (Object object : queryResult) {
                 Object[] fields = (Object[]) object;
 
@@ -242,9 +246,9 @@ protected List<SearchResult> searchPages(List<SearchScope> searchScopes, String
                 String pageId = Utils.getPageId(wikiName, spaces, pageName);
                 String pageFullName = Utils.getPageFullName(wikiName, spaces, pageName);
 
-                /* Check if the user has the right to see the found document */
-                if (xwikiApi.hasAccessLevel("view", pageId)) {
-                    Document doc = xwikiApi.getDocument(pageFullName);
+                DocumentReference documentReference = new DocumentReference(wikiName, spaces, pageName);
+                if (viewable.contains(documentReference)) {
+                    Document doc = getDocument(documentReference);
                     String title = doc.getDisplayTitle();
                     SearchResult searchResult = objectFactory.createSearchResult();
                     searchResult.setType("page");
@@ -291,6 +295,34 @@ protected List<SearchResult> searchPages(List<SearchScope> searchScopes, String
         }
     }
 
+    /**
+     * @param queryResult the results of a query selecting the space and the name of the documents as second and third
+     *            columns
+     * @param wikiName the wiki where the query has been executed
+     * @return the found documents that the current user is allowed to view
+     */
+    private Set<EntityReference> getViewableDocuments(List<Object> queryResult, String wikiName)
+    {
+        List<DocumentReference> documentReferences = new ArrayList<>(queryResult.size());
+        for (Object object : queryResult) {
+            Object[] fields = (Object[]) object;
+            documentReferences.add(new DocumentReference(wikiName, Utils.getSpacesFromSpaceId((String) fields[1]),
+                (String) fields[2]));
+        }
+
+        return this.modelFactory.getViewableReferences(documentReferences);
+    }
+
+    /**
+     * Load a document whose view right has already been checked.
+     */
+    private Document getDocument(DocumentReference documentReference) throws XWikiException
+    {
+        XWikiContext xcontext = Utils.getXWikiContext(componentManager);
+
+        return xcontext.getWiki().getDocument(documentReference, xcontext).newDocument(xcontext);
+    }
+
     /**
      * Search for keyword in the given scopes. Limit the search only to spaces.
      * 
@@ -320,13 +352,20 @@ protected List<SearchResult> searchSpaces(String keywords, String wikiName, int
             .setWiki(wikiName).setLimit(number).setOffset(start)
             .addFilter(this.hiddenSpaceFilter).execute();
 
-        XWiki xwikiApi = Utils.getXWikiApi(componentManager);
+        List<SpaceReference> spaceReferences = new ArrayList<>(queryResult.size());
         for (Object object : queryResult) {
-            String spaceId = (String) object;
+            spaceReferences.add(new SpaceReference(wikiName, Utils.getSpacesFromSpaceId((String) object)));
+        }
+        // Check the view right on all the found spaces at once
+        Set<EntityReference> viewable = this.modelFactory.getViewableReferences(spaceReferences);
+
+        XWiki xwikiApi = Utils.getXWikiApi(componentManager);
+        for (int i = 0; i < queryResult.size(); i++) {
+            String spaceId = (String) queryResult.get(i);
             List<String> spaces = Utils.getSpacesFromSpaceId(spaceId);
-            SpaceReference spaceReference = new SpaceReference(wikiName, spaces);
+            SpaceReference spaceReference = spaceReferences.get(i);
 
-            if (this.authorizationManager.hasAccess(Right.VIEW, spaceReference)) {
+            if (viewable.contains(spaceReference)) {
                 Document spaceDoc = xwikiApi.getDocument(spaceReference);
 
                 SearchResult searchResult = objectFactory.createSearchResult();
@@ -374,8 +413,6 @@ protected List<SearchResult> searchObjects(String keywords, String wikiName, Str
     {
         XWikiContext xwikiContext = Utils.getXWikiContext(componentManager);
 
-        XWiki xwikiApi = Utils.getXWikiApi(componentManager);
-
         String database = Utils.getXWikiContext(componentManager).getWikiId();
 
         /* This try is just needed for executing the finally clause. */
@@ -446,6 +483,13 @@ protected List<SearchResult> searchObjects(String keywords, String wikiName, Str
             }
 
             /* Build the result. */
+            /*
+             * Check if the user has the right to see the found documents, all at once. We also prevent guest users to
+             * access object data in order to avoid leaking important information such as emails to crawlers.
+             */
+            Set<EntityReference> viewable = xwikiContext.getUserReference() != null
+                ? getViewableDocuments(queryResult, wikiName) : Collections.<EntityReference>emptySet();
+
             for (Object object : queryResult) {
                 Object[] fields = (Object[]) object;
 
@@ -457,15 +501,11 @@ protected List<SearchResult> searchObjects(String keywords, String wikiName, Str
 
                 String id = Utils.getObjectId(wikiName, spaces, pageName, className, objectNumber);
 
-                String pageId = Utils.getPageId(wikiName, spaces, pageName);
                 String pageFullName = Utils.getPageFullName(wikiName, spaces, pageName);
 
-                /*
-                 * Check if the user has the right to see the found document. We also prevent guest users to access
-                 * object data in order to avoid leaking important information such as emails to crawlers.
-                 */
-                if (xwikiApi.hasAccessLevel("view", pageId) && xwikiContext.getUserReference() != null) {
-                    Document doc = xwikiApi.getDocument(pageFullName);
+                DocumentReference documentReference = new DocumentReference(wikiName, spaces, pageName);
+                if (viewable.contains(documentReference)) {
+                    Document doc = getDocument(documentReference);
                     String title = doc.getDisplayTitle();
                     SearchResult searchResult = objectFactory.createSearchResult();
                     searchResult.setType("object");
@@ -53,7 +53,8 @@ public Response getAttachment(String wikiName, String spaceName, String pageName
                 throw new WebApplicationException(Status.NOT_FOUND);
             }
 
-            return Response.ok().type(xwikiAttachment.getMimeType()).entity(xwikiAttachment.getContent()).build();
+            return Response.ok().type(xwikiAttachment.getMimeType()).entity(xwikiAttachment.getContentInputStream())
+                .build();
         } catch (XWikiException e) {
             throw new XWikiRestException(e);
         }
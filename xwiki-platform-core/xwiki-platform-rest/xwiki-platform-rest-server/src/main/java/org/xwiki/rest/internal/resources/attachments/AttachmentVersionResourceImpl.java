@@ -59,8 +59,8 @@ public Response getAttachment(String wikiName, String spaceName, String pageName
                 throw new WebApplicationException(Status.NOT_FOUND);
             }
 
-            return Response.ok().type(xwikiAttachment.getMimeType()).entity(xwikiAttachmentVersion.getContent())
-                    .build();
+            return Response.ok().type(xwikiAttachment.getMimeType())
+                    .entity(xwikiAttachmentVersion.getContentInputStream()).build();
         } catch (XWikiException e) {
             throw new XWikiRestException(e);
         }
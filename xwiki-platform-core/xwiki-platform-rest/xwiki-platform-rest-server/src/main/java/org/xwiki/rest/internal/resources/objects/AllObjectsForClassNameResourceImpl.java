@@ -19,15 +19,21 @@
  */
 package org.xwiki.rest.internal.resources.objects;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
 import org.xwiki.query.Query;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.ModelFactory;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.ObjectSummary;
 import org.xwiki.rest.model.jaxb.Objects;
@@ -44,6 +50,9 @@
 @Named("org.xwiki.rest.internal.resources.objects.AllObjectsForClassNameResourceImpl")
 public class AllObjectsForClassNameResourceImpl extends XWikiResource implements AllObjectsForClassNameResource
 {
+    @Inject
+    private ModelFactory factory;
+
     @Override
     public Objects getObjects(String wikiName, String className, Integer start, Integer number, String order,
             Boolean withPrettyNames) throws XWikiRestException
@@ -66,11 +75,22 @@ public Objects getObjects(String wikiName, String className, Integer start, Inte
                     queryManager.createQuery(query, Query.XWQL).bindValue("className", className).setLimit(number)
                             .setOffset(start).execute();
 
+            List<DocumentReference> documentReferences = new ArrayList<>(queryResult.size());
+            for (Object object : queryResult) {
+                XWikiDocument xwikiDocument = (XWikiDocument) ((Object[]) object)[0];
+                xwikiDocument.setDatabase(wikiName);
+                documentReferences.add(xwikiDocument.getDocumentReference());
+            }
+            /* We only add the objects of the pages we have the right to view, checked all at once */
+            Set<EntityReference> viewable = this.factory.getViewableReferences(documentReferences);
+
             for (Object object : queryResult) {
                 Object[] fields = (Object[]) object;
 
                 XWikiDocument xwikiDocument = (XWikiDocument) fields[0];
-                xwikiDocument.setDatabase(wikiName);
+                if (!viewable.contains(xwikiDocument.getDocumentReference())) {
+                    continue;
+                }
                 Document doc = new Document(xwikiDocument, Utils.getXWikiContext(componentManager));
                 BaseObject xwikiObject = (BaseObject) fields[1];
 
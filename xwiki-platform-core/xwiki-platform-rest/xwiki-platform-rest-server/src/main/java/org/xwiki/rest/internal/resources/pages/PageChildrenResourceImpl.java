@@ -19,16 +19,20 @@
  */
 package org.xwiki.rest.internal.resources.pages;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
 import org.xwiki.query.Query;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
-import org.xwiki.rest.internal.DomainObjectFactory;
-import org.xwiki.rest.internal.Utils;
+import org.xwiki.rest.internal.ModelFactory;
 import org.xwiki.rest.model.jaxb.Pages;
 import org.xwiki.rest.resources.pages.PageChildrenResource;
 
@@ -41,6 +45,13 @@
 @Named("org.xwiki.rest.internal.resources.pages.PageChildrenResourceImpl")
 public class PageChildrenResourceImpl extends XWikiResource implements PageChildrenResource
 {
+    @Inject
+    private ModelFactory factory;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> resolver;
+
     @Override
     public Pages getPageChildren(String wikiName, String spaceName, String pageName, Integer start, Integer number,
             Boolean withPrettyNames) throws XWikiRestException
@@ -59,23 +70,16 @@ public Pages getPageChildren(String wikiName, String spaceName, String pageName,
                     queryManager.createQuery(queryString, Query.XWQL).bindValue("parent", doc.getFullName()).setOffset(
                             start).setLimit(number).execute();
 
+            WikiReference wikiReference = new WikiReference(wikiName);
+            List<DocumentReference> childPageReferences = new ArrayList<>(childPageFullNames.size());
             for (String childPageFullName : childPageFullNames) {
-                String pageId = Utils.getPageId(wikiName, childPageFullName);
-
-                if (!Utils.getXWikiApi(componentManager).exists(pageId)) {
-                    getLogger().warn("Page [{}] appears to be in space [{}] but no information is available.", pageName,
-                        spaceName);
-                } else {
-                    Document childDoc = Utils.getXWikiApi(componentManager).getDocument(pageId);
-
-                    /* We only add pages we have the right to access */
-                    if (childDoc != null) {
-                        pages.getPageSummaries().add(DomainObjectFactory.createPageSummary(objectFactory,
-                                uriInfo.getBaseUri(), childDoc, Utils.getXWikiApi(componentManager), withPrettyNames));
-                    }
-                }
+                childPageReferences.add(this.resolver.resolve(childPageFullName, wikiReference));
             }
 
+            /* We only add pages we have the right to access */
+            pages.getPageSummaries().addAll(
+                this.factory.toRestPageSummaries(uriInfo.getBaseUri(), childPageReferences, withPrettyNames));
+
             return pages;
         } catch (Exception e) {
             throw new XWikiRestException(e);
@@ -19,23 +19,25 @@
  */
 package org.xwiki.rest.internal.resources.pages;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryFilter;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
-import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.ModelFactory;
 import org.xwiki.rest.internal.Utils;
+import org.xwiki.rest.model.jaxb.PageSummary;
 import org.xwiki.rest.model.jaxb.Pages;
 import org.xwiki.rest.resources.pages.PagesResource;
 
-import com.xpn.xwiki.api.Document;
-
 /**
  * @version $Id$
  */
@@ -43,6 +45,9 @@
 @Named("org.xwiki.rest.internal.resources.pages.PagesResourceImpl")
 public class PagesResourceImpl extends XWikiResource implements PagesResource
 {
+    @Inject
+    private ModelFactory factory;
+
     @Override
     public Pages getPages(String wikiName, String spaceName, Integer start, Integer number,
             String parentFilterExpression, String order, Boolean withPrettyNames)
@@ -75,34 +80,18 @@ public Pages getPages(String wikiName, String spaceName, Integer start, Integer
                 }
             }
 
+            List<DocumentReference> pageReferences = new ArrayList<>(pageNames.size());
             for (String pageName : pageNames) {
-                String pageFullName = Utils.getPageId(wikiName, spaces, pageName);
-
-                if (!Utils.getXWikiApi(componentManager).exists(pageFullName)) {
-                    getLogger().warn("Page [{}] appears to be in space [{}] but no information is available.", pageName,
-                        spaceId);
-                } else {
-                    Document doc = Utils.getXWikiApi(componentManager).getDocument(pageFullName);
-
-                    /* We only add pages we have the right to access */
-                    if (doc != null) {
-                        boolean add = true;
-
-                        Document parent = Utils.getParentDocument(doc, Utils.getXWikiApi(componentManager));
-
-                        if (parentFilter != null) {
-                            String parentId = "";
-                            if (parent != null && !parent.isNew()) {
-                                parentId = parent.getPrefixedFullName();
-                            }
-                            add = parentFilter.matcher(parentId).matches();
-                        }
+                pageReferences.add(new DocumentReference(wikiName, spaces, pageName));
+            }
 
-                        if (add) {
-                            pages.getPageSummaries().add(DomainObjectFactory.createPageSummary(objectFactory,
-                                    uriInfo.getBaseUri(), doc, Utils.getXWikiApi(componentManager), withPrettyNames));
-                        }
-                    }
+            // The summaries are computed for all the pages at once. The pages we don't have the right to access are
+            // not included.
+            for (PageSummary pageSummary : this.factory.toRestPageSummaries(uriInfo.getBaseUri(), pageReferences,
+                withPrettyNames)) {
+                // The parent id is empty when the parent document doesn't exist.
+                if (parentFilter == null || parentFilter.matcher(pageSummary.getParentId()).matches()) {
+                    pages.getPageSummaries().add(pageSummary);
                 }
             }
         } catch (Exception e) {
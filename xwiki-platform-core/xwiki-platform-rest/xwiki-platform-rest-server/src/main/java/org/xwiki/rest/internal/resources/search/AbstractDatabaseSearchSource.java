@@ -23,6 +23,7 @@
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -32,6 +33,7 @@
 import org.apache.commons.lang3.StringUtils;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryFilter;
@@ -44,8 +46,6 @@
 import org.xwiki.rest.model.jaxb.SearchResult;
 import org.xwiki.rest.resources.pages.PageResource;
 import org.xwiki.rest.resources.pages.PageTranslationResource;
-import org.xwiki.security.authorization.ContextualAuthorizationManager;
-import org.xwiki.security.authorization.Right;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.api.Document;
@@ -75,9 +75,6 @@ public abstract class AbstractDatabaseSearchSource extends AbstractSearchSource
     @Inject
     protected DocumentReferenceResolver<String> resolver;
 
-    @Inject
-    protected ContextualAuthorizationManager authorization;
-
     protected final String queryLanguage;
 
     public AbstractDatabaseSearchSource(String queryLanguage)
@@ -110,19 +107,26 @@ public List<SearchResult> search(String partialQueryString, String wikiName, Str
 
         WikiReference wikiReference = new WikiReference(wikiName);
 
+        List<DocumentReference> documentReferences = new ArrayList<>(queryResult.size());
+        for (Object object : queryResult) {
+            documentReferences.add(this.resolver.resolve((String) ((Object[]) object)[0], wikiReference));
+        }
+
+        /* Check if the user has the right to see the found documents, all at once */
+        Set<EntityReference> viewable = this.modelFactory.getViewableReferences(documentReferences);
+
         /* Build the result. */
         List<SearchResult> result = new ArrayList<>();
-        for (Object object : queryResult) {
-            Object[] fields = (Object[]) object;
+        for (int i = 0; i < queryResult.size(); i++) {
+            Object[] fields = (Object[]) queryResult.get(i);
 
-            String fullName = (String) fields[0];
             String language = (String) fields[3];
 
-            DocumentReference documentReference = this.resolver.resolve(fullName, wikiReference);
+            DocumentReference documentReference = documentReferences.get(i);
 
-            /* Check if the user has the right to see the found document */
-            if (this.authorization.hasAccess(Right.VIEW, documentReference)) {
-                Document doc = xwikiApi.getDocument(documentReference);
+            if (viewable.contains(documentReference)) {
+                XWikiDocument xdocument = xwikiContext.getWiki().getDocument(documentReference, xwikiContext);
+                Document doc = xdocument.newDocument(xwikiContext);
                 String title = doc.getDisplayTitle();
 
                 SearchResult searchResult = this.objectFactory.createSearchResult();
@@ -148,8 +152,6 @@ public List<SearchResult> search(String partialQueryString, String wikiName, Str
                  * retrieve information such as email addresses and passwords from user's profiles.
                  */
                 if (StringUtils.isNotEmpty(className) && xwikiContext.getUserReference() != null) {
-                    XWikiDocument xdocument =
-                        xwikiContext.getWiki().getDocument(doc.getDocumentReference(), xwikiContext);
                     BaseObject baseObject = xdocument.getObject(className);
                     if (baseObject != null) {
                         searchResult.setObject(
@@ -19,21 +19,27 @@
  */
 package org.xwiki.rest.internal.resources.spaces;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
 import org.xwiki.query.QueryFilter;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
-import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.ModelFactory;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Spaces;
 import org.xwiki.rest.resources.spaces.SpacesResource;
 
+import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.api.Document;
-import com.xpn.xwiki.api.XWiki;
+import com.xpn.xwiki.doc.XWikiDocument;
 
 /**
  * @version $Id$
@@ -42,6 +48,9 @@
 @Named("org.xwiki.rest.internal.resources.spaces.SpacesResourceImpl")
 public class SpacesResourceImpl extends XWikiResource implements SpacesResource
 {
+    @Inject
+    private ModelFactory factory;
+
     @Override
     public Spaces getSpaces(String wikiName, Integer start, Integer number)
             throws XWikiRestException
@@ -53,18 +62,22 @@ public Spaces getSpaces(String wikiName, Integer start, Integer number)
                     componentManager.<QueryFilter>getInstance(QueryFilter.class, "hidden")).setOffset(start)
                     .setLimit(number).setWiki(wikiName).execute();
 
+            List<DocumentReference> homeReferences = new ArrayList<>(spaceNames.size());
             for (String spaceName : spaceNames) {
-                List<String> spaceList = Utils.getSpacesFromSpaceId(spaceName);
-                String homeId = Utils.getPageId(wikiName, spaceList, "WebHome");
-                Document home = null;
+                homeReferences.add(new DocumentReference(wikiName, Utils.getSpacesFromSpaceId(spaceName), "WebHome"));
+            }
+
+            // Check the view right on all the space home pages at once
+            Set<EntityReference> viewableHomes = this.factory.getViewableReferences(homeReferences);
 
-                XWiki xwikiApi = Utils.getXWikiApi(componentManager);
-                if (xwikiApi.hasAccessLevel("view", homeId)) {
-                    if (xwikiApi.exists(homeId)) {
-                        home = Utils.getXWikiApi(componentManager).getDocument(homeId);
-                    }
-                    spaces.getSpaces().add(DomainObjectFactory
-                            .createSpace(objectFactory, uriInfo.getBaseUri(), wikiName, spaceList, home));
+            XWikiContext xcontext = Utils.getXWikiContext(componentManager);
+            for (DocumentReference homeReference : homeReferences) {
+                if (viewableHomes.contains(homeReference)) {
+                    // A single lookup: the returned document is new when the home page doesn't exist
+                    XWikiDocument homeDocument = xcontext.getWiki().getDocument(homeReference, xcontext);
+                    Document home = homeDocument.isNew() ? null : homeDocument.newDocument(xcontext);
+                    spaces.getSpaces().add(this.factory.toRestSpace(uriInfo.getBaseUri(), wikiName,
+                        Utils.getSpacesHierarchy(homeReference.getLastSpaceReference()), home));
                 }
             }
         } catch (Exception e) {
@@ -0,0 +1,304 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+
+import javax.inject.Provider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.query.QueryManager;
+import org.xwiki.rendering.syntax.Syntax;
+import org.xwiki.rest.Relations;
+import org.xwiki.rest.model.jaxb.Link;
+import org.xwiki.rest.model.jaxb.PageSummary;
+import org.xwiki.security.authorization.AuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.api.Document;
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ModelFactory}.
+ *
+ * @version $Id$
+ */
+public class ModelFactoryTest
+{
+    @Rule
+    public MockitoComponentMockingRule<ModelFactory> mocker = new MockitoComponentMockingRule<>(ModelFactory.class);
+
+    private URI baseUri = URI.create("http://localhost/xwiki/rest");
+
+    private XWikiContext xcontext;
+
+    private XWiki xwiki;
+
+    private DocumentReference user = new DocumentReference("wiki", "XWiki", "Alice");
+
+    private Map<EntityReference, Boolean> viewable = new HashMap<>();
+
+    private Query parentsQuery;
+
+    private Query childrenQuery;
+
+    @Before
+    public void configure() throws Exception
+    {
+        this.xcontext = mock(XWikiContext.class);
+        Provider<XWikiContext> xcontextProvider = this.mocker.getInstance(XWikiContext.TYPE_PROVIDER);
+        when(xcontextProvider.get()).thenReturn(this.xcontext);
+        this.xwiki = mock(XWiki.class);
+        when(this.xcontext.getWiki()).thenReturn(this.xwiki);
+        when(this.xcontext.getUserReference()).thenReturn(this.user);
+
+        EntityReferenceSerializer<String> serializer =
+            this.mocker.getInstance(EntityReferenceSerializer.TYPE_STRING);
+        when(serializer.serialize(any(EntityReference.class))).thenAnswer(invocation -> {
+            EntityReference reference = invocation.getArgument(0);
+            return reference.extractReference(EntityType.WIKI).getName() + ':' + getLocalName(reference);
+        });
+        EntityReferenceSerializer<String> localSerializer =
+            this.mocker.getInstance(EntityReferenceSerializer.TYPE_STRING, "local");
+        when(localSerializer.serialize(any(EntityReference.class)))
+            .thenAnswer(invocation -> getLocalName(invocation.getArgument(0)));
+
+        AuthorizationManager authorization = this.mocker.getInstance(AuthorizationManager.class);
+        when(authorization.hasAccess(eq(Right.VIEW), eq(this.user), anyCollection())).thenReturn(this.viewable);
+
+        QueryManager queryManager = this.mocker.getInstance(QueryManager.class);
+        this.parentsQuery = mockQuery();
+        when(queryManager.createQuery(contains("where doc.fullName in (:fullNames)"), eq(Query.HQL)))
+            .thenReturn(this.parentsQuery);
+        this.childrenQuery = mockQuery();
+        when(queryManager.createQuery(contains("where doc.parent in (:parents)"), eq(Query.HQL)))
+            .thenReturn(this.childrenQuery);
+    }
+
+    private Query mockQuery()
+    {
+        Query query = mock(Query.class);
+        when(query.setWiki(anyString())).thenReturn(query);
+        when(query.bindValue(anyString(), any())).thenReturn(query);
+        when(query.addFilter(any(QueryFilter.class))).thenReturn(query);
+        return query;
+    }
+
+    private static String getLocalName(EntityReference reference)
+    {
+        List<String> names = new ArrayList<>();
+        for (EntityReference element : reference.getReversedReferenceChain()) {
+            if (element.getType() != EntityType.WIKI) {
+                names.add(element.getName());
+            }
+        }
+        return String.join(".", names);
+    }
+
+    private DocumentReference mockPage(String space, String name, DocumentReference parentReference,
+        boolean canView) throws Exception
+    {
+        DocumentReference reference = new DocumentReference("wiki", space, name);
+        this.viewable.put(reference, canView);
+
+        XWikiDocument xdocument = mock(XWikiDocument.class);
+        when(this.xwiki.getDocument(reference, this.xcontext)).thenReturn(xdocument);
+        Document document = mock(Document.class);
+        when(xdocument.newDocument(this.xcontext)).thenReturn(document);
+
+        when(document.getDocumentReference()).thenReturn(reference);
+        when(document.getWiki()).thenReturn("wiki");
+        when(document.getSpace()).thenReturn(space);
+        when(document.getName()).thenReturn(name);
+        when(document.getFullName()).thenReturn(space + '.' + name);
+        when(document.getPrefixedFullName()).thenReturn("wiki:" + space + '.' + name);
+        when(document.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
+        when(document.getComments()).thenReturn(new Vector<>());
+        when(document.getParentReference()).thenReturn(parentReference);
+
+        return reference;
+    }
+
+    private static boolean hasChildrenLink(PageSummary pageSummary)
+    {
+        for (Link link : pageSummary.getLinks()) {
+            if (Relations.CHILDREN.equals(link.getRel())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void toRestPageSummaries() throws Exception
+    {
+        DocumentReference existingParent = new DocumentReference("wiki", "Main", "WebHome");
+        DocumentReference missingParent = new DocumentReference("wiki", "Space", "Missing");
+        // The children of these pages reference them with the three forms of parent name.
+        DocumentReference withAbsoluteChild = mockPage("Space", "A", existingParent, true);
+        DocumentReference withLocalChild = mockPage("Space", "B", missingParent, true);
+        DocumentReference withRelativeChild = mockPage("Space", "C", null, true);
+        // The relative parent name matches only the pages from the space of the child.
+        DocumentReference withoutChild = mockPage("Other", "C", null, true);
+        DocumentReference secret = mockPage("Space", "Secret", existingParent, false);
+        DocumentReference deleted = mockPage("Space", "Deleted", existingParent, true);
+        when(this.xwiki.getDocument(deleted, this.xcontext).isNew()).thenReturn(true);
+
+        when(this.parentsQuery.<String>execute()).thenReturn(Arrays.asList("Main.WebHome"));
+        when(this.childrenQuery.<Object[]>execute()).thenReturn(Arrays.asList(new Object[] {"wiki:Space.A", "Other"},
+            new Object[] {"Space.B", "Other"}, new Object[] {"C", "Space"}));
+
+        List<PageSummary> pageSummaries = this.mocker.getComponentUnderTest().toRestPageSummaries(this.baseUri,
+            Arrays.asList(withAbsoluteChild, withLocalChild, withRelativeChild, withoutChild, secret, deleted),
+            false);
+
+        assertEquals(4, pageSummaries.size());
+        assertEquals("Space.A", pageSummaries.get(0).getFullName());
+        assertEquals("wiki:Main.WebHome", pageSummaries.get(0).getParentId());
+        assertEquals(true, hasChildrenLink(pageSummaries.get(0)));
+        assertEquals("Space.B", pageSummaries.get(1).getFullName());
+        // The parent id is empty when the parent doesn't exist.
+        assertEquals("", pageSummaries.get(1).getParentId());
+        assertEquals(true, hasChildrenLink(pageSummaries.get(1)));
+        assertEquals("Space.C", pageSummaries.get(2).getFullName());
+        assertEquals("", pageSummaries.get(2).getParentId());
+        assertEquals(true, hasChildrenLink(pageSummaries.get(2)));
+        assertEquals("Other.C", pageSummaries.get(3).getFullName());
+        assertEquals(false, hasChildrenLink(pageSummaries.get(3)));
+
+        // The pages that can't be viewed are not loaded.
+        verify(this.xwiki, never()).getDocument(secret, this.xcontext);
+        // The existence of the parents and of the children is computed once for the whole list.
+        verify(this.xwiki, never()).exists(any(DocumentReference.class), any(XWikiContext.class));
+        ArgumentCaptor<Object> fullNames = ArgumentCaptor.forClass(Object.class);
+        verify(this.parentsQuery).setWiki("wiki");
+        verify(this.parentsQuery).bindValue(eq("fullNames"), fullNames.capture());
+        assertEquals(new HashSet<>(Arrays.asList("Main.WebHome", "Space.Missing")),
+            new HashSet<>((Collection<?>) fullNames.getValue()));
+        ArgumentCaptor<Object> parents = ArgumentCaptor.forClass(Object.class);
+        verify(this.childrenQuery).bindValue(eq("parents"), parents.capture());
+        assertEquals(new HashSet<>(Arrays.asList("wiki:Space.A", "Space.A", "A", "wiki:Space.B", "Space.B", "B",
+            "wiki:Space.C", "Space.C", "C", "wiki:Other.C", "Other.C")),
+            new HashSet<>((Collection<?>) parents.getValue()));
+        verify(this.childrenQuery).addFilter(this.mocker.getInstance(QueryFilter.class, "hidden"));
+    }
+
+    @Test
+    public void toRestPageSummariesSplitsLongLists() throws Exception
+    {
+        int count = 1001;
+        List<DocumentReference> references = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            references.add(mockPage("Space", "Page" + i, new DocumentReference("wiki", "Space", "Parent" + i), true));
+        }
+        when(this.parentsQuery.<String>execute()).thenReturn(Arrays.asList("Space.Parent0", "Space.Parent1000"));
+        when(this.childrenQuery.<Object[]>execute()).thenReturn(Collections.emptyList());
+
+        List<PageSummary> pageSummaries =
+            this.mocker.getComponentUnderTest().toRestPageSummaries(this.baseUri, references, false);
+
+        assertEquals(count, pageSummaries.size());
+        assertEquals("wiki:Space.Parent0", pageSummaries.get(0).getParentId());
+        assertEquals("", pageSummaries.get(1).getParentId());
+        assertEquals("wiki:Space.Parent1000", pageSummaries.get(1000).getParentId());
+
+        // No more than 1000 values are bound to a single query.
+        ArgumentCaptor<Object> fullNames = ArgumentCaptor.forClass(Object.class);
+        verify(this.parentsQuery, times(2)).bindValue(eq("fullNames"), fullNames.capture());
+        assertChunks(fullNames.getAllValues(), count);
+        ArgumentCaptor<Object> parents = ArgumentCaptor.forClass(Object.class);
+        verify(this.childrenQuery, times(4)).bindValue(eq("parents"), parents.capture());
+        assertChunks(parents.getAllValues(), 3 * count);
+    }
+
+    private void assertChunks(List<Object> chunks, int expectedSize)
+    {
+        Set<Object> values = new HashSet<>();
+        for (Object chunk : chunks) {
+            assertTrue(((Collection<?>) chunk).size() <= 1000);
+            values.addAll((Collection<?>) chunk);
+        }
+        assertEquals(expectedSize, values.size());
+    }
+
+    @Test
+    public void getViewableReferences() throws Exception
+    {
+        DocumentReference page = new DocumentReference("wiki", "Space", "Page");
+        DocumentReference secret = new DocumentReference("wiki", "Space", "Secret");
+        this.viewable.put(page, true);
+        this.viewable.put(secret, false);
+
+        // The duplicate references (e.g. the translations of a page found by a search) are checked only once.
+        assertEquals(Collections.singleton(page),
+            this.mocker.getComponentUnderTest().getViewableReferences(Arrays.asList(page, secret, page)));
+
+        AuthorizationManager authorization = this.mocker.getInstance(AuthorizationManager.class);
+        verify(authorization).hasAccess(Right.VIEW, this.user, new LinkedHashSet<>(Arrays.asList(page, secret)));
+    }
+
+    @Test
+    public void toRestPageSummariesWithoutViewablePages() throws Exception
+    {
+        DocumentReference secret = mockPage("Space", "Secret", null, false);
+
+        assertEquals(0, this.mocker.getComponentUnderTest()
+            .toRestPageSummaries(this.baseUri, Arrays.asList(secret), false).size());
+
+        verify(this.parentsQuery, never()).execute();
+        verify(this.childrenQuery, never()).execute();
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.resources.pages;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Provider;
+import javax.ws.rs.core.UriInfo;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.query.QueryManager;
+import org.xwiki.rest.internal.ModelFactory;
+import org.xwiki.rest.model.jaxb.PageSummary;
+import org.xwiki.rest.resources.pages.PagesResource;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import com.xpn.xwiki.XWikiContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link PagesResourceImpl}.
+ *
+ * @version $Id$
+ */
+public class PagesResourceImplTest
+{
+    @Rule
+    public MockitoComponentMockingRule<PagesResource> mocker =
+        new MockitoComponentMockingRule<>(PagesResourceImpl.class);
+
+    private URI baseUri = URI.create("http://localhost/xwiki/rest");
+
+    private XWikiContext xcontext;
+
+    private ComponentManager componentManager;
+
+    private List<DocumentReference> pageReferences = new ArrayList<>();
+
+    @BeforeComponent
+    public void registerComponents() throws Exception
+    {
+        this.xcontext = mock(XWikiContext.class);
+        when(this.xcontext.getWikiId()).thenReturn("xwiki");
+
+        // Used by XWikiResource#initialize()
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.setProperty("xwikicontext", this.xcontext);
+        Execution execution = mock(Execution.class);
+        when(execution.getContext()).thenReturn(executionContext);
+        this.componentManager = this.mocker.registerMockComponent(ComponentManager.class, "context");
+        when(this.componentManager.getInstance(Execution.class)).thenReturn(execution);
+
+        Provider<XWikiContext> xcontextProvider = this.mocker.registerMockComponent(XWikiContext.TYPE_PROVIDER);
+        when(xcontextProvider.get()).thenReturn(this.xcontext);
+    }
+
+    @Before
+    public void configure() throws Exception
+    {
+        UriInfo uriInfo = mock(UriInfo.class);
+        when(uriInfo.getBaseUri()).thenReturn(this.baseUri);
+        FieldUtils.writeField(this.mocker.getComponentUnderTest(), "uriInfo", uriInfo, true);
+
+        QueryFilter hiddenFilter = mock(QueryFilter.class);
+        when(this.componentManager.<QueryFilter>getInstance(QueryFilter.class, "hidden")).thenReturn(hiddenFilter);
+        Query query = mock(Query.class);
+        QueryManager queryManager = this.mocker.getInstance(QueryManager.class);
+        when(queryManager.getNamedQuery("getSpaceDocsName")).thenReturn(query);
+        when(query.addFilter(hiddenFilter)).thenReturn(query);
+        when(query.bindValue(anyString(), any())).thenReturn(query);
+        when(query.setOffset(anyInt())).thenReturn(query);
+        when(query.setLimit(anyInt())).thenReturn(query);
+        when(query.<String>execute()).thenReturn(Arrays.asList("WithParent", "Orphan", "WithOtherParent"));
+
+        this.pageReferences.add(new DocumentReference("wiki", "Space", "WithParent"));
+        this.pageReferences.add(new DocumentReference("wiki", "Space", "Orphan"));
+        this.pageReferences.add(new DocumentReference("wiki", "Space", "WithOtherParent"));
+
+        // The parent id is empty when the parent doesn't exist.
+        List<PageSummary> pageSummaries = Arrays.asList(createPageSummary("Space.WithParent", "wiki:Main.WebHome"),
+            createPageSummary("Space.Orphan", ""), createPageSummary("Space.WithOtherParent", "wiki:Space.Parent"));
+        ModelFactory factory = this.mocker.getInstance(ModelFactory.class);
+        when(factory.toRestPageSummaries(this.baseUri, this.pageReferences, false)).thenReturn(pageSummaries);
+    }
+
+    private PageSummary createPageSummary(String fullName, String parentId)
+    {
+        PageSummary pageSummary = new PageSummary();
+        pageSummary.setFullName(fullName);
+        pageSummary.setParentId(parentId);
+        return pageSummary;
+    }
+
+    private List<String> getPages(String parentFilterExpression) throws Exception
+    {
+        List<String> fullNames = new ArrayList<>();
+        for (PageSummary pageSummary : this.mocker.getComponentUnderTest()
+            .getPages("wiki", "Space", 0, -1, parentFilterExpression, null, false).getPageSummaries()) {
+            fullNames.add(pageSummary.getFullName());
+        }
+
+        verify(this.xcontext).setWikiId("wiki");
+        verify(this.xcontext).setWikiId("xwiki");
+
+        return fullNames;
+    }
+
+    @Test
+    public void getPagesWithoutParentFilter() throws Exception
+    {
+        assertEquals(Arrays.asList("Space.WithParent", "Space.Orphan", "Space.WithOtherParent"), getPages(null));
+    }
+
+    @Test
+    public void getPagesWithoutParent() throws Exception
+    {
+        assertEquals(Arrays.asList("Space.Orphan"), getPages("null"));
+    }
+
+    @Test
+    public void getPagesWithParentMatchingFilter() throws Exception
+    {
+        assertEquals(Arrays.asList("Space.WithParent"), getPages("wiki:Main\\..*"));
+    }
+}
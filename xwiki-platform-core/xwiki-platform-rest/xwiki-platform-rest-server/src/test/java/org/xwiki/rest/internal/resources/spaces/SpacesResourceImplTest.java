@@ -0,0 +1,167 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal.resources.spaces;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import javax.inject.Provider;
+import javax.ws.rs.core.UriInfo;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.model.reference.SpaceReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.query.QueryManager;
+import org.xwiki.rest.internal.ModelFactory;
+import org.xwiki.rest.model.jaxb.Space;
+import org.xwiki.rest.model.jaxb.Spaces;
+import org.xwiki.rest.resources.spaces.SpacesResource;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.api.Document;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.web.Utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SpacesResourceImpl}.
+ *
+ * @version $Id$
+ */
+public class SpacesResourceImplTest
+{
+    @Rule
+    public MockitoComponentMockingRule<SpacesResource> mocker =
+        new MockitoComponentMockingRule<>(SpacesResourceImpl.class);
+
+    private URI baseUri = URI.create("http://localhost/xwiki/rest");
+
+    private XWikiContext xcontext;
+
+    private ComponentManager componentManager;
+
+    @BeforeComponent
+    public void registerComponents() throws Exception
+    {
+        this.xcontext = mock(XWikiContext.class);
+
+        // Used by XWikiResource#initialize()
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.setProperty("xwikicontext", this.xcontext);
+        Execution execution = mock(Execution.class);
+        when(execution.getContext()).thenReturn(executionContext);
+        this.componentManager = this.mocker.registerMockComponent(ComponentManager.class, "context");
+        when(this.componentManager.getInstance(Execution.class)).thenReturn(execution);
+
+        Provider<XWikiContext> xcontextProvider = this.mocker.registerMockComponent(XWikiContext.TYPE_PROVIDER);
+        when(xcontextProvider.get()).thenReturn(this.xcontext);
+
+        // Used by Utils#getSpacesFromSpaceId(String)
+        Utils.setComponentManager(this.mocker);
+        SpaceReferenceResolver<String> spaceResolver =
+            this.mocker.registerMockComponent(SpaceReferenceResolver.TYPE_STRING);
+        WikiReference wikiReference = new WikiReference("whatever");
+        when(spaceResolver.resolve("Main", wikiReference)).thenReturn(new SpaceReference("Main", wikiReference));
+        when(spaceResolver.resolve("Secret", wikiReference)).thenReturn(new SpaceReference("Secret", wikiReference));
+        when(spaceResolver.resolve("A.B", wikiReference))
+            .thenReturn(new SpaceReference("B", new SpaceReference("A", wikiReference)));
+    }
+
+    @Before
+    public void configure() throws Exception
+    {
+        UriInfo uriInfo = mock(UriInfo.class);
+        when(uriInfo.getBaseUri()).thenReturn(this.baseUri);
+        FieldUtils.writeField(this.mocker.getComponentUnderTest(), "uriInfo", uriInfo, true);
+
+        QueryFilter hiddenFilter = mock(QueryFilter.class);
+        when(this.componentManager.<QueryFilter>getInstance(QueryFilter.class, "hidden")).thenReturn(hiddenFilter);
+        Query query = mock(Query.class);
+        QueryManager queryManager = this.mocker.getInstance(QueryManager.class);
+        when(queryManager.getNamedQuery("getSpaces")).thenReturn(query);
+        when(query.addFilter(hiddenFilter)).thenReturn(query);
+        when(query.setOffset(anyInt())).thenReturn(query);
+        when(query.setLimit(anyInt())).thenReturn(query);
+        when(query.setWiki(anyString())).thenReturn(query);
+        when(query.<String>execute()).thenReturn(Arrays.asList("Main", "Secret", "A.B"));
+    }
+
+    @Test
+    public void getSpaces() throws Exception
+    {
+        DocumentReference mainHome = new DocumentReference("wiki", "Main", "WebHome");
+        DocumentReference secretHome = new DocumentReference("wiki", "Secret", "WebHome");
+        DocumentReference nestedHome = new DocumentReference("wiki", Arrays.asList("A", "B"), "WebHome");
+        ModelFactory factory = this.mocker.getInstance(ModelFactory.class);
+        when(factory.getViewableReferences(Arrays.asList(mainHome, secretHome, nestedHome)))
+            .thenReturn(new HashSet<EntityReference>(Arrays.asList(mainHome, nestedHome)));
+
+        XWiki xwiki = mock(XWiki.class);
+        when(this.xcontext.getWiki()).thenReturn(xwiki);
+        XWikiDocument mainHomeDocument = mock(XWikiDocument.class);
+        when(xwiki.getDocument(mainHome, this.xcontext)).thenReturn(mainHomeDocument);
+        Document mainHomeApiDocument = mock(Document.class);
+        when(mainHomeDocument.newDocument(this.xcontext)).thenReturn(mainHomeApiDocument);
+        // The home page of the nested space doesn't exist.
+        XWikiDocument nestedHomeDocument = mock(XWikiDocument.class);
+        when(nestedHomeDocument.isNew()).thenReturn(true);
+        when(xwiki.getDocument(nestedHome, this.xcontext)).thenReturn(nestedHomeDocument);
+
+        Space main = new Space();
+        when(factory.toRestSpace(this.baseUri, "wiki", Collections.singletonList("Main"), mainHomeApiDocument))
+            .thenReturn(main);
+        Space nested = new Space();
+        when(factory.toRestSpace(this.baseUri, "wiki", Arrays.asList("A", "B"), null)).thenReturn(nested);
+
+        Spaces spaces = this.mocker.getComponentUnderTest().getSpaces("wiki", 0, -1);
+
+        assertEquals(Arrays.asList(main, nested), spaces.getSpaces());
+        // The spaces that can't be viewed are not loaded.
+        verify(xwiki, never()).getDocument(secretHome, this.xcontext);
+        verify(factory, never()).toRestSpace(any(URI.class), anyString(),
+            eq(Collections.singletonList("Secret")), isNull());
+    }
+}
@@ -104,6 +104,27 @@ public class DefaultSolrConfiguration implements SolrConfiguration
      */
     public static final int SOLR_INDEXER_QUEUE_CAPACITY_DEFAULT = 100000;
 
+    /**
+     * The name of the configuration property containing the number of extraction threads.
+     */
+    public static final String SOLR_INDEXER_EXTRACTION_THREADS_PROPERTY = "solr.indexer.extraction.threads";
+
+    /**
+     * The default number of extraction threads.
+     */
+    public static final int SOLR_INDEXER_EXTRACTION_THREADS_DEFAULT = 1;
+
+    /**
+     * The name of the configuration property containing the maximum number of extracted documents waiting to be sent.
+     */
+    public static final String SOLR_INDEXER_EXTRACTION_QUEUE_CAPACITY_PROPERTY =
+        "solr.indexer.extraction.queue.capacity";
+
+    /**
+     * The default maximum number of extracted documents waiting to be sent.
+     */
+    public static final int SOLR_INDEXER_EXTRACTION_QUEUE_CAPACITY_DEFAULT = 100;
+
     /**
      * The name of the configuration property indicating if a synchronization should be run at startup.
      */
@@ -160,6 +181,20 @@ public int getIndexerQueueCapacity()
             .getProperty(SOLR_INDEXER_QUEUE_CAPACITY_PROPERTY, SOLR_INDEXER_QUEUE_CAPACITY_DEFAULT);
     }
 
+    @Override
+    public int getIndexerExtractionThreads()
+    {
+        return this.configuration.getProperty(SOLR_INDEXER_EXTRACTION_THREADS_PROPERTY,
+            SOLR_INDEXER_EXTRACTION_THREADS_DEFAULT);
+    }
+
+    @Override
+    public int getIndexerExtractionQueueCapacity()
+    {
+        return this.configuration.getProperty(SOLR_INDEXER_EXTRACTION_QUEUE_CAPACITY_PROPERTY,
+            SOLR_INDEXER_EXTRACTION_QUEUE_CAPACITY_DEFAULT);
+    }
+
     @Override
     public boolean synchronizeAtStartup()
     {
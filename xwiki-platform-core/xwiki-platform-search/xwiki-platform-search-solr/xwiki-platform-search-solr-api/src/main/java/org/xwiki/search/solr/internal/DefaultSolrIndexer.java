@@ -19,14 +19,24 @@
  */
 package org.xwiki.search.solr.internal;
 
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.solr.common.SolrInputDocument;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
@@ -48,6 +58,7 @@
 import org.xwiki.search.solr.internal.api.SolrConfiguration;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
 import org.xwiki.search.solr.internal.api.SolrIndexerException;
+import org.xwiki.search.solr.internal.api.SolrIndexerStatistics;
 import org.xwiki.search.solr.internal.api.SolrInstance;
 import org.xwiki.search.solr.internal.job.IndexerJob;
 import org.xwiki.search.solr.internal.job.IndexerRequest;
@@ -62,7 +73,9 @@
  * <p>
  * This implementation does not directly process the given leaf-references, but adds them to a processing queue, in the
  * order they were received. The {@link Runnable} part of this implementation is the one that sequentially reads and
- * processes the queue.
+ * processes the queue. The extraction of the Solr documents is delegated to a pool of threads (see
+ * {@link SolrConfiguration#getIndexerExtractionThreads()}) but the result is sent to the Solr server in the order of
+ * the queue.
  * 
  * @version $Id$
  * @since 5.1M2
@@ -97,6 +110,11 @@ public class DefaultSolrIndexer implements SolrIndexer, Initializable, Disposabl
          */
         public IndexOperation operation;
 
+        /**
+         * Completed when the {@link IndexOperation#FLUSH} operation is reached.
+         */
+        public CompletableFuture<Void> flushed;
+
         /**
          * @param indexReference the reference of the entity to index.
          * @param operation the indexing operation to perform.
@@ -117,6 +135,15 @@ public IndexQueueEntry(String deleteQuery, IndexOperation operation)
             this.operation = operation;
         }
 
+        /**
+         * @param flushed completed when all the previous operations have been processed
+         */
+        public IndexQueueEntry(CompletableFuture<Void> flushed)
+        {
+            this.flushed = flushed;
+            this.operation = IndexOperation.FLUSH;
+        }
+
         @Override
         public String toString()
         {
@@ -132,6 +159,9 @@ public String toString()
                 case STOP:
                     str = "STOP";
                     break;
+                case FLUSH:
+                    str = "FLUSH";
+                    break;
                 default:
                     str = "";
                     break;
@@ -141,6 +171,34 @@ public String toString()
         }
     }
 
+    /**
+     * An index queue entry being processed.
+     * 
+     * @version $Id$
+     */
+    private static class PendingEntry
+    {
+        /**
+         * The index queue entry.
+         */
+        public final IndexQueueEntry entry;
+
+        /**
+         * The extraction of the Solr document (only for {@link IndexOperation#INDEX} operations).
+         */
+        public final Future<LengthSolrInputDocument> document;
+
+        /**
+         * @param entry the index queue entry
+         * @param document the extraction of the Solr document
+         */
+        PendingEntry(IndexQueueEntry entry, Future<LengthSolrInputDocument> document)
+        {
+            this.entry = entry;
+            this.document = document;
+        }
+    }
+
     /**
      * Resolve queue entry.
      * 
@@ -163,6 +221,11 @@ public String toString()
          */
         public IndexOperation operation;
 
+        /**
+         * Completed when the {@link IndexOperation#FLUSH} operation is reached.
+         */
+        public CompletableFuture<Void> flushed;
+
         /**
          * @param reference the reference of the entity to index.
          * @param recurse also apply operation to reference children.
@@ -174,6 +237,15 @@ public ResolveQueueEntry(EntityReference reference, boolean recurse, IndexOperat
             this.recurse = recurse;
             this.operation = operation;
         }
+
+        /**
+         * @param flushed completed when all the previous operations have been processed
+         */
+        public ResolveQueueEntry(CompletableFuture<Void> flushed)
+        {
+            this.flushed = flushed;
+            this.operation = IndexOperation.FLUSH;
+        }
     }
 
     /**
@@ -205,7 +277,9 @@ public void runInternal()
                 }
 
                 try {
-                    if (queueEntry.operation == IndexOperation.INDEX) {
+                    if (queueEntry.operation == IndexOperation.FLUSH) {
+                        indexQueue.put(new IndexQueueEntry(queueEntry.flushed));
+                    } else if (queueEntry.operation == IndexOperation.INDEX) {
                         Iterable<EntityReference> references;
                         if (queueEntry.recurse) {
                             references = solrRefereceResolver.getReferences(queueEntry.reference);
@@ -215,6 +289,7 @@ public void runInternal()
 
                         for (EntityReference reference : references) {
                             indexQueue.put(new IndexQueueEntry(reference, queueEntry.operation));
+                            statistics.onResolved();
                         }
                     } else {
                         if (queueEntry.recurse) {
@@ -305,6 +380,21 @@ public void runInternal()
      */
     private Thread resolveThread;
 
+    /**
+     * The threads in which the Solr documents are extracted.
+     */
+    private ExecutorService extractionExecutor;
+
+    /**
+     * The maximum number of index queue entries being processed at the same time.
+     */
+    private int extractionQueueCapacity;
+
+    /**
+     * The counters of the work done by each stage.
+     */
+    private SolrIndexerStatistics statistics;
+
     /**
      * Indicate of the component has been disposed.
      */
@@ -315,6 +405,21 @@ public void runInternal()
      */
     private volatile int batchSize;
 
+    /**
+     * The length of the not yet sent batch.
+     */
+    private int batchLength;
+
+    /**
+     * The number of index queue entries being processed.
+     */
+    private volatile int pendingSize;
+
+    /**
+     * The flush requests not yet completed.
+     */
+    private final Set<CompletableFuture<Void>> flushes = ConcurrentHashMap.newKeySet();
+
     @Override
     public void initialize() throws InitializationException
     {
@@ -322,6 +427,15 @@ public void initialize() throws InitializationException
         this.resolveQueue = new LinkedBlockingQueue<>();
         this.indexQueue = new LinkedBlockingQueue<>(this.configuration.getIndexerQueueCapacity());
 
+        // Initialize the extraction threads
+        int extractionThreads = Math.max(1, this.configuration.getIndexerExtractionThreads());
+        this.extractionQueueCapacity =
+            Math.max(extractionThreads, this.configuration.getIndexerExtractionQueueCapacity());
+        this.statistics = new SolrIndexerStatistics(extractionThreads);
+        this.extractionExecutor = Executors.newFixedThreadPool(extractionThreads,
+            new BasicThreadFactory.Builder().namingPattern("XWiki Solr extraction thread %d").daemon(true)
+                .priority(Thread.NORM_PRIORITY - 1).build());
+
         // Launch the resolve thread
         this.resolveThread = new Thread(new Resolver());
         this.resolveThread.setName("XWiki Solr resolve thread");
@@ -354,6 +468,11 @@ public void dispose() throws ComponentLifecycleException
         // the index queue was full) and just one entry will be added to the queue before the special stop entry.
         this.indexQueue.clear();
         this.indexQueue.offer(INDEX_QUEUE_ENTRY_STOP);
+
+        // The queued flush requests will never be reached
+        for (CompletableFuture<Void> flushed : this.flushes) {
+            flushed.cancel(false);
+        }
     }
 
     @Override
@@ -379,6 +498,9 @@ public void run()
             }
         }
 
+        // Stop the extraction threads (the current extractions are finished but their result is discarded)
+        this.extractionExecutor.shutdown();
+
         this.logger.debug("Stop SOLR indexer thread");
     }
 
@@ -393,56 +515,137 @@ private boolean processBatch(IndexQueueEntry queueEntry)
     {
         SolrInstance solrInstance = this.solrInstanceProvider.get();
 
-        int length = 0;
+        // The entries being processed, in the order of the queue
+        Deque<PendingEntry> pendingEntries = new ArrayDeque<>();
 
         for (IndexQueueEntry batchEntry = queueEntry; batchEntry != null; batchEntry = this.indexQueue.poll()) {
             if (batchEntry == INDEX_QUEUE_ENTRY_STOP) {
                 // Discard the current batch and stop the indexing thread.
+                this.pendingSize = 0;
+                for (PendingEntry pendingEntry : pendingEntries) {
+                    if (pendingEntry.document != null) {
+                        pendingEntry.document.cancel(false);
+                    }
+                }
+
                 return false;
             }
 
-            IndexOperation operation = batchEntry.operation;
+            // Start the extraction of the document in the background
+            Future<LengthSolrInputDocument> document = null;
+            if (IndexOperation.INDEX.equals(batchEntry.operation)) {
+                EntityReference reference = batchEntry.reference;
+                document = this.extractionExecutor.submit(() -> extractSolrDocument(reference));
+            }
+            pendingEntries.add(new PendingEntry(batchEntry, document));
+            this.pendingSize = pendingEntries.size();
+
+            // Limit the memory used by the extracted documents not yet sent
+            while (pendingEntries.size() >= this.extractionQueueCapacity) {
+                processEntry(pendingEntries.poll(), solrInstance);
+                this.pendingSize = pendingEntries.size();
+            }
+        }
 
-            // For the current contiguous operations queue, group the changes
-            try {
+        // Send what's left
+        while (!pendingEntries.isEmpty()) {
+            processEntry(pendingEntries.poll(), solrInstance);
+            this.pendingSize = pendingEntries.size();
+        }
+
+        // Commit what's left
+        if (this.batchSize > 0) {
+            commit();
+        }
+
+        return true;
+    }
+
+    /**
+     * Send an operation to the Solr server, waiting for the document extraction to be finished if needed. This method
+     * also commits the batch when it's big enough.
+     * 
+     * @param pendingEntry the operation to send
+     * @param solrInstance the Solr server
+     */
+    private void processEntry(PendingEntry pendingEntry, SolrInstance solrInstance)
+    {
+        IndexQueueEntry batchEntry = pendingEntry.entry;
+        IndexOperation operation = batchEntry.operation;
+
+        // For the current contiguous operations queue, group the changes
+        try {
+            if (IndexOperation.INDEX.equals(operation)) {
+                LengthSolrInputDocument solrDocument = pendingEntry.document.get();
+                if (solrDocument != null) {
+                    solrInstance.add(solrDocument);
+                    this.batchLength += solrDocument.getLength();
+                    ++this.batchSize;
+                    this.statistics.onAdded();
+                }
+            } else if (IndexOperation.FLUSH.equals(operation)) {
+                // All the previous operations have been sent, make sure they are committed
+                if (this.batchSize > 0) {
+                    commit();
+                }
+                batchEntry.flushed.complete(null);
+            } else if (IndexOperation.DELETE.equals(operation)) {
                 this.ecim.initialize(new ExecutionContext());
 
-                if (IndexOperation.INDEX.equals(operation)) {
-                    LengthSolrInputDocument solrDocument = getSolrDocument(batchEntry.reference);
-                    if (solrDocument != null) {
-                        solrInstance.add(solrDocument);
-                        length += solrDocument.getLength();
-                        ++this.batchSize;
-                    }
-                } else if (IndexOperation.DELETE.equals(operation)) {
+                try {
                     if (batchEntry.reference == null) {
                         solrInstance.deleteByQuery(batchEntry.deleteQuery);
                     } else {
                         solrInstance.delete(this.solrRefereceResolver.getId(batchEntry.reference));
                     }
-
-                    ++this.batchSize;
+                } finally {
+                    this.execution.removeContext();
                 }
-            } catch (Throwable e) {
-                this.logger.error("Failed to process entry [{}]", batchEntry, e);
-            } finally {
-                this.execution.removeContext();
-            }
 
-            // Commit the index changes so that they become available to queries. This is a costly operation and that is
-            // the reason why we perform it at the end of the batch.
-            if (shouldCommit(length, this.batchSize)) {
-                commit();
-                length = 0;
+                ++this.batchSize;
+                this.statistics.onDeleted();
             }
+        } catch (InterruptedException e) {
+            this.logger.warn("The SOLR index thread has been interrupted", e);
+
+            // Stop the indexing thread
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            this.statistics.onFailed();
+            this.logger.error("Failed to process entry [{}]", batchEntry, e.getCause());
+        } catch (Throwable e) {
+            this.statistics.onFailed();
+            this.logger.error("Failed to process entry [{}]", batchEntry, e);
         }
 
-        // Commit what's left
-        if (this.batchSize > 0) {
+        // Commit the index changes so that they become available to queries. This is a costly operation and that is
+        // the reason why we perform it at the end of the batch.
+        if (shouldCommit(this.batchLength, this.batchSize)) {
             commit();
         }
+    }
 
-        return true;
+    /**
+     * Called from the extraction threads.
+     * 
+     * @param reference the reference to extract metadata from
+     * @return the {@link SolrInputDocument} containing extracted metadata from the passed reference; {@code null} if
+     *         the reference type is not supported.
+     * @throws Exception when failing to extract the document
+     */
+    private LengthSolrInputDocument extractSolrDocument(EntityReference reference) throws Exception
+    {
+        long start = System.nanoTime();
+
+        this.ecim.initialize(new ExecutionContext());
+
+        try {
+            return getSolrDocument(reference);
+        } finally {
+            this.execution.removeContext();
+
+            this.statistics.onExtracted(System.nanoTime() - start);
+        }
     }
 
     /**
@@ -452,8 +655,11 @@ private void commit()
     {
         SolrInstance solrInstance = this.solrInstanceProvider.get();
 
+        long start = System.nanoTime();
         try {
             solrInstance.commit();
+
+            this.statistics.onCommitted(System.nanoTime() - start);
         } catch (Exception e) {
             this.logger.error("Failed to commit index changes to the Solr server. Rolling back.", e);
 
@@ -466,6 +672,7 @@ private void commit()
         }
 
         this.batchSize = 0;
+        this.batchLength = 0;
     }
 
     /**
@@ -554,10 +761,39 @@ private void addToQueue(EntityReference reference, boolean recurse, IndexOperati
         }
     }
 
+    @Override
+    public Future<Void> flush()
+    {
+        CompletableFuture<Void> flushed = new CompletableFuture<>();
+
+        if (this.disposed) {
+            flushed.cancel(false);
+        } else {
+            this.flushes.add(flushed);
+            flushed.whenComplete((result, error) -> this.flushes.remove(flushed));
+
+            // Don't block because the capacity of the resolver queue is not limited.
+            try {
+                this.resolveQueue.put(new ResolveQueueEntry(flushed));
+            } catch (InterruptedException e) {
+                flushed.cancel(false);
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        return flushed;
+    }
+
     @Override
     public int getQueueSize()
     {
-        return this.indexQueue.size() + this.resolveQueue.size() + this.batchSize;
+        return this.indexQueue.size() + this.resolveQueue.size() + this.pendingSize + this.batchSize;
+    }
+
+    @Override
+    public SolrIndexerStatistics getStatistics()
+    {
+        return this.statistics;
     }
 
     @Override
@@ -42,5 +42,12 @@
     /**
      * Stop indexing thread.
      */
-    STOP
+    STOP,
+
+    /**
+     * Notify that all the previously queued operations have been processed.
+     * 
+     * @since 9.7RC1
+     */
+    FLUSH
 }
@@ -89,6 +89,8 @@ public void onEvent(Event event, Object source, Object data)
             // Start synchronization
             IndexerRequest request = new IndexerRequest();
             request.setId(Arrays.asList("solr", "indexer"));
+            // Continue the synchronization interrupted by the restart, if any
+            request.setResume(true);
 
             try {
                 this.solrIndexer.get().startIndex(request);
@@ -73,6 +73,18 @@
      */
     int getIndexerQueueCapacity();
 
+    /**
+     * @return the number of threads extracting in parallel the Solr documents to index
+     * @since 9.7RC1
+     */
+    int getIndexerExtractionThreads();
+
+    /**
+     * @return the maximum number of Solr documents extracted and waiting to be sent to the Solr server
+     * @since 9.7RC1
+     */
+    int getIndexerExtractionQueueCapacity();
+
     /**
      * @return true if a full synchronization job between the database and SOLR index should be run when XWiki starts
      * @since 6.1M2
@@ -19,6 +19,8 @@
  */
 package org.xwiki.search.solr.internal.api;
 
+import java.util.concurrent.Future;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.search.solr.internal.job.IndexerJob;
@@ -55,11 +57,26 @@
      */
     void delete(EntityReference reference, boolean recurse);
 
+    /**
+     * Wait for the entities which are currently in the queue to be processed.
+     * 
+     * @return a future completed once all the operations queued before this call have been sent and committed to the
+     *         Solr server, cancelled if the indexer is stopped before that
+     * @since 9.7RC1
+     */
+    Future<Void> flush();
+
     /**
      * @return the number of element in the index/delete queue
      */
     int getQueueSize();
 
+    /**
+     * @return the counters of the work done by each indexing stage
+     * @since 9.7RC1
+     */
+    SolrIndexerStatistics getStatistics();
+
     /**
      * Start an indexing with specific criteria.
      * 
@@ -0,0 +1,193 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the work done by each stage of the {@link SolrIndexer} since it started: resolution of the references to
+ * index, extraction of the Solr documents (loading and rendering of the entity, extraction of attachments content,
+ * etc.) and sending/commit to the Solr server.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public class SolrIndexerStatistics
+{
+    private final int extractionThreads;
+
+    private final AtomicLong resolved = new AtomicLong();
+
+    private final AtomicLong extracted = new AtomicLong();
+
+    private final AtomicLong extractionTime = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong added = new AtomicLong();
+
+    private final AtomicLong deleted = new AtomicLong();
+
+    private final AtomicLong commits = new AtomicLong();
+
+    private final AtomicLong commitTime = new AtomicLong();
+
+    /**
+     * @param extractionThreads the number of threads extracting documents in parallel
+     */
+    public SolrIndexerStatistics(int extractionThreads)
+    {
+        this.extractionThreads = extractionThreads;
+    }
+
+    /**
+     * Indicate that an entity has been resolved and is waiting to be indexed or deleted.
+     */
+    public void onResolved()
+    {
+        this.resolved.incrementAndGet();
+    }
+
+    /**
+     * @param time the time (in nanoseconds) spent extracting a Solr document
+     */
+    public void onExtracted(long time)
+    {
+        this.extracted.incrementAndGet();
+        this.extractionTime.addAndGet(time);
+    }
+
+    /**
+     * Indicate that an operation failed.
+     */
+    public void onFailed()
+    {
+        this.failed.incrementAndGet();
+    }
+
+    /**
+     * Indicate that a document has been sent to the Solr server.
+     */
+    public void onAdded()
+    {
+        this.added.incrementAndGet();
+    }
+
+    /**
+     * Indicate that a delete operation has been sent to the Solr server.
+     */
+    public void onDeleted()
+    {
+        this.deleted.incrementAndGet();
+    }
+
+    /**
+     * @param time the time (in nanoseconds) spent committing a batch
+     */
+    public void onCommitted(long time)
+    {
+        this.commits.incrementAndGet();
+        this.commitTime.addAndGet(time);
+    }
+
+    /**
+     * @return the number of threads extracting documents in parallel
+     */
+    public int getExtractionThreads()
+    {
+        return this.extractionThreads;
+    }
+
+    /**
+     * @return the number of entities resolved and added to the queue of entities to index or delete
+     */
+    public long getResolvedCount()
+    {
+        return this.resolved.get();
+    }
+
+    /**
+     * @return the number of Solr documents extracted
+     */
+    public long getExtractedCount()
+    {
+        return this.extracted.get();
+    }
+
+    /**
+     * @return the total time (in milliseconds) spent extracting Solr documents, cumulated over all the extraction
+     *         threads
+     */
+    public long getExtractionTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.extractionTime.get());
+    }
+
+    /**
+     * @return the number of operations which failed
+     */
+    public long getFailedCount()
+    {
+        return this.failed.get();
+    }
+
+    /**
+     * @return the number of documents sent to the Solr server
+     */
+    public long getAddedCount()
+    {
+        return this.added.get();
+    }
+
+    /**
+     * @return the number of delete operations sent to the Solr server
+     */
+    public long getDeletedCount()
+    {
+        return this.deleted.get();
+    }
+
+    /**
+     * @return the number of batches committed
+     */
+    public long getCommitCount()
+    {
+        return this.commits.get();
+    }
+
+    /**
+     * @return the total time (in milliseconds) spent committing batches
+     */
+    public long getCommitTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.commitTime.get());
+    }
+
+    /**
+     * @return the average number of documents extracted per second by all the extraction threads when busy
+     */
+    public double getExtractionThroughput()
+    {
+        long time = this.extractionTime.get();
+
+        return time > 0 ? this.extracted.get() * this.extractionThreads * 1e9 / time : 0;
+    }
+}
@@ -22,6 +22,7 @@
 import javax.inject.Inject;
 
 import org.slf4j.Logger;
+import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 
 /**
@@ -49,6 +50,11 @@
      */
     protected EntityReference rootReference;
 
+    /**
+     * The last document which has already been iterated. If {@code null} then the iteration starts from the beginning.
+     */
+    protected DocumentReference startReference;
+
     @Override
     public void remove()
     {
@@ -60,4 +66,10 @@ public void setRootReference(EntityReference rootReference)
     {
         this.rootReference = rootReference;
     }
+
+    @Override
+    public void setStartReference(DocumentReference startReference)
+    {
+        this.startReference = startReference;
+    }
 }
@@ -22,9 +22,11 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -111,11 +113,21 @@ public class DatabaseDocumentIterator extends AbstractDocumentIterator<String>
      */
     private Query query;
 
+    /**
+     * The query used to fetch the documents located after the start reference in the first wiki.
+     */
+    private Query startQuery;
+
     /**
      * The query used to count the documents from the database.
      */
     private Query countQuery;
 
+    /**
+     * The date of the oldest modification to take into account.
+     */
+    private Date since;
+
     /**
      * The query filter used to count the documents from the database.
      */
@@ -123,6 +135,17 @@ public class DatabaseDocumentIterator extends AbstractDocumentIterator<String>
     @Named("count")
     private QueryFilter countFilter;
 
+    /**
+     * Limit the iterator to the documents modified since the specified date.
+     * 
+     * @param since the date of the oldest modification to take into account, {@code null} for all the documents
+     * @since 9.7RC1
+     */
+    public void setSince(Date since)
+    {
+        this.since = since;
+    }
+
     @Override
     public boolean hasNext()
     {
@@ -199,7 +222,8 @@ private void fetchNextResults()
             // We use basic pagination (absolute offset) because we don't expect the database to change too much while
             // the synchronization takes place. Also, the database is used as the reference store, meaning that we
             // update the Solr index to match the database, not the other way around.
-            results = getQuery().setWiki(wiki).setOffset(offset).execute();
+            Query wikiQuery = isStartWiki() ? getStartQuery() : getQuery();
+            results = wikiQuery.setWiki(wiki).setOffset(offset).execute();
             offset += LIMIT;
         } catch (QueryException e) {
             results = Collections.emptyList();
@@ -225,13 +249,18 @@ private Query getQuery() throws QueryException
                 documentReference = rootReference.extractReference(EntityType.DOCUMENT);
             }
 
-            String whereClause = "";
+            List<String> constraints = new ArrayList<>();
             if (spaceReference != null) {
-                whereClause += " where doc.space = :space";
+                constraints.add("doc.space = :space");
                 if (documentReference != null) {
-                    whereClause += " and doc.name = :name";
+                    constraints.add("doc.name = :name");
                 }
             }
+            if (this.since != null) {
+                constraints.add("doc.date >= :since");
+            }
+
+            String whereClause = constraints.isEmpty() ? "" : " where " + StringUtils.join(constraints, " and ");
 
             query = queryManager.createQuery(select + whereClause + orderBy, Query.HQL).setLimit(LIMIT);
             countQuery = queryManager.createQuery(whereClause, Query.HQL).addFilter(countFilter);
@@ -242,6 +271,9 @@ private Query getQuery() throws QueryException
                     query.bindValue("name", documentReference.getName());
                 }
             }
+            if (this.since != null) {
+                query.bindValue("since", this.since);
+            }
 
             for (Map.Entry<String, Object> parameter : query.getNamedParameters().entrySet()) {
                 countQuery.bindValue(parameter.getKey(), parameter.getValue());
@@ -250,6 +282,49 @@ private Query getQuery() throws QueryException
         return query;
     }
 
+    /**
+     * @return {@code true} if the current wiki is the one containing the start reference
+     */
+    private boolean isStartWiki()
+    {
+        return startReference != null && startReference.getWikiReference().getName().equals(wiki);
+    }
+
+    /**
+     * @return the query used to fetch the documents located after the start reference
+     * @throws QueryException if creating the query fails
+     */
+    private Query getStartQuery() throws QueryException
+    {
+        if (startQuery == null) {
+            String statement = getQuery().getStatement();
+            String startLanguage = startReference.getLocale() != null ? startReference.getLocale().toString() : "";
+            // The default language is stored as an empty string, which Oracle stores as NULL so it can't be compared
+            // with: any translation comes after the default language and has a non empty language.
+            String languageConstraint =
+                startLanguage.isEmpty() ? "length(doc.language) > 0" : "doc.language > :startLanguage";
+            // Same order as the main query: (space, name, language) must be strictly greater than the start reference.
+            String constraint = "(doc.space > :startSpace or (doc.space = :startSpace and (doc.name > :startName"
+                + " or (doc.name = :startName and " + languageConstraint + "))))";
+            int orderByIndex = statement.indexOf(" order by ");
+            String select = statement.substring(0, orderByIndex);
+            select += select.contains(" where ") ? " and " + constraint : " where " + constraint;
+
+            startQuery = queryManager.createQuery(select + statement.substring(orderByIndex), Query.HQL)
+                .setLimit(LIMIT);
+            for (Map.Entry<String, Object> parameter : query.getNamedParameters().entrySet()) {
+                startQuery.bindValue(parameter.getKey(), parameter.getValue());
+            }
+            startQuery.bindValue("startSpace",
+                this.localEntityReferenceSerializer.serialize(startReference.getLastSpaceReference()));
+            startQuery.bindValue("startName", startReference.getName());
+            if (!startLanguage.isEmpty()) {
+                startQuery.bindValue("startLanguage", startLanguage);
+            }
+        }
+        return startQuery;
+    }
+
     /**
      * @return the next wiki, in alphabetical order
      */
@@ -258,6 +333,11 @@ private String getNextWiki()
         if (wikisIterator == null) {
             List<String> wikis = getWikis();
             Collections.sort(wikis);
+            if (startReference != null) {
+                // Skip the wikis which have already been iterated.
+                String startWiki = startReference.getWikiReference().getName();
+                wikis = wikis.stream().filter(wikiId -> wikiId.compareTo(startWiki) >= 0).collect(Collectors.toList());
+            }
             wikisIterator = wikis.iterator();
         }
         return wikisIterator.hasNext() ? wikisIterator.next() : null;
@@ -101,6 +101,13 @@ public void setRootReference(EntityReference rootReference)
         next.setRootReference(rootReference);
     }
 
+    @Override
+    public void setStartReference(DocumentReference startReference)
+    {
+        previous.setStartReference(startReference);
+        next.setStartReference(startReference);
+    }
+
     @Override
     public boolean hasNext()
     {
@@ -45,6 +45,16 @@
      */
     void setRootReference(EntityReference rootReference);
 
+    /**
+     * Skip the documents located before the specified document (included) in the iteration order. Used to resume an
+     * interrupted iteration.
+     * 
+     * @param startReference the last document which has already been iterated, {@code null} to start from the
+     *            beginning
+     * @since 9.7RC1
+     */
+    void setStartReference(DocumentReference startReference);
+
     /**
      * @return estimate the size of the iterated store for showing progress information
      */
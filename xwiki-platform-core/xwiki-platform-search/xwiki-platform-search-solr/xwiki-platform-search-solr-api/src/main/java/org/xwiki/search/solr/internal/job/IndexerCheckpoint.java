@@ -0,0 +1,178 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.job;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.Properties;
+
+/**
+ * The progress of the {@link IndexerJob}s, stored in a file so that it survives a restart: the last document processed
+ * by an interrupted synchronization (per root reference) and the date at which each wiki has been entirely synchronized
+ * for the last time (the watermark used by incremental synchronizations).
+ * 
+ * @version $Id$
+ * @since 9.7RC1
+ */
+public class IndexerCheckpoint
+{
+    private static final String FARM = "farm";
+
+    private static final String DOCUMENT_SUFFIX = ".document";
+
+    private static final String LOCALE_SUFFIX = ".locale";
+
+    private static final String STARTED_SUFFIX = ".started";
+
+    private static final String WATERMARK_PREFIX = "watermark.";
+
+    private final File file;
+
+    private final Properties properties = new Properties();
+
+    /**
+     * @param file the file where the checkpoint is stored
+     * @throws IOException when failing to read the existing checkpoint
+     */
+    public IndexerCheckpoint(File file) throws IOException
+    {
+        this.file = file;
+
+        if (file.exists()) {
+            try (InputStream stream = new FileInputStream(file)) {
+                this.properties.load(stream);
+            }
+        }
+    }
+
+    private String getKey(String root)
+    {
+        return root != null ? root : FARM;
+    }
+
+    /**
+     * @param root the serialized root reference of the synchronization, {@code null} for the whole farm
+     * @return the serialized reference (without locale) of the last document processed by the interrupted
+     *         synchronization, {@code null} if there is none
+     */
+    public String getDocument(String root)
+    {
+        return this.properties.getProperty(getKey(root) + DOCUMENT_SUFFIX);
+    }
+
+    /**
+     * @param root the serialized root reference of the synchronization, {@code null} for the whole farm
+     * @return the locale of the last document processed by the interrupted synchronization, empty for the default one
+     */
+    public String getLocale(String root)
+    {
+        return this.properties.getProperty(getKey(root) + LOCALE_SUFFIX, "");
+    }
+
+    /**
+     * @param root the serialized root reference of the synchronization, {@code null} for the whole farm
+     * @return the date at which the interrupted synchronization started, {@code null} if there is none
+     */
+    public Date getStarted(String root)
+    {
+        return getDate(getKey(root) + STARTED_SUFFIX);
+    }
+
+    /**
+     * Remember the last processed document.
+     * 
+     * @param root the serialized root reference of the synchronization, {@code null} for the whole farm
+     * @param document the serialized reference (without locale) of the last processed document
+     * @param locale the locale of the last processed document, empty for the default one
+     * @param started the date at which the synchronization started
+     */
+    public void setDocument(String root, String document, String locale, Date started)
+    {
+        String key = getKey(root);
+        this.properties.setProperty(key + DOCUMENT_SUFFIX, document);
+        this.properties.setProperty(key + LOCALE_SUFFIX, locale);
+        this.properties.setProperty(key + STARTED_SUFFIX, String.valueOf(started.getTime()));
+    }
+
+    /**
+     * Forget the progress of a synchronization, usually because it's finished.
+     * 
+     * @param root the serialized root reference of the synchronization, {@code null} for the whole farm
+     */
+    public void removeDocument(String root)
+    {
+        String key = getKey(root);
+        this.properties.remove(key + DOCUMENT_SUFFIX);
+        this.properties.remove(key + LOCALE_SUFFIX);
+        this.properties.remove(key + STARTED_SUFFIX);
+    }
+
+    /**
+     * @param wiki the identifier of the wiki
+     * @return the date at which the wiki has been entirely synchronized for the last time, {@code null} if never
+     */
+    public Date getWatermark(String wiki)
+    {
+        return getDate(WATERMARK_PREFIX + wiki);
+    }
+
+    /**
+     * @param wiki the identifier of the wiki
+     * @param watermark the date at which the last complete synchronization of the wiki started
+     */
+    public void setWatermark(String wiki, Date watermark)
+    {
+        this.properties.setProperty(WATERMARK_PREFIX + wiki, String.valueOf(watermark.getTime()));
+    }
+
+    private Date getDate(String key)
+    {
+        String value = this.properties.getProperty(key);
+
+        return value != null ? new Date(Long.parseLong(value)) : null;
+    }
+
+    /**
+     * Write the checkpoint in the file.
+     * 
+     * @throws IOException when failing to write the file
+     */
+    public void save() throws IOException
+    {
+        this.file.getParentFile().mkdirs();
+
+        // Write a temporary file first to not end up with a truncated checkpoint if the instance is stopped meanwhile
+        File temporaryFile = new File(this.file.getPath() + ".tmp");
+        try (OutputStream stream = new FileOutputStream(temporaryFile)) {
+            this.properties.store(stream, null);
+        }
+        if (!temporaryFile.renameTo(this.file)) {
+            this.file.delete();
+            if (!temporaryFile.renameTo(this.file)) {
+                throw new IOException("Failed to rename [" + temporaryFile + "] to [" + this.file + "]");
+            }
+        }
+    }
+}
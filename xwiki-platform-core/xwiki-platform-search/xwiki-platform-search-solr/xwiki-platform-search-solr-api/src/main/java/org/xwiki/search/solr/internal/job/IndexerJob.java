@@ -19,27 +19,47 @@
  */
 package org.xwiki.search.solr.internal.job;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.apache.commons.lang3.LocaleUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.environment.Environment;
 import org.xwiki.job.AbstractJob;
 import org.xwiki.job.DefaultJobStatus;
 import org.xwiki.job.GroupedJob;
 import org.xwiki.job.JobGroupPath;
 import org.xwiki.job.Request;
+import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
 import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
 import org.xwiki.search.solr.internal.job.DiffDocumentIterator.Action;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+import org.xwiki.wiki.manager.WikiManagerException;
 
 /**
  * Provide progress information and store logging of an advanced indexing.
+ * <p>
+ * The progress of the synchronization is regularly saved in a {@link IndexerCheckpoint} so that an interrupted
+ * synchronization can be resumed (see {@link IndexerRequest#isResume()}) and so that the next synchronizations can
+ * only look at the documents modified since the last complete one (see {@link IndexerRequest#isIncremental()}).
  * 
  * @version $Id$
  * @since 5.1RC1
@@ -60,6 +80,11 @@ public class IndexerJob extends AbstractJob<IndexerRequest, DefaultJobStatus<Ind
     // TODO: group indexers based on the IndexerRequest root entity
     private static final JobGroupPath GROUP = new JobGroupPath(Arrays.asList("solr", "indexer"));
 
+    /**
+     * The minimum number of documents to process between two saves of the checkpoint.
+     */
+    private static final int CHECKPOINT_INTERVAL = 100;
+
     /**
      * Used to send documents to index or delete to/from Solr index.
      */
@@ -74,6 +99,33 @@ public class IndexerJob extends AbstractJob<IndexerRequest, DefaultJobStatus<Ind
     @Named("solr")
     private transient DocumentIterator<String> solrIterator;
 
+    @Inject
+    private transient Environment environment;
+
+    @Inject
+    private transient WikiDescriptorManager wikiDescriptorManager;
+
+    @Inject
+    private transient EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    private transient DocumentReferenceResolver<String> resolver;
+
+    /**
+     * The progress of the synchronization, {@code null} if it could not be loaded.
+     */
+    private transient IndexerCheckpoint checkpoint;
+
+    /**
+     * The serialized root reference of the synchronization, {@code null} for the whole farm.
+     */
+    private transient String root;
+
+    /**
+     * The date at which the synchronization started (before the interruption when it's resumed).
+     */
+    private transient Date started;
+
     @Override
     public String getType()
     {
@@ -116,8 +168,35 @@ protected void runInternal() throws Exception
      */
     private void updateSolrIndex()
     {
-        DiffDocumentIterator<String> iterator = new DiffDocumentIterator<>(this.solrIterator, this.databaseIterator);
-        iterator.setRootReference(getRequest().getRootReference());
+        EntityReference rootReference = getRequest().getRootReference();
+        this.root = rootReference != null ? this.serializer.serialize(rootReference) : null;
+        this.checkpoint = loadCheckpoint();
+        this.started = new Date();
+
+        DocumentReference startReference = null;
+        if (getRequest().isResume() && this.checkpoint != null && this.checkpoint.getDocument(this.root) != null) {
+            startReference = this.resolver.resolve(this.checkpoint.getDocument(this.root));
+            String locale = this.checkpoint.getLocale(this.root);
+            if (!locale.isEmpty()) {
+                startReference = new DocumentReference(startReference, LocaleUtils.toLocale(locale));
+            }
+            this.started = this.checkpoint.getStarted(this.root);
+            this.logger.info("Resume the synchronization of the Solr index after document [{}].", startReference);
+        }
+
+        DiffDocumentIterator<String> iterator;
+        Date since = getSince(rootReference);
+        if (since != null) {
+            // Only index the documents modified since the given date. We can't compare them with the Solr index
+            // (which would require iterating all of it) so they are all considered as new.
+            this.logger.info("Index documents in [{}] modified since [{}].", rootReference, since);
+            ((DatabaseDocumentIterator) this.databaseIterator).setSince(since);
+            iterator = new DiffDocumentIterator<>(new EmptyDocumentIterator(), this.databaseIterator);
+        } else {
+            iterator = new DiffDocumentIterator<>(this.solrIterator, this.databaseIterator);
+        }
+        iterator.setRootReference(rootReference);
+        iterator.setStartReference(startReference);
 
         this.progressManager.pushLevelProgress(2, this);
 
@@ -136,6 +215,122 @@ private void updateSolrIndex()
         } finally {
             this.progressManager.popLevelProgress(this);
         }
+
+        // The synchronization is complete only once all the queued documents have been indexed, otherwise the
+        // documents still in the queue would be lost if the instance is stopped.
+        if (this.checkpoint != null && waitForIndexer()) {
+            this.checkpoint.removeDocument(this.root);
+            if (rootReference == null || rootReference.getType() == EntityType.WIKI) {
+                for (String wiki : getWikis(rootReference)) {
+                    this.checkpoint.setWatermark(wiki, this.started);
+                }
+            }
+            saveCheckpoint();
+        }
+    }
+
+    /**
+     * @return {@code true} if all the entities queued by this job have been processed by the indexer
+     */
+    private boolean waitForIndexer()
+    {
+        try {
+            this.indexer.flush().get();
+
+            return true;
+        } catch (InterruptedException e) {
+            this.logger.warn("Interrupted while waiting for the Solr indexer to process the queued documents.");
+
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
+            this.logger.warn("The Solr indexer stopped before processing the queued documents: {}",
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+
+        return false;
+    }
+
+    private File getCheckpointFile()
+    {
+        return new File(this.environment.getPermanentDirectory(), "solr/indexer/checkpoint.properties");
+    }
+
+    private IndexerCheckpoint loadCheckpoint()
+    {
+        try {
+            return new IndexerCheckpoint(getCheckpointFile());
+        } catch (Exception e) {
+            this.logger.warn("Failed to load the Solr index synchronization checkpoint: {}",
+                ExceptionUtils.getRootCauseMessage(e));
+
+            return null;
+        }
+    }
+
+    private void saveCheckpoint()
+    {
+        try {
+            this.checkpoint.save();
+        } catch (Exception e) {
+            this.logger.warn("Failed to save the Solr index synchronization checkpoint: {}",
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    /**
+     * @param rootReference the root reference of the synchronization
+     * @return the date of the oldest modification to take into account, {@code null} for all the documents
+     */
+    private Date getSince(EntityReference rootReference)
+    {
+        Date since = getRequest().getSince();
+
+        if (since == null && getRequest().isIncremental() && this.checkpoint != null) {
+            // The oldest watermark of the synchronized wikis, or nothing if one of them was never fully synchronized
+            for (String wiki : getWikis(rootReference)) {
+                Date watermark = this.checkpoint.getWatermark(wiki);
+                if (watermark == null) {
+                    return null;
+                }
+                if (since == null || watermark.before(since)) {
+                    since = watermark;
+                }
+            }
+        }
+
+        return since;
+    }
+
+    private Collection<String> getWikis(EntityReference rootReference)
+    {
+        if (rootReference != null) {
+            return Arrays.asList(rootReference.extractReference(EntityType.WIKI).getName());
+        }
+
+        try {
+            return this.wikiDescriptorManager.getAllIds();
+        } catch (WikiManagerException e) {
+            this.logger.warn("Failed to get the list of available wikis: {}", ExceptionUtils.getRootCauseMessage(e));
+
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Remember the last processed document once we are sure it's not waiting in the indexer queue anymore (the queue is
+     * lost when the instance is stopped).
+     * 
+     * @param documentReference the document to remember
+     */
+    private void checkpoint(DocumentReference documentReference)
+    {
+        if (this.checkpoint != null) {
+            // The locale is not serialized
+            this.checkpoint.setDocument(this.root, this.serializer.serialize(documentReference),
+                documentReference.getLocale() != null ? documentReference.getLocale().toString() : StringUtils.EMPTY,
+                this.started);
+            saveCheckpoint();
+        }
     }
 
     private void updateSolrIndex(int progressSize, DiffDocumentIterator<String> iterator)
@@ -145,6 +340,11 @@ private void updateSolrIndex(int progressSize, DiffDocumentIterator<String> iter
         try {
             long[] counter = new long[Action.values().length];
 
+            // The document waiting to be saved in the checkpoint and the number of entries queued after it
+            DocumentReference pendingCheckpoint = null;
+            int queuedAfterPendingCheckpoint = 0;
+            int processedSinceCheckpoint = 0;
+
             while (iterator.hasNext()) {
                 this.progressManager.startStep(this);
 
@@ -154,13 +354,26 @@ private void updateSolrIndex(int progressSize, DiffDocumentIterator<String> iter
                     // version
                     // from the database.
                     this.indexer.index(entry.getKey(), true);
+                    queuedAfterPendingCheckpoint++;
                 } else if (entry.getValue() == Action.DELETE && getRequest().isRemoveMissing()) {
                     // The index entry doesn't exist anymore in the database.
                     this.indexer.delete(entry.getKey(), true);
+                    queuedAfterPendingCheckpoint++;
                 }
 
                 counter[entry.getValue().ordinal()]++;
 
+                // The indexer queue is FIFO: when it's smaller than the number of entries queued after the pending
+                // document, that document has been processed.
+                if (pendingCheckpoint != null && this.indexer.getQueueSize() <= queuedAfterPendingCheckpoint) {
+                    checkpoint(pendingCheckpoint);
+                    pendingCheckpoint = null;
+                } else if (pendingCheckpoint == null && ++processedSinceCheckpoint >= CHECKPOINT_INTERVAL) {
+                    pendingCheckpoint = entry.getKey();
+                    queuedAfterPendingCheckpoint = 0;
+                    processedSinceCheckpoint = 0;
+                }
+
                 this.progressManager.endStep(this);
             }
 
@@ -171,4 +384,28 @@ private void updateSolrIndex(int progressSize, DiffDocumentIterator<String> iter
             this.progressManager.popLevelProgress(this);
         }
     }
+
+    /**
+     * Used as the Solr index when the database documents should all be indexed.
+     */
+    private static final class EmptyDocumentIterator extends AbstractDocumentIterator<String>
+    {
+        @Override
+        public boolean hasNext()
+        {
+            return false;
+        }
+
+        @Override
+        public Pair<DocumentReference, String> next()
+        {
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public long size()
+        {
+            return 0;
+        }
+    }
 }
@@ -19,6 +19,8 @@
  */
 package org.xwiki.search.solr.internal.job;
 
+import java.util.Date;
+
 import org.xwiki.job.AbstractRequest;
 import org.xwiki.job.Request;
 import org.xwiki.model.reference.EntityReference;
@@ -51,6 +53,21 @@ public class IndexerRequest extends AbstractRequest
      */
     private boolean removeMissing = true;
 
+    /**
+     * @see #getSince()
+     */
+    private Date since;
+
+    /**
+     * @see #isIncremental()
+     */
+    private boolean incremental;
+
+    /**
+     * @see #isResume()
+     */
+    private boolean resume;
+
     /**
      * The default constructor.
      */
@@ -115,4 +132,65 @@ public void setRemoveMissing(boolean removeMissing)
     {
         this.removeMissing = removeMissing;
     }
+
+    /**
+     * @return the date of the oldest modification to take into account: when not {@code null} only the documents
+     *         modified since this date are indexed (without comparing them with the Solr index and without removing
+     *         the missing ones)
+     * @since 9.7RC1
+     */
+    public Date getSince()
+    {
+        return this.since;
+    }
+
+    /**
+     * @param since the date of the oldest modification to take into account, {@code null} to synchronize all the
+     *            documents
+     * @since 9.7RC1
+     */
+    public void setSince(Date since)
+    {
+        this.since = since;
+    }
+
+    /**
+     * @return if true and {@link #getSince()} is {@code null} only the documents modified since the start of the last
+     *         complete synchronization of the wiki are indexed
+     * @since 9.7RC1
+     */
+    public boolean isIncremental()
+    {
+        return this.incremental;
+    }
+
+    /**
+     * @param incremental if true and {@link #getSince()} is {@code null} only the documents modified since the start of
+     *            the last complete synchronization of the wiki are indexed
+     * @since 9.7RC1
+     */
+    public void setIncremental(boolean incremental)
+    {
+        this.incremental = incremental;
+    }
+
+    /**
+     * @return if true the synchronization continues after the last document processed by the previous synchronization
+     *         of the same root reference, when it was interrupted (by a restart for example)
+     * @since 9.7RC1
+     */
+    public boolean isResume()
+    {
+        return this.resume;
+    }
+
+    /**
+     * @param resume if true the synchronization continues after the last document processed by the previous
+     *            synchronization of the same root reference, when it was interrupted (by a restart for example)
+     * @since 9.7RC1
+     */
+    public void setResume(boolean resume)
+    {
+        this.resume = resume;
+    }
 }
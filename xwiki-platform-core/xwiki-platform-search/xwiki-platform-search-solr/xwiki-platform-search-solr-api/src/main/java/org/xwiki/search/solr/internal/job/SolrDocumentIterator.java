@@ -31,6 +31,7 @@
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrQuery.ORDER;
 import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.params.CursorMarkParams;
@@ -86,15 +87,24 @@ public class SolrDocumentIterator extends AbstractDocumentIterator<String>
     @Inject
     private DocumentReferenceResolver<SolrDocument> solrDocumentReferenceResolver;
 
+    /**
+     * Used to skip the documents located before the start reference.
+     */
+    private final DocumentReferenceComparator documentReferenceComparator = new DocumentReferenceComparator();
+
     @Override
     public boolean hasNext()
     {
+        skipToStart();
+
         return getResults().size() > index;
     }
 
     @Override
     public Pair<DocumentReference, String> next()
     {
+        skipToStart();
+
         SolrDocument result = getResults().get(index++);
         DocumentReference documentReference = this.solrDocumentReferenceResolver.resolve(result);
         String version = (String) result.get(FieldUtils.VERSION);
@@ -107,6 +117,21 @@ public long size()
         return getResults() instanceof SolrDocumentList ? ((SolrDocumentList) results).getNumFound() : results.size();
     }
 
+    /**
+     * Skip the documents which are not located after the start reference.
+     */
+    private void skipToStart()
+    {
+        while (this.startReference != null && getResults().size() > index) {
+            DocumentReference documentReference = this.solrDocumentReferenceResolver.resolve(results.get(index));
+            if (this.documentReferenceComparator.compare(documentReference, this.startReference) > 0) {
+                this.startReference = null;
+            } else {
+                index++;
+            }
+        }
+    }
+
     /**
      * The current 'page' of results. If the current page has been fully iterated then a new page is fetched
      * automatically.
@@ -146,6 +171,11 @@ private SolrQuery getQuery() throws SolrIndexerException
             query.setFields(FieldUtils.WIKI, FieldUtils.SPACES, FieldUtils.NAME, FieldUtils.DOCUMENT_LOCALE,
                 FieldUtils.VERSION);
             query.addFilterQuery(FieldUtils.TYPE + ':' + EntityType.DOCUMENT.name());
+            if (this.startReference != null) {
+                // The wikis are iterated in alphabetical order so there is no need to go through the previous ones.
+                query.addFilterQuery(FieldUtils.WIKI + ":["
+                    + ClientUtils.escapeQueryChars(this.startReference.getWikiReference().getName()) + " TO *]");
+            }
             // This iterator must have the same order as the database iterator, otherwise the synchronization fails.
             // Note that we had two options:
             // (A) Sort the Solr index only by id and enable docValues on the id field to improve the speed. But then we
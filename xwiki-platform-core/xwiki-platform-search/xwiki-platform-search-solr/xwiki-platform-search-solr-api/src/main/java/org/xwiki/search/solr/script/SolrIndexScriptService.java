@@ -39,6 +39,7 @@
 import org.xwiki.script.service.ScriptService;
 import org.xwiki.search.solr.internal.api.FieldUtils;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
+import org.xwiki.search.solr.internal.api.SolrIndexerStatistics;
 import org.xwiki.security.authorization.AuthorizationManager;
 import org.xwiki.security.authorization.Right;
 
@@ -190,6 +191,16 @@ public int getQueueSize()
         return this.solrIndexer.getQueueSize();
     }
 
+    /**
+     * @return the counters of the work done by each indexing stage (resolution, extraction, sending to the Solr
+     *         server), useful to find which one limits the indexing throughput
+     * @since 9.7RC1
+     */
+    public SolrIndexerStatistics getStatistics()
+    {
+        return this.solrIndexer.getStatistics();
+    }
+
     /**
      * Extract a {@link DocumentReference} from the given {@link SolrDocument} (e.g. search result).
      * 
@@ -20,13 +20,22 @@
 package org.xwiki.search.solr.internal;
 
 import java.net.URL;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Provider;
 
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.util.DefaultParameterizedType;
+import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.search.solr.internal.api.SolrConfiguration;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
+import org.xwiki.search.solr.internal.api.SolrInstance;
+import org.xwiki.search.solr.internal.reference.SolrReferenceResolver;
 import org.xwiki.test.mockito.MockitoComponentMockingRule;
 
 import com.xpn.xwiki.XWiki;
@@ -34,9 +43,12 @@
 import com.xpn.xwiki.test.reference.ReferenceComponentList;
 import com.xpn.xwiki.web.Utils;
 
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -57,6 +69,8 @@
 
     private SolrConfiguration mockConfig;
 
+    private SolrInstance solr;
+
     @Before
     public void configure() throws Exception
     {
@@ -78,6 +92,18 @@ public void configure() throws Exception
         this.mockConfig = this.mocker.getInstance(SolrConfiguration.class);
         when(this.mockConfig.getInstanceConfiguration(eq(EmbeddedSolrInstance.TYPE), eq("home"), any()))
             .thenReturn(url.getPath());
+        when(this.mockConfig.getIndexerQueueCapacity()).thenReturn(10);
+        when(this.mockConfig.getIndexerExtractionThreads()).thenReturn(1);
+        when(this.mockConfig.getIndexerExtractionQueueCapacity()).thenReturn(1);
+        when(this.mockConfig.getIndexerBatchSize()).thenReturn(50);
+        when(this.mockConfig.getIndexerBatchMaxLengh()).thenReturn(10000);
+
+        // Solr instance
+
+        this.solr = mock(SolrInstance.class);
+        Provider<SolrInstance> solrInstanceProvider =
+            this.mocker.registerMockComponent(new DefaultParameterizedType(null, Provider.class, SolrInstance.class));
+        when(solrInstanceProvider.get()).thenReturn(this.solr);
     }
 
     @Test
@@ -91,4 +117,37 @@ public void testIndexEmptyWiki() throws Exception
 
         // index.index(wikiReference);
     }
+
+    @Test
+    public void flushEmptyQueue() throws Exception
+    {
+        this.mocker.getComponentUnderTest().flush().get(10, TimeUnit.SECONDS);
+
+        verify(this.solr, never()).commit();
+    }
+
+    @Test
+    public void flushCommitsPreviousOperations() throws Exception
+    {
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+        SolrReferenceResolver referenceResolver = this.mocker.getInstance(SolrReferenceResolver.class);
+        when(referenceResolver.getId(documentReference)).thenReturn("id");
+
+        this.mocker.getComponentUnderTest().delete(documentReference, false);
+        this.mocker.getComponentUnderTest().flush().get(10, TimeUnit.SECONDS);
+
+        // The batch is not big enough to be committed so it's the flush which committed it
+        verify(this.solr).delete("id");
+        verify(this.solr).commit();
+    }
+
+    @Test
+    public void flushAfterDispose() throws Exception
+    {
+        ((Disposable) this.mocker.getComponentUnderTest()).dispose();
+
+        Future<Void> flushed = this.mocker.getComponentUnderTest().flush();
+
+        assertTrue(flushed.isCancelled());
+    }
 }
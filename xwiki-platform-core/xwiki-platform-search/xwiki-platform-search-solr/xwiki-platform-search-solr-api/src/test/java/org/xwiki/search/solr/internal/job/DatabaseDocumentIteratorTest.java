@@ -23,6 +23,7 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -201,6 +202,130 @@ public void iterateOneWiki() throws Exception
         verify(countQuery).bindValue("name", "C");
     }
 
+    @Test
+    public void iterateModifiedSinceFromStartReference() throws Exception
+    {
+        Date since = new Date();
+        DocumentReference chessMainWelcome =
+            createDocumentReference("chess", Arrays.asList("Main"), "Welcome", Locale.ENGLISH);
+        DocumentReference chessXWikiSyntaxLinks =
+            createDocumentReference("chess", Arrays.asList("XWiki", "Syntax"), "Links", Locale.FRENCH);
+        DocumentReference tennisMainWelcome =
+            createDocumentReference("tennis", Arrays.asList("Main"), "Welcome", Locale.ENGLISH);
+
+        Query emptyQuery = mock(Query.class);
+        when(emptyQuery.execute()).thenReturn(Collections.emptyList());
+
+        String select = "select doc.space, doc.name, doc.language, doc.version from XWikiDocument doc";
+        String orderBy = " order by doc.space, doc.name, doc.language";
+        String statement = select + " where doc.date >= :since" + orderBy;
+
+        Query query = mock(Query.class);
+        when(query.setLimit(anyInt())).thenReturn(query);
+        when(query.getStatement()).thenReturn(statement);
+        when(query.getNamedParameters()).thenReturn(Collections.<String, Object>singletonMap("since", since));
+        when(query.setWiki("tennis")).thenReturn(query);
+        when(query.setOffset(0)).thenReturn(query);
+        when(query.setOffset(100)).thenReturn(emptyQuery);
+        when(query.execute()).thenReturn(Arrays.<Object>asList(new Object[] {"Main", "Welcome", "en", "2.1"}));
+
+        Query startQuery = mock(Query.class);
+        when(startQuery.setLimit(anyInt())).thenReturn(startQuery);
+        when(startQuery.setWiki("chess")).thenReturn(startQuery);
+        when(startQuery.setOffset(0)).thenReturn(startQuery);
+        when(startQuery.setOffset(100)).thenReturn(emptyQuery);
+        when(startQuery.execute())
+            .thenReturn(Arrays.<Object>asList(new Object[] {"XWiki.Syntax", "Links", "fr", "2.5"}));
+
+        QueryManager queryManager = mocker.getInstance(QueryManager.class);
+        when(queryManager.createQuery(statement, Query.HQL)).thenReturn(query);
+        when(queryManager.createQuery(select + " where doc.date >= :since and (doc.space > :startSpace"
+            + " or (doc.space = :startSpace and (doc.name > :startName or (doc.name = :startName"
+            + " and doc.language > :startLanguage))))" + orderBy, Query.HQL)).thenReturn(startQuery);
+        Query countQuery = mock(Query.class);
+        when(countQuery.addFilter(mocker.<QueryFilter>getInstance(QueryFilter.class, "count"))).thenReturn(countQuery);
+        when(queryManager.createQuery(" where doc.date >= :since", Query.HQL)).thenReturn(countQuery);
+
+        DocumentIterator<String> iterator = mocker.getComponentUnderTest();
+        ((DatabaseDocumentIterator) iterator).setSince(since);
+        iterator.setStartReference(chessMainWelcome);
+
+        List<Pair<DocumentReference, String>> actualResults = new ArrayList<Pair<DocumentReference, String>>();
+        while (iterator.hasNext()) {
+            actualResults.add(iterator.next());
+        }
+
+        List<Pair<DocumentReference, String>> expectedResults = new ArrayList<Pair<DocumentReference, String>>();
+        expectedResults.add(new ImmutablePair<DocumentReference, String>(chessXWikiSyntaxLinks, "2.5"));
+        expectedResults.add(new ImmutablePair<DocumentReference, String>(tennisMainWelcome, "2.1"));
+
+        assertEquals(expectedResults, actualResults);
+
+        verify(query).bindValue("since", since);
+        verify(startQuery).bindValue("since", since);
+        verify(startQuery).bindValue("startSpace", "Main");
+        verify(startQuery).bindValue("startName", "Welcome");
+        verify(startQuery).bindValue("startLanguage", "en");
+    }
+
+    @Test
+    public void iterateModifiedSinceFromDefaultLanguageStartReference() throws Exception
+    {
+        Date since = new Date();
+        DocumentReference chessMainWelcome =
+            createDocumentReference("chess", Arrays.asList("Main"), "Welcome", null);
+        DocumentReference chessMainWelcomeEnglish =
+            createDocumentReference("chess", Arrays.asList("Main"), "Welcome", Locale.ENGLISH);
+
+        Query emptyQuery = mock(Query.class);
+        when(emptyQuery.execute()).thenReturn(Collections.emptyList());
+
+        String select = "select doc.space, doc.name, doc.language, doc.version from XWikiDocument doc";
+        String orderBy = " order by doc.space, doc.name, doc.language";
+        String statement = select + " where doc.date >= :since" + orderBy;
+
+        Query query = mock(Query.class);
+        when(query.setLimit(anyInt())).thenReturn(query);
+        when(query.getStatement()).thenReturn(statement);
+        when(query.getNamedParameters()).thenReturn(Collections.<String, Object>singletonMap("since", since));
+        when(query.setWiki("tennis")).thenReturn(query);
+        when(query.setOffset(0)).thenReturn(emptyQuery);
+
+        Query startQuery = mock(Query.class);
+        when(startQuery.setLimit(anyInt())).thenReturn(startQuery);
+        when(startQuery.setWiki("chess")).thenReturn(startQuery);
+        when(startQuery.setOffset(0)).thenReturn(startQuery);
+        when(startQuery.setOffset(100)).thenReturn(emptyQuery);
+        when(startQuery.execute()).thenReturn(Arrays.<Object>asList(new Object[] {"Main", "Welcome", "en", "1.1"}));
+
+        // The default language can't be compared with an empty string on Oracle, which stores it as NULL.
+        QueryManager queryManager = mocker.getInstance(QueryManager.class);
+        when(queryManager.createQuery(statement, Query.HQL)).thenReturn(query);
+        when(queryManager.createQuery(select + " where doc.date >= :since and (doc.space > :startSpace"
+            + " or (doc.space = :startSpace and (doc.name > :startName or (doc.name = :startName"
+            + " and length(doc.language) > 0))))" + orderBy, Query.HQL)).thenReturn(startQuery);
+        Query countQuery = mock(Query.class);
+        when(countQuery.addFilter(mocker.<QueryFilter>getInstance(QueryFilter.class, "count"))).thenReturn(countQuery);
+        when(queryManager.createQuery(" where doc.date >= :since", Query.HQL)).thenReturn(countQuery);
+
+        DocumentIterator<String> iterator = mocker.getComponentUnderTest();
+        ((DatabaseDocumentIterator) iterator).setSince(since);
+        iterator.setStartReference(chessMainWelcome);
+
+        List<Pair<DocumentReference, String>> actualResults = new ArrayList<Pair<DocumentReference, String>>();
+        while (iterator.hasNext()) {
+            actualResults.add(iterator.next());
+        }
+
+        assertEquals(
+            Collections.singletonList(new ImmutablePair<DocumentReference, String>(chessMainWelcomeEnglish, "1.1")),
+            actualResults);
+
+        verify(startQuery).bindValue("startSpace", "Main");
+        verify(startQuery).bindValue("startName", "Welcome");
+        verify(startQuery, never()).bindValue(eq("startLanguage"), any());
+    }
+
     private DocumentReference createDocumentReference(String wiki, List<String> spaces, String name, Locale locale)
     {
         DocumentReference documentReference = new DocumentReference(wiki, spaces, name);
@@ -0,0 +1,74 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.job;
+
+import java.io.File;
+import java.util.Date;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for {@link IndexerCheckpoint}.
+ * 
+ * @version $Id$
+ */
+public class IndexerCheckpointTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void saveAndLoad() throws Exception
+    {
+        File file = new File(this.folder.getRoot(), "solr/indexer/checkpoint.properties");
+        Date started = new Date(1000);
+        Date watermark = new Date(2000);
+
+        IndexerCheckpoint checkpoint = new IndexerCheckpoint(file);
+        assertNull(checkpoint.getDocument(null));
+        assertNull(checkpoint.getWatermark("chess"));
+
+        checkpoint.setDocument(null, "chess:Main.Welcome", "en", started);
+        checkpoint.setDocument("wiki:tennis", "tennis:XWiki.Links", "", started);
+        checkpoint.setWatermark("chess", watermark);
+        checkpoint.save();
+
+        checkpoint = new IndexerCheckpoint(file);
+        assertEquals("chess:Main.Welcome", checkpoint.getDocument(null));
+        assertEquals("en", checkpoint.getLocale(null));
+        assertEquals(started, checkpoint.getStarted(null));
+        assertEquals("tennis:XWiki.Links", checkpoint.getDocument("wiki:tennis"));
+        assertEquals("", checkpoint.getLocale("wiki:tennis"));
+        assertEquals(watermark, checkpoint.getWatermark("chess"));
+
+        checkpoint.removeDocument(null);
+        checkpoint.save();
+
+        checkpoint = new IndexerCheckpoint(file);
+        assertNull(checkpoint.getDocument(null));
+        assertNull(checkpoint.getStarted(null));
+        assertEquals("tennis:XWiki.Links", checkpoint.getDocument("wiki:tennis"));
+    }
+}
@@ -19,6 +19,10 @@
  */
 package org.xwiki.security.authorization;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
@@ -73,6 +77,31 @@ void checkAccess(Right right, DocumentReference userReference, EntityReference e
      */
     boolean hasAccess(Right right, DocumentReference userReference, EntityReference entityReference);
 
+    /**
+     * Verifies if the user identified by {@code userReference} has the access identified by {@code right} on each of
+     * the entities identified by {@code entityReferences}. This is equivalent to calling
+     * {@link #hasAccess(Right, DocumentReference, EntityReference)} for each entity but implementations are free to
+     * share the work needed to evaluate the access on several entities (e.g. the loading of the rules of their common
+     * parents), which makes it the preferred way to filter a list of entities (search results, listings, etc.).
+     * This function should be used for interface matters, use {@link #checkAccess} at security checkpoints.
+     *
+     * @param right the right to check
+     * @param userReference the user to check the right for
+     * @param entityReferences the entities on which to check the right
+     * @return the access of the user on each entity, in the same order as the passed entities
+     * @since 9.7RC1
+     */
+    default Map<EntityReference, Boolean> hasAccess(Right right, DocumentReference userReference,
+        Collection<? extends EntityReference> entityReferences)
+    {
+        Map<EntityReference, Boolean> access = new LinkedHashMap<>();
+        for (EntityReference entityReference : entityReferences) {
+            access.put(entityReference, hasAccess(right, userReference, entityReference));
+        }
+
+        return access;
+    }
+
     /**
      * Register a new custom {@link Right}.
      *
@@ -19,6 +19,11 @@
  */
 package org.xwiki.security.authorization;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -115,6 +120,74 @@ public boolean hasAccess(Right right, DocumentReference userReference, EntityRef
         }
     }
 
+    @Override
+    public Map<EntityReference, Boolean> hasAccess(Right right, DocumentReference userReference,
+        Collection<? extends EntityReference> entityReferences)
+    {
+        Map<EntityReference, Boolean> result = new LinkedHashMap<>();
+
+        // Same early decisions as for a single entity, they don't depend on the entity
+        Boolean access = null;
+        if (isSuperAdmin(userReference)) {
+            access = Boolean.TRUE;
+        } else if (right == null || right == Right.ILLEGAL || (!right.isReadOnly() && xwikiBridge.isWikiReadOnly())
+            || (userReference == null && xwikiBridge.needsAuthentication(right))) {
+            access = Boolean.FALSE;
+        }
+        if (access != null) {
+            for (EntityReference entityReference : entityReferences) {
+                result.put(entityReference, access);
+            }
+
+            return result;
+        }
+
+        try {
+            UserSecurityReference user = securityReferenceFactory.newUserReference(userReference);
+
+            // First get what is already in the cache
+            Map<EntityReference, SecurityReference> missingEntities = new LinkedHashMap<>();
+            for (EntityReference entityReference : entityReferences) {
+                SecurityReference entity = securityReferenceFactory.newEntityReference(entityReference);
+                SecurityAccess securityAccess = getCachedAccess(user, entity);
+                if (securityAccess != null) {
+                    result.put(entityReference, isAllowed(securityAccess, right, userReference, entityReference));
+                } else {
+                    // Keep the order of the passed entities
+                    result.put(entityReference, Boolean.FALSE);
+                    missingEntities.put(entityReference, entity);
+                }
+            }
+
+            // Then load all the missing entries at once
+            if (!missingEntities.isEmpty()) {
+                Map<SecurityReference, SecurityAccessEntry> accessEntries =
+                    securityCacheLoader.load(user, new LinkedHashSet<>(missingEntities.values()));
+                for (Map.Entry<EntityReference, SecurityReference> entry : missingEntities.entrySet()) {
+                    SecurityAccess securityAccess = accessEntries.get(entry.getValue()).getAccess();
+                    result.put(entry.getKey(), isAllowed(securityAccess, right, userReference, entry.getKey()));
+                }
+            }
+        } catch (Exception e) {
+            this.logger.error(String.format("Failed to load rights for user [%s] on [%s].",
+                (userReference == null) ? AuthorizationException.NULL_USER : userReference, entityReferences), e);
+
+            for (EntityReference entityReference : entityReferences) {
+                result.put(entityReference, Boolean.FALSE);
+            }
+        }
+
+        return result;
+    }
+
+    private boolean isAllowed(SecurityAccess securityAccess, Right right, DocumentReference userReference,
+        EntityReference entityReference)
+    {
+        RuleState access = securityAccess.get(right);
+        logAccess(access, userReference, entityReference, right, "access inquiry", true);
+        return access == RuleState.ALLOW;
+    }
+
     /**
      * Verifies if the user identified by {@code userReference} has the access identified by {@code right} on the
      * entity identified by {@code entityReference}. Note that some rights may be checked higher in hierarchy of the
@@ -198,6 +271,26 @@ public Right register(RightDescription rightDescription) throws UnableToRegister
      */
     private SecurityAccess getAccess(UserSecurityReference user, SecurityReference entity)
         throws AuthorizationException
+    {
+        SecurityAccess access = getCachedAccess(user, entity);
+
+        if (access == null) {
+            access = securityCacheLoader.load(user, entity).getAccess();
+
+            logger.debug("Loaded a new entry for user {} on {} into cache: [{}]", user, entity, access);
+        }
+
+        return access;
+    }
+
+    /**
+     * Obtain the access for the user on the given entity if it's available in the cache.
+     *
+     * @param user The user identity.
+     * @param entity The entity.  May be of type DOCUMENT, WIKI, or SPACE.
+     * @return the cached access entry, null if it needs to be loaded.
+     */
+    private SecurityAccess getCachedAccess(UserSecurityReference user, SecurityReference entity)
     {
         for (SecurityReference ref = entity; ref != null; ref = ref.getParentSecurityReference()) {
             if (Right.getEnabledRights(ref.getSecurityType()).isEmpty()) {
@@ -206,35 +299,24 @@ private SecurityAccess getAccess(UserSecurityReference user, SecurityReference e
             }
             SecurityRuleEntry entry = securityCache.get(ref);
             if (entry == null) {
-                SecurityAccess access = securityCacheLoader.load(user, entity).getAccess();
-
-                this.logger.debug("1. Loaded a new entry for user {} on {} into cache: [{}]", user, entity, access);
-
-                return access;
+                return null;
             }
             if (!entry.isEmpty()) {
                 SecurityAccessEntry accessEntry = securityCache.get(user, ref);
                 if (accessEntry == null) {
-                    SecurityAccess access = securityCacheLoader.load(user, entity).getAccess();
-
-                    logger.debug("2. Loaded a new entry for user {} on {} into cache: [{}]", user, entity, access);
-
-                    return access;
+                    return null;
                 } else {
                     SecurityAccess access = accessEntry.getAccess();
 
-                    logger.debug("3. Got entry for user {} on {} from cache: [{}]", user, entity, access);
+                    logger.debug("Got entry for user {} on {} from cache: [{}]", user, entity, access);
 
                     return access;
                 }
-            } 
+            }
         }
 
-        SecurityAccess access = securityCacheLoader.load(user, entity).getAccess();
-
-        logger.debug("4. Loaded a new default entry for user {} on {} into cache: [{}]", user, entity, access);
-
-        return access;
+        // Only empty rules, the default entry needs to be loaded
+        return null;
     }
 
     /**
@@ -25,9 +25,7 @@
 import java.util.Collection;
 import java.util.Deque;
 import java.util.HashSet;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -72,14 +70,12 @@ public class DefaultSecurityCache implements SecurityCache, Initializable
     @Inject
     private Logger logger;
 
-    /** Fair read-write lock used for fair scheduling of cache access. */
-    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock(true);
-
-    /** Fair read lock. */
-    private final Lock readLock = readWriteLock.readLock();
-
-    /** Fair write lock. */
-    private final Lock writeLock = readWriteLock.writeLock();
+    /**
+     * Lock protecting the cache against reads in the middle of a (cascading) modification. Reads are first attempted
+     * optimistically so that they never block (nor are blocked by) other reads, and only fall back to a real read lock
+     * when a modification happened concurrently. Note that this lock is not reentrant.
+     */
+    private final StampedLock lock = new StampedLock();
 
     /** The keys in the cache are generated from instances of {@link org.xwiki.model.reference.EntityReference}. */
     @Inject
@@ -144,7 +140,7 @@ private class SecurityCacheEntry implements DisposableCacheValue
         /**
          * True if this entry has been removed.
          */
-        private boolean disposed;
+        private volatile boolean disposed;
 
         /**
          * Create a new cache entry for a security rule, linking it to its parent.
@@ -156,7 +152,7 @@ private class SecurityCacheEntry implements DisposableCacheValue
             this.entry = entry;
             SecurityReference parentReference = entry.getReference().getParentSecurityReference();
             if (parentReference != null) {
-                SecurityCacheEntry parent = DefaultSecurityCache.this.getEntry(parentReference);
+                SecurityCacheEntry parent = DefaultSecurityCache.this.getLockedEntry(parentReference);
                 if (parent == null) {
                     throw new ParentEntryEvictedException();
                 }
@@ -178,8 +174,8 @@ private class SecurityCacheEntry implements DisposableCacheValue
         SecurityCacheEntry(SecurityShadowEntry entry) throws ParentEntryEvictedException
         {
             this.entry = entry;
-            SecurityCacheEntry parent1 = DefaultSecurityCache.this.getEntry(entry.getReference());
-            SecurityCacheEntry parent2 = DefaultSecurityCache.this.getEntry(entry.getWikiReference());
+            SecurityCacheEntry parent1 = DefaultSecurityCache.this.getLockedEntry(entry.getReference());
+            SecurityCacheEntry parent2 = DefaultSecurityCache.this.getLockedEntry(entry.getWikiReference());
             if (parent1 == null || parent2 == null) {
                 throw new ParentEntryEvictedException();
             }
@@ -209,10 +205,10 @@ private class SecurityCacheEntry implements DisposableCacheValue
         {
             this.entry = entry;
             boolean isSelf = entry.getReference().equals(entry.getUserReference());
-            SecurityCacheEntry parent1 = DefaultSecurityCache.this.getEntry(entry.getReference());
+            SecurityCacheEntry parent1 = DefaultSecurityCache.this.getLockedEntry(entry.getReference());
             SecurityCacheEntry parent2 = (isSelf) ? parent1
-                : (wiki != null) ? DefaultSecurityCache.this.getShadowEntry(entry.getUserReference(), wiki)
-                                 : DefaultSecurityCache.this.getEntry(entry.getUserReference());
+                : (wiki != null) ? DefaultSecurityCache.this.getLockedShadowEntry(entry.getUserReference(), wiki)
+                                 : DefaultSecurityCache.this.getLockedEntry(entry.getUserReference());
             if (parent1 == null || parent2 == null) {
                 throw new ParentEntryEvictedException();
             }
@@ -264,7 +260,7 @@ private SecurityCacheEntry(SecurityEntry entry, Collection<GroupSecurityReferenc
             if (parentSize > 0) {
                 this.parents = new ArrayList<SecurityCacheEntry>(parentSize);
                 if (parentReference != null) {
-                    SecurityCacheEntry parent = DefaultSecurityCache.this.getEntry(parentReference);
+                    SecurityCacheEntry parent = DefaultSecurityCache.this.getLockedEntry(parentReference);
                     if (parent == null) {
                         throw new ParentEntryEvictedException();
                     }
@@ -294,9 +290,9 @@ private void addParentGroups(Collection<GroupSecurityReference> groups,
                     continue;
                 }
                 SecurityCacheEntry parent = (entry instanceof SecurityShadowEntry && group.isGlobal())
-                    ? DefaultSecurityCache.this.getShadowEntry(group,
+                    ? DefaultSecurityCache.this.getLockedShadowEntry(group,
                         ((SecurityShadowEntry) entry).getWikiReference())
-                    : DefaultSecurityCache.this.getEntry(group);
+                    : DefaultSecurityCache.this.getLockedEntry(group);
                 if (parent == null) {
                     throw new ParentEntryEvictedException();
                 }
@@ -539,12 +535,7 @@ private String getEntryKey(SecurityAccessEntry entry)
      */
     private SecurityCacheEntry getEntry(SecurityReference reference)
     {
-        readLock.lock();
-        try {
-            return cache.get(getEntryKey(reference));
-        } finally {
-            readLock.unlock();
-        }
+        return getEntry(getEntryKey(reference));
     }
 
     /**
@@ -555,12 +546,7 @@ private SecurityCacheEntry getEntry(SecurityReference reference)
      */
     private SecurityCacheEntry getEntry(UserSecurityReference userReference, SecurityReference reference)
     {
-        readLock.lock();
-        try {
-            return cache.get(getEntryKey(userReference, reference));
-        } finally {
-            readLock.unlock();
-        }
+        return getEntry(getEntryKey(userReference, reference));
     }
 
     /**
@@ -571,11 +557,56 @@ private SecurityCacheEntry getEntry(UserSecurityReference userReference, Securit
      */
     private SecurityCacheEntry getShadowEntry(SecurityReference userReference, SecurityReference wiki)
     {
-        readLock.lock();
+        return getEntry(getShadowEntryKey(userReference, wiki));
+    }
+
+    /**
+     * Same as {@link #getEntry(SecurityReference)} but to be used only while holding the write lock (which is not
+     * reentrant).
+     *
+     * @param reference the reference requested.
+     * @return a security cache entry corresponding to given reference, null if none is available in the cache.
+     */
+    private SecurityCacheEntry getLockedEntry(SecurityReference reference)
+    {
+        return cache.get(getEntryKey(reference));
+    }
+
+    /**
+     * Same as {@link #getShadowEntry(SecurityReference, SecurityReference)} but to be used only while holding the
+     * write lock (which is not reentrant).
+     *
+     * @param userReference the user reference requested.
+     * @param wiki the wiki context of the shadow reference to retrieve.
+     * @return a security cache entry corresponding to the given user and reference, null if none is available
+     *         in the cache.
+     */
+    private SecurityCacheEntry getLockedShadowEntry(SecurityReference userReference, SecurityReference wiki)
+    {
+        return cache.get(getShadowEntryKey(userReference, wiki));
+    }
+
+    /**
+     * @param key the key of the entry
+     * @return the security cache entry stored with the given key, null if none is available in the cache.
+     */
+    private SecurityCacheEntry getEntry(String key)
+    {
+        // Most of the time there is no concurrent modification so try to read without locking first
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            SecurityCacheEntry entry = cache.get(key);
+            if (lock.validate(stamp) && (entry == null || !entry.disposed)) {
+                return entry;
+            }
+        }
+
+        // A modification happened in the meantime, wait for it to be finished
+        stamp = lock.readLock();
         try {
-            return cache.get(getShadowEntryKey(userReference, wiki));
+            return cache.get(key);
         } finally {
-            readLock.unlock();
+            lock.unlockRead(stamp);
         }
     }
 
@@ -677,7 +708,7 @@ private void add(SecurityEntry entry, Collection<GroupSecurityReference> groups)
     {
         String key = getEntryKey(entry);
 
-        writeLock.lock();
+        long stamp = lock.writeLock();
         try {
             if (isAlreadyInserted(key, entry, groups)) {
                 return;
@@ -686,7 +717,7 @@ private void add(SecurityEntry entry, Collection<GroupSecurityReference> groups)
 
             logger.debug("Added rule/shadow entry [{}] into the cache.", key);
         } finally {
-            writeLock.unlock();
+            lock.unlockWrite(stamp);
         }
     }
 
@@ -746,7 +777,7 @@ private void internalAdd(SecurityAccessEntry entry, SecurityReference wiki)
     {
         String key = getEntryKey(entry);
 
-        writeLock.lock();
+        long stamp = lock.writeLock();
         try {
             if (isAlreadyInserted(key, entry)) {
                 return;
@@ -756,7 +787,7 @@ private void internalAdd(SecurityAccessEntry entry, SecurityReference wiki)
             logger.debug("Added access entry [{}] into the cache.", key);
         } finally {
             newEntry = null;
-            writeLock.unlock();
+            lock.unlockWrite(stamp);
         }
     }
 
@@ -805,9 +836,9 @@ public SecurityRuleEntry get(SecurityReference entity)
     @Override
     public void remove(UserSecurityReference user, SecurityReference entity)
     {
-        writeLock.lock();
+        long stamp = lock.writeLock();
         try {
-            SecurityCacheEntry entry = getEntry(user, entity);
+            SecurityCacheEntry entry = cache.get(getEntryKey(user, entity));
             if (entry != null) {
                 if (logger.isDebugEnabled()) {
                     logger.debug("Remove outdated access entry for [{}].", getEntryKey(user, entity));
@@ -815,16 +846,16 @@ public void remove(UserSecurityReference user, SecurityReference entity)
                 this.cache.remove(entry.getKey());
             }
         } finally {
-            writeLock.unlock();
+            lock.unlockWrite(stamp);
         }
     }
 
     @Override
     public void remove(SecurityReference entity)
     {
-        writeLock.lock();
+        long stamp = lock.writeLock();
         try {
-            SecurityCacheEntry entry = getEntry(entity);
+            SecurityCacheEntry entry = cache.get(getEntryKey(entity));
             if (entry != null) {
                 if (logger.isDebugEnabled()) {
                     logger.debug("Remove outdated rule entry for [{}].", getEntryKey(entity));
@@ -832,7 +863,7 @@ public void remove(SecurityReference entity)
                 this.cache.remove(entry.getKey());
             }
         } finally {
-            writeLock.unlock();
+            lock.unlockWrite(stamp);
         }
     }
 
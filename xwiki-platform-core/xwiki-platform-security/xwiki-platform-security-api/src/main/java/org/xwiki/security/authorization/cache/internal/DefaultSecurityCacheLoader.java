@@ -24,9 +24,12 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -137,16 +140,34 @@ public boolean isEmpty()
     @Override
     public SecurityAccessEntry load(UserSecurityReference user, SecurityReference entity)
         throws AuthorizationException
+    {
+        return load(user, Collections.singletonList(entity)).get(entity);
+    }
+
+    @Override
+    public Map<SecurityReference, SecurityAccessEntry> load(UserSecurityReference user,
+        Collection<SecurityReference> entities) throws AuthorizationException
     {
         int retries = 0;
         Exception lastException;
 
         while (true) {
+            // All the entities are settled under a single suspension of the invalidator
             rulesInvalidator.suspend();
 
             try {
                 retries++;
-                return loadRequiredEntries(user, entity);
+
+                // The groups of the user only depend on the wiki of the entity, they are loaded once per wiki
+                Map<SecurityReference, Collection<GroupSecurityReference>> userGroups = new HashMap<>();
+                Map<SecurityReference, SecurityAccessEntry> entries = new LinkedHashMap<>();
+                for (SecurityReference entity : entities) {
+                    if (!entries.containsKey(entity)) {
+                        entries.put(entity, loadRequiredEntries(user, entity, userGroups));
+                    }
+                }
+
+                return entries;
             } catch (ParentEntryEvictedException e) {
                 lastException = e;
                 if (retries < MAX_RETRIES) {
@@ -164,8 +185,9 @@ public SecurityAccessEntry load(UserSecurityReference user, SecurityReference en
             }
             String message = String.format("Failed to load the cache in %d attempts. Giving up.", retries);
             this.logger.error(message);
-            throw new AuthorizationException(user.getOriginalDocumentReference(), entity.getOriginalReference(),
-                message, lastException);
+            SecurityReference entity = entities.size() == 1 ? entities.iterator().next() : null;
+            throw new AuthorizationException(user.getOriginalDocumentReference(),
+                entity != null ? entity.getOriginalReference() : null, message, lastException);
         }
     }
 
@@ -175,12 +197,15 @@ public SecurityAccessEntry load(UserSecurityReference user, SecurityReference en
      * 
      * @param user The user to check access for.
      * @param entity The entity to check access to.
+     * @param userGroups The groups of the user already loaded, indexed by entity wiki (see
+     *            {@link #loadAccessEntries}).
      * @return The resulting access for the user on the entity.
      * @throws ParentEntryEvictedException If one of the parent entries are evicted before the load is completed.
      * @throws ConflictingInsertionException When different threads have inserted conflicting entries into the cache.
      * @throws org.xwiki.security.authorization.AuthorizationException On error.
      */
-    private SecurityAccessEntry loadRequiredEntries(UserSecurityReference user, SecurityReference entity)
+    private SecurityAccessEntry loadRequiredEntries(UserSecurityReference user, SecurityReference entity,
+        Map<SecurityReference, Collection<GroupSecurityReference>> userGroups)
         throws ParentEntryEvictedException, ConflictingInsertionException, AuthorizationException
     {
         // No entity, return default rights for user in its wiki
@@ -193,7 +218,7 @@ private SecurityAccessEntry loadRequiredEntries(UserSecurityReference user, Secu
         Deque<SecurityRuleEntry> ruleEntries = getRules(entity);
 
         // Evaluate, store and return the access right
-        return loadAccessEntries(user, entity, ruleEntries);
+        return loadAccessEntries(user, entity, ruleEntries, userGroups);
     }
 
     /**
@@ -203,13 +228,15 @@ private SecurityAccessEntry loadRequiredEntries(UserSecurityReference user, Secu
      * @param user The user to check access for.
      * @param entity The lowest entity providing security rules on the path of the entity to check access for.
      * @param ruleEntries The rule entries associated with the above entity.
+     * @param userGroups The groups of the user already loaded, indexed by entity wiki (null for the user wiki). The
+     *            groups loaded by this call are added to it.
      * @return The access for the user at the entity (equivalent to the one of the entity to check access for).
      * @throws ParentEntryEvictedException If one of the parent entries are evicted before the load is completed.
      * @throws ConflictingInsertionException When different threads have inserted conflicting entries into the cache.
      * @throws org.xwiki.security.authorization.AuthorizationException On error.
      */
     private SecurityAccessEntry loadAccessEntries(UserSecurityReference user, SecurityReference entity,
-        Deque<SecurityRuleEntry> ruleEntries)
+        Deque<SecurityRuleEntry> ruleEntries, Map<SecurityReference, Collection<GroupSecurityReference>> userGroups)
         throws ParentEntryEvictedException, ConflictingInsertionException, AuthorizationException
     {
         // userWiki is the wiki of the user
@@ -221,7 +248,11 @@ private SecurityAccessEntry loadAccessEntries(UserSecurityReference user, Securi
         }
 
         // Load user and related groups into the cache (global and shadowed locals) as needed
-        Collection<GroupSecurityReference> groups = loadUserEntry(user, userWiki, entityWiki);
+        Collection<GroupSecurityReference> groups = userGroups.get(entityWiki);
+        if (groups == null) {
+            groups = loadUserEntry(user, userWiki, entityWiki);
+            userGroups.put(entityWiki, groups);
+        }
 
         // Settle the access
         SecurityAccessEntry accessEntry = authorizationSettlerProvider.get().settle(user, groups, ruleEntries);
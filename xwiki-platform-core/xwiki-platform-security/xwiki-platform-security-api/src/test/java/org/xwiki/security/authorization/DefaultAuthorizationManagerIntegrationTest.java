@@ -21,8 +21,11 @@
 package org.xwiki.security.authorization;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -471,6 +474,31 @@ public void testInheritancePolicyForGlobalFullWikiAccess() throws Exception
         assertAccess(ALL_RIGHTS_EXCEPT_PROGRAMING_AND_CREATE_WIKI, getXUser("userA"), getDoc("docDenyA",     "any space",  "wikiAllowA"));
     }
 
+    @Test
+    public void testBulkAccess() throws Exception
+    {
+        initialiseWikiMock("inheritancePolicyForGlobalFullWikiAccess");
+
+        List<EntityReference> entities = Arrays.<EntityReference>asList(getXDoc("any document", "any space"),
+            getXDoc("any document", "spaceAllowA"), getXDoc("docAllowA", "any space"),
+            getDoc("any document", "spaceAllowA", "wikiNoRules"), getDoc("docDenyA", "any space", "wikiAllowA"));
+
+        // Evaluated with an empty cache
+        Map<EntityReference, Boolean> access = authorizationManager.hasAccess(VIEW, getXUser("userA"), entities);
+
+        Assert.assertEquals(entities, new ArrayList<>(access.keySet()));
+        Assert.assertEquals(Arrays.asList(false, true, true, true, true), new ArrayList<>(access.values()));
+
+        // Evaluated from the cache
+        for (Right right : values()) {
+            access = authorizationManager.hasAccess(right, getXUser("userA"), entities);
+            for (EntityReference entity : entities) {
+                Assert.assertEquals(String.format("Unexpected [%s] right on [%s]", right, entity),
+                    authorizationManager.hasAccess(right, getXUser("userA"), entity), access.get(entity));
+            }
+        }
+    }
+
     @Test
     public void testInheritancePolicyForLocalWikiAccess() throws Exception
     {
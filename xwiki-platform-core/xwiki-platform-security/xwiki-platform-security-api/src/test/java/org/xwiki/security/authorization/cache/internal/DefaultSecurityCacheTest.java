@@ -22,7 +22,9 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -57,6 +59,7 @@
 import org.xwiki.test.mockito.MockitoComponentMockingRule;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
@@ -809,4 +812,30 @@ public boolean keepAccess(SecurityAccessEntry entry) {
             }
         });
     }
+
+    /**
+     * The parents of a new entry are looked up while the (non reentrant) write lock is held.
+     */
+    @Test(timeout = 10000)
+    public void testAddEntriesWithParents() throws Exception
+    {
+        securityCache.add(mockSecurityRuleEntry(xwikiRef));
+        securityCache.add(mockSecurityRuleEntry(xspaceRef));
+        securityCache.add(mockSecurityRuleEntry(xdocRef));
+        securityCache.add(mockSecurityRuleEntry(xXWikiSpace));
+        securityCache.add(mockSecurityRuleEntry(xgroupRef), Collections.<GroupSecurityReference>emptyList());
+        securityCache.add(mockSecurityRuleEntry(xuserRef), Arrays.asList(xgroupRef));
+        SecurityAccessEntry access = mockSecurityAccessEntry(xdocRef, xuserRef);
+        securityCache.add(access);
+
+        assertThat(securityCache.get(xuserRef, xdocRef), sameInstance(access));
+        assertThat(new HashSet<>(securityCache.getGroupsFor(xuserRef, null)),
+            is(Collections.singleton(xgroupRef)));
+
+        // The entries have been linked to their parents
+        securityCache.remove(xspaceRef);
+        assertThat(securityCache.get(xdocRef), nullValue());
+        assertThat(securityCache.get(xuserRef, xdocRef), nullValue());
+        assertThat(securityCache.get(xuserRef), notNullValue());
+    }
 }
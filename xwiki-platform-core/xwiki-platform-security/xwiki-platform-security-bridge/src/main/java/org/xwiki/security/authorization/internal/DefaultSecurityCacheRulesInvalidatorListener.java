@@ -44,6 +44,7 @@
 import org.xwiki.security.SecurityReferenceFactory;
 import org.xwiki.security.authorization.AuthorizationException;
 import org.xwiki.security.authorization.cache.SecurityCache;
+import org.xwiki.security.internal.GroupMembershipIndex;
 import org.xwiki.security.internal.XWikiConstants;
 
 import com.xpn.xwiki.XWikiContext;
@@ -102,6 +103,10 @@ public class DefaultSecurityCacheRulesInvalidatorListener implements EventListen
     @Inject
     private Provider<XWikiContext> xcontextProvider;
 
+    /** Index of the groups members. */
+    @Inject
+    private GroupMembershipIndex groupMembershipIndex;
+
     @Override
     public String getName()
     {
@@ -185,6 +190,12 @@ public void onEvent(Event event, Object source, Object data)
         DocumentReference ref = getDocumentReference(source);
         readWriteLock.writeLock().lock();
         try {
+            // Update the group members index before anything can be reloaded from it
+            XWikiDocument originalDocument = ((XWikiDocument) source).getOriginalDocument();
+            if (isGroupDocument(source) || (originalDocument != null && isGroupDocument(originalDocument))) {
+                this.groupMembershipIndex.update((XWikiDocument) source);
+            }
+
             deliverUpdateEvent(ref);
             if (isGroupDocument(source)) {
                 // When a group receive a new member, the update event is triggered and the above invalidate the group
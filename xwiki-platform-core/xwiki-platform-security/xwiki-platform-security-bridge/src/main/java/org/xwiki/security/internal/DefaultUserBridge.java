@@ -38,6 +38,7 @@
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.user.api.XWikiGroupService;
+import com.xpn.xwiki.user.impl.xwiki.XWikiGroupServiceImpl;
 
 /**
  * Temporary implementation of the (@link UserBridge} interface to access user information.
@@ -49,6 +50,9 @@
 @Singleton
 public class DefaultUserBridge implements UserBridge
 {
+    /** Name of the group containing all the users of a wiki. */
+    private static final String ALLGROUP_GROUP = "XWikiAllGroup";
+
     /** Security reference factory. */
     @Inject
     private SecurityReferenceFactory factory;
@@ -57,6 +61,10 @@ public class DefaultUserBridge implements UserBridge
     @Inject
     private Execution execution;
 
+    /** Index of the groups members. */
+    @Inject
+    private GroupMembershipIndex groupMembershipIndex;
+
     /**
      * @return the current {@code XWikiContext}
      */
@@ -104,6 +112,11 @@ private Collection<DocumentReference> getGroupsReferencesFor(WikiReference wiki,
             throw new AuthorizationException("Failed to access the group service.",  e);
         }
 
+        if (groupService.getClass() == XWikiGroupServiceImpl.class) {
+            // The groups are stored in the wiki with the standard group class, get them from the index
+            return getIndexedGroupsReferencesFor(wiki, userOrGroupDocumentReference, xwikiContext);
+        }
+
         String currentWiki = xwikiContext.getWikiId();
         Collection<DocumentReference> groupReferences = new HashSet<>();
         try {
@@ -131,4 +144,38 @@ private Collection<DocumentReference> getGroupsReferencesFor(WikiReference wiki,
             xwikiContext.setWikiId(currentWiki);
         }
     }
+
+    /**
+     * Get all groups in a given wiki where a given user or group is a member of from the groups membership index.
+     *
+     * @param wiki the wiki to search groups containing the user/group
+     * @param userOrGroupDocumentReference the user/group document reference
+     * @param xwikiContext the XWiki context
+     * @return the list of group where the user/group is a member
+     * @throws AuthorizationException when an issue arise during retrieval.
+     */
+    private Collection<DocumentReference> getIndexedGroupsReferencesFor(WikiReference wiki,
+        DocumentReference userOrGroupDocumentReference, XWikiContext xwikiContext) throws AuthorizationException
+    {
+        Collection<DocumentReference> groupReferences;
+        try {
+            groupReferences = this.groupMembershipIndex.getGroups(userOrGroupDocumentReference, wiki);
+        } catch (Exception e) {
+            throw new AuthorizationException(String.format("Failed to get groups for user or group [%s] in wiki [%s]",
+                userOrGroupDocumentReference, wiki), e);
+        }
+
+        // If the 'XWiki.XWikiAllGroup' is implicit, all users/groups except XWikiGuest and XWikiAllGroup itself are
+        // part of it (same as the group service).
+        if (xwikiContext.getWiki().isAllGroupImplicit() && userOrGroupDocumentReference.getWikiReference().equals(wiki)
+            && !userOrGroupDocumentReference.getName().equals(XWikiConstants.GUEST_USER)) {
+            DocumentReference allGroup =
+                new DocumentReference(wiki.getName(), XWikiConstants.XWIKI_SPACE, ALLGROUP_GROUP);
+            if (!allGroup.equals(userOrGroupDocumentReference)) {
+                groupReferences.add(allGroup);
+            }
+        }
+
+        return groupReferences;
+    }
 }
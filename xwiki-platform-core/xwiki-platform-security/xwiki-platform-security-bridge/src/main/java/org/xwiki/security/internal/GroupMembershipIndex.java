@@ -0,0 +1,302 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.security.internal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+
+/**
+ * Materialized index of the explicit members of the groups of each wiki, built with a single query the first time a
+ * wiki is accessed and then maintained incrementally from the modified group documents (see {@link #update}). It
+ * allows resolving the groups of a user or group without any database access, whatever the depth of the groups
+ * hierarchy.
+ * <p>
+ * The index contains the raw values of the {@code member} property of the {@code XWiki.XWikiGroups} objects and
+ * match them the same way as the {@code listGroupsForUser} and {@code listGroupsForUserInOtherWiki} named queries.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component(roles = GroupMembershipIndex.class)
+@Singleton
+public class GroupMembershipIndex
+{
+    private static final String MEMBER_FIELD = "member";
+
+    private static final String MEMBERS_QUERY = "select doc.fullName, prop.value"
+        + " from XWikiDocument as doc, BaseObject as obj, StringProperty as prop"
+        + " where obj.name = doc.fullName and obj.className = '" + XWikiConstants.GROUP_CLASS + "'"
+        + " and obj.id = prop.id.id and prop.id.name = '" + MEMBER_FIELD + "'";
+
+    /**
+     * The groups of a wiki indexed by member. The index is published before being loaded from the database so that
+     * the group updates made during the load are not lost: they are queued and applied once the load is done.
+     */
+    private static final class WikiIndex
+    {
+        private final Map<String, Set<DocumentReference>> groupsByMember = new HashMap<>();
+
+        private final Map<DocumentReference, Set<String>> membersByGroup = new HashMap<>();
+
+        /**
+         * The updates received while the index is being loaded, null once it's loaded.
+         */
+        private Map<DocumentReference, Collection<String>> pendingUpdates = new LinkedHashMap<>();
+
+        private boolean failed;
+
+        private void add(DocumentReference group, String member)
+        {
+            this.groupsByMember.computeIfAbsent(member, k -> new HashSet<>()).add(group);
+            this.membersByGroup.computeIfAbsent(group, k -> new HashSet<>()).add(member);
+        }
+
+        synchronized void set(DocumentReference group, Collection<String> members)
+        {
+            if (this.pendingUpdates != null) {
+                // The update may not be visible to the query loading the index: apply it after the load
+                this.pendingUpdates.put(group, members);
+                return;
+            }
+
+            Set<String> previousMembers = this.membersByGroup.remove(group);
+            if (previousMembers != null) {
+                for (String member : previousMembers) {
+                    Set<DocumentReference> groups = this.groupsByMember.get(member);
+                    groups.remove(group);
+                    if (groups.isEmpty()) {
+                        this.groupsByMember.remove(member);
+                    }
+                }
+            }
+
+            for (String member : members) {
+                add(group, member);
+            }
+        }
+
+        synchronized void loaded(Map<DocumentReference, Collection<String>> members)
+        {
+            for (Map.Entry<DocumentReference, Collection<String>> entry : members.entrySet()) {
+                for (String member : entry.getValue()) {
+                    add(entry.getKey(), member);
+                }
+            }
+
+            Map<DocumentReference, Collection<String>> updates = this.pendingUpdates;
+            this.pendingUpdates = null;
+            for (Map.Entry<DocumentReference, Collection<String>> update : updates.entrySet()) {
+                set(update.getKey(), update.getValue());
+            }
+
+            notifyAll();
+        }
+
+        synchronized void failed()
+        {
+            this.failed = true;
+
+            notifyAll();
+        }
+
+        /**
+         * @return false if the load failed
+         */
+        synchronized boolean waitLoaded()
+        {
+            while (this.pendingUpdates != null && !this.failed) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    return false;
+                }
+            }
+
+            return !this.failed;
+        }
+
+        synchronized void get(String member, Collection<DocumentReference> groups)
+        {
+            Set<DocumentReference> memberGroups = this.groupsByMember.get(member);
+            if (memberGroups != null) {
+                groups.addAll(memberGroups);
+            }
+        }
+    }
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    private DocumentReferenceResolver<String> resolver;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    private final ConcurrentMap<String, WikiIndex> wikis = new ConcurrentHashMap<>();
+
+    /**
+     * @param member the reference of the user or group
+     * @param wiki the wiki where to look for groups
+     * @return the groups of the passed wiki which explicitly contain the passed user or group
+     * @throws QueryException when failing to build the index of the wiki
+     */
+    public Collection<DocumentReference> getGroups(DocumentReference member, WikiReference wiki)
+        throws QueryException
+    {
+        WikiIndex index = getWikiIndex(wiki);
+
+        Collection<DocumentReference> groups = new HashSet<>();
+        index.get(this.serializer.serialize(member), groups);
+        if (member.getWikiReference().equals(wiki) || (member.getName().equals(XWikiConstants.GUEST_USER)
+            && member.getLastSpaceReference().getName().equals(XWikiConstants.XWIKI_SPACE))) {
+            // Members of the same wiki can also be referenced with a local reference
+            index.get(this.localSerializer.serialize(member), groups);
+            index.get(member.getName(), groups);
+        }
+
+        return groups;
+    }
+
+    private WikiIndex getWikiIndex(WikiReference wiki) throws QueryException
+    {
+        while (true) {
+            WikiIndex index = this.wikis.get(wiki.getName());
+
+            if (index == null) {
+                WikiIndex newIndex = new WikiIndex();
+                // Publish the index before loading it so that the updates made during the load are queued
+                index = this.wikis.putIfAbsent(wiki.getName(), newIndex);
+                if (index == null) {
+                    load(newIndex, wiki);
+
+                    return newIndex;
+                }
+            }
+
+            if (index.waitLoaded()) {
+                return index;
+            } else if (Thread.currentThread().isInterrupted()) {
+                throw new QueryException("Interrupted while waiting for the groups of wiki [" + wiki + "]", null,
+                    null);
+            }
+            // The load failed and the index has been removed: try again
+        }
+    }
+
+    private void load(WikiIndex index, WikiReference wiki) throws QueryException
+    {
+        try {
+            Query query = this.queryManager.createQuery(MEMBERS_QUERY, Query.HQL);
+            query.setWiki(wiki.getName());
+            Map<DocumentReference, Collection<String>> members = new HashMap<>();
+            for (Object[] result : query.<Object[]>execute()) {
+                String member = (String) result[1];
+                if (StringUtils.isNotEmpty(member)) {
+                    members.computeIfAbsent(this.resolver.resolve((String) result[0], wiki), k -> new HashSet<>())
+                        .add(member);
+                }
+            }
+
+            index.loaded(members);
+        } catch (QueryException | RuntimeException e) {
+            this.wikis.remove(wiki.getName(), index);
+            index.failed();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Update the index with the members of a group document which has been created, modified or deleted.
+     *
+     * @param document the new version of the document (without any group object when it has been deleted)
+     */
+    public void update(XWikiDocument document)
+    {
+        DocumentReference documentReference = document.getDocumentReference();
+
+        // No need to update an index which does not exist yet, it will be built from the database when needed (an
+        // index being built queues the update)
+        WikiIndex index = this.wikis.get(documentReference.getWikiReference().getName());
+        if (index != null) {
+            DocumentReference groupClass = this.resolver.resolve(XWikiConstants.GROUP_CLASS, documentReference);
+            List<BaseObject> objects = document.getXObjects(groupClass);
+
+            Collection<String> members;
+            if (objects == null || objects.isEmpty()) {
+                members = Collections.emptyList();
+            } else {
+                members = new HashSet<>();
+                for (BaseObject object : objects) {
+                    if (object != null) {
+                        String member = object.getStringValue(MEMBER_FIELD);
+                        if (StringUtils.isNotEmpty(member)) {
+                            members.add(member);
+                        }
+                    }
+                }
+            }
+
+            index.set(documentReference, members);
+        }
+    }
+
+    /**
+     * Forget the index of the passed wiki, it will be rebuilt from the database the next time it's needed.
+     *
+     * @param wiki the wiki
+     */
+    public void invalidate(WikiReference wiki)
+    {
+        this.wikis.remove(wiki.getName());
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.security.internal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.bridge.event.WikiDeletedEvent;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.observation.EventListener;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import static org.mockito.Mockito.verify;
+
+/**
+ * Validate {@link GroupMembershipIndexListener}.
+ *
+ * @version $Id$
+ */
+public class GroupMembershipIndexListenerTest
+{
+    @Rule
+    public MockitoComponentMockingRule<EventListener> mocker =
+        new MockitoComponentMockingRule<>(GroupMembershipIndexListener.class);
+
+    @Test
+    public void onWikiDeleted() throws Exception
+    {
+        this.mocker.getComponentUnderTest().onEvent(new WikiDeletedEvent("wiki"), "wiki", null);
+
+        verify(this.mocker.<GroupMembershipIndex>getInstance(GroupMembershipIndex.class))
+            .invalidate(new WikiReference("wiki"));
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.security.internal;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.test.MockitoOldcoreRule;
+import com.xpn.xwiki.test.reference.ReferenceComponentList;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link GroupMembershipIndex}.
+ *
+ * @version $Id$
+ */
+@ReferenceComponentList
+public class GroupMembershipIndexTest
+{
+    public MockitoComponentMockingRule<GroupMembershipIndex> mocker =
+        new MockitoComponentMockingRule<>(GroupMembershipIndex.class);
+
+    @Rule
+    public MockitoOldcoreRule oldcore = new MockitoOldcoreRule(mocker);
+
+    private static final WikiReference WIKI = new WikiReference("wiki");
+
+    private static final DocumentReference USER_A = new DocumentReference("wiki", "XWiki", "UserA");
+
+    private static final DocumentReference USER_B = new DocumentReference("wiki", "XWiki", "UserB");
+
+    private static final DocumentReference GLOBAL_USER_A = new DocumentReference("xwiki", "XWiki", "UserA");
+
+    private static final DocumentReference GROUP_A = new DocumentReference("wiki", "XWiki", "GroupA");
+
+    private static final DocumentReference GROUP_B = new DocumentReference("wiki", "XWiki", "GroupB");
+
+    private static final DocumentReference GROUP_C = new DocumentReference("wiki", "XWiki", "GroupC");
+
+    private Query query;
+
+    @Before
+    public void before() throws Exception
+    {
+        this.query = mock(Query.class);
+        QueryManager queryManager = this.mocker.getInstance(QueryManager.class);
+        when(queryManager.createQuery(anyString(), eq(Query.HQL))).thenReturn(this.query);
+        when(this.query.<Object[]>execute()).thenReturn(Arrays.asList(new Object[] { "XWiki.GroupA", "XWiki.UserA" },
+            new Object[] { "XWiki.GroupA", "UserA" }, new Object[] { "XWiki.GroupB", "wiki:XWiki.GroupA" },
+            new Object[] { "XWiki.GroupC", "xwiki:XWiki.UserA" }));
+    }
+
+    @Test
+    public void getGroups() throws Exception
+    {
+        assertEquals(Collections.singleton(GROUP_A), this.mocker.getComponentUnderTest().getGroups(USER_A, WIKI));
+        assertEquals(Collections.singleton(GROUP_B), this.mocker.getComponentUnderTest().getGroups(GROUP_A, WIKI));
+        assertEquals(Collections.singleton(GROUP_C),
+            this.mocker.getComponentUnderTest().getGroups(GLOBAL_USER_A, WIKI));
+        assertEquals(Collections.emptySet(), this.mocker.getComponentUnderTest().getGroups(USER_B, WIKI));
+
+        // The wiki index is loaded only once
+        verify(this.query, times(1)).execute();
+        verify(this.query).setWiki("wiki");
+    }
+
+    @Test
+    public void update() throws Exception
+    {
+        // Build the index
+        this.mocker.getComponentUnderTest().getGroups(USER_A, WIKI);
+
+        XWikiDocument groupDocument = new XWikiDocument(GROUP_A);
+        BaseObject member = new BaseObject();
+        member.setXClassReference(new DocumentReference("wiki", "XWiki", "XWikiGroups"));
+        member.setStringValue("member", "XWiki.UserB");
+        groupDocument.addXObject(member);
+
+        this.mocker.getComponentUnderTest().update(groupDocument);
+
+        assertEquals(Collections.emptySet(), this.mocker.getComponentUnderTest().getGroups(USER_A, WIKI));
+        assertEquals(Collections.singleton(GROUP_A), this.mocker.getComponentUnderTest().getGroups(USER_B, WIKI));
+        assertEquals(Collections.singleton(GROUP_B), this.mocker.getComponentUnderTest().getGroups(GROUP_A, WIKI));
+
+        // Deleted group
+        this.mocker.getComponentUnderTest().update(new XWikiDocument(GROUP_A));
+
+        assertEquals(Collections.emptySet(), this.mocker.getComponentUnderTest().getGroups(USER_B, WIKI));
+    }
+
+    @Test
+    public void updateDuringBuild() throws Exception
+    {
+        // UserA is removed from GroupA while the query loading the index is running (and doesn't see the change)
+        XWikiDocument groupDocument = new XWikiDocument(GROUP_A);
+        BaseObject member = new BaseObject();
+        member.setXClassReference(new DocumentReference("wiki", "XWiki", "XWikiGroups"));
+        member.setStringValue("member", "XWiki.UserB");
+        groupDocument.addXObject(member);
+        when(this.query.<Object[]>execute()).thenAnswer(invocation -> {
+            this.mocker.getComponentUnderTest().update(groupDocument);
+
+            return Arrays.asList(new Object[] { "XWiki.GroupA", "XWiki.UserA" },
+                new Object[] { "XWiki.GroupB", "wiki:XWiki.GroupA" });
+        });
+
+        assertEquals(Collections.emptySet(), this.mocker.getComponentUnderTest().getGroups(USER_A, WIKI));
+        assertEquals(Collections.singleton(GROUP_A), this.mocker.getComponentUnderTest().getGroups(USER_B, WIKI));
+        assertEquals(Collections.singleton(GROUP_B), this.mocker.getComponentUnderTest().getGroups(GROUP_A, WIKI));
+        verify(this.query, times(1)).execute();
+    }
+
+    @Test
+    public void getGroupsWhileBuilding() throws Exception
+    {
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(this.query.<Object[]>execute()).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await();
+
+            return Arrays.<Object[]>asList(new Object[] { "XWiki.GroupA", "XWiki.UserA" });
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Collection<DocumentReference>> builder =
+                executor.submit(() -> this.mocker.getComponentUnderTest().getGroups(USER_B, WIKI));
+            queryStarted.await();
+
+            // UserA is removed from GroupA after the query read the database
+            this.mocker.getComponentUnderTest().update(new XWikiDocument(GROUP_A));
+            releaseQuery.countDown();
+
+            assertEquals(Collections.emptySet(), builder.get());
+            assertEquals(Collections.emptySet(), this.mocker.getComponentUnderTest().getGroups(USER_A, WIKI));
+            verify(this.query, times(1)).execute();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void invalidate() throws Exception
+    {
+        this.mocker.getComponentUnderTest().getGroups(USER_A, WIKI);
+
+        this.mocker.getComponentUnderTest().invalidate(WIKI);
+
+        // The wiki has been re-created without any group
+        when(this.query.<Object[]>execute()).thenReturn(Collections.emptyList());
+
+        assertEquals(Collections.emptySet(), this.mocker.getComponentUnderTest().getGroups(USER_A, WIKI));
+        verify(this.query, times(2)).execute();
+    }
+}
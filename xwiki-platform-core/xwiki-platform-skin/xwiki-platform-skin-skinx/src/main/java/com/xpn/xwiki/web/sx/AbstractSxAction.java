@@ -20,6 +20,7 @@
 package com.xpn.xwiki.web.sx;
 
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.util.Date;
 
 import javax.servlet.http.HttpServletResponse;
@@ -27,9 +28,13 @@
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
+import org.xwiki.skinx.internal.SxResponseCache;
+import org.xwiki.skinx.internal.SxResponseCache.SxResponse;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.web.Utils;
 import com.xpn.xwiki.web.XWikiAction;
 import com.xpn.xwiki.web.XWikiRequest;
 import com.xpn.xwiki.web.XWikiResponse;
@@ -62,6 +67,15 @@ public abstract class AbstractSxAction extends XWikiAction
     /** The response will be sent to the browser as a byte array in this character set. */
     private static final String RESPONSE_CHARACTER_SET = "UTF-8";
 
+    /** What http header parameter is used to identify the version of the content. */
+    private static final String ETAG_HEADER = "ETag";
+
+    /** What http header parameter is used by the client to indicate the version of the content it already has. */
+    private static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+
+    /** The separator between the various elements of the cache key of a response. */
+    private static final char VARIANT_SEPARATOR = '\u0000';
+
     /** If the user passes this parameter in the URL, we will look for the script in the jar files. */
     private static final String JAR_RESOURCE_REQUEST_PARAMETER = "resource";
 
@@ -86,8 +100,6 @@ public void renderExtension(SxSource sxSource, Extension sxType, XWikiContext co
         XWikiRequest request = context.getRequest();
         XWikiResponse response = context.getResponse();
 
-        String extensionContent = sxSource.getContent();
-
         response.setContentType(sxType.getContentType());
 
         if (sxSource.getLastModifiedDate() > 0) {
@@ -109,20 +121,78 @@ public void renderExtension(SxSource sxSource, Extension sxType, XWikiContext co
             response.setHeader(CACHE_CONTROL_HEADER, "no-cache, no-store, must-revalidate");
         }
 
-        if (BooleanUtils.toBoolean(StringUtils.defaultIfEmpty(
-            request.get(COMPRESS_SCRIPT_REQUEST_PARAMETER), "true"))) {
-            extensionContent = sxType.getCompressor().compress(extensionContent);
+        boolean compress =
+            BooleanUtils.toBoolean(StringUtils.defaultIfEmpty(request.get(COMPRESS_SCRIPT_REQUEST_PARAMETER), "true"));
+
+        // The result of Velocity and LESS can depend on anything (the request, the user, the skin, the color theme,
+        // other documents, etc.) so only the static extensions are cached
+        SxResponse sxResponse;
+        if (cachePolicy != CachePolicy.FORBID && sxSource instanceof SxDocumentSource
+            && !((SxDocumentSource) sxSource).isParsed()) {
+            sxResponse = getCachedResponse((SxDocumentSource) sxSource, sxType, compress, context);
+        } else {
+            sxResponse = createResponse(sxSource, sxType, compress);
+        }
+
+        if (cachePolicy != CachePolicy.FORBID) {
+            response.setHeader(ETAG_HEADER, sxResponse.getETag());
+
+            if (sxResponse.getETag().equals(request.getHeader(IF_NONE_MATCH_HEADER))) {
+                // The client already has this content
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
         }
 
         try {
-            response.setContentLength(extensionContent.getBytes(RESPONSE_CHARACTER_SET).length);
-            response.getOutputStream().write(extensionContent.getBytes(RESPONSE_CHARACTER_SET));
+            response.setContentLength(sxResponse.getContent().length);
+            response.getOutputStream().write(sxResponse.getContent());
         } catch (IOException ex) {
             getLogger().warn("Failed to send SX content: [{}]", ex.getMessage());
         }
 
     }
 
+    private SxResponse createResponse(SxSource sxSource, Extension sxType, boolean compress)
+    {
+        String extensionContent = sxSource.getContent();
+
+        if (compress) {
+            extensionContent = sxType.getCompressor().compress(extensionContent);
+        }
+
+        try {
+            return new SxResponse(extensionContent.getBytes(RESPONSE_CHARACTER_SET));
+        } catch (UnsupportedEncodingException e) {
+            // Should never happen, UTF-8 is always supported
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private SxResponse getCachedResponse(SxDocumentSource sxSource, Extension sxType, boolean compress,
+        XWikiContext context)
+    {
+        XWikiDocument document = sxSource.getDocument();
+
+        // The response depends on the document version, the language and the compression
+        StringBuilder variant = new StringBuilder();
+        variant.append(sxType.getClassName());
+        variant.append(VARIANT_SEPARATOR).append(document.getVersion());
+        variant.append(VARIANT_SEPARATOR).append(context.getLanguage());
+        variant.append(VARIANT_SEPARATOR).append(compress);
+        String variantKey = variant.toString();
+
+        SxResponseCache cache = Utils.getComponent(SxResponseCache.class);
+
+        SxResponse sxResponse = cache.get(document.getDocumentReference(), variantKey);
+        if (sxResponse == null) {
+            sxResponse = createResponse(sxSource, sxType, compress);
+            cache.set(document.getDocumentReference(), variantKey, sxResponse);
+        }
+
+        return sxResponse;
+    }
+
     @Override
     public String render(XWikiContext context) throws XWikiException
     {
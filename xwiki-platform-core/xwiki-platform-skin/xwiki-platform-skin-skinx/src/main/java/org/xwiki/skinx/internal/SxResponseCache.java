@@ -0,0 +1,173 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.skinx.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.ObservationManager;
+import org.xwiki.observation.event.Event;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Keep the final (aggregated and compressed) responses of the skin extension actions, so that the extension content
+ * is not evaluated and compressed again for each request. The responses are grouped by source document and removed
+ * when that document is modified or deleted.
+ *
+ * @version $Id$
+ * @since 9.7RC1
+ */
+@Component(roles = SxResponseCache.class)
+@Singleton
+public class SxResponseCache implements Initializable
+{
+    /**
+     * The maximum number of variants (language, parameters, etc.) kept for the same document. All the variants of a
+     * document are forgotten when it's reached, this protects the cache against clients generating random parameters.
+     */
+    private static final int MAX_VARIANTS = 100;
+
+    /**
+     * A response of a skin extension action.
+     *
+     * @version $Id$
+     */
+    public static final class SxResponse
+    {
+        private final byte[] content;
+
+        private final String etag;
+
+        /**
+         * @param content the content to send
+         */
+        public SxResponse(byte[] content)
+        {
+            this.content = content;
+            this.etag = '"' + DigestUtils.md5Hex(content) + '"';
+        }
+
+        /**
+         * @return the content to send
+         */
+        public byte[] getContent()
+        {
+            return this.content;
+        }
+
+        /**
+         * @return the value of the {@code ETag} header for this content
+         */
+        public String getETag()
+        {
+            return this.etag;
+        }
+    }
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private ObservationManager observation;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    private Cache<Map<String, SxResponse>> cache;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        try {
+            this.cache = this.cacheManager.createNewCache(new LRUCacheConfiguration("skinx.responses", 500, 86400));
+        } catch (CacheException e) {
+            throw new InitializationException("Failed to initialize the skin extensions cache", e);
+        }
+
+        this.observation.addListener(
+            new AbstractEventListener("skinx.responses", new DocumentUpdatedEvent(), new DocumentDeletedEvent())
+            {
+                @Override
+                public void onEvent(Event event, Object source, Object data)
+                {
+                    remove(((XWikiDocument) source).getDocumentReference());
+                }
+            });
+    }
+
+    /**
+     * @param document the document containing the extension
+     * @param variant the identifier of the variant of the response (type of extension, version, language, parameters,
+     *            etc.)
+     * @return the cached response or null if none could be found
+     */
+    public SxResponse get(DocumentReference document, String variant)
+    {
+        Map<String, SxResponse> responses = this.cache.get(this.serializer.serialize(document));
+
+        return responses != null ? responses.get(variant) : null;
+    }
+
+    /**
+     * @param document the document containing the extension
+     * @param variant the identifier of the variant of the response (type of extension, version, language, parameters,
+     *            etc.)
+     * @param response the response to remember
+     */
+    public void set(DocumentReference document, String variant, SxResponse response)
+    {
+        String key = this.serializer.serialize(document);
+
+        Map<String, SxResponse> responses = this.cache.get(key);
+        if (responses == null || responses.size() >= MAX_VARIANTS) {
+            responses = new ConcurrentHashMap<>();
+            this.cache.set(key, responses);
+        }
+
+        responses.put(variant, response);
+    }
+
+    /**
+     * Forget all the responses associated with the passed document.
+     *
+     * @param document the document containing the extensions
+     */
+    public void remove(DocumentReference document)
+    {
+        this.cache.remove(this.serializer.serialize(document));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.web.sx;
+
+import javax.servlet.ServletOutputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.skinx.internal.SxResponseCache;
+import org.xwiki.skinx.internal.SxResponseCache.SxResponse;
+import org.xwiki.test.mockito.MockitoComponentManagerRule;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.web.Utils;
+import com.xpn.xwiki.web.XWikiRequest;
+import com.xpn.xwiki.web.XWikiResponse;
+import com.xpn.xwiki.web.sx.SxSource.CachePolicy;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link AbstractSxAction}.
+ *
+ * @version $Id$
+ */
+public class AbstractSxActionTest
+{
+    @Rule
+    public MockitoComponentManagerRule mocker = new MockitoComponentManagerRule();
+
+    private AbstractSxAction action = new AbstractSxAction()
+    {
+        @Override
+        protected Logger getLogger()
+        {
+            return mock(Logger.class);
+        }
+    };
+
+    private SxResponseCache cache;
+
+    private XWikiContext context;
+
+    private XWikiResponse response;
+
+    private ServletOutputStream output;
+
+    private SxDocumentSource source;
+
+    private Extension extension;
+
+    private final DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+
+    @Before
+    public void before() throws Exception
+    {
+        Utils.setComponentManager(this.mocker);
+
+        this.cache = this.mocker.registerMockComponent(SxResponseCache.class);
+
+        this.context = new XWikiContext();
+        this.context.setRequest(mock(XWikiRequest.class));
+        this.response = mock(XWikiResponse.class);
+        this.output = mock(ServletOutputStream.class);
+        when(this.response.getOutputStream()).thenReturn(this.output);
+        this.context.setResponse(this.response);
+
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getDocumentReference()).thenReturn(this.documentReference);
+        when(document.getVersion()).thenReturn("1.1");
+
+        this.source = mock(SxDocumentSource.class);
+        when(this.source.getDocument()).thenReturn(document);
+        when(this.source.getCachePolicy()).thenReturn(CachePolicy.LONG);
+        when(this.source.getContent()).thenReturn("content");
+
+        this.extension = mock(Extension.class);
+        when(this.extension.getClassName()).thenReturn("XWiki.StyleSheetExtension");
+        when(this.extension.getContentType()).thenReturn("text/css; charset=UTF-8");
+        when(this.context.getRequest().get("minify")).thenReturn("false");
+    }
+
+    @Test
+    public void renderStaticExtension() throws Exception
+    {
+        this.action.renderExtension(this.source, this.extension, this.context);
+
+        verify(this.cache).set(eq(this.documentReference), any(), any(SxResponse.class));
+        verify(this.output).write("content".getBytes("UTF-8"));
+    }
+
+    @Test
+    public void renderCachedStaticExtension() throws Exception
+    {
+        when(this.cache.get(eq(this.documentReference), any())).thenReturn(new SxResponse("cached".getBytes("UTF-8")));
+
+        this.action.renderExtension(this.source, this.extension, this.context);
+
+        verify(this.source, never()).getContent();
+        verify(this.output).write("cached".getBytes("UTF-8"));
+    }
+
+    @Test
+    public void renderParsedExtension() throws Exception
+    {
+        // The result of Velocity or LESS depends on the skin, the color theme, etc.
+        when(this.source.isParsed()).thenReturn(true);
+
+        this.action.renderExtension(this.source, this.extension, this.context);
+
+        verifyZeroInteractions(this.cache);
+        verify(this.output).write("content".getBytes("UTF-8"));
+    }
+
+    @Test
+    public void renderNotModifiedExtension() throws Exception
+    {
+        SxResponse sxResponse = new SxResponse("content".getBytes("UTF-8"));
+        when(this.context.getRequest().getHeader("If-None-Match")).thenReturn(sxResponse.getETag());
+
+        this.action.renderExtension(this.source, this.extension, this.context);
+
+        verify(this.response).setStatus(304);
+        verify(this.output, never()).write(any(byte[].class));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.skinx.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.CacheConfiguration;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.observation.EventListener;
+import org.xwiki.observation.ObservationManager;
+import org.xwiki.skinx.internal.SxResponseCache.SxResponse;
+import org.xwiki.test.mockito.MockitoComponentMockingRule;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link SxResponseCache}.
+ *
+ * @version $Id$
+ */
+public class SxResponseCacheTest
+{
+    @Rule
+    public MockitoComponentMockingRule<SxResponseCache> mocker =
+        new MockitoComponentMockingRule<>(SxResponseCache.class);
+
+    private final Map<String, Map<String, SxResponse>> cacheContent = new HashMap<>();
+
+    private final DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+
+    @Before
+    public void before() throws Exception
+    {
+        Cache<Map<String, SxResponse>> cache = mock(Cache.class);
+        when(cache.get(anyString())).then(invocation -> this.cacheContent.get(invocation.getArgument(0)));
+        doAnswer(invocation -> this.cacheContent.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(cache).set(anyString(), any());
+        doAnswer(invocation -> this.cacheContent.remove(invocation.getArgument(0))).when(cache).remove(anyString());
+
+        CacheManager cacheManager = this.mocker.getInstance(CacheManager.class);
+        when(cacheManager.<Map<String, SxResponse>>createNewCache(any(CacheConfiguration.class))).thenReturn(cache);
+
+        EntityReferenceSerializer<String> serializer = this.mocker.getInstance(EntityReferenceSerializer.TYPE_STRING);
+        when(serializer.serialize(this.documentReference)).thenReturn("wiki:Space.Page");
+    }
+
+    @Test
+    public void setAndGet() throws Exception
+    {
+        SxResponse response = new SxResponse("content".getBytes("UTF-8"));
+
+        this.mocker.getComponentUnderTest().set(this.documentReference, "variant", response);
+
+        assertSame(response, this.mocker.getComponentUnderTest().get(this.documentReference, "variant"));
+        assertNull(this.mocker.getComponentUnderTest().get(this.documentReference, "other"));
+        assertNotNull(response.getETag());
+    }
+
+    @Test
+    public void setTooManyVariants() throws Exception
+    {
+        SxResponse response = new SxResponse("content".getBytes("UTF-8"));
+
+        for (int i = 0; i < 100; i++) {
+            this.mocker.getComponentUnderTest().set(this.documentReference, "variant" + i, response);
+        }
+        assertSame(response, this.mocker.getComponentUnderTest().get(this.documentReference, "variant0"));
+
+        // All the variants are forgotten when the limit is reached
+        this.mocker.getComponentUnderTest().set(this.documentReference, "variant100", response);
+
+        assertNull(this.mocker.getComponentUnderTest().get(this.documentReference, "variant0"));
+        assertSame(response, this.mocker.getComponentUnderTest().get(this.documentReference, "variant100"));
+    }
+
+    @Test
+    public void removeWhenDocumentIsUpdated() throws Exception
+    {
+        SxResponse response = new SxResponse("content".getBytes("UTF-8"));
+        this.mocker.getComponentUnderTest().set(this.documentReference, "variant", response);
+
+        ArgumentCaptor<EventListener> listenerCaptor = ArgumentCaptor.forClass(EventListener.class);
+        verify(this.mocker.<ObservationManager>getInstance(ObservationManager.class))
+            .addListener(listenerCaptor.capture());
+
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getDocumentReference()).thenReturn(this.documentReference);
+        listenerCaptor.getValue().onEvent(new DocumentUpdatedEvent(this.documentReference), document, null);
+
+        assertNull(this.mocker.getComponentUnderTest().get(this.documentReference, "variant"));
+    }
+}
@@ -23,6 +23,11 @@
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.AutoCloseInputStream;
@@ -108,6 +113,32 @@ public InputStream getContentInputStream()
         }
     }
 
+    @Override
+    public long writeContent(OutputStream out, long start, long length) throws IOException
+    {
+        if (this.getFileItem() != null) {
+            return super.writeContent(out, start, length);
+        }
+
+        // Let the system transfer the file content directly to the target when it can (e.g. to a socket)
+        try (FileChannel channel = FileChannel.open(this.storageFile.toPath(), StandardOpenOption.READ)) {
+            // Not closed since it would close the passed stream
+            WritableByteChannel target = Channels.newChannel(out);
+
+            long end = Math.min(start + length, channel.size());
+            long position = start;
+            while (position < end) {
+                long count = channel.transferTo(position, end - position, target);
+                if (count <= 0) {
+                    break;
+                }
+                position += count;
+            }
+
+            return Math.max(position - start, 0);
+        }
+    }
+
     @Override
     public long getLongSize()
     {
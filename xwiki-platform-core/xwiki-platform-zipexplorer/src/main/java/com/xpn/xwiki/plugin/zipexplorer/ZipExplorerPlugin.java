@@ -19,7 +19,6 @@
  */
 package com.xpn.xwiki.plugin.zipexplorer;
 
-import java.io.ByteArrayInputStream;
 import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
@@ -182,7 +181,7 @@ public List<String> getFileList(Document document, String attachmentName, XWikiC
 
         InputStream stream = null;
         try {
-            stream = new ByteArrayInputStream(attachment.getContent());
+            stream = new BufferedInputStream(attachment.getContentInputStream());
 
             if (isZipFile(stream)) {
                 ZipInputStream zis = new ZipInputStream(stream);
@@ -191,10 +190,10 @@ public List<String> getFileList(Document document, String attachmentName, XWikiC
                     zipList.add(entry.getName());
                 }
             }
-        } catch (XWikiException e) {
-            e.printStackTrace();
         } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            IOUtils.closeQuietly(stream);
         }
         return zipList;
     }